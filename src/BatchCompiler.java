@@ -0,0 +1,166 @@
+import midend.CompilationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * 批量编译：输入是目录（递归查找 testfile*.txt 和 *.sy）或清单文件（每行一个源文件路径），
+ * 每个源文件在各自的 CompilationContext 中编译，输出写到 输出目录/相对路径去掉扩展名/ 下。
+ */
+public class BatchCompiler {
+    private static class Result {
+        private final Path source;
+        private final Path outDir;
+        private long nanos;
+        private Throwable error;
+
+        private Result(Path source, Path outDir) {
+            this.source = source;
+            this.outDir = outDir;
+        }
+    }
+
+    public static void main(String[] args) {
+        Path input = null;
+        Path outRoot = Path.of("batch_out");
+        int jobs = Runtime.getRuntime().availableProcessors();
+        List<String> optionArgs = new ArrayList<>();
+        boolean valid = true;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-o" -> outRoot = Path.of(args[++i]);
+                case "-j" -> jobs = Integer.parseInt(args[++i]);
+                default -> {
+                    if (args[i].startsWith("-")) {
+                        optionArgs.add(args[i]);
+                    } else if (input == null) {
+                        input = Path.of(args[i]);
+                    } else {
+                        System.err.println("more than one input: " + input + ", " + args[i]);
+                        valid = false;
+                    }
+                }
+            }
+        }
+        CompileOptions options = null;
+        try {
+            options = CompileOptions.parse(optionArgs);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            valid = false;
+        }
+        if (!valid || input == null || jobs < 1) {
+            System.err.println("usage: java Compiler --batch <dir|manifest> [-o outdir] [-j threads] "
+                    + CompileOptions.USAGE + " " + CompileOptions.CACHE_USAGE);
+            System.exit(2);
+        }
+        try {
+            List<Result> results = collect(input, outRoot);
+            int failed = run(results, jobs, options);
+            System.exit(failed == 0 ? 0 : 1);
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+            System.exit(2);
+        }
+    }
+
+    // 找出所有要编译的源文件并确定各自的输出目录
+    private static List<Result> collect(Path input, Path outRoot) throws IOException {
+        List<Path> sources = new ArrayList<>();
+        Path base;
+        if (Files.isDirectory(input)) {
+            base = input;
+            try (Stream<Path> walk = Files.walk(input)) {
+                walk.filter(Files::isRegularFile)
+                        .filter(BatchCompiler::isSourceFile)
+                        .sorted()
+                        .forEach(sources::add);
+            }
+        } else {
+            // 清单中的相对路径以清单所在目录为基准，空行和 # 开头的行忽略
+            base = input.toAbsolutePath().getParent();
+            for (String line : Files.readAllLines(input)) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    sources.add(base.resolve(line).normalize());
+                }
+            }
+        }
+        List<Result> results = new ArrayList<>();
+        for (Path source : sources) {
+            Path relative = source.toAbsolutePath().startsWith(base.toAbsolutePath())
+                    ? base.toAbsolutePath().relativize(source.toAbsolutePath())
+                    : source.getFileName();
+            results.add(new Result(source, outRoot.resolve(stripExtension(relative.toString()))));
+        }
+        return results;
+    }
+
+    private static boolean isSourceFile(Path path) {
+        String name = path.getFileName().toString();
+        return name.endsWith(".sy") || (name.startsWith("testfile") && name.endsWith(".txt"));
+    }
+
+    private static String stripExtension(String path) {
+        int dot = path.lastIndexOf('.');
+        return dot > path.lastIndexOf('/') ? path.substring(0, dot) : path;
+    }
+
+    // 在固定大小的线程池上编译全部文件，按输入顺序输出每个文件的耗时，返回失败的文件数
+    private static int run(List<Result> results, int jobs, CompileOptions options) throws InterruptedException {
+        AtomicInteger threadId = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(jobs, task ->
+                new Thread(null, task, "compile-" + threadId.incrementAndGet(), Compiler.THREAD_STACK_SIZE));
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (Result result : results) {
+            futures.add(pool.submit(() -> compileOne(result, options)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (Exception e) {
+                // compileOne 自己记录错误，这里不会发生
+                e.printStackTrace();
+            }
+        }
+        pool.shutdown();
+        long wall = System.nanoTime() - start;
+
+        int failed = 0;
+        long busy = 0;
+        for (Result result : results) {
+            busy += result.nanos;
+            String status = result.error == null ? "ok" : "FAILED (" + result.error + ")";
+            if (result.error != null) {
+                failed++;
+            }
+            System.out.printf("%10.2f ms  %s  %s%n", result.nanos / 1e6, result.source, status);
+        }
+        double seconds = wall / 1e9;
+        System.out.printf("compiled %d files (%d failed) in %.3f s on %d threads: %.1f files/s, %.2f ms/file%n",
+                results.size(), failed, seconds, jobs, results.size() / seconds,
+                results.isEmpty() ? 0.0 : busy / 1e6 / results.size());
+        return failed;
+    }
+
+    private static void compileOne(Result result, CompileOptions options) {
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(result.outDir);
+            Compiler.compile(result.source.toString(), result.outDir, new CompilationContext(), options);
+        } catch (Throwable e) {
+            // 包括深递归导致的 StackOverflowError，单个文件失败不影响其他文件
+            result.error = e;
+        }
+        result.nanos = System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,333 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * 磁盘编译缓存：以 源文件内容 + 影响输出的选项 + 编译器版本 的 SHA-256 为键，
+ * 命中时直接恢复上次编译写出的全部文件（llvm_ir.txt、mips.txt、错误输出等），不再编译。
+ * <p>
+ * 目录结构：objects/前两位/键 为条目，每个条目一个文件；tmp/ 放写了一半的条目。
+ * 多个编译进程可以共用一个缓存目录：条目先写到 tmp/ 再原子重命名发布，读者总是看到完整条目；
+ * 命中时刷新条目的修改时间作为 LRU 时钟。evict.lock 中记着缓存总大小的估计值，每次写入在锁内加上新条目的大小，
+ * 估计值超过上限时才扫描 objects/ 按修改时间淘汰，并用扫描得到的实际大小校正估计值，平时写入不用遍历目录。
+ * 估计值只会偏大 (覆盖同名条目、删除损坏条目都不减，并发写入时扫描可能已经数过稍后才计入的条目)，
+ * 偏大只是让下一次扫描提前。
+ * 缓存出错一律当作未命中处理，不影响编译本身。
+ */
+public class CompileCache {
+    private static final int ENTRY_MAGIC = 0x53594343; // "SYCC"
+    private static final String KEY_VERSION = "sysy-cache-1";
+    // 淘汰到上限的这个比例以下，之后再写入约上限的 10% 估计值才会重新超过上限、再次扫描目录
+    private static final double EVICT_TARGET = 0.9;
+    // 同一进程内的线程不能同时持有 evict.lock 的文件锁，先在进程内互斥
+    private static final Object LOCK = new Object();
+    // 超过这个时间的 tmp 文件视为崩溃进程留下的残留
+    private static final long STALE_TMP_MILLIS = 60L * 60 * 1000;
+
+    // 编译可能写出的全部文件名，命中时删掉条目中没有的那些，不留下之前编译的输出
+    private static final List<String> OUTPUT_NAMES = List.of("llvm_ir.txt", "llvm_ir.bin", "mips.txt",
+            "parser.txt", "ParserError.txt", "VisitError.txt");
+
+    private static String compilerVersion;
+
+    private final Path objects;
+    private final Path tmp;
+    private final Path lockFile;
+    private final long maxBytes;
+
+    public CompileCache(Path dir, long maxBytes) {
+        this.objects = dir.resolve("objects");
+        this.tmp = dir.resolve("tmp");
+        this.lockFile = dir.resolve("evict.lock");
+        this.maxBytes = maxBytes;
+    }
+
+    // 按选项打开缓存，没有指定 --cache、要统计编译开销或无法确定编译器版本时返回 null
+    public static CompileCache open(CompileOptions options) {
+        if (options.getCacheDir() == null || options.isTimePasses() || compilerVersion() == null) {
+            return null;
+        }
+        return new CompileCache(options.getCacheDir(), options.getCacheMaxBytes());
+    }
+
+    public String key(byte[] source, CompileOptions options) {
+        MessageDigest digest = sha256();
+        digest.update((KEY_VERSION + "\0" + compilerVersion() + "\0" + options.outputKey() + "\0")
+                .getBytes(StandardCharsets.UTF_8));
+        digest.update(source);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * 命中时把条目中的文件写到 outDir 并返回 true，outDir 中条目没有的输出文件先删除；未命中或条目损坏返回 false
+     */
+    public boolean restore(String key, Path outDir) {
+        Path entry = entryPath(key);
+        byte[] data;
+        try {
+            data = Files.readAllBytes(entry);
+        } catch (IOException e) {
+            return false;
+        }
+        List<String> names = new ArrayList<>();
+        List<byte[]> contents = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readInt() != ENTRY_MAGIC) {
+                throw new IOException("bad cache entry");
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                names.add(in.readUTF());
+                byte[] content = new byte[in.readInt()];
+                in.readFully(content);
+                contents.add(content);
+            }
+        } catch (IOException e) {
+            // 损坏的条目删掉，之后重新编译写入
+            deleteQuietly(entry);
+            return false;
+        }
+        try {
+            for (String name : OUTPUT_NAMES) {
+                if (!names.contains(name)) {
+                    Files.deleteIfExists(outDir.resolve(name));
+                }
+            }
+            for (int i = 0; i < names.size(); i++) {
+                Files.write(outDir.resolve(names.get(i)), contents.get(i));
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+            // 条目恰好被其他进程淘汰，输出已经恢复，不影响结果
+        }
+        return true;
+    }
+
+    /**
+     * 把一次编译写出的文件存为条目，之后按需淘汰
+     */
+    public void store(String key, List<Path> outputs) {
+        Path entry = entryPath(key);
+        Path temp = null;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(ENTRY_MAGIC);
+                out.writeInt(outputs.size());
+                for (Path output : outputs) {
+                    byte[] content = Files.readAllBytes(output);
+                    out.writeUTF(output.getFileName().toString());
+                    out.writeInt(content.length);
+                    out.write(content);
+                }
+            }
+            Files.createDirectories(tmp);
+            Files.createDirectories(entry.getParent());
+            temp = tmp.resolve(key + "." + UUID.randomUUID() + ".tmp");
+            Files.write(temp, bytes.toByteArray());
+            long size = Files.size(temp);
+            try {
+                Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+            temp = null;
+            account(size);
+        } catch (IOException e) {
+            System.err.println("compile cache: " + e);
+        } finally {
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+        }
+    }
+
+    // 把新条目的大小计入估计值，估计值未知或超过上限时扫描目录淘汰；整个过程持有 evict.lock
+    private void account(long added) throws IOException {
+        synchronized (LOCK) {
+            try (FileChannel channel = FileChannel.open(lockFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    long estimate = readEstimate(channel);
+                    if (estimate >= 0 && estimate + added <= maxBytes) {
+                        writeEstimate(channel, estimate + added);
+                        return;
+                    }
+                    writeEstimate(channel, evict());
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+    }
+
+    // evict.lock 开头的 8 个字节是估计值，文件是空的 (新缓存或旧版本的缓存) 时返回 -1
+    private static long readEstimate(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                return -1;
+            }
+        }
+        return buffer.flip().getLong();
+    }
+
+    private static void writeEstimate(FileChannel channel, long estimate) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(estimate).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, buffer.position());
+        }
+    }
+
+    // 扫描全部条目，总大小超过上限时按修改时间从旧到新删除，返回剩下的总大小；调用者持有 evict.lock
+    private long evict() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        List<BasicFileAttributes> attrs = new ArrayList<>();
+        long total = 0;
+        for (Path shard : list(objects)) {
+            for (Path path : list(shard)) {
+                BasicFileAttributes attr = readAttributes(path);
+                if (attr != null && attr.isRegularFile()) {
+                    paths.add(path);
+                    attrs.add(attr);
+                    total += attr.size();
+                }
+            }
+        }
+        if (total > maxBytes) {
+            Integer[] order = new Integer[paths.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparing(i -> attrs.get(i).lastModifiedTime()));
+            long target = (long) (maxBytes * EVICT_TARGET);
+            for (int i = 0; i < order.length && total > target; i++) {
+                deleteQuietly(paths.get(order[i]));
+                total -= attrs.get(order[i]).size();
+            }
+        }
+        removeStaleTemps();
+        return total;
+    }
+
+    private void removeStaleTemps() throws IOException {
+        long now = System.currentTimeMillis();
+        for (Path path : list(tmp)) {
+            BasicFileAttributes attr = readAttributes(path);
+            if (attr != null && now - attr.lastModifiedTime().toMillis() > STALE_TMP_MILLIS) {
+                deleteQuietly(path);
+            }
+        }
+    }
+
+    // 列出目录内容，dir 不存在或不是目录时返回空
+    private static List<Path> list(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        List<Path> result = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            stream.forEach(result::add);
+        }
+        return result;
+    }
+
+    private static BasicFileAttributes readAttributes(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // 其他进程可能正在读或已删除，下次淘汰再处理
+        }
+    }
+
+    private Path entryPath(String key) {
+        return objects.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 编译器版本：编译器所在 jar 的内容哈希，或类目录下全部 .class 文件的哈希，
+     * 编译器重新构建后旧条目自然失效。每个进程只计算一次
+     */
+    static synchronized String compilerVersion() {
+        if (compilerVersion == null) {
+            try {
+                CodeSource source = CompileCache.class.getProtectionDomain().getCodeSource();
+                if (source == null) {
+                    return null;
+                }
+                Path location = Path.of(source.getLocation().toURI());
+                MessageDigest digest = sha256();
+                if (Files.isDirectory(location)) {
+                    List<Path> classes;
+                    try (Stream<Path> walk = Files.walk(location)) {
+                        classes = walk.filter(p -> p.toString().endsWith(".class")).sorted().toList();
+                    }
+                    for (Path path : classes) {
+                        digest.update(location.relativize(path).toString().getBytes(StandardCharsets.UTF_8));
+                        digest.update((byte) 0);
+                        digest.update(Files.readAllBytes(path));
+                    }
+                } else {
+                    try (InputStream in = Files.newInputStream(location)) {
+                        byte[] buffer = new byte[1 << 16];
+                        int n;
+                        while ((n = in.read(buffer)) > 0) {
+                            digest.update(ByteBuffer.wrap(buffer, 0, n));
+                        }
+                    }
+                }
+                compilerVersion = HexFormat.of().formatHex(digest.digest());
+            } catch (IOException | URISyntaxException | SecurityException e) {
+                return null;
+            }
+        }
+        return compilerVersion;
+    }
+}
@@ -0,0 +1,85 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 编译服务的客户端，用法与命令行一致：把当前目录的 testfile.txt 发给服务端，
+ * 再把返回的 llvm_ir.txt、mips.txt 和错误文件写回当前目录。
+ */
+public class CompileClient {
+    public static void main(String[] args) {
+        int port = CompileServer.DEFAULT_PORT;
+        List<String> options = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-p")) {
+                port = Integer.parseInt(args[++i]);
+            } else {
+                options.add(args[i]);
+            }
+        }
+        try {
+            int status = request(port, options, Path.of(CompileServer.SOURCE_FILE), Path.of(""));
+            if (status == 2) {
+                // 服务端拒绝了选项
+                System.err.println("usage: java Compiler --client [-p port] " + CompileOptions.USAGE);
+            }
+            System.exit(status);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(2);
+        }
+    }
+
+    // 发送一次编译请求，输出文件写到 outDir 下，返回服务端的状态码
+    public static int request(int port, List<String> options, Path source, Path outDir) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            out.writeInt(options.size());
+            for (String option : options) {
+                out.writeUTF(option);
+            }
+            CompileServer.writeBytes(out, Files.readAllBytes(source));
+            out.flush();
+
+            int status = in.readInt();
+            String message = new String(CompileServer.readBytes(in), StandardCharsets.UTF_8);
+            int fileCount = in.readInt();
+            for (int i = 0; i < fileCount; i++) {
+                String name = in.readUTF();
+                byte[] content = CompileServer.readBytes(in);
+                if (!isPlainFileName(name)) {
+                    throw new IOException("bad output file name from server: " + name);
+                }
+                Files.write(outDir.resolve(name), content);
+            }
+            if (!message.isEmpty()) {
+                System.err.print(message);
+            }
+            return status;
+        }
+    }
+
+    // 只接受不带目录的文件名，不让服务端写到 outDir 之外
+    private static boolean isPlainFileName(String name) {
+        if (name.isEmpty() || name.equals(".") || name.equals("..")) {
+            return false;
+        }
+        try {
+            Path fileName = Path.of(name).getFileName();
+            return fileName != null && fileName.toString().equals(name);
+        } catch (InvalidPathException e) {
+            return false;
+        }
+    }
+}
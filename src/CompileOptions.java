@@ -0,0 +1,149 @@
+import midend.Optimization.PassManager;
+import midend.OptimizationLevel;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 单次编译的选项，命令行、批量模式和编译服务共用同一套写法：
+ * -O0 到 -O3 选择优化级别（默认 -O3，见 OptimizationLevel），--budget-ms=N 给编译 N 毫秒的时间预算，
+ * 超出后只运行便宜的遍，--parse-tree 输出 parser.txt，--emit-ir-bin 另外输出二进制 IR llvm_ir.bin，
+ * --cache=目录 启用磁盘编译缓存，--cache-max-mb=N 设置缓存大小上限（默认 256MB），
+ * --passes=描述 替换优化级别的中端流水线，如 --passes=mem2reg,fix(const-prop,gvn,dce)（写法见 PassManager），
+ * --time-passes 在标准错误输出按遍统计的耗时、分配和 IR 规模表格，--time-passes=txt 把表格写到 pass_stats.txt，
+ * --time-passes=json 改为写出 pass_stats.json
+ */
+public class CompileOptions {
+    private static final long DEFAULT_CACHE_MAX_MB = 256;
+
+    private OptimizationLevel level = OptimizationLevel.O3;
+    private long budgetMillis = 0;
+    private boolean parseTree = false;
+    private boolean emitIrBinary = false;
+    private Path cacheDir = null;
+    private long cacheMaxBytes = DEFAULT_CACHE_MAX_MB << 20;
+    // null 表示使用优化级别的流水线
+    private String passes = null;
+    // null 表示不统计，否则为 "table"、"txt" 或 "json"
+    private String timePasses = null;
+
+    // 用法说明中的选项部分；编译服务的请求不接受缓存选项，单独列出
+    public static final String USAGE = "[-O0|-O1|-O2|-O3] [--budget-ms=n] [--parse-tree] [--emit-ir-bin] [--passes=spec]"
+            + " [--time-passes[=txt|json]]";
+    public static final String CACHE_USAGE = "[--cache=dir] [--cache-max-mb=n]";
+
+    // 不认识的选项或格式错误的值抛出 IllegalArgumentException，消息可以直接给用户看
+    public static CompileOptions parse(List<String> args) {
+        CompileOptions options = new CompileOptions();
+        for (String arg : args) {
+            boolean known;
+            try {
+                known = options.accept(arg);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("bad option value: " + arg);
+            }
+            if (!known) {
+                throw new IllegalArgumentException("unknown option: " + arg);
+            }
+        }
+        return options;
+    }
+
+    // 识别一个选项，不认识的返回 false
+    public boolean accept(String arg) {
+        switch (arg) {
+            case "-O0" -> level = OptimizationLevel.O0;
+            case "-O1" -> level = OptimizationLevel.O1;
+            case "-O2" -> level = OptimizationLevel.O2;
+            case "-O3" -> level = OptimizationLevel.O3;
+            case "--parse-tree" -> parseTree = true;
+            case "--emit-ir-bin" -> emitIrBinary = true;
+            case "--time-passes", "--time-passes=table" -> timePasses = "table";
+            case "--time-passes=txt" -> timePasses = "txt";
+            case "--time-passes=json" -> timePasses = "json";
+            default -> {
+                if (arg.startsWith("--cache=")) {
+                    cacheDir = Path.of(arg.substring("--cache=".length()));
+                } else if (arg.startsWith("--cache-max-mb=")) {
+                    cacheMaxBytes = Long.parseLong(arg.substring("--cache-max-mb=".length())) << 20;
+                } else if (arg.startsWith("--budget-ms=")) {
+                    budgetMillis = Long.parseLong(arg.substring("--budget-ms=".length()));
+                } else if (arg.startsWith("--passes=")) {
+                    passes = arg.substring("--passes=".length());
+                    PassManager.validate(passes);
+                } else {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // 编译服务的缓存由服务启动时的选项决定，请求中不接受这两个选项
+    public static boolean isCacheOption(String arg) {
+        return arg.startsWith("--cache=") || arg.startsWith("--cache-max-mb=");
+    }
+
+    public void setCache(Path cacheDir, long cacheMaxBytes) {
+        this.cacheDir = cacheDir;
+        this.cacheMaxBytes = cacheMaxBytes;
+    }
+
+    // 影响输出内容的选项，作为编译缓存键的一部分；缓存本身的选项不影响输出，不计入
+    public String outputKey() {
+        return level + (parseTree ? " --parse-tree" : "") + (emitIrBinary ? " --emit-ir-bin" : "")
+                + (budgetMillis > 0 ? " --budget-ms=" + budgetMillis : "")
+                + (passes != null ? " --passes=" + passes : "");
+    }
+
+    public OptimizationLevel getLevel() {
+        return level;
+    }
+
+    public boolean isOptimize() {
+        return level.isOptimize();
+    }
+
+    public long getBudgetMillis() {
+        return budgetMillis;
+    }
+
+    public String getPasses() {
+        return passes != null ? passes : level.getPipeline();
+    }
+
+    public boolean isTimePasses() {
+        return timePasses != null;
+    }
+
+    public boolean isTimePassesJson() {
+        return "json".equals(timePasses);
+    }
+
+    public boolean isTimePassesTxt() {
+        return "txt".equals(timePasses);
+    }
+
+    // 标准错误输出对调用者不可见时 (如编译服务)，把表格改为写到 pass_stats.txt
+    public void timePassesToFile() {
+        if ("table".equals(timePasses)) {
+            timePasses = "txt";
+        }
+    }
+
+    public boolean isParseTree() {
+        return parseTree;
+    }
+
+    public boolean isEmitIrBinary() {
+        return emitIrBinary;
+    }
+
+    public Path getCacheDir() {
+        return cacheDir;
+    }
+
+    public long getCacheMaxBytes() {
+        return cacheMaxBytes;
+    }
+}
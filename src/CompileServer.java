@@ -0,0 +1,172 @@
+import midend.CompilationContext;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * 常驻编译服务：监听本机回环地址，每个连接处理一次编译请求，JVM 和 JIT 在请求之间保持预热。
+ * 请求：int 选项个数，各选项（UTF），源码（int 长度 + 字节）
+ * 响应：int 状态（0 成功），错误信息（int 长度 + 字节），int 文件个数，各文件名（UTF）和内容（int 长度 + 字节）
+ * 每个请求使用新的 CompilationContext，符号表、IrBuilder 的命名计数等状态互不影响。
+ * 请求由固定数量的线程处理 (-j，默认为处理器个数)，长度字段超过上限的请求直接断开。
+ * 编译缓存只能在启动服务时用 --cache=目录、--cache-max-mb=N 指定，对所有请求生效；请求中带缓存选项时拒绝编译。
+ */
+public class CompileServer {
+    static final int DEFAULT_PORT = 7420;
+    static final String SOURCE_FILE = "testfile.txt";
+    // 单个源码或输出文件的长度上限，防止按对方给出的长度分配内存
+    static final int MAX_MESSAGE_BYTES = 64 << 20;
+    private static final int MAX_OPTIONS = 64;
+
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        CompileOptions cacheOptions = new CompileOptions();
+        boolean valid = true;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-p" -> port = Integer.parseInt(args[++i]);
+                case "-j" -> threads = Integer.parseInt(args[++i]);
+                default -> {
+                    if (CompileOptions.isCacheOption(args[i])) {
+                        cacheOptions.accept(args[i]);
+                    } else {
+                        System.err.println("unknown option: " + args[i]);
+                        valid = false;
+                    }
+                }
+            }
+        }
+        if (!valid || threads < 1) {
+            System.err.println("usage: java Compiler --server [-p port] [-j threads] " + CompileOptions.CACHE_USAGE);
+            System.exit(2);
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, task -> new Thread(null, task,
+                "compile-server-" + threadCount.incrementAndGet(), Compiler.THREAD_STACK_SIZE));
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.out.println("compile server listening on " + server.getLocalSocketAddress());
+            while (true) {
+                Socket socket = server.accept();
+                pool.execute(() -> handle(socket, cacheOptions));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(2);
+        }
+    }
+
+    private static void handle(Socket socket, CompileOptions cacheOptions) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            int optionCount = in.readInt();
+            if (optionCount < 0 || optionCount > MAX_OPTIONS) {
+                throw new IOException("bad option count: " + optionCount);
+            }
+            List<String> options = new ArrayList<>();
+            for (int i = 0; i < optionCount; i++) {
+                options.add(in.readUTF());
+            }
+            byte[] source = readBytes(in);
+
+            // 每个请求在独立的临时目录中编译，输出文件和命令行运行时完全一致
+            Path dir = Files.createTempDirectory("sysy-");
+            try {
+                int status = 0;
+                String message = "";
+                CompileOptions compileOptions = null;
+                try {
+                    compileOptions = parseOptions(options, cacheOptions);
+                } catch (IllegalArgumentException e) {
+                    // 选项有误，和命令行一样只返回原因，状态为 2
+                    status = 2;
+                    message = e.getMessage() + "\n";
+                }
+                if (compileOptions != null) {
+                    try {
+                        Path testfile = dir.resolve(SOURCE_FILE);
+                        Files.write(testfile, source);
+                        Compiler.compile(testfile.toString(), dir, new CompilationContext(), compileOptions);
+                    } catch (Throwable e) {
+                        status = 1;
+                        StringWriter trace = new StringWriter();
+                        e.printStackTrace(new PrintWriter(trace));
+                        message = trace.toString();
+                    }
+                }
+                List<Path> outputs = new ArrayList<>();
+                try (Stream<Path> files = Files.list(dir)) {
+                    files.filter(file -> !file.getFileName().toString().equals(SOURCE_FILE))
+                            .sorted()
+                            .forEach(outputs::add);
+                }
+                out.writeInt(status);
+                writeBytes(out, message.getBytes(StandardCharsets.UTF_8));
+                out.writeInt(outputs.size());
+                for (Path file : outputs) {
+                    out.writeUTF(file.getFileName().toString());
+                    writeBytes(out, Files.readAllBytes(file));
+                }
+            } finally {
+                deleteRecursively(dir);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static CompileOptions parseOptions(List<String> options, CompileOptions cacheOptions) {
+        for (String option : options) {
+            if (CompileOptions.isCacheOption(option)) {
+                throw new IllegalArgumentException("cache options are set when the server starts: " + option);
+            }
+        }
+        CompileOptions compileOptions = CompileOptions.parse(options);
+        compileOptions.setCache(cacheOptions.getCacheDir(), cacheOptions.getCacheMaxBytes());
+        // 服务的标准错误输出客户端看不到，统计表格写成文件随其他输出一起返回
+        compileOptions.timePassesToFile();
+        return compileOptions;
+    }
+
+    static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_MESSAGE_BYTES) {
+            throw new IOException("bad message length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -1,64 +1,199 @@
 import backend.Backend;
-import frontend.Error;
+import frontend.Diagnostics;
 import frontend.GlobalError;
 import frontend.Lexer;
+import frontend.SourceBuffer;
 import frontend.Parser.Parser;
+import midend.CompilationContext;
+import midend.LLVM.IrSerializer;
+import midend.PassStatistics;
 import midend.Symbol.GlobalSymbolTable;
 import midend.Symbol.Symbol;
 import midend.Symbol.SymbolTable;
 import midend.Visit.Visitor;
 
-import java.io.FileInputStream;
 import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.List;
 
 public class Compiler {
+    // 编译线程的栈大小：编译器递归较深，与命令行运行时的 -Xss64m 保持一致
+    static final long THREAD_STACK_SIZE = 64L << 20;
+
     public static void main(String[] args) {
+        // 批量模式：java Compiler --batch <目录|清单文件> [-o 输出目录] [-j 线程数] [选项]
+        if (args.length > 0 && args[0].equals("--batch")) {
+            BatchCompiler.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // 编译服务：java Compiler --server [-p 端口] [-j 线程数] [--cache=目录]；客户端：java Compiler --client [-p 端口] [选项]
+        if (args.length > 0 && args[0].equals("--server")) {
+            CompileServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--client")) {
+            CompileClient.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // 只跑后端：java Compiler --backend <llvm_ir.bin> [选项]，读回 --emit-ir-bin 保存的模块生成 mips.txt
+        if (args.length > 1 && args[0].equals("--backend")) {
+            CompileOptions options = parseOptions(Arrays.asList(args).subList(2, args.length),
+                    "usage: java Compiler --backend <llvm_ir.bin> " + CompileOptions.USAGE);
+            try {
+                compileIr(args[1], Path.of(""), new CompilationContext(), options);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            return;
+        }
         String testfile = "testfile.txt";//输入文件
-        String lexerfile = "parser.txt";//输出文件
-        String errorfile = "error.txt";//错误文件
-
+        CompileOptions options = parseOptions(Arrays.asList(args),
+                "usage: java Compiler " + CompileOptions.USAGE + " " + CompileOptions.CACHE_USAGE);
         try {
-            FileInputStream fis = new FileInputStream(testfile);
-            Lexer lexer = new Lexer(fis);
-            lexer.analyse();
-//          writeTokensToFile(lexerfile,lexer);
-//          writeErrorsToFile(errorfile,lexer);
-            Parser parser = new Parser(lexer.getTokens());
-            parser.analyse();
-            Visitor visitor = new Visitor(parser.getRoot());
-            visitor.Visit();
-//            writeSymbolTableToFile("symbol.txt");
-//            writeAllErrorsToFile(errorfile);
-            visitor.llvmVisit(true);
-            visitor.writeLLVMToFile("llvm_ir.txt");
-            Backend backend = new Backend();
-            backend.generateMips(true);
-            backend.writeMipsToFile("mips.txt");
+            compile(testfile, Path.of(""), new CompilationContext(), options);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
-    private static void writeAllErrorsToFile(String errorfile) {
+    // 选项有误时打印原因和用法，以状态 2 退出
+    private static CompileOptions parseOptions(List<String> args, String usage) {
         try {
-            FileWriter writer = new FileWriter(errorfile);
-            ArrayList<Error> allErrors = GlobalError.getErrors();
-            //按行号从小到大输出
-            allErrors.sort(Comparator.comparingInt(Error::getLine));
-            for (Error error : allErrors) {
-                if (GlobalError.isPrinted(error.getLine())) {
-                    continue;
+            return CompileOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(usage);
+            System.exit(2);
+            return null;
+        }
+    }
+
+    /**
+     * 用给定的 context 编译一个源文件，llvm_ir.txt、mips.txt 和错误输出都写到 outDir 下
+     */
+    public static void compile(String testfile, Path outDir, CompilationContext context, CompileOptions options)
+            throws IOException {
+        String lexerfile = outDir.resolve("parser.txt").toString();//输出文件
+        String errorfile = outDir.resolve("error.txt").toString();//错误文件
+
+        // 编译缓存命中时直接恢复上次的全部输出
+        CompileCache cache = CompileCache.open(options);
+        String key = null;
+        if (cache != null) {
+            key = cache.key(Files.readAllBytes(Path.of(testfile)), options);
+            if (cache.restore(key, outDir)) {
+                return;
+            }
+        }
+        List<Path> outputs = new ArrayList<>();
+        context.setOptimizationLevel(options.getLevel());
+        context.startBudget(options.getBudgetMillis());
+        if (options.isTimePasses()) {
+            context.enablePassStatistics();
+        }
+        context.run(() -> {
+            Diagnostics.setParseTreeEnabled(options.isParseTree());
+            try {
+                PassStatistics.Span stage = beginStage("parse");
+                Lexer lexer = new Lexer(SourceBuffer.fromFile(testfile));
+                // 词法分析与语法分析交替进行：parser 按需从 lexer 拉取 Token
+//              lexer.analyse();
+//              writeTokensToFile(lexerfile,lexer);
+//              writeErrorsToFile(errorfile,lexer);
+                Parser parser = new Parser(lexer.stream());
+                parser.analyse();
+                stage = nextStage(stage, "semantic");
+                Visitor visitor = new Visitor(parser.getRoot(), context);
+                visitor.Visit();
+//                writeSymbolTableToFile("symbol.txt");
+//                writeAllErrorsToFile(errorfile);
+                stage = nextStage(stage, "llvm-ir");
+                visitor.llvmVisit(options.isOptimize(), options.getPasses());
+                stage = nextStage(stage, "write-ir");
+                visitor.writeLLVMToFile(outDir.resolve("llvm_ir.txt").toString());
+                outputs.add(outDir.resolve("llvm_ir.txt"));
+                if (options.isEmitIrBinary()) {
+                    visitor.writeIrBinaryToFile(outDir.resolve("llvm_ir.bin").toString());
+                    outputs.add(outDir.resolve("llvm_ir.bin"));
                 }
-                writer.write(error + "\n");
-                GlobalError.setPrinted(error.getLine());
+                stage = nextStage(stage, "codegen");
+                Backend backend = new Backend(context);
+                backend.generateMips(options.isOptimize());
+                // 后端窥孔优化在写出 mips.txt 时进行
+                stage = nextStage(stage, "write-mips");
+                backend.writeMipsToFile(outDir.resolve("mips.txt").toString());
+                outputs.add(outDir.resolve("mips.txt"));
+                nextStage(stage, null);
+            } finally {
+                outputs.addAll(Diagnostics.flush(outDir));
             }
+            reportStatistics(context, outDir, options);
+        });
+        // 被时间预算截断的编译结果取决于当时的负载，不缓存，否则之后空闲时命中的也是降级的输出
+        if (cache != null && !context.isBudgetCut()) {
+            cache.store(key, outputs);
+        }
+    }
 
-            writer.close();
-        } catch (Exception e) {
-            e.printStackTrace();
+    /**
+     * 从二进制 IR 文件读回模块，只运行后端，mips.txt 写到 outDir 下
+     */
+    public static void compileIr(String irFile, Path outDir, CompilationContext context, CompileOptions options)
+            throws IOException {
+        context.run(() -> {
+            context.setOptimizationLevel(options.getLevel());
+            context.startBudget(options.getBudgetMillis());
+            if (options.isTimePasses()) {
+                context.enablePassStatistics();
+            }
+            PassStatistics.Span stage = beginStage("read-ir");
+            IrSerializer.readFromFile(irFile);
+            stage = nextStage(stage, "codegen");
+            Backend backend = new Backend(context);
+            backend.generateMips(options.isOptimize());
+            stage = nextStage(stage, "write-mips");
+            backend.writeMipsToFile(outDir.resolve("mips.txt").toString());
+            nextStage(stage, null);
+            reportStatistics(context, outDir, options);
+        });
+    }
+
+    // --time-passes 时把编译的各个阶段也记入统计，没有打开统计时返回 null
+    private static PassStatistics.Span beginStage(String name) {
+        PassStatistics stats = PassStatistics.current();
+        return stats == null ? null : stats.begin("stage", name, PassStatistics.NO_SIZE, PassStatistics.NO_SIZE);
+    }
+
+    // 结束当前阶段并开始下一个阶段，next 为 null 时只结束
+    private static PassStatistics.Span nextStage(PassStatistics.Span stage, String next) {
+        if (stage != null) {
+            PassStatistics.current().end(stage, PassStatistics.NO_SIZE, PassStatistics.NO_SIZE, false);
+        }
+        return next == null ? null : beginStage(next);
+    }
+
+    private static void reportStatistics(CompilationContext context, Path outDir, CompileOptions options)
+            throws IOException {
+        PassStatistics stats = context.getPassStatistics();
+        if (stats == null) {
+            return;
         }
+        if (options.isTimePassesJson()) {
+            stats.writeJson(outDir.resolve("pass_stats.json"), context.getAnalysisManager());
+        } else if (options.isTimePassesTxt()) {
+            Files.writeString(outDir.resolve("pass_stats.txt"), stats.toTable(context.getAnalysisManager()));
+        } else {
+            System.err.print(stats.toTable(context.getAnalysisManager()));
+        }
+    }
+
+    private static void writeAllErrorsToFile(String errorfile) {
+        //按行号从小到大输出，同一行只输出一次
+        Diagnostics.writeErrors(errorfile, GlobalError.getErrors());
     }
 
     private static void writeErrorsToFile(String errorfile, Lexer lexer) {
@@ -1,31 +1,49 @@
 package backend;
 
+import midend.CompilationContext;
 import midend.LLVM.IrBuilder;
 import midend.LLVM.IrModule;
 
-import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public class Backend {
-    private static boolean optimize;
+    private final CompilationContext context;
+
+    public Backend() {
+        this(CompilationContext.current());
+    }
+
+    public Backend(CompilationContext context) {
+        this.context = context;
+    }
 
     public void generateMips(boolean optimize) {
-        IrModule irModule = IrBuilder.getIrModule();
-        MipsBuilder.generate(irModule, optimize);
-        Backend.optimize = optimize;
+        context.run(() -> {
+            IrModule irModule = IrBuilder.getIrModule();
+            context.getMipsBuilder().generate(irModule, optimize);
+            context.setBackendOptimize(optimize);
+        });
     }
 
     public static boolean getOptimize() {
-        return optimize;
+        return CompilationContext.current().isBackendOptimize();
+    }
+
+    public MipsModule getMipsModule() {
+        return context.getMipsBuilder().getMipsModule();
     }
 
-    public void writeMipsToFile(String file) {
-        MipsModule mipsModule = MipsBuilder.getMipsModule();
-        try {
-            FileOutputStream fos = new FileOutputStream(file);
-            fos.write(mipsModule.toString().getBytes());
-            fos.close();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    // 出错时抛给调用者，写了一半的 mips.txt 不会被存进编译缓存
+    public void writeMipsToFile(String file) throws IOException {
+        context.run(() -> {
+            MipsModule mipsModule = getMipsModule();
+            try (Writer writer = Files.newBufferedWriter(Path.of(file), Charset.defaultCharset())) {
+                mipsModule.emit(writer);
+            }
+        });
     }
 }
@@ -9,6 +9,7 @@ import midend.LLVM.value.IrValue;
 import midend.SSA.PhiInstr;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -116,11 +117,11 @@ public class EmitInstruction {
             mips.addInst(String.format("li %s, %d", reg, imm));
             return;
         } else if (val instanceof IrGlobalValue) {
-            String label = val.irName.substring(1);
+            String label = val.getIrName().substring(1);
             mips.addInst(String.format("la %s, %s", reg, label));
             return;
         } else if (val instanceof IrConstString) {
-            String label = val.irName.substring(1);
+            String label = val.getIrName().substring(1);
             mips.addInst(String.format("la %s, %s", reg, label));
             return;
         }
@@ -383,6 +384,9 @@ public class EmitInstruction {
             mips.addInst(String.format("li $at, 0x%X", magic));
             mips.addInst("mult " + srcReg + ", $at");
             mips.addInst("mfhi $at");
+            // magic 超过 2^31 时按有符号数相乘少加了一个 x，需要补上
+            if (magic > 0x7FFFFFFFL)
+                mips.addInst("addu $at, $at, " + srcReg);
             if (shift > 0)
                 mips.addInst("sra $at, $at, " + shift);
             mips.addInst("srl " + dstReg + ", " + srcReg + ", 31");
@@ -427,14 +431,14 @@ public class EmitInstruction {
         if (instr.getRight() instanceof IrConstInt) {
             int val = ((IrConstInt) instr.getRight()).getValue();
 
-            if (instr.getOp().equals("MUL")) {
+            if (instr.getOp() == AluOpcode.MUL) {
                 // 把动态的寄存器名传进去
                 optimized = tryOptimizeMul(val, leftReg, destReg);
-            } else if (instr.getOp().equals("SDIV")) {
+            } else if (instr.getOp() == AluOpcode.SDIV) {
                 if (val != 0) {
                     optimized = tryOptimizeDiv(val, leftReg, destReg);
                 }
-            } else if (instr.getOp().equals("SREM")) {
+            } else if (instr.getOp() == AluOpcode.SREM) {
                 // 优化 x % c
                 if (val != 0) {
                     // 特殊情况 1: x % 1 = 0
@@ -485,32 +489,32 @@ public class EmitInstruction {
             boolean is16BitUnsigned = (val >= 0 && val <= 65535);
 
             switch (instr.getOp()) {
-                case "ADD":
+                case ADD:
                     if (is16Bit) {
                         mips.addInst(String.format("addiu %s, %s, %d", destReg, leftReg, val));
                         optimized = true;
                     }
                     break;
-                case "SUB":
+                case SUB:
                     // x - C <=> x + (-C)
                     if (val >= -32767 && val <= 32768) { // 取反后要在 range 内
                         mips.addInst(String.format("addiu %s, %s, %d", destReg, leftReg, -val));
                         optimized = true;
                     }
                     break;
-                case "AND":
+                case AND:
                     if (is16BitUnsigned) {
                         mips.addInst(String.format("andi %s, %s, %d", destReg, leftReg, val));
                         optimized = true;
                     }
                     break;
-                case "OR":
+                case OR:
                     if (is16BitUnsigned) {
                         mips.addInst(String.format("ori %s, %s, %d", destReg, leftReg, val));
                         optimized = true;
                     }
                     break;
-                case "XOR":
+                case XOR:
                     if (is16BitUnsigned) {
                         mips.addInst(String.format("xori %s, %s, %d", destReg, leftReg, val));
                         optimized = true;
@@ -523,31 +527,31 @@ public class EmitInstruction {
         if (!optimized) {
             String rightReg = getOpReg(instr.getRight(), "$t1");
             switch (instr.getOp()) {
-                case "ADD":
+                case ADD:
                     mips.addInst(String.format("addu %s, %s, %s", destReg, leftReg, rightReg));
                     break;
-                case "SUB":
+                case SUB:
                     mips.addInst(String.format("subu %s, %s, %s", destReg, leftReg, rightReg));
                     break;
-                case "MUL":
+                case MUL:
                     mips.addInst(String.format("mul %s, %s, %s", destReg, leftReg, rightReg));
                     break;
-                case "SDIV":
+                case SDIV:
                     // div 指令的结果在 LO/HI 寄存器，不接受目标寄存器参数
                     mips.addInst(String.format("div %s, %s", leftReg, rightReg));
                     mips.addInst("mflo " + destReg);
                     break;
-                case "SREM":
+                case SREM:
                     mips.addInst(String.format("div %s, %s", leftReg, rightReg));
                     mips.addInst("mfhi " + destReg);
                     break;
-                case "AND":
+                case AND:
                     mips.addInst(String.format("and %s, %s, %s", destReg, leftReg, rightReg));
                     break;
-                case "OR":
+                case OR:
                     mips.addInst(String.format("or %s, %s, %s", destReg, leftReg, rightReg));
                     break;
-                case "XOR":
+                case XOR:
                     mips.addInst(String.format("xor %s, %s, %s", destReg, leftReg, rightReg));
                     break;
                 default:
@@ -606,25 +610,25 @@ public class EmitInstruction {
         }
 
         switch (instr.getOp()) {
-            case "EQ":  // ==
+            case EQ:  // ==
                 mips.addInst("xor " + destReg + ", " + leftReg + ", " + rightReg);
                 mips.addInst("sltiu " + destReg + ", " + destReg + ", 1");
                 break;
-            case "NE":  // !=
+            case NE:  // !=
                 mips.addInst("xor " + destReg + ", " + leftReg + ", " + rightReg);
                 mips.addInst("sltu " + destReg + ", $zero, " + destReg);
                 break;
-            case "GT": // >
+            case GT: // >
                 mips.addInst("slt " + destReg + ", " + rightReg + ", " + leftReg);
                 break;
-            case "GE": // >=
+            case GE: // >=
                 mips.addInst("slt " + destReg + ", " + leftReg + ", " + rightReg);
                 mips.addInst("xori " + destReg + ", " + destReg + ", 1");
                 break;
-            case "LT": // <
+            case LT: // <
                 mips.addInst("slt " + destReg + ", " + leftReg + ", " + rightReg);
                 break;
-            case "LE": // <=
+            case LE: // <=
                 mips.addInst("slt " + destReg + ", " + rightReg + ", " + leftReg);
                 mips.addInst("xori " + destReg + ", " + destReg + ", 1");
                 break;
@@ -643,36 +647,37 @@ public class EmitInstruction {
         IrBasicBlock currentBlock = (IrBasicBlock) instr.getParent();
         IrBasicBlock trueBlock = instr.getTrueBlock();
         IrBasicBlock falseBlock = instr.getFalseBlock();
-        String trueName = trueBlock.irName.replace("@", "");
-        String falseName = falseBlock.irName.replace("@", "");
+        String trueName = trueBlock.getIrName().replace("@", "");
+        String falseName = falseBlock.getIrName().replace("@", "");
         String trueLabel = currentFuncLabel + "_" + trueName;
         String falseLabel = currentFuncLabel + "_" + falseName;
 
         IrValue cond = instr.getCond();
 
-        // 优化：如果条件是 CmpInstr，直接使用 beq/bne
-        if (cond instanceof CmpInstr) {
+        // 优化：如果条件是紧挨着分支的 CmpInstr，直接使用 beq/bne
+        // （比较在其他块或更早的位置时，其操作数的寄存器可能已被复用，不能在这里重新比较）
+        if (cond instanceof CmpInstr && isImmediatelyBefore((CmpInstr) cond, instr)) {
             CmpInstr cmp = (CmpInstr) cond;
             String leftReg = getOpReg(cmp.getLeft(), "$t0");
             String rightReg = getOpReg(cmp.getRight(), "$t1");
 
             // 根据比较类型选择分支指令
             switch (cmp.getOp()) {
-                case "EQ":
+                case EQ:
                     // beq leftReg, rightReg, trueLabel
                     resolvePhiCopies(trueBlock, currentBlock);
                     mips.addInst("beq " + leftReg + ", " + rightReg + ", " + trueLabel);
                     resolvePhiCopies(falseBlock, currentBlock);
                     mips.addInst("j " + falseLabel);
                     return;
-                case "NE":
+                case NE:
                     // bne leftReg, rightReg, trueLabel
                     resolvePhiCopies(trueBlock, currentBlock);
                     mips.addInst("bne " + leftReg + ", " + rightReg + ", " + trueLabel);
                     resolvePhiCopies(falseBlock, currentBlock);
                     mips.addInst("j " + falseLabel);
                     return;
-                case "LT":
+                case LT:
                     // slt + bnez
                     mips.addInst("slt $at, " + leftReg + ", " + rightReg);
                     resolvePhiCopies(trueBlock, currentBlock);
@@ -680,7 +685,7 @@ public class EmitInstruction {
                     resolvePhiCopies(falseBlock, currentBlock);
                     mips.addInst("j " + falseLabel);
                     return;
-                case "GE":
+                case GE:
                     // slt + beqz (opposite of LT)
                     mips.addInst("slt $at, " + leftReg + ", " + rightReg);
                     resolvePhiCopies(trueBlock, currentBlock);
@@ -688,7 +693,7 @@ public class EmitInstruction {
                     resolvePhiCopies(falseBlock, currentBlock);
                     mips.addInst("j " + falseLabel);
                     return;
-                case "GT":
+                case GT:
                     // slt with swapped operands + bnez
                     mips.addInst("slt $at, " + rightReg + ", " + leftReg);
                     resolvePhiCopies(trueBlock, currentBlock);
@@ -696,7 +701,7 @@ public class EmitInstruction {
                     resolvePhiCopies(falseBlock, currentBlock);
                     mips.addInst("j " + falseLabel);
                     return;
-                case "LE":
+                case LE:
                     // slt with swapped + beqz (opposite of GT)
                     mips.addInst("slt $at, " + rightReg + ", " + leftReg);
                     resolvePhiCopies(trueBlock, currentBlock);
@@ -724,6 +729,10 @@ public class EmitInstruction {
         mips.addInst("j " + falseLabel);
     }
 
+    private boolean isImmediatelyBefore(Instruction prev, Instruction instr) {
+        return instr.getPrev() == prev;
+    }
+
     private void emitJump(JumpInstr instr) {
         // 获取当前块和目标块
         IrBasicBlock currentBlock = (IrBasicBlock) instr.getParent();
@@ -732,7 +741,7 @@ public class EmitInstruction {
         // 处理 Phi Copy
         resolvePhiCopies(targetBlock, currentBlock);
 
-        String targetName = targetBlock.irName.replace("@", "");
+        String targetName = targetBlock.getIrName().replace("@", "");
         // 无条件跳转: j label %target
         String targetLabel = currentFuncLabel + "_" + targetName;
         mips.addInst("j " + targetLabel);
@@ -758,7 +767,7 @@ public class EmitInstruction {
             }
         }
 
-        String funcName = instr.getTargetFunction().irName.replace("@", "");
+        String funcName = instr.getTargetFunction().getIrName().replace("@", "");
         mips.addInst("jal " + funcName);
         // mips.addInst("nop");
 
@@ -854,7 +863,7 @@ public class EmitInstruction {
         // 1. 压栈
         for (PhiInstr phi : phis) {
             ArrayList<IrBasicBlock> blocks = phi.getIncomingBlocks();
-            ArrayList<IrValue> values = phi.getIncomingValues();
+            List<IrValue> values = phi.getIncomingValues();
             for (int i = 0; i < blocks.size(); i++) {
                 if (blocks.get(i) == currentBlock) {
                     loadToReg(values.get(i), "$t0");
@@ -13,26 +13,27 @@ import midend.SSA.PhiInstr;
 import java.util.*;
 
 public class MipsBuilder {
-    private static MipsModule mips = new MipsModule();
-    private static HashMap<IrValue, Integer> offsetMap = new HashMap<>();
-    private static int currentFunctionStackSize = 0;
-    private static HashMap<AllocateInstruction, Integer> allocaArrayOffsets = new HashMap<>();
+    // 一次编译的后端状态，由 CompilationContext 持有
+    private MipsModule mips = new MipsModule();
+    private HashMap<IrValue, Integer> offsetMap = new HashMap<>();
+    private int currentFunctionStackSize = 0;
+    private HashMap<AllocateInstruction, Integer> allocaArrayOffsets = new HashMap<>();
 
-    private static RegisterAllocator registerAllocator = new RegisterAllocator();
+    private RegisterAllocator registerAllocator = new RegisterAllocator();
 
     // 给一个 Value 分配栈空间
-    private static void allocateStack(IrValue value, int sizeBytes) {
+    private void allocateStack(IrValue value, int sizeBytes) {
         // 栈向下增长，所以偏移量是负数
         // currentFunctionStackSize 记录当前已用的字节数（正数）
         currentFunctionStackSize += sizeBytes;
         offsetMap.put(value, -currentFunctionStackSize);
     }
 
-    public static MipsModule getMipsModule() {
+    public MipsModule getMipsModule() {
         return mips;
     }
 
-    public static MipsModule generate(IrModule irModule, boolean optimize) {
+    public MipsModule generate(IrModule irModule, boolean optimize) {
         mips = new MipsModule(); // 重置 Module 防止多次调用叠加
         // 1. 处理字符串常量
         for (IrConstString irConstString : irModule.getStringIrConstStringHashMap().values()) {
@@ -58,7 +59,7 @@ public class MipsBuilder {
         return mips;
     }
 
-    private static void appendLibraryFunctions() {
+    private void appendLibraryFunctions() {
         // getint: 读取一个整数到 $v0
         mips.addInst("getint:");
         mips.addInst("li $v0, 5");   // Syscall 5: read_int
@@ -67,7 +68,7 @@ public class MipsBuilder {
         //mips.addInst("nop");
     }
 
-    private static void emitFunction(IrFunction function, boolean optimize) {
+    private void emitFunction(IrFunction function, boolean optimize) {
         boolean isLeaf = true;
         for (IrBasicBlock bb : function.getBasicBlocks()) {
             for (Instruction i : bb.getInstructions()) {
@@ -129,7 +130,7 @@ public class MipsBuilder {
                     // 实体位于当前栈底 (也就是 -currentFunctionStackSize)
                     allocaArrayOffsets.put((AllocateInstruction) instr, -currentFunctionStackSize);
                 } else if (instr instanceof PhiInstr) {
-                    //System.out.println("DEBUG: Allocating stack for Phi: " + instr.irName);
+                    //System.out.println("DEBUG: Allocating stack for Phi: " + instr.getIrName());
                     allocateStack(instr, 4);
                 } else if (!instr.irType.isVoid()) {
                     allocateStack(instr, 4);
@@ -144,7 +145,7 @@ public class MipsBuilder {
         // Step 2: 生成函数序言
 
         // 2.1 输出函数标签 (去掉 @)
-        String label = function.irName.substring(1);
+        String label = function.getIrName().substring(1);
         label = label.replace("@", "").replace(".", "_");
         mips.addInst("\n" + label + ":");
 
@@ -237,12 +238,12 @@ public class MipsBuilder {
         }
 
         // Step 4: 遍历基本块 (Basic Blocks)
-        String funcLabel = function.irName.substring(1);
+        String funcLabel = function.getIrName().substring(1);
 
         EmitInstruction emitter = new EmitInstruction(mips, offsetMap, allocaArrayOffsets, funcLabel, regAllocation, sRegStackOffsets);
 
         for (IrBasicBlock bb : function.getBasicBlocks()) {
-            String bbLabel = bb.irName.replace("@", "").replace(".", "_");
+            String bbLabel = bb.getIrName().replace("@", "").replace(".", "_");
             // 生成块标签 (block_name:)
             mips.addInst(label + "_" + bbLabel + ":");
 
@@ -254,7 +255,7 @@ public class MipsBuilder {
     }
 
     // 辅助方法：处理大偏移量的 sw
-    private static void saveToStackOrReg(String srcReg, int offset, boolean useFp) {
+    private void saveToStackOrReg(String srcReg, int offset, boolean useFp) {
         if (offset >= -32768 && offset <= 32767) {
             mips.addInst("sw " + srcReg + ", " + offset + "($fp)");
         } else {
@@ -264,10 +265,10 @@ public class MipsBuilder {
         }
     }
 
-    private static void emitGlobalVar(IrGlobalValue global) {
+    private void emitGlobalVar(IrGlobalValue global) {
         // 1. 获取标签名：去掉 @
         // @a -> a
-        String label = global.irName.substring(1);
+        String label = global.getIrName().substring(1);
 
         // 2. 获取初始值
         IrValue initVal = global.getInitial();
@@ -341,9 +342,9 @@ public class MipsBuilder {
         }
     }
 
-    private static void emitStringConst(IrConstString irConstString) {
+    private void emitStringConst(IrConstString irConstString) {
         // @s_0 -> s_0
-        String label = irConstString.irName.substring(1);
+        String label = irConstString.getIrName().substring(1);
 
         // 1. 取 c" 和最后一个 " 之间的内容
         String rawFull = irConstString.toString();
@@ -1,5 +1,7 @@
 package backend;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -17,16 +19,21 @@ public class MipsModule {
         textSection.add(asm);
     }
 
+    // 逐行写出汇编文本
+    public void emit(Appendable out) throws IOException {
+        out.append(".data\n");
+        for (String s : dataSection) out.append(s).append("\n");
+        out.append("\n.text\n");
+        List<String> text = Backend.getOptimize() ? MipsOptimizer.optimize(this.textSection) : textSection;
+        for (String s : text) out.append(s).append("\n");
+    }
+
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        sb.append(".data\n");
-        for (String s : dataSection) sb.append(s).append("\n");
-        sb.append("\n.text\n");
-        if (Backend.getOptimize()) {
-            List<String> optimizedText = MipsOptimizer.optimize(this.textSection);
-            for (String s : optimizedText) sb.append(s).append("\n");
-        } else {
-            for (String s : textSection) sb.append(s).append("\n");
+        try {
+            emit(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
         return sb.toString();
     }
@@ -1,72 +1,85 @@
 package backend;
 
+import midend.CompilationContext;
+import midend.PassStatistics;
+
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.UnaryOperator;
 
 public class MipsOptimizer {
 
     // 入口方法
     public static List<String> optimize(List<String> sourceCode) {
+        PassStatistics stats = PassStatistics.current();
+        CompilationContext context = CompilationContext.current();
+        // 轮数和每轮的重复次数由优化级别决定，-O3 为 100 轮、每轮 8 次
+        int maxPasses = context.getOptimizationLevel().getMipsMaxRounds();
+        int repeats = context.getOptimizationLevel().getMipsRepeats();
         List<String> optimized = new ArrayList<>(sourceCode);
         boolean changed = true;
-        int maxPasses = 100;
         int pass = 0;
+        // 每一轮结束时代码都是正确的，超出编译时间预算就不再开始新的一轮
         while (changed && pass < maxPasses) {
+            if (context.isOverBudget()) {
+                context.markBudgetCut();
+                break;
+            }
             int oldSize = optimized.size();
             List<String> current = new ArrayList<>(optimized);
 
             // 1. 先进行算术和Move优化，减少干扰
-            for (int j = 0; j < 8; j++) { // 增加到 8 次
-                current = removeRedundantMoves(current);
-                current = removeMoveChains(current);
-                current = copyPropagation(current); // 每轮都做 copy prop
+            for (int j = 0; j < repeats; j++) {
+                current = phase(stats, "removeRedundantMoves", MipsOptimizer::removeRedundantMoves, current);
+                current = phase(stats, "removeMoveChains", MipsOptimizer::removeMoveChains, current);
+                current = phase(stats, "copyPropagation", MipsOptimizer::copyPropagation, current); // 每轮都做 copy prop
             }
-            current = simplifyAlgebra(current);
-            current = simplifyLi(current);
-            current = mergeLiAddu(current);
+            current = phase(stats, "simplifyAlgebra", MipsOptimizer::simplifyAlgebra, current);
+            current = phase(stats, "simplifyLi", MipsOptimizer::simplifyLi, current);
+            current = phase(stats, "mergeLiAddu", MipsOptimizer::mergeLiAddu, current);
 
             // 1.5 消除无用栈操作
-            current = removeUselessStackOps(current);
+            current = phase(stats, "removeUselessStackOps", MipsOptimizer::removeUselessStackOps, current);
 
             // 1.6 MIPS 级别死代码消除
-            current = mipsDeadCodeElimination(current);
+            current = phase(stats, "mipsDeadCodeElimination", MipsOptimizer::mipsDeadCodeElimination, current);
 
             // 2. 内存优化 - 多次迭代以更彻底消除
-            for (int i = 0; i < 8; i++) {
-                current = removeRedundantLoad(current);
-                current = removeRedundantStore(current);
-                current = deadStoreElimination(current);
+            for (int i = 0; i < repeats; i++) {
+                current = phase(stats, "removeRedundantLoad", MipsOptimizer::removeRedundantLoad, current);
+                current = phase(stats, "removeRedundantStore", MipsOptimizer::removeRedundantStore, current);
+                current = phase(stats, "deadStoreElimination", MipsOptimizer::deadStoreElimination, current);
             }
-            current = aggressiveMemoryElimination(current);
+            current = phase(stats, "aggressiveMemoryElimination", MipsOptimizer::aggressiveMemoryElimination, current);
 
             // 2.5 地址加载优化
-            current = fuseLaLw(current);
+            current = phase(stats, "fuseLaLw", MipsOptimizer::fuseLaLw, current);
 
             // 3. 分支优化
-            current = optimizeBranches(current);
-            current = removeRedundantJumps(current);
+            current = phase(stats, "optimizeBranches", MipsOptimizer::optimizeBranches, current);
+            current = phase(stats, "removeRedundantJumps", MipsOptimizer::removeRedundantJumps, current);
 
             // 4. 指令选择优化
-            current = betterInstructionSelection(current);
+            current = phase(stats, "betterInstructionSelection", MipsOptimizer::betterInstructionSelection, current);
 
             // 5. 消除冗余比较
-            current = removeRedundantCompare(current);
+            current = phase(stats, "removeRedundantCompare", MipsOptimizer::removeRedundantCompare, current);
 
             // 5.5 消除冗余 li
-            current = eliminateRedundantLi(current);
+            current = phase(stats, "eliminateRedundantLi", MipsOptimizer::eliminateRedundantLi, current);
 
             // 5.6 简单指令调度 - 减少 load-use 延迟
-            current = scheduleInstructions(current);
+            current = phase(stats, "scheduleInstructions", MipsOptimizer::scheduleInstructions, current);
 
             // 6. 最后再次清理 move
-            for (int j = 0; j < 8; j++) { // 增加到 8 次
-                current = removeRedundantMoves(current);
-                current = removeMoveChains(current);
-                current = copyPropagation(current);
+            for (int j = 0; j < repeats; j++) {
+                current = phase(stats, "removeRedundantMoves", MipsOptimizer::removeRedundantMoves, current);
+                current = phase(stats, "removeMoveChains", MipsOptimizer::removeMoveChains, current);
+                current = phase(stats, "copyPropagation", MipsOptimizer::copyPropagation, current);
             }
 
             optimized = current;
@@ -77,6 +90,30 @@ public class MipsOptimizer {
         return optimized;
     }
 
+    // 运行一个窥孔阶段，--time-passes 时记录耗时和前后的指令数 (标签行记作基本块)
+    private static List<String> phase(PassStatistics stats, String name, UnaryOperator<List<String>> phase,
+                                      List<String> lines) {
+        if (stats == null) {
+            return phase.apply(lines);
+        }
+        int labels = countLabels(lines);
+        PassStatistics.Span span = stats.begin("backend", name, lines.size() - labels, labels);
+        List<String> result = phase.apply(lines);
+        int resultLabels = countLabels(result);
+        stats.end(span, result.size() - resultLabels, resultLabels, !result.equals(lines));
+        return result;
+    }
+
+    private static int countLabels(List<String> lines) {
+        int count = 0;
+        for (String line : lines) {
+            if (line.endsWith(":")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * 窥孔优化：消除冗余的 Load 指令
      * 模式：
@@ -1313,9 +1350,12 @@ public class MipsOptimizer {
                         // 检查前一条是否可以移到 lw 和 use 之间
                         if (result.size() > 0) {
                             String prev = result.get(result.size() - 1).trim();
-                            // 如果前一条是独立的（li, move 到不同寄存器）
+                            // 如果前一条是独立的（li, move 到不同寄存器），
+                            // 且它写的寄存器不是 lw 的基址寄存器
+                            String[] prevParts = prev.split("[\\s,]+");
                             if ((prev.startsWith("li ") || prev.startsWith("move ")) &&
-                                    !prev.contains(dest)) {
+                                    !prev.contains(dest) && prevParts.length >= 2 &&
+                                    !trimmed.contains(prevParts[1])) {
                                 // 交换：lw 移到前面
                                 String removed = result.remove(result.size() - 1);
                                 result.add(line);
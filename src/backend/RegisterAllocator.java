@@ -4,7 +4,6 @@ import midend.Analysis.LivenessAnalysis;
 import midend.LLVM.Instruction.*;
 import midend.LLVM.value.IrBasicBlock;
 import midend.LLVM.value.IrFunction;
-import midend.LLVM.value.IrParameter;
 import midend.LLVM.value.IrValue;
 import midend.SSA.PhiInstr;
 
@@ -28,24 +27,22 @@ public class RegisterAllocator {
     public static final int CALLEE_SAVED_START = 7;
     public static final int CALLEE_SAVED_END = 14;
 
-    private Map<IrBasicBlock, Set<IrValue>> liveIn = new HashMap<>();
-    private Map<IrBasicBlock, Set<IrValue>> liveOut = new HashMap<>();
-    private Map<IrBasicBlock, Set<IrValue>> use = new HashMap<>();
-    private Map<IrBasicBlock, Set<IrValue>> def = new HashMap<>();
-    private Map<IrValue, Set<IrValue>> interferenceGraph = new HashMap<>();
+    // 冲突图按值编号 (见 IrFunction.renumber) 存放邻接表，节点为参数和产生值的指令
+    private IrFunction function;
+    private boolean[] isNode = new boolean[0];
+    private int[][] adjacency = new int[0][];
+    private int[] degree = new int[0];
     private Map<IrValue, Integer> allocation = new HashMap<>();
 
     // 记录哪些变量跨越了函数调用 (Call Instruction)
-    private Set<IrValue> valuesCrossingCalls = new HashSet<>();
+    private BitSet valuesCrossingCalls = new BitSet();
 
     // 记录每个变量的使用次数（用于 spill 决策）
-    private Map<IrValue, Integer> useCount = new HashMap<>();
+    private int[] useCount = new int[0];
 
     public Map<IrValue, Integer> run(IrFunction function) {
         allocation.clear();
         valuesCrossingCalls.clear();
-        interferenceGraph.clear();
-        useCount.clear();
 
         buildInterferenceGraph(function, new LivenessAnalysis());
         colorGraph();
@@ -54,56 +51,61 @@ public class RegisterAllocator {
 
     private void buildInterferenceGraph(IrFunction function, LivenessAnalysis liveness) {
         liveness.run(function);
+        this.function = function;
+        int n = function.getValueCount();
+        isNode = new boolean[n];
+        adjacency = new int[n][];
+        degree = new int[n];
+        useCount = new int[n];
+
         // 初始化节点
         for (IrValue arg : function.getParameters()) {
-            interferenceGraph.put(arg, new HashSet<>());
+            isNode[arg.getId()] = true;
         }
         for (IrBasicBlock bb : function.getBasicBlocks()) {
             for (Instruction instr : bb.getInstructions()) {
                 if (!instr.irType.isVoid()) {
-                    interferenceGraph.put(instr, new HashSet<>());
+                    isNode[instr.getId()] = true;
                 }
             }
         }
 
         // 3. 构建冲突图
         for (IrBasicBlock bb : function.getBasicBlocks()) {
-            Set<IrValue> liveNow = new HashSet<>(liveness.liveOut.get(bb));
-            ArrayList<Instruction> insts = bb.getInstructions();
-
+            BitSet liveNow = (BitSet) liveness.getLiveOut(bb).clone();
             // 反向遍历指令
-            for (int i = insts.size() - 1; i >= 0; i--) {
-                Instruction instr = insts.get(i);
+            for (Instruction instr = bb.getLastInstruction(); instr != null; instr = instr.getPrev()) {
 
                 // 检测跨越 Call 的变量 ---
                 if (instr instanceof CallInstr) {
                     // 在 Call 指令处仍然活跃的变量，说明它们跨越了函数调用
                     // 这些变量必须分配到 $s 寄存器，或者是 Spill 到栈上
-                    valuesCrossingCalls.addAll(liveNow);
+                    valuesCrossingCalls.or(liveNow);
                 }
 
                 // 1. 处理定义 (Def) - 建立冲突边
                 if (!instr.irType.isVoid()) {
+                    int def = instr.getId();
                     // 当前指令定义的变量与所有当前活跃的变量冲突
-                    for (IrValue live : liveNow) {
-                        if (live != instr) { // 自己不冲突
-                            addEdge(instr, live);
-                        }
+                    for (int live = liveNow.nextSetBit(0); live >= 0; live = liveNow.nextSetBit(live + 1)) {
+                        addEdge(def, live);
                     }
                     // 定义点上方，该变量不再活跃（除非它是 LiveIn，但在 SSA 中 Def 支配 Use，通常直接移除即可）
                     // 对于 Phi，它在块头定义，所以在 Phi 之前的瞬间（即块入口）它是不活跃的
-                    liveNow.remove(instr);
+                    liveNow.clear(def);
                 }
 
                 // 2. 处理使用 (Use) - 加入活跃集并计数
                 // Phi 指令的操作数不在这里加入活跃集
                 // Phi 的操作数是在前驱块的末尾活跃的，而不是当前块。
                 if (!(instr instanceof PhiInstr)) {
-                    for (IrValue operand : getOperands(instr)) {
-                        if (operand instanceof Instruction || operand instanceof IrParameter) {
-                            liveNow.add(operand);
+                    for (int k = 0, cnt = instr.getNumValueOperands(); k < cnt; k++) {
+                        IrValue operand = instr.getValueOperand(k);
+                        int id = function.indexOf(operand);
+                        if (id >= 0) {
+                            liveNow.set(id);
                             // 统计使用次数
-                            useCount.merge(operand, 1, Integer::sum);
+                            useCount[id]++;
                         }
                     }
                 }
@@ -114,141 +116,153 @@ public class RegisterAllocator {
             // 对于 Entry Block，LiveIn 包含所有被使用的参数。
             // 它们在函数入口同时存活，必须互相冲突，防止分配到同一个寄存器。
             if (bb == function.getEntryBlock()) {
-                List<IrValue> liveParams = new ArrayList<>(liveNow);
-                for (int i = 0; i < liveParams.size(); i++) {
-                    for (int j = i + 1; j < liveParams.size(); j++) {
-                        addEdge(liveParams.get(i), liveParams.get(j));
+                int[] liveParams = liveNow.stream().toArray();
+                for (int i = 0; i < liveParams.length; i++) {
+                    for (int j = i + 1; j < liveParams.length; j++) {
+                        addEdge(liveParams[i], liveParams[j]);
                     }
                 }
             }
         }
-    }
 
-    private List<IrValue> getOperands(Instruction instr) {
-        List<IrValue> ops = new ArrayList<>();
-
-        if (instr instanceof AluInst) {
-            ops.add(((AluInst) instr).getLeft());
-            ops.add(((AluInst) instr).getRight());
-        } else if (instr instanceof CmpInstr) {
-            ops.add(((CmpInstr) instr).getLeft());
-            ops.add(((CmpInstr) instr).getRight());
-        } else if (instr instanceof LoadInstr) {
-            ops.add(((LoadInstr) instr).getPtr());
-        } else if (instr instanceof StoreInstr) {
-            ops.add(((StoreInstr) instr).getVal());
-            ops.add(((StoreInstr) instr).getPtr());
-        } else if (instr instanceof BranchInstr) {
-            BranchInstr br = (BranchInstr) instr;
-            if (br.getCond() != null) {
-                ops.add(br.getCond());
+        // 去掉重复边，degree 即为邻居个数
+        for (int v = 0; v < n; v++) {
+            if (adjacency[v] == null) {
+                adjacency[v] = new int[0];
+                continue;
             }
-        } else if (instr instanceof ReturnInstr) {
-            ReturnInstr ret = (ReturnInstr) instr;
-            if (!ret.isReturnVoid()) {
-                ops.add(ret.getReturnValue());
+            int[] adj = adjacency[v];
+            Arrays.sort(adj, 0, degree[v]);
+            int size = 0;
+            for (int i = 0; i < degree[v]; i++) {
+                if (size == 0 || adj[size - 1] != adj[i]) {
+                    adj[size++] = adj[i];
+                }
             }
-        } else if (instr instanceof CallInstr) {
-            ops.addAll(((CallInstr) instr).getParameters());
-        } else if (instr instanceof GepInstr) {
-            ops.add(((GepInstr) instr).getPtr());
-            ops.add(((GepInstr) instr).getIndice()); // 假设是一维数组索引
-        } else if (instr instanceof ZextInstr) {
-            ops.add(((ZextInstr) instr).getOperand(0)); // 假设有 getOperand 方法或 public 字段
-        } else if (instr instanceof TruncInstr) {
-            ops.add(((TruncInstr) instr).getOperand(0));
-        } else if (instr instanceof PhiInstr) {
-            ops.addAll(((PhiInstr) instr).getIncomingValues());
-        } else if (instr instanceof PrintIntInstr) {
-            ops.add(((PrintIntInstr) instr).getPrintValue());
+            adjacency[v] = Arrays.copyOf(adj, size);
+            degree[v] = size;
         }
+    }
 
-        // 注意：JumpInstr, AllocateInstr, PrintStrInstr(操作数是Const) 不需要添加操作数
-
-        return ops;
+    private void addEdge(int a, int b) {
+        if (a == b) return;
+        isNode[a] = true;
+        isNode[b] = true;
+        appendNeighbor(a, b);
+        appendNeighbor(b, a);
     }
 
-    private void addEdge(IrValue a, IrValue b) {
-        if (a.equals(b)) return;
-        interferenceGraph.computeIfAbsent(a, k -> new HashSet<>()).add(b);
-        interferenceGraph.computeIfAbsent(b, k -> new HashSet<>()).add(a);
+    private void appendNeighbor(int v, int neighbor) {
+        int[] adj = adjacency[v];
+        if (adj == null) {
+            adj = adjacency[v] = new int[4];
+        } else if (degree[v] == adj.length) {
+            adj = adjacency[v] = Arrays.copyOf(adj, adj.length * 2);
+        }
+        adj[degree[v]++] = neighbor;
     }
 
     private void colorGraph() {
-        Stack<IrValue> stack = new Stack<>();
-        Set<IrValue> nodes = new HashSet<>(interferenceGraph.keySet());
-
-        // 简化图
-        Map<IrValue, Set<IrValue>> currentGraph = new HashMap<>();
-        for (IrValue v : nodes) currentGraph.put(v, new HashSet<>(interferenceGraph.get(v)));
-
-        while (!nodes.isEmpty()) {
-            IrValue nodeToRemove = null;
-            // 优先移除度数 < K 的节点
-            for (IrValue node : nodes) {
-                if (currentGraph.get(node).size() < MAX_REGISTERS) {
-                    nodeToRemove = node;
+        int n = isNode.length;
+        int[] stack = new int[n];
+        int top = 0;
+
+        // 简化图：currentDegree 为未移除邻居的个数
+        int[] currentDegree = degree.clone();
+        boolean[] removed = new boolean[n];
+        int remaining = 0;
+
+        // 优先移除度数 < K 的节点
+        ArrayDeque<Integer> lowDegree = new ArrayDeque<>();
+        boolean[] queued = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            if (!isNode[v]) {
+                removed[v] = true;
+                continue;
+            }
+            remaining++;
+            if (currentDegree[v] < MAX_REGISTERS) {
+                lowDegree.add(v);
+                queued[v] = true;
+            }
+        }
+
+        while (remaining > 0) {
+            int nodeToRemove = -1;
+            while (!lowDegree.isEmpty()) {
+                int v = lowDegree.poll();
+                if (!removed[v]) {
+                    nodeToRemove = v;
                     break;
                 }
             }
             // 使用 spill cost 启发式：选择 useCount / degree 最小的节点
             // 这样会优先 spill 使用次数少、邻居多的变量
-            if (nodeToRemove == null) {
+            if (nodeToRemove == -1) {
                 double minCost = Double.MAX_VALUE;
-                for (IrValue node : nodes) {
-                    int degree = currentGraph.get(node).size();
-                    int uses = useCount.getOrDefault(node, 1);
-                    double cost = (double) uses / Math.max(degree, 1);
+                for (int v = 0; v < n; v++) {
+                    if (removed[v]) continue;
+                    int uses = useCount[v] == 0 ? 1 : useCount[v];
+                    double cost = (double) uses / Math.max(currentDegree[v], 1);
                     if (cost < minCost) {
                         minCost = cost;
-                        nodeToRemove = node;
+                        nodeToRemove = v;
                     }
                 }
             }
-            nodes.remove(nodeToRemove);
-            stack.push(nodeToRemove);
-            for (IrValue neighbor : currentGraph.get(nodeToRemove)) {
-                if (nodes.contains(neighbor)) currentGraph.get(neighbor).remove(nodeToRemove);
+            removed[nodeToRemove] = true;
+            remaining--;
+            stack[top++] = nodeToRemove;
+            for (int neighbor : adjacency[nodeToRemove]) {
+                if (!removed[neighbor]) {
+                    currentDegree[neighbor]--;
+                    if (currentDegree[neighbor] < MAX_REGISTERS && !queued[neighbor]) {
+                        lowDegree.add(neighbor);
+                        queued[neighbor] = true;
+                    }
+                }
             }
         }
 
         // 着色
-        while (!stack.isEmpty()) {
-            IrValue node = stack.pop();
-            Set<Integer> usedColors = new HashSet<>();
-            if (interferenceGraph.containsKey(node)) {
-                for (IrValue neighbor : interferenceGraph.get(node)) {
-                    if (allocation.containsKey(neighbor)) {
-                        usedColors.add(allocation.get(neighbor));
-                    }
+        int[] color = new int[n];
+        Arrays.fill(color, -1);
+        boolean[] usedColors = new boolean[MAX_REGISTERS];
+        while (top > 0) {
+            int node = stack[--top];
+            Arrays.fill(usedColors, false);
+            for (int neighbor : adjacency[node]) {
+                if (color[neighbor] != -1) {
+                    usedColors[color[neighbor]] = true;
                 }
             }
 
             // 根据变量是否跨越 Call 来限制颜色选择 ---
-            boolean isCrossCall = valuesCrossingCalls.contains(node);
+            boolean isCrossCall = valuesCrossingCalls.get(node);
 
             int colorFound = -1;
-            for (int color = 0; color < MAX_REGISTERS; color++) {
+            for (int c = 0; c < MAX_REGISTERS; c++) {
                 // 如果已经被邻居占用，跳过
-                if (usedColors.contains(color)) continue;
+                if (usedColors[c]) continue;
 
                 // 如果变量跨越 Call，它必须使用 Callee-Saved ($s0-$s7)
                 // 对应下标 CALLEE_SAVED_START 到 CALLEE_SAVED_END
                 if (isCrossCall) {
-                    if (color < CALLEE_SAVED_START || color > CALLEE_SAVED_END) {
+                    if (c < CALLEE_SAVED_START || c > CALLEE_SAVED_END) {
                         continue; // 跳过非 $s 寄存器
                     }
                 }
 
-                colorFound = color;
+                colorFound = c;
                 break;
             }
 
             if (colorFound != -1) {
-                allocation.put(node, colorFound);
+                color[node] = colorFound;
+                allocation.put(function.getValueById(node), colorFound);
             } else {
                 // Spill 发生
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,120 @@
+package frontend;
+
+import midend.CompilationContext;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * 前端输出缓冲：语法树输出和错误信息先收集在内存中，
+ * 编译结束时由 flush() 一次性写入文件，避免每个节点/每条错误打开一次文件。
+ */
+public class Diagnostics {
+    private static final String PARSE_TREE_FILE = "parser.txt";
+    private static final String PARSER_ERROR_FILE = "ParserError.txt";
+    private static final String VISIT_ERROR_FILE = "VisitError.txt";
+
+    /**
+     * 一次编译的输出缓冲，由 CompilationContext 持有
+     */
+    public static final class State {
+        private boolean parseTreeEnabled = false;
+        private final StringBuilder parseTree = new StringBuilder();
+        private final ArrayList<Error> parserErrors = new ArrayList<>();
+        private final ArrayList<Error> visitErrors = new ArrayList<>();
+    }
+
+    private static State state() {
+        return CompilationContext.current().getDiagnosticsState();
+    }
+
+    public static void setParseTreeEnabled(boolean enabled) {
+        state().parseTreeEnabled = enabled;
+    }
+
+    public static boolean isParseTreeEnabled() {
+        return state().parseTreeEnabled;
+    }
+
+    // 追加一行语法树输出
+    public static void parseTree(String line) {
+        State state = state();
+        if (state.parseTreeEnabled) {
+            state.parseTree.append(line).append('\n');
+        }
+    }
+
+    // 语法分析阶段的错误
+    public static void reportParserError(Error error) {
+        state().parserErrors.add(error);
+        GlobalError.addError(error);
+    }
+
+    // 语义分析阶段的错误
+    public static void reportVisitError(Error error) {
+        state().visitErrors.add(error);
+        GlobalError.addError(error);
+    }
+
+    // 按行号排序，同一行只保留第一条错误
+    public static List<Error> sortedByLine(List<Error> errors) {
+        ArrayList<Error> sorted = new ArrayList<>(errors);
+        sorted.sort(Comparator.comparingInt(Error::getLine));
+        ArrayList<Error> result = new ArrayList<>();
+        HashSet<Integer> printedLines = new HashSet<>();
+        for (Error error : sorted) {
+            if (printedLines.add(error.getLine())) {
+                result.add(error);
+            }
+        }
+        return result;
+    }
+
+    public static void writeErrors(String file, List<Error> errors) {
+        try {
+            writeErrorFile(file, errors);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void writeErrorFile(String file, List<Error> errors) throws IOException {
+        try (FileWriter writer = new FileWriter(file)) {
+            for (Error error : sortedByLine(errors)) {
+                writer.write(error + "\n");
+            }
+        }
+    }
+
+    // 把缓冲的内容写入 dir 目录并清空，返回写出的文件；写入失败时抛出异常，这次编译不会被缓存
+    public static List<Path> flush(Path dir) throws IOException {
+        State state = state();
+        List<Path> written = new ArrayList<>();
+        try {
+            if (state.parseTreeEnabled) {
+                try (FileWriter writer = new FileWriter(dir.resolve(PARSE_TREE_FILE).toString())) {
+                    writer.write(state.parseTree.toString());
+                }
+                written.add(dir.resolve(PARSE_TREE_FILE));
+            }
+            if (!state.parserErrors.isEmpty()) {
+                writeErrorFile(dir.resolve(PARSER_ERROR_FILE).toString(), state.parserErrors);
+                written.add(dir.resolve(PARSER_ERROR_FILE));
+            }
+            if (!state.visitErrors.isEmpty()) {
+                writeErrorFile(dir.resolve(VISIT_ERROR_FILE).toString(), state.visitErrors);
+                written.add(dir.resolve(VISIT_ERROR_FILE));
+            }
+        } finally {
+            state.parseTree.setLength(0);
+            state.parserErrors.clear();
+            state.visitErrors.clear();
+        }
+        return written;
+    }
+}
@@ -1,8 +1,5 @@
 package frontend;
 
-import java.io.FileWriter;
-import java.io.IOException;
-
 public class Error {
     public enum ErrorType {
         a,b,c,d,e,f,g,h,i,j,k,l,m
@@ -35,14 +32,6 @@ public class Error {
         return line + " " + message;
     }
     public void printToError(Error error) {
-        try {
-            String errorFilename = "VisitError.txt";
-            FileWriter writer = new FileWriter(errorFilename, true);
-            writer.write(error.toString() + "\n");
-            writer.close();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        GlobalError.addError(this);
+        Diagnostics.reportVisitError(error);
     }
 }
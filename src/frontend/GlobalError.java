@@ -1,22 +1,34 @@
 package frontend;
 
+import midend.CompilationContext;
+
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 
 public class GlobalError {
-    private static ArrayList<Error> errors = new ArrayList<>();
-    private static Map<Integer,Boolean> isPrintedMap= new HashMap<>();
+    /**
+     * 一次编译收集到的错误，由 CompilationContext 持有
+     */
+    public static final class State {
+        private final ArrayList<Error> errors = new ArrayList<>();
+        private final Map<Integer,Boolean> isPrintedMap= new HashMap<>();
+    }
+
+    private static State state() {
+        return CompilationContext.current().getErrorState();
+    }
+
     public static void addError(Error error) {
-        errors.add(error);
+        state().errors.add(error);
     }
     public static ArrayList<Error> getErrors() {
-        return errors;
+        return state().errors;
     }
     public static boolean isPrinted(int line) {
-        return isPrintedMap.getOrDefault(line,false);
+        return state().isPrintedMap.getOrDefault(line,false);
     }
     public static void setPrinted(int line) {
-        isPrintedMap.put(line,true);
+        state().isPrintedMap.put(line,true);
     }
 }
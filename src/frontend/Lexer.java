@@ -1,22 +1,64 @@
 package frontend;
 
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 public class Lexer {
-    private final FileInputStream file;
-    private final ArrayList<Token> tokens = new ArrayList<>();
+    // 关键字表：按首字母预先分组，识别标识符时直接与源码字节比较，不生成临时字符串
+    private static final String[] KEYWORDS = {
+            "const", "int", "static", "break", "continue", "if", "main", "else", "for", "return", "void", "printf"
+    };
+    private static final Token.TokenType[] KEYWORD_TYPES = {
+            Token.TokenType.CONSTTK, Token.TokenType.INTTK, Token.TokenType.STATICTK, Token.TokenType.BREAKTK,
+            Token.TokenType.CONTINUETK, Token.TokenType.IFTK, Token.TokenType.MAINTK, Token.TokenType.ELSETK,
+            Token.TokenType.FORTK, Token.TokenType.RETURNTK, Token.TokenType.VOIDTK, Token.TokenType.PRINTFTK
+    };
+    private static final int[][] KEYWORD_TABLE = new int[128][];
+
+    static {
+        for (int i = 0; i < KEYWORDS.length; i++) {
+            char first = KEYWORDS[i].charAt(0);
+            int[] bucket = KEYWORD_TABLE[first];
+            if (bucket == null) {
+                bucket = new int[]{i};
+            } else {
+                bucket = Arrays.copyOf(bucket, bucket.length + 1);
+                bucket[bucket.length - 1] = i;
+            }
+            KEYWORD_TABLE[first] = bucket;
+        }
+    }
+
+    private final SourceBuffer source;
+    private final TokenStream tokens;
     private final ArrayList<Error> errors = new ArrayList<>();
     private int currentLine = 1;
     private char currentChar = ' ';
+    // currentChar 在源码中的偏移，到达末尾时等于源码长度
+    private int currentOffset = 0;
+    // 当前 Token 的起始偏移
+    private int tokenStart = 0;
 
-    public Lexer(FileInputStream file) {
-        this.file = file;
+    public Lexer(FileInputStream file) throws IOException {
+        this(SourceBuffer.fromStream(file));
+    }
+
+    public Lexer(SourceBuffer source) {
+        this.source = source;
+        this.tokens = new TokenStream(source, this);
         // 初始化
         // 读取第一个字符
         getChar();
     }
-    public ArrayList<Token> getTokens() {
+    public TokenStream getTokens() {
+        return this.tokens;
+    }
+
+    // 流式模式：不预先词法分析，parser 通过 TokenStream 按需拉取 Token，已越过的 Token 会被回收
+    public TokenStream stream() {
+        tokens.setStreaming(true);
         return this.tokens;
     }
     public ArrayList<Error> getErrors() {
@@ -27,55 +69,60 @@ public class Lexer {
     }
 
     public void analyse() {
-        Token currentToken;
-        while ((currentToken = getToken()) != null) {
-            tokens.add(currentToken);
+        tokens.fill();
+    }
+
+    // 识别下一个 Token 并追加到 TokenStream，到达文件末尾返回 false
+    boolean lexNext() {
+        Token.TokenType type = getToken();
+        if (type == null) {
+            return false;
         }
+        tokens.add(type, tokenStart, currentOffset, currentLine);
+        return true;
     }
 
     private void getChar(){
-        try {
-            int ch = file.read();
-            if (ch != -1) {
-                currentChar = (char) ch;
-            } else {
-                currentChar = '\0';
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+        currentOffset = source.getPosition();
+        int ch = source.read();
+        if (ch != -1) {
+            currentChar = (char) ch;
+        } else {
+            currentChar = '\0';
         }
     }
 
-    private Token getToken(){
-        StringBuilder lexeme = new StringBuilder();
+    // 返回识别出的 Token 类型，lexeme 为 [tokenStart, currentOffset) 区间；到达文件末尾返回 null
+    private Token.TokenType getToken(){
         skipWhitespace();
+        tokenStart = currentOffset;
         //首字符判断
         if (isLetter(currentChar) || isUnderscore(currentChar)) {
             // 处理标识符或关键字
-            return handleIdentifierOrKeyword(lexeme);
+            return handleIdentifierOrKeyword();
         } else if (isDigit(currentChar)) {
             // 处理整数常量
-            return handleIntegerConstant(lexeme);
+            return handleIntegerConstant();
         }else if(isQuote(currentChar)){
             // 处理字符串常量
-            return handleStringConstant(lexeme);
+            return handleStringConstant();
         }else if(isSlash(currentChar)){
             // 处理注释或除号
-            return handleCommentOrDivide(lexeme);
+            return handleCommentOrDivide();
         }else if(isPlus(currentChar)||isMinus(currentChar)||isAsterisk(currentChar)||isPercent(currentChar)||
                 isSemi(currentChar)||isComma(currentChar)||isLParen(currentChar)||isRParen(currentChar)||isLBrack(currentChar)||
                 isRBrack(currentChar)||isLBrace(currentChar)||isRBrace(currentChar)){
             // 处理单字符运算符或分隔符
-            return handleSingle(lexeme);
+            return handleSingle();
         }else if(isEqual(currentChar)||isLess(currentChar)||isGreater(currentChar)||isNot(currentChar)) {
             // 处理=
-            return handleEqualOrAssign(lexeme);
+            return handleEqualOrAssign();
         }else if(isEOF(currentChar)) {
             return null;
         }else if(isAnd(currentChar)) {
-            return handleAnd(lexeme);
+            return handleAnd();
         }else if(isOr(currentChar)) {
-            return handleOr(lexeme);
+            return handleOr();
         }else {
             // 未知字符，跳过并记录错误
             errors.add(new Error(Error.ErrorType.a, currentLine, "not known"));
@@ -84,56 +131,71 @@ public class Lexer {
         }
     }
 
-    private Token handleOr(StringBuilder lexeme) {
-        lexeme.append(currentChar);
+    private Token.TokenType handleOr() {
         getChar();
         if(!isOr(currentChar)){
             errors.add(new Error(Error.ErrorType.a, currentLine, "a"));
             GlobalError.addError(errors.get(errors.size()-1));
         }else {
-            lexeme.append(currentChar);
             getChar();
         }
-        return new Token(Token.TokenType.OR, lexeme.toString(), currentLine);
+        return Token.TokenType.OR;
     }
 
-    private Token handleAnd(StringBuilder lexeme) {
-        lexeme.append(currentChar);
+    private Token.TokenType handleAnd() {
         getChar();
         if(!isAnd(currentChar)){
             errors.add(new Error(Error.ErrorType.a, currentLine, "a"));
             GlobalError.addError(errors.get(errors.size()-1));
         }else {
-            lexeme.append(currentChar);
             getChar();
         }
-        return new Token(Token.TokenType.AND, lexeme.toString(), currentLine);
+        return Token.TokenType.AND;
     }
 
-    private Token handleEqualOrAssign(StringBuilder lexeme) {
-        lexeme.append(currentChar);
+    private Token.TokenType handleEqualOrAssign() {
+        char first = currentChar;
         getChar();
         if(isEqual(currentChar)){
-            // ==
-            lexeme.append(currentChar);
+            // ==, <=, >=, !=
             getChar();
-            String lexemeStr  = lexeme.toString();
-            return new Token(turn2tokenType(lexemeStr), lexeme.toString(), currentLine);
+            return switch (first) {
+                case '=' -> Token.TokenType.EQL;
+                case '<' -> Token.TokenType.LEQ;
+                case '>' -> Token.TokenType.GEQ;
+                default -> Token.TokenType.NEQ;
+            };
         }else{
-            // =
-            String lexemeStr  = lexeme.toString();
-            return new Token(turn2tokenType(lexemeStr), lexeme.toString(), currentLine);
+            // =, <, >, !
+            return switch (first) {
+                case '=' -> Token.TokenType.ASSIGN;
+                case '<' -> Token.TokenType.LSS;
+                case '>' -> Token.TokenType.GRE;
+                default -> Token.TokenType.NOT;
+            };
         }
     }
 
-    private Token handleSingle(StringBuilder lexeme) {
-        lexeme.append(currentChar);
+    private Token.TokenType handleSingle() {
+        char ch = currentChar;
         getChar();
-        return new Token(turn2tokenType(lexeme.toString()), lexeme.toString(), currentLine);
+        return switch (ch) {
+            case '+' -> Token.TokenType.PLUS;
+            case '-' -> Token.TokenType.MINU;
+            case '*' -> Token.TokenType.MULT;
+            case '%' -> Token.TokenType.MOD;
+            case ';' -> Token.TokenType.SEMICN;
+            case ',' -> Token.TokenType.COMMA;
+            case '(' -> Token.TokenType.LPARENT;
+            case ')' -> Token.TokenType.RPARENT;
+            case '[' -> Token.TokenType.LBRACK;
+            case ']' -> Token.TokenType.RBRACK;
+            case '{' -> Token.TokenType.LBRACE;
+            default -> Token.TokenType.RBRACE;
+        };
     }
 
-    private Token handleCommentOrDivide(StringBuilder lexeme) {
-        lexeme.append(currentChar);
+    private Token.TokenType handleCommentOrDivide() {
         getChar();
         if (isSlash(currentChar)) {
             // 单行注释
@@ -161,39 +223,45 @@ public class Lexer {
             return getToken(); // 继续获取下一个Token
         } else {
             // 除号
-            return new Token(Token.TokenType.DIV, lexeme.toString(), currentLine);
+            return Token.TokenType.DIV;
         }
     }
 
-    private Token handleStringConstant(StringBuilder lexeme) {
+    private Token.TokenType handleStringConstant() {
         do {
-            lexeme.append(currentChar);
             getChar();
         } while (currentChar != '"' && currentChar != '\0');
         // 结尾的引号
         if (currentChar == '"') {
-            lexeme.append(currentChar);
             getChar();
         }
-        return new Token(Token.TokenType.STRCON, lexeme.toString(), currentLine);
+        return Token.TokenType.STRCON;
     }
 
-    private Token handleIntegerConstant(StringBuilder lexeme) {
+    private Token.TokenType handleIntegerConstant() {
         while (isDigit(currentChar)) {
-            lexeme.append(currentChar);
             getChar();
         }
-        return new Token(Token.TokenType.INTCON, lexeme.toString(), currentLine);
+        return Token.TokenType.INTCON;
     }
 
-    private Token handleIdentifierOrKeyword(StringBuilder lexeme) {
+    private Token.TokenType handleIdentifierOrKeyword() {
         while (isLetter(currentChar) || isDigit(currentChar) || isUnderscore(currentChar)) {
-            lexeme.append(currentChar);
             getChar();
         }
-        String lexemeStr = lexeme.toString();
+        return keywordOrIdentifier(tokenStart, currentOffset);
+    }
 
-        return  new Token(turn2tokenType(lexemeStr), lexemeStr, currentLine);
+    private Token.TokenType keywordOrIdentifier(int start, int end) {
+        char first = source.charAt(start);
+        if (first < KEYWORD_TABLE.length && KEYWORD_TABLE[first] != null) {
+            for (int k : KEYWORD_TABLE[first]) {
+                if (source.regionMatches(start, end, KEYWORDS[k])) {
+                    return KEYWORD_TYPES[k];
+                }
+            }
+        }
+        return Token.TokenType.IDENFR;
     }
 
     private boolean isSpace(char ch) {
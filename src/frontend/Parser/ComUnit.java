@@ -6,12 +6,13 @@ import frontend.Parser.MainFuncDef.MainFuncDef;
 import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
 import frontend.Token;
+import frontend.TokenStream;
 
 import java.util.ArrayList;
 
 public class ComUnit extends Node {
 
-    public ComUnit(GrammarType type, int index, ArrayList<Token> tokens) {
+    public ComUnit(GrammarType type, int index, TokenStream tokens) {
         super(type,index, tokens);
     }
 
@@ -44,23 +45,23 @@ public class ComUnit extends Node {
 
     private boolean isMainFuncDefStart(Token token) {
         //MainFuncDef以"int main("开头
-        return token.getLexeme().equals("int") &&
-               this.peekToken(1).getLexeme().equals("main") &&
-               this.peekToken(2).getLexeme().equals("(");
+        return token.getType() == Token.TokenType.INTTK &&
+               this.peekIs(1, Token.TokenType.MAINTK) &&
+               this.peekIs(2, Token.TokenType.LPARENT);
     }
 
     private boolean isFuncDefStart(Token token) {
         //FuncDef以"void"或"int"开头
-        return (!this.peekToken(1).getLexeme().equals("main")) &&
-               (token.getLexeme().equals("void") ||
-                token.getLexeme().equals("int"))&&this.peekToken(2).getLexeme().equals("(");
+        return (!this.peekIs(1, Token.TokenType.MAINTK)) &&
+               (token.getType() == Token.TokenType.VOIDTK ||
+                token.getType() == Token.TokenType.INTTK)&&this.peekIs(2, Token.TokenType.LPARENT);
     }
 
     private boolean isDeclStart(Token token) {
         //Decl以"int"或"const"或"static"开头
-        return token.getLexeme().equals("int") ||
-               token.getLexeme().equals("const") ||
-               token.getLexeme().equals("static");
+        return token.getType() == Token.TokenType.INTTK ||
+               token.getType() == Token.TokenType.CONSTTK ||
+               token.getType() == Token.TokenType.STATICTK;
     }
 
     public ArrayList<Decl> GetDecls() {
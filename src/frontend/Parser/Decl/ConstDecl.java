@@ -6,11 +6,12 @@ import frontend.Parser.Token.ConstToken;
 import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
 import frontend.Token;
+import frontend.TokenStream;
 
 import java.util.ArrayList;
 
 public class ConstDecl extends Node {
-    public ConstDecl(GrammarType type,int index, ArrayList<Token> tokens) {
+    public ConstDecl(GrammarType type,int index, TokenStream tokens) {
         super(type,index,tokens);
     }
 
@@ -30,7 +31,7 @@ public class ConstDecl extends Node {
         constDef.parser();
 
         // 重复的constDef
-        while (this.peekToken(0).getLexeme().equals(",")) {
+        while (this.peekIs(0, Token.TokenType.COMMA)) {
             // ,
             ConstToken commaToken = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
             commaToken.setTokens(this.getTokens());
@@ -44,7 +45,7 @@ public class ConstDecl extends Node {
 
         }
 
-        if(this.peekToken(0).getLexeme().equals(";")) {
+        if(this.peekIs(0, Token.TokenType.SEMICN)) {
             // ;
             ConstToken semicolonToken = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
             semicolonToken.setTokens(this.getTokens());
@@ -8,11 +8,12 @@ import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
 import midend.Symbol.SymbolType;
 import frontend.Token;
+import frontend.TokenStream;
 
 import java.util.ArrayList;
 
 public class ConstDef extends Node {
-    public ConstDef(GrammarType type, int index, ArrayList<Token> tokens) {
+    public ConstDef(GrammarType type, int index, TokenStream tokens) {
         super(type, index, tokens);
     }
 
@@ -23,7 +24,7 @@ public class ConstDef extends Node {
         ident.parser();
 
         //是否为数组
-        if(this.peekToken(0).getLexeme().equals("[")) {
+        if(this.peekIs(0, Token.TokenType.LBRACK)) {
             //[
             ConstToken leftBracket = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
             leftBracket.setTokens(this.getTokens());
@@ -38,7 +39,7 @@ public class ConstDef extends Node {
             constExp.parser();
 
             //]
-            if(!this.peekToken(0).getLexeme().equals("]")) {
+            if(!this.peekIs(0, Token.TokenType.RBRACK)) {
                 Error error = new Error(Error.ErrorType.k, this.peekToken(-1).getLine(), "k");
                 this.printToError(error);
                 ConstToken rightBracket = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
@@ -71,7 +72,7 @@ public class ConstDef extends Node {
     }
 
     public SymbolType GetSymbolType() {
-        if(this.getChildren().get(1).getToken().getLexeme().equals("=")) {
+        if(this.getChildren().get(1).getToken().getType() == Token.TokenType.ASSIGN) {
             return SymbolType.CONST_INT;
         }else {
             return SymbolType.CONST_INT_ARRAY;
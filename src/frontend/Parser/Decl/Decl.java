@@ -3,16 +3,15 @@ package frontend.Parser.Decl;
 import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
 import frontend.Token;
-
-import java.util.ArrayList;
+import frontend.TokenStream;
 
 public class Decl extends Node {
-    public Decl(GrammarType type,int index, ArrayList<Token> tokens) {
+    public Decl(GrammarType type,int index, TokenStream tokens) {
         super(type,index,tokens);
     }
 
     public void parser() {
-        if(this.peekToken(0).getLexeme().equals("const")) {
+        if(this.peekIs(0, Token.TokenType.CONSTTK)) {
             //常量声明 ConstDecl
             ConstDecl constDecl = new ConstDecl(GrammarType.ConstDecl,this.getIndex(),this.getTokens());
             constDecl.setTokens(this.getTokens());
@@ -5,18 +5,19 @@ import frontend.Parser.Token.ConstToken;
 import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
 import frontend.Token;
+import frontend.TokenStream;
 
 import java.util.ArrayList;
 
 public class VarDecl extends Node {
-    public VarDecl(GrammarType type,int index, ArrayList<Token> tokens) {
+    public VarDecl(GrammarType type,int index, TokenStream tokens) {
         super(type, index,  tokens);
     }
 
     public void parser() {
         // 变量声明 VarDecl → [ 'static' ] BType VarDef { ',' VarDef } ';'
         // ['static']
-        if (this.peekToken(0).getLexeme().equals("static")) {
+        if (this.peekIs(0, Token.TokenType.STATICTK)) {
             ConstToken staticToken = new ConstToken(GrammarType.Token, this.getIndex(),this.getTokens());
             this.addChild(staticToken);
             staticToken.parser();
@@ -31,7 +32,7 @@ public class VarDecl extends Node {
         this.addChild(varDef);
         varDef.parser();
         // { ',' VarDef }
-        while (this.peekToken(0).getLexeme().equals(",")) {
+        while (this.peekIs(0, Token.TokenType.COMMA)) {
             ConstToken commaToken = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
             this.addChild(commaToken);
             commaToken.parser();
@@ -42,7 +43,7 @@ public class VarDecl extends Node {
         }
 
         // ';'
-        if(!this.peekToken(0).getLexeme().equals(";")) {
+        if(!this.peekIs(0, Token.TokenType.SEMICN)) {
             Error error = new Error(Error.ErrorType.i,this.peekToken(-1).getLine(), "i");
             this.printToError(error);
             ConstToken semicolonToken = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
@@ -69,6 +70,6 @@ public class VarDecl extends Node {
     }
     public boolean isStatic(){
         return this.getChildren().get(0).getType() == GrammarType.Token &&
-                this.getChildren().get(0).getToken().getLexeme().equals("static");
+                this.getChildren().get(0).getToken().getType() == Token.TokenType.STATICTK;
     }
 }
@@ -8,11 +8,12 @@ import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
 import midend.Symbol.SymbolType;
 import frontend.Token;
+import frontend.TokenStream;
 
 import java.util.ArrayList;
 
 public class VarDef extends Node {
-    public VarDef(GrammarType type,int index, ArrayList<Token> tokens) {
+    public VarDef(GrammarType type,int index, TokenStream tokens) {
         super(type, index, tokens);
     }
 
@@ -23,7 +24,7 @@ public class VarDef extends Node {
         this.addChild(ident);
         ident.parser();
         //['[' ConstExp ']']
-        if(this.peekToken(0).getLexeme().equals("[")) {
+        if(this.peekIs(0, Token.TokenType.LBRACK)) {
             //[
             ConstToken leftBracket = new ConstToken(GrammarType.Token,this.getIndex(),this.getTokens());
             this.addChild(leftBracket);
@@ -35,7 +36,7 @@ public class VarDef extends Node {
             constExp.parser();
 
             //]
-            if(!this.peekToken(0).getLexeme().equals("]")) {
+            if(!this.peekIs(0, Token.TokenType.RBRACK)) {
                 //错误处理，缺少右括号
                 Error error = new Error(Error.ErrorType.k,this.peekToken(-1).getLine(), "k");
                 this.printToError(error);
@@ -50,7 +51,7 @@ public class VarDef extends Node {
             }
         }
         //| '=' InitVal
-        if(this.peekToken(0).getLexeme().equals("=")) {
+        if(this.peekIs(0, Token.TokenType.ASSIGN)) {
             //=
             ConstToken equalToken = new ConstToken(GrammarType.Token,this.getIndex(),this.getTokens());
             this.addChild(equalToken);
@@ -0,0 +1,95 @@
+package frontend.Parser.Exp;
+
+import frontend.Parser.Token.ConstToken;
+import frontend.Parser.Tree.GrammarType;
+import frontend.Parser.Tree.Node;
+import frontend.Token;
+import frontend.TokenStream;
+import midend.Symbol.SymbolType;
+
+/**
+ * 二元表达式节点：children 为 [左操作数, 运算符, 右操作数]，操作数是 BinaryExp 或 UnaryExp。
+ * 由 ExpParser 按运算符优先级直接构建，一个字面量只需要 UnaryExp → PrimaryExp → Number。
+ */
+public class BinaryExp extends Node {
+    public BinaryExp(GrammarType type, int index, TokenStream tokens) {
+        super(type, index, tokens);
+    }
+
+    public Node GetLeft() {
+        return this.getChildren().get(0);
+    }
+
+    public Token GetOpToken() {
+        return this.getChildren().get(1).getToken();
+    }
+
+    public Token.TokenType GetOp() {
+        return this.GetOpToken().getType();
+    }
+
+    public Node GetRight() {
+        return this.getChildren().get(2);
+    }
+
+    public boolean IsLogical() {
+        return this.GetOp() == Token.TokenType.AND || this.GetOp() == Token.TokenType.OR;
+    }
+
+    public int Evaluate() {
+        int left = Evaluate(this.GetLeft());
+        if (this.GetOp() == Token.TokenType.AND && left == 0) {
+            return 0;
+        }
+        if (this.GetOp() == Token.TokenType.OR && left != 0) {
+            return 1;
+        }
+        int right = Evaluate(this.GetRight());
+        return switch (this.GetOp()) {
+            case PLUS -> left + right;
+            case MINU -> left - right;
+            case MULT -> left * right;
+            case DIV -> left / right;
+            case MOD -> left % right;
+            case LSS -> left < right ? 1 : 0;
+            case LEQ -> left <= right ? 1 : 0;
+            case GRE -> left > right ? 1 : 0;
+            case GEQ -> left >= right ? 1 : 0;
+            case EQL -> left == right ? 1 : 0;
+            case NEQ -> left != right ? 1 : 0;
+            case AND, OR -> right != 0 ? 1 : 0;
+            default -> throw new RuntimeException("Unknown binary op: " + this.GetOpToken().getLexeme());
+        };
+    }
+
+    // 求值 ExpParser 产生的表达式节点（BinaryExp 或 UnaryExp）
+    public static int Evaluate(Node exp) {
+        if (exp instanceof BinaryExp binaryExp) {
+            return binaryExp.Evaluate();
+        }
+        return ((UnaryExp) exp).Evaluate();
+    }
+
+    // 从左到右检查操作数，出现数组则整个表达式是数组类型
+    public static SymbolType GetExpType(Node exp) {
+        return ContainsArray(exp) ? SymbolType.ARRAY : SymbolType.NOT_ARRAY;
+    }
+
+    private static boolean ContainsArray(Node exp) {
+        if (exp instanceof BinaryExp binaryExp) {
+            return ContainsArray(binaryExp.GetLeft()) || ContainsArray(binaryExp.GetRight());
+        }
+        SymbolType type = ((UnaryExp) exp).getExpType();
+        return type.equals(SymbolType.CONST_INT_ARRAY) || type.equals(SymbolType.STATIC_INT_ARRAY)
+                || type.equals(SymbolType.INT_ARRAY);
+    }
+
+    // 建立 [左操作数, 运算符, 右操作数] 结构
+    static BinaryExp Of(Node left, ConstToken op, Node right) {
+        BinaryExp binaryExp = new BinaryExp(GrammarType.BinaryExp, op.getIndex(), op.getTokens());
+        binaryExp.addChild(left);
+        binaryExp.addChild(op);
+        binaryExp.addChild(right);
+        return binaryExp;
+    }
+}
@@ -1,21 +1,17 @@
 package frontend.Parser.Exp;
 
-import frontend.Parser.Token.ConstToken;
 import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
-import frontend.Token;
-
-import java.util.ArrayList;
+import frontend.TokenStream;
 
 public class ConstExp extends Node {
-    public ConstExp(GrammarType type,int index, ArrayList<Token> tokens) {
+    public ConstExp(GrammarType type,int index, TokenStream tokens) {
         super(type,index,tokens);
     }
 
     public void parser() {
-        AddExp addExp = new AddExp(GrammarType.AddExp,this.getIndex(), this.getTokens());
-        this.addChild(addExp);
-        addExp.parser();
+        Node exp = new ExpParser(this).parse(ExpParser.ADDITIVE);
+        this.addChild(exp);
 
         this.printTypeToFile();
 
@@ -24,8 +20,7 @@ public class ConstExp extends Node {
     }
 
     public int Evaluate() {
-        AddExp addExp = (AddExp)this.getChildren().get(0);
-        return addExp.Evaluate();
+        return BinaryExp.Evaluate(this.getChildren().get(0));
     }
 
 }
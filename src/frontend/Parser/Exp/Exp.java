@@ -2,36 +2,34 @@ package frontend.Parser.Exp;
 
 import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
-import frontend.Token;
+import frontend.TokenStream;
 import midend.Symbol.SymbolType;
 
-import java.util.ArrayList;
-
 public class Exp extends Node {
-    public Exp(GrammarType type, int index, ArrayList<Token> tokens) {
+    public Exp(GrammarType type, int index, TokenStream tokens) {
         super(type, index, tokens);
     }
 
     public void parser() {
-        AddExp addExp = new AddExp(GrammarType.AddExp, this.getIndex(), this.getTokens());
-        this.addChild(addExp);
-        addExp.parser();
+        // Exp → AddExp，加减乘除按优先级直接解析为 BinaryExp
+        Node exp = new ExpParser(this).parse(ExpParser.ADDITIVE);
+        this.addChild(exp);
 
         this.printTypeToFile();
         Node parent = this.getParent();
         parent.setIndex(this.getIndex());
     }
 
-    public AddExp GetChildAsAddExp() {
-        return (AddExp) this.getChildren().get(0);
+    // BinaryExp 或 UnaryExp
+    public Node GetChildAsExpNode() {
+        return this.getChildren().get(0);
     }
 
     public SymbolType getExpType() {
-        return this.GetChildAsAddExp().getExpType();
+        return BinaryExp.GetExpType(this.GetChildAsExpNode());
     }
 
     public int Evaluate() {
-        AddExp addExp = (AddExp) this.getChildren().get(0);
-        return addExp.Evaluate();
+        return BinaryExp.Evaluate(this.GetChildAsExpNode());
     }
 }
@@ -0,0 +1,105 @@
+package frontend.Parser.Exp;
+
+import frontend.Diagnostics;
+import frontend.Error;
+import frontend.Parser.Token.ConstToken;
+import frontend.Parser.Tree.GrammarType;
+import frontend.Parser.Tree.Node;
+import frontend.Token;
+import frontend.TokenStream;
+
+/**
+ * 算符优先（precedence climbing）表达式解析，直接构建 BinaryExp 树。
+ * 解析出的节点挂在 owner（Exp / ConstExp / Cond）下，Token 下标也通过 owner 推进。
+ * <p>
+ * 输出语法树时按原文法补出被折叠的各层成分：每个操作数解析完后，从它已输出到的层级起，
+ * 逐层输出到当前运算符（或调用者要求的最低优先级）所在的层级，与原来 MulExp ... LOrExp 逐层递归的输出一致。
+ */
+public class ExpParser {
+    // 运算符优先级，数值越大结合越紧，全部左结合
+    public static final int LOR = 1;
+    public static final int LAND = 2;
+    public static final int EQUALITY = 3;
+    public static final int RELATIONAL = 4;
+    public static final int ADDITIVE = 5;
+    public static final int MULTIPLICATIVE = 6;
+    private static final int UNARY = 7;
+
+    // 各优先级在原文法中对应的语法成分
+    private static final String[] LEVEL_TAGS = {
+            null, "<LOrExp>", "<LAndExp>", "<EqExp>", "<RelExp>", "<AddExp>", "<MulExp>"
+    };
+
+    private final Node owner;
+    private final TokenStream tokens;
+
+    public ExpParser(Node owner) {
+        this.owner = owner;
+        this.tokens = owner.getTokens();
+    }
+
+    // 解析优先级不低于 minPrecedence 的表达式
+    public Node parse(int minPrecedence) {
+        Node left = parseOperand();
+        // left 已经输出到的层级，UnaryExp 自己输出了 <UnaryExp>
+        int level = UNARY;
+        while (true) {
+            int index = owner.getIndex();
+            if (!tokens.has(index)) {
+                break;
+            }
+            Token.TokenType op = tokens.getType(index);
+            int precedence = precedence(op);
+            if (precedence == 0 || precedence < minPrecedence) {
+                break;
+            }
+            // 单个 & 或 |：报错后按 && / || 继续解析，原文法在这里不输出这一层
+            boolean singleLogicOp = (op == Token.TokenType.AND || op == Token.TokenType.OR)
+                    && tokens.getLength(index) == 1;
+            if (singleLogicOp) {
+                Error error = new Error(Error.ErrorType.a, tokens.getLine(index - 1), "a");
+                owner.printToError(error);
+            }
+            printLevels(level, singleLogicOp ? precedence + 1 : precedence);
+            ConstToken opToken = new ConstToken(GrammarType.Token, index, tokens);
+            opToken.setParent(owner);
+            opToken.parser();
+
+            Node right = parse(precedence + 1);
+            left = BinaryExp.Of(left, opToken, right);
+            // 右操作数已经输出到 precedence + 1 层
+            level = precedence + 1;
+        }
+        printLevels(level, minPrecedence);
+        return left;
+    }
+
+    // 输出 from 之下直到 to 的各层语法成分
+    private static void printLevels(int from, int to) {
+        if (!Diagnostics.isParseTreeEnabled()) {
+            return;
+        }
+        for (int p = from - 1; p >= to; p--) {
+            Diagnostics.parseTree(LEVEL_TAGS[p]);
+        }
+    }
+
+    private Node parseOperand() {
+        UnaryExp unaryExp = new UnaryExp(GrammarType.UnaryExp, owner.getIndex(), tokens);
+        unaryExp.setParent(owner);
+        unaryExp.parser();
+        return unaryExp;
+    }
+
+    private static int precedence(Token.TokenType type) {
+        return switch (type) {
+            case OR -> LOR;
+            case AND -> LAND;
+            case EQL, NEQ -> EQUALITY;
+            case LSS, LEQ, GRE, GEQ -> RELATIONAL;
+            case PLUS, MINU -> ADDITIVE;
+            case MULT, DIV, MOD -> MULTIPLICATIVE;
+            default -> 0;
+        };
+    }
+}
@@ -6,18 +6,17 @@ import frontend.Parser.Token.ConstToken;
 import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
 import frontend.Token;
+import frontend.TokenStream;
 import midend.Symbol.SymbolType;
 
-import java.util.ArrayList;
-
 public class PrimaryExp extends Node {
-    public PrimaryExp(GrammarType type, int index, ArrayList<Token> tokens) {
+    public PrimaryExp(GrammarType type, int index, TokenStream tokens) {
         super(type, index, tokens);
     }
 
     public void parser() {
         //PrimaryExp → '(' Exp ')' | LVal | Number
-        if (this.peekToken(0).getLexeme().equals("(")) {
+        if (this.peekIs(0, Token.TokenType.LPARENT)) {
             //(
             ConstToken leftParen = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
             this.addChild(leftParen);
@@ -29,7 +28,7 @@ public class PrimaryExp extends Node {
             exp.parser();
 
             //)
-            if (!this.peekToken(0).getLexeme().equals(")")) {
+            if (!this.peekIs(0, Token.TokenType.RPARENT)) {
                 frontend.Error error = new frontend.Error(Error.ErrorType.j, this.peekToken(-1).getLine(), "j");
                 this.printToError(error);
                 ConstToken rightParen = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
@@ -39,7 +38,7 @@ public class PrimaryExp extends Node {
                 this.addChild(rightParen);
                 rightParen.parser();
             }
-        } else if (this.peekToken(0).getType().equals(Token.TokenType.INTCON)) {
+        } else if (this.peekIs(0, Token.TokenType.INTCON)) {
             //Number
             NumberConst numConst = new NumberConst(GrammarType.Number, this.getIndex(), this.getTokens());
             this.addChild(numConst);
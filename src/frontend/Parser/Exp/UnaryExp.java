@@ -6,20 +6,19 @@ import frontend.Parser.Token.ConstToken;
 import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
 import frontend.Token;
+import frontend.TokenStream;
 import midend.Symbol.GlobalSymbolTable;
 import midend.Symbol.Symbol;
 import midend.Symbol.SymbolType;
 
-import java.util.ArrayList;
-
 public class UnaryExp extends Node {
-    public UnaryExp(GrammarType type, int index, ArrayList<Token> tokens) {
+    public UnaryExp(GrammarType type, int index, TokenStream tokens) {
         super(type, index, tokens);
     }
 
     public void parser() {
         //UnaryExp → PrimaryExp | Ident '(' [FuncRParams] ')' | UnaryOp UnaryExp
-        if (this.peekToken(0).getLexeme().equals("+") || this.peekToken(0).getLexeme().equals("-") || this.peekToken(0).getLexeme().equals("!")) {
+        if (this.peekIs(0, Token.TokenType.PLUS) || this.peekIs(0, Token.TokenType.MINU) || this.peekIs(0, Token.TokenType.NOT)) {
             //UnaryOp
             UnaryOp unaryOp = new UnaryOp(GrammarType.UnaryOp, this.getIndex(), this.getTokens());
             this.addChild(unaryOp);
@@ -29,7 +28,7 @@ public class UnaryExp extends Node {
             UnaryExp unaryExp = new UnaryExp(GrammarType.UnaryExp, this.getIndex(), this.getTokens());
             this.addChild(unaryExp);
             unaryExp.parser();
-        } else if (this.peekToken(1).getLexeme().equals("(") && this.peekToken(0).getType().equals(Token.TokenType.IDENFR)) {
+        } else if (this.peekIs(1, Token.TokenType.LPARENT) && this.peekIs(0, Token.TokenType.IDENFR)) {
             //Ident
             ConstToken ident = new ConstToken(GrammarType.Ident, this.getIndex(), this.getTokens());
             this.addChild(ident);
@@ -42,14 +41,14 @@ public class UnaryExp extends Node {
             leftParen.parser();
 
             //FuncRParams
-            if (!this.peekToken(0).getLexeme().equals(")")) {
+            if (!this.peekIs(0, Token.TokenType.RPARENT)) {
                 FuncRParams funcRParams = new FuncRParams(GrammarType.FuncRParams, this.getIndex(), this.getTokens());
                 this.addChild(funcRParams);
                 funcRParams.parser();
             }
 
             //)
-            if (!this.peekToken(0).getLexeme().equals(")")) {
+            if (!this.peekIs(0, Token.TokenType.RPARENT)) {
                 Error error = new Error(Error.ErrorType.j, this.peekToken(-1).getLine(), "j");
                 this.printToError(error);
                 ConstToken rightParen = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
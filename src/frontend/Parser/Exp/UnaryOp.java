@@ -2,12 +2,10 @@ package frontend.Parser.Exp;
 
 import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
-import frontend.Token;
-
-import java.util.ArrayList;
+import frontend.TokenStream;
 
 public class UnaryOp extends Node {
-    public UnaryOp(GrammarType type,int index, ArrayList<Token> tokens) {
+    public UnaryOp(GrammarType type,int index, TokenStream tokens) {
         super(type,index,tokens);
     }
 
@@ -7,11 +7,10 @@ import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
 import midend.Symbol.SymbolType;
 import frontend.Token;
-
-import java.util.ArrayList;
+import frontend.TokenStream;
 
 public class FuncDef extends Node {
-    public FuncDef(GrammarType type,int index, ArrayList<Token> tokens) {
+    public FuncDef(GrammarType type,int index, TokenStream tokens) {
         super(type, index,tokens);
     }
 
@@ -31,13 +30,13 @@ public class FuncDef extends Node {
         this.addChild(leftParen);
         leftParen.parser();
         // [FuncFParams]
-        if (this.peekToken(0).getLexeme().equals("int")) {
+        if (this.peekIs(0, Token.TokenType.INTTK)) {
             FuncFParams funcFParams = new FuncFParams(GrammarType.FuncFParams, this.getIndex(), this.getTokens());
             this.addChild(funcFParams);
             funcFParams.parser();
         }
         // ')'
-        if(!this.peekToken(0).getLexeme().equals(")")){
+        if(!this.peekIs(0, Token.TokenType.RPARENT)){
             Error error = new Error(Error.ErrorType.j, this.peekToken(-1).getLine(),"j");
             this.printToError(error);
             ConstToken rightParen = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
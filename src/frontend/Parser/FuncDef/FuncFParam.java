@@ -7,11 +7,10 @@ import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
 import midend.Symbol.SymbolType;
 import frontend.Token;
-
-import java.util.ArrayList;
+import frontend.TokenStream;
 
 public class FuncFParam extends Node {
-    public FuncFParam(GrammarType type,int index, ArrayList<Token> tokens) {
+    public FuncFParam(GrammarType type,int index, TokenStream tokens) {
         super(type,index,tokens);
     }
 
@@ -26,13 +25,13 @@ public class FuncFParam extends Node {
         this.addChild(ident);
         ident.parser();
         // ['[' ']']
-        if (this.peekToken(0).getLexeme().equals("[")){
+        if (this.peekIs(0, Token.TokenType.LBRACK)){
             // [
             ConstToken leftBracket = new ConstToken(GrammarType.Token,this.getIndex(), this.getTokens());
             this.addChild(leftBracket);
             leftBracket.parser();
             // ]
-            if(!this.peekToken(0).getLexeme().equals("]")) {
+            if(!this.peekIs(0, Token.TokenType.RBRACK)) {
                 //错误处理，缺少右括号
                 frontend.Error error = new frontend.Error(Error.ErrorType.k,this.peekToken(-1).getLine(), "k");
                 this.printToError(error);
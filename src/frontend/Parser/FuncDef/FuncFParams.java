@@ -4,11 +4,10 @@ import frontend.Parser.Token.ConstToken;
 import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
 import frontend.Token;
-
-import java.util.ArrayList;
+import frontend.TokenStream;
 
 public class FuncFParams extends Node {
-    public FuncFParams(GrammarType type,int index, ArrayList<Token> tokens) {
+    public FuncFParams(GrammarType type,int index, TokenStream tokens) {
         super(type,index,tokens);
     }
 
@@ -18,7 +17,7 @@ public class FuncFParams extends Node {
         this.addChild(funcFParam);
         funcFParam.parser();
 
-        while (this.peekToken(0).getLexeme().equals(",")) {
+        while (this.peekIs(0, Token.TokenType.COMMA)) {
             // ','
             ConstToken comma = new ConstToken(GrammarType.Token,this.getIndex(), this.getTokens());
             this.addChild(comma);
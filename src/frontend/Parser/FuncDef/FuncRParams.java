@@ -5,11 +5,12 @@ import frontend.Parser.Token.ConstToken;
 import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
 import frontend.Token;
-
-import java.util.ArrayList;
+import frontend.TokenStream;
 
 public class FuncRParams extends Node {
-    public FuncRParams(GrammarType type,int index, ArrayList<Token> tokens) {
+    private int line;
+
+    public FuncRParams(GrammarType type,int index, TokenStream tokens) {
         super(type,index,tokens);
     }
 
@@ -18,7 +19,7 @@ public class FuncRParams extends Node {
         this.addChild(exp);
         exp.parser();
 
-        while (this.peekToken(0).getLexeme().equals(",")){
+        while (this.peekIs(0, Token.TokenType.COMMA)){
             //,
             ConstToken comma = new ConstToken(GrammarType.Token,this.getIndex(),this.getTokens());
             this.addChild(comma);
@@ -29,12 +30,14 @@ public class FuncRParams extends Node {
             exp1.parser();
         }
         this.printTypeToFile();
+        // 解析结束时记录行号，流式模式下之后的 Token 可能已被回收
+        this.line = this.peekToken(-1).getLine();
         Node parent = this.getParent();
         parent.setIndex(this.getIndex());
     }
 
     public int getLine() {
-        return this.peekToken(-1).getLine();
+        return line;
     }
 
     public Exp GetExpByIndex(int i) {
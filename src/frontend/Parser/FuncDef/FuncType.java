@@ -4,18 +4,17 @@ import frontend.Parser.Token.ConstToken;
 import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
 import frontend.Token;
-
-import java.util.ArrayList;
+import frontend.TokenStream;
 
 public class FuncType extends Node {
-    public FuncType(GrammarType type, int index, ArrayList<Token> tokens) {
+    public FuncType(GrammarType type, int index, TokenStream tokens) {
         super(type, index,tokens);
     }
 
     public void parser() {
         //函数类型 FuncType → 'void' | 'int'
-        if(this.peekToken(0).getLexeme().equals("void") ||
-           this.peekToken(0).getLexeme().equals("int")) {
+        if(this.peekIs(0, Token.TokenType.VOIDTK) ||
+           this.peekIs(0, Token.TokenType.INTTK)) {
 
             ConstToken token = new ConstToken(GrammarType.FuncType, this.getIndex(), this.getTokens());
             this.addChild(token);
@@ -27,6 +26,6 @@ public class FuncType extends Node {
     }
 
     public boolean isFuncTypeIsVoid(){
-        return this.getChildren().get(0).getToken().getLexeme().equals("void");
+        return this.getChildren().get(0).getToken().getType() == Token.TokenType.VOIDTK;
     }
 }
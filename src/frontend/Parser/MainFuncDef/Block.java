@@ -4,11 +4,10 @@ import frontend.Parser.Token.ConstToken;
 import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
 import frontend.Token;
-
-import java.util.ArrayList;
+import frontend.TokenStream;
 
 public class Block extends Node {
-    public Block(GrammarType type,int index, ArrayList<Token> tokens) {
+    public Block(GrammarType type,int index, TokenStream tokens) {
         super(type,index, tokens);
     }
     private boolean isForBody = false;
@@ -19,7 +18,7 @@ public class Block extends Node {
         this.addChild(leftBrace);
         leftBrace.parser();
         // { BlockItem }
-        while (!this.peekToken(0).getLexeme().equals("}")) {
+        while (!this.peekIs(0, Token.TokenType.RBRACE)) {
             BlockItem blockItem = new BlockItem(GrammarType.BlockItem,this.getIndex(), this.getTokens());
             this.addChild(blockItem);
             if(this.isForBody){
@@ -5,11 +5,10 @@ import frontend.Parser.Stmt.Stmt;
 import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
 import frontend.Token;
-
-import java.util.ArrayList;
+import frontend.TokenStream;
 
 public class BlockItem extends Node {
-    public BlockItem(GrammarType type,int index, ArrayList<Token> tokens) {
+    public BlockItem(GrammarType type,int index, TokenStream tokens) {
         super(type,index,tokens);
     }
     private boolean isForBody = false;
@@ -34,7 +33,7 @@ public class BlockItem extends Node {
     }
 
     private boolean isDeclStart(Token token) {
-        return token.getLexeme().equals("const") || token.getLexeme().equals("int") || token.getLexeme().equals("static");
+        return token.getType() == Token.TokenType.CONSTTK || token.getType() == Token.TokenType.INTTK || token.getType() == Token.TokenType.STATICTK;
     }
 
     public boolean isDecl() {
@@ -5,11 +5,10 @@ import frontend.Parser.Token.ConstToken;
 import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
 import frontend.Token;
-
-import java.util.ArrayList;
+import frontend.TokenStream;
 
 public class MainFuncDef extends Node {
-    public MainFuncDef(GrammarType type,int index, ArrayList<Token> tokens) {
+    public MainFuncDef(GrammarType type,int index, TokenStream tokens) {
         super(type,index,tokens);
     }
 
@@ -26,7 +25,7 @@ public class MainFuncDef extends Node {
         ConstToken lParentToken = new ConstToken(GrammarType.Token,this.getIndex(),this.getTokens());
         this.addChild(lParentToken);lParentToken.parser();
 
-        if(!this.peekToken(0).getLexeme().equals(")")){
+        if(!this.peekIs(0, Token.TokenType.RPARENT)){
             frontend.Error error = new frontend.Error(Error.ErrorType.j, this.peekToken(-1).getLine(),"j");
             this.printToError(error);
             ConstToken rParentToken = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
@@ -42,7 +41,6 @@ public class MainFuncDef extends Node {
         this.addChild(block);
         block.parser();
 
-
         this.printTypeToFile();//MainFuncDef
         Node parent = this.getParent();
         parent.setIndex(this.getIndex());
@@ -1,30 +1,27 @@
 package frontend.Parser.Stmt;
 
-import frontend.Parser.Exp.LOrExp;
+import frontend.Parser.Exp.ExpParser;
 import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
-import frontend.Token;
-
-import java.util.ArrayList;
+import frontend.TokenStream;
 
 public class Cond extends Node {
-    public Cond(GrammarType type,int index, ArrayList<Token> tokens) {
+    public Cond(GrammarType type,int index, TokenStream tokens) {
         super(type,index, tokens);
     }
 
     public void parser() {
-        //条件表达式 Cond → LOrExp
-        LOrExp lOrExp = new LOrExp(GrammarType.LOrExp,this.getIndex(),this.getTokens());
-        this.addChild(lOrExp);
-        lOrExp.parser();
-
+        //条件表达式 Cond → LOrExp，逻辑、相等、关系运算按优先级直接解析为 BinaryExp
+        Node exp = new ExpParser(this).parse(ExpParser.LOR);
+        this.addChild(exp);
 
         this.printTypeToFile();// Cond
         Node parent = this.getParent();
         parent.setIndex(this.getIndex());
     }
 
-    public LOrExp GetLOrExp() {
-        return (LOrExp)this.getChildren().get(0);
+    // BinaryExp 或 UnaryExp
+    public Node GetChildAsExpNode() {
+        return this.getChildren().get(0);
     }
 }
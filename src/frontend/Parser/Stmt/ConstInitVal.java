@@ -5,31 +5,32 @@ import frontend.Parser.Token.ConstToken;
 import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
 import frontend.Token;
+import frontend.TokenStream;
 
 import java.util.ArrayList;
 
 public class ConstInitVal extends Node {
-    public ConstInitVal(GrammarType type,int index, ArrayList<Token> tokens) {
+    public ConstInitVal(GrammarType type,int index, TokenStream tokens) {
         super(type,index,tokens);
     }
 
     public void parser() {
         //常量初值 ConstInitVal → ConstExp | '{' [ ConstExp { ',' ConstExp } ] '}'
-        if(this.peekToken(0).getLexeme().equals("{")) {
+        if(this.peekIs(0, Token.TokenType.LBRACE)) {
             //'{'
             ConstToken leftBrace = new ConstToken(GrammarType.Token,this.getIndex(), this.getTokens());
             leftBrace.setTokens(this.getTokens());
             this.addChild(leftBrace);leftBrace.parser();
 
             //可选的ConstExp
-            if(!this.peekToken(0).getLexeme().equals("}")) {
+            if(!this.peekIs(0, Token.TokenType.RBRACE)) {
                 //ConstExp
                 ConstExp constExp = new ConstExp(GrammarType.ConstExp,this.getIndex(),this.getTokens());
                 constExp.setTokens(this.getTokens());
                 this.addChild(constExp); constExp.parser();
 
                 //重复的{',' ConstExp}
-                while (this.peekToken(0).getLexeme().equals(",")) {
+                while (this.peekIs(0, Token.TokenType.COMMA)) {
                     //','
                     ConstToken commaToken = new ConstToken(GrammarType.Token,this.getIndex(), this.getTokens());
                     commaToken.setTokens(this.getTokens());
@@ -5,11 +5,12 @@ import frontend.Parser.Token.ConstToken;
 import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
 import frontend.Token;
+import frontend.TokenStream;
 
 import java.util.ArrayList;
 
 public class ForStmt extends Node {
-    public ForStmt(GrammarType type,int index, ArrayList<Token> tokens) {
+    public ForStmt(GrammarType type,int index, TokenStream tokens) {
         super(type,index,tokens);
     }
 
@@ -30,7 +31,7 @@ public class ForStmt extends Node {
         this.addChild(exp);
         exp.parser();
         // { ',' LVal '=' Exp }
-        while (this.peekToken(0).getLexeme().equals(",")) {
+        while (this.peekIs(0, Token.TokenType.COMMA)) {
             // ','
             ConstToken commaToken = new ConstToken(GrammarType.Token,this.getIndex(), this.getTokens());
             this.addChild(commaToken);
@@ -5,31 +5,32 @@ import frontend.Parser.Token.ConstToken;
 import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
 import frontend.Token;
+import frontend.TokenStream;
 
 import java.util.ArrayList;
 
 public class InitVal extends Node {
-    public InitVal(GrammarType type,int index, ArrayList<Token> tokens) {
+    public InitVal(GrammarType type,int index, TokenStream tokens) {
         super(type,index,tokens);
     }
 
     public void parser() {
         //变量初值 InitVal → Exp | '{' [ Exp { ',' Exp } ] '}'
-        if(this.peekToken(0).getLexeme().equals("{")) {
+        if(this.peekIs(0, Token.TokenType.LBRACE)) {
             //'{'
             ConstToken leftBrace = new ConstToken(GrammarType.Token, this.getIndex(),this.getTokens());
             this.addChild(leftBrace);
             leftBrace.parser();
 
             // [ Exp { ',' Exp } ]
-            if (!this.peekToken(0).getLexeme().equals("}")) {
+            if (!this.peekIs(0, Token.TokenType.RBRACE)) {
                 //Exp
                 Exp exp = new Exp(GrammarType.Exp, this.getIndex(),this.getTokens());
                 this.addChild(exp);
                 exp.parser();
 
                 //{ ',' Exp }
-                while (this.peekToken(0).getLexeme().equals(",")) {
+                while (this.peekIs(0, Token.TokenType.COMMA)) {
                     //','
                     ConstToken comma = new ConstToken(GrammarType.Token, this.getIndex(),this.getTokens());
                     this.addChild(comma);
@@ -6,16 +6,15 @@ import frontend.Parser.Token.ConstToken;
 import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
 import frontend.Token;
+import frontend.TokenStream;
 import midend.Symbol.GlobalSymbolTable;
 import midend.Symbol.Symbol;
 import midend.Symbol.SymbolType;
 
-import java.util.ArrayList;
-
 public class LVal extends Node {
     public boolean isConstExp = false;
 
-    public LVal(GrammarType type, int index, ArrayList<Token> tokens) {
+    public LVal(GrammarType type, int index, TokenStream tokens) {
         super(type, index, tokens);
     }
 
@@ -26,7 +25,7 @@ public class LVal extends Node {
         this.addChild(ident);
         ident.parser();
         //['[' Exp ']']
-        if (this.peekToken(0).getLexeme().equals("[")) {
+        if (this.peekIs(0, Token.TokenType.LBRACK)) {
             //[
             ConstToken leftBracket = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
             this.addChild(leftBracket);
@@ -38,7 +37,7 @@ public class LVal extends Node {
             exp.parser();
 
             //]
-            if (!this.peekToken(0).getLexeme().equals("]")) {
+            if (!this.peekIs(0, Token.TokenType.RBRACK)) {
                 //错误处理，缺少右括号
                 frontend.Error error = new frontend.Error(Error.ErrorType.k, this.peekToken(-1).getLine(), "k");
                 this.printToError(error);
@@ -7,6 +7,7 @@ import frontend.Parser.Token.ConstToken;
 import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
 import frontend.Token;
+import frontend.TokenStream;
 
 import java.util.ArrayList;
 
@@ -18,7 +19,7 @@ public class Stmt extends Node {
         this.isForBody = isForBody;
     }
 
-    public Stmt(GrammarType type, int index, ArrayList<Token> tokens) {
+    public Stmt(GrammarType type, int index, TokenStream tokens) {
         super(type, index, tokens);
     }
 
@@ -28,7 +29,7 @@ public class Stmt extends Node {
         | 'for' '(' [ForStmt] ';' [Cond] ';' [ForStmt] ')' Stmt| 'break' ';'| 'continue' ';'| 'return' [Exp] ';'
         | 'printf''('StringConst {','Exp}')'';'
         */
-        if (this.peekToken(0).getLexeme().equals("if")) {
+        if (this.peekIs(0, Token.TokenType.IFTK)) {
             //if语句
             ConstToken ifToken = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
             this.addChild(ifToken);
@@ -43,7 +44,7 @@ public class Stmt extends Node {
             this.addChild(cond);
             cond.parser();
             // ')'
-            if (!this.peekToken(0).getLexeme().equals(")")) {
+            if (!this.peekIs(0, Token.TokenType.RPARENT)) {
                 Error error = new frontend.Error(Error.ErrorType.j, this.peekToken(-1).getLine(), "j");
                 this.printToError(error);
                 ConstToken rightParen = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
@@ -62,7 +63,7 @@ public class Stmt extends Node {
             thenStmt.parser();
 
             // [ 'else' Stmt ]
-            if (this.peekToken(0).getLexeme().equals("else")) {
+            if (this.peekIs(0, Token.TokenType.ELSETK)) {
                 ConstToken elseToken = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
                 this.addChild(elseToken);
                 elseToken.parser();
@@ -75,7 +76,7 @@ public class Stmt extends Node {
                 elseStmt.parser();
 
             }
-        } else if (this.peekToken(0).getLexeme().equals("{")) {
+        } else if (this.peekIs(0, Token.TokenType.LBRACE)) {
             //块语句
             Block blockStmt = new Block(GrammarType.Block, this.getIndex(), this.getTokens());
             this.addChild(blockStmt);
@@ -84,7 +85,7 @@ public class Stmt extends Node {
             }
             blockStmt.parser();
             currentTypeNode = blockStmt;
-        } else if (this.peekToken(0).getLexeme().equals("for")) {
+        } else if (this.peekIs(0, Token.TokenType.FORTK)) {
             //for语句
             ConstToken forToken = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
             this.addChild(forToken);
@@ -95,7 +96,7 @@ public class Stmt extends Node {
             this.addChild(leftParen);
             leftParen.parser();
             // [ForStmt]
-            if (!this.peekToken(0).getLexeme().equals(";")) {
+            if (!this.peekIs(0, Token.TokenType.SEMICN)) {
                 ForStmt forStmtInit = new ForStmt(GrammarType.ForStmt, this.getIndex(), this.getTokens());
                 this.addChild(forStmtInit);
                 forStmtInit.parser();
@@ -105,7 +106,7 @@ public class Stmt extends Node {
             this.addChild(firstSemicolon);
             firstSemicolon.parser();
             // [Cond]
-            if (!this.peekToken(0).getLexeme().equals(";")) {
+            if (!this.peekIs(0, Token.TokenType.SEMICN)) {
                 Cond cond = new Cond(GrammarType.Cond, this.getIndex(), this.getTokens());
                 this.addChild(cond);
                 cond.parser();
@@ -115,7 +116,7 @@ public class Stmt extends Node {
             this.addChild(secondSemicolon);
             secondSemicolon.parser();
             // [ForStmt]
-            if (!this.peekToken(0).getLexeme().equals(")")) {
+            if (!this.peekIs(0, Token.TokenType.RPARENT)) {
                 ForStmt forStmtUpdate = new ForStmt(GrammarType.ForStmt, this.getIndex(), this.getTokens());
                 this.addChild(forStmtUpdate);
                 forStmtUpdate.parser();
@@ -129,15 +130,15 @@ public class Stmt extends Node {
             bodyStmt.setIsForBody(true);
             this.addChild(bodyStmt);
             bodyStmt.parser();
-        } else if (this.peekToken(0).getLexeme().equals("break") ||
-                this.peekToken(0).getLexeme().equals("continue")) {
+        } else if (this.peekIs(0, Token.TokenType.BREAKTK) ||
+                this.peekIs(0, Token.TokenType.CONTINUETK)) {
 
             ConstToken jumpToken = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
             this.addChild(jumpToken);
             jumpToken.parser();
             currentTypeNode = jumpToken;
             // ';'
-            if (!this.peekToken(0).getLexeme().equals(";")) {
+            if (!this.peekIs(0, Token.TokenType.SEMICN)) {
                 Error error = new frontend.Error(Error.ErrorType.i, this.peekToken(-1).getLine(), "i");
                 this.printToError(error);
                 ConstToken semicolon = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
@@ -147,19 +148,19 @@ public class Stmt extends Node {
                 this.addChild(semicolon);
                 semicolon.parser();
             }
-        } else if (this.peekToken(0).getLexeme().equals("return")) {
+        } else if (this.peekIs(0, Token.TokenType.RETURNTK)) {
             ConstToken returnToken = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
             this.addChild(returnToken);
             returnToken.parser();
             currentTypeNode = returnToken;
             // [Exp]
-            if (!this.peekToken(0).getLexeme().equals(";")) {
+            if (!this.peekIs(0, Token.TokenType.SEMICN)) {
                 Exp returnExp = new Exp(GrammarType.Exp, this.getIndex(), this.getTokens());
                 this.addChild(returnExp);
                 returnExp.parser();
             }
             // ';'
-            if (!this.peekToken(0).getLexeme().equals(";")) {
+            if (!this.peekIs(0, Token.TokenType.SEMICN)) {
                 Error error = new Error(Error.ErrorType.i, this.peekToken(-1).getLine(), "i");
                 this.printToError(error);
                 ConstToken semicolon = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
@@ -169,7 +170,7 @@ public class Stmt extends Node {
                 this.addChild(semicolon);
                 semicolon.parser();
             }
-        } else if (this.peekToken(0).getLexeme().equals("printf")) {
+        } else if (this.peekIs(0, Token.TokenType.PRINTFTK)) {
             ConstToken printfToken = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
             this.addChild(printfToken);
             printfToken.parser();
@@ -183,7 +184,7 @@ public class Stmt extends Node {
             this.addChild(stringConst);
             stringConst.parser();
             // {',' Exp}
-            while (this.peekToken(0).getLexeme().equals(",")) {
+            while (this.peekIs(0, Token.TokenType.COMMA)) {
                 // ','
                 ConstToken comma = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
                 this.addChild(comma);
@@ -194,7 +195,7 @@ public class Stmt extends Node {
                 exp.parser();
             }
             // ')'
-            if (!this.peekToken(0).getLexeme().equals(")")) {
+            if (!this.peekIs(0, Token.TokenType.RPARENT)) {
                 Error error = new frontend.Error(Error.ErrorType.j, this.peekToken(-1).getLine(), "j");
                 this.printToError(error);
                 ConstToken rightParen = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
@@ -205,7 +206,7 @@ public class Stmt extends Node {
                 rightParen.parser();
             }
             // ';'
-            if (!this.peekToken(0).getLexeme().equals(";")) {
+            if (!this.peekIs(0, Token.TokenType.SEMICN)) {
                 Error error = new Error(Error.ErrorType.i, this.peekToken(-1).getLine(), "i");
                 this.printToError(error);
                 ConstToken semicolon = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
@@ -218,8 +219,9 @@ public class Stmt extends Node {
         } else {
             int i = 0;
             boolean flag = false;
-            while (!this.peekToken(i).getLexeme().equals(";")) {
-                if (this.peekToken(i).getLexeme().equals("=")) {
+            Token.TokenType lookahead;
+            while ((lookahead = this.peekType(i)) != null && lookahead != Token.TokenType.SEMICN) {
+                if (lookahead == Token.TokenType.ASSIGN) {
                     flag = true;
                     break;
                 }
@@ -240,7 +242,7 @@ public class Stmt extends Node {
                 this.addChild(exp);
                 exp.parser();
                 // ';'
-                if (!this.peekToken(0).getLexeme().equals(";")) {
+                if (!this.peekIs(0, Token.TokenType.SEMICN)) {
                     Error error = new Error(Error.ErrorType.i, this.peekToken(-1).getLine(), "i");
                     this.printToError(error);
                     ConstToken semicolon = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
@@ -250,7 +252,7 @@ public class Stmt extends Node {
                     this.addChild(semicolon);
                     semicolon.parser();
                 }
-            } else if (this.peekToken(0).getLexeme().equals(";")) {
+            } else if (this.peekIs(0, Token.TokenType.SEMICN)) {
                 ConstToken semicolon = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
                 this.addChild(semicolon);
                 semicolon.parser();
@@ -261,7 +263,7 @@ public class Stmt extends Node {
                 exp.parser();
                 currentTypeNode = exp;
                 // ';'
-                if (!this.peekToken(0).getLexeme().equals(";")) {
+                if (!this.peekIs(0, Token.TokenType.SEMICN)) {
                     Error error = new Error(Error.ErrorType.i, this.peekToken(-1).getLine(), "i");
                     this.printToError(error);
                     ConstToken semicolon = new ConstToken(GrammarType.Token, this.getIndex(), this.getTokens());
@@ -288,7 +290,7 @@ public class Stmt extends Node {
 
     public boolean isIfStmt() {
         return this.getChildren().get(0).getType().equals(GrammarType.Token) &&
-                this.getChildren().get(0).getToken().getLexeme().equals("if");
+                this.getChildren().get(0).getToken().getType() == Token.TokenType.IFTK;
     }
 
     public Stmt GetIfStmtChildAsStmt() {
@@ -305,7 +307,7 @@ public class Stmt extends Node {
 
     public boolean isForStmt() {
         return this.getChildren().get(0).getType().equals(GrammarType.Token) &&
-                this.getChildren().get(0).getToken().getLexeme().equals("for");
+                this.getChildren().get(0).getToken().getType() == Token.TokenType.FORTK;
     }
 
     public Stmt GetForStmtChildAsStmt() {
@@ -319,7 +321,7 @@ public class Stmt extends Node {
 
     public boolean isReturn() {
         return this.getChildren().get(0).getType().equals(GrammarType.Token) &&
-                this.getChildren().get(0).getToken().getLexeme().equals("return");
+                this.getChildren().get(0).getToken().getType() == Token.TokenType.RETURNTK;
     }
 
     public boolean isLVal() {
@@ -342,8 +344,8 @@ public class Stmt extends Node {
 
     public boolean isBreakContinue() {
         return this.getChildren().get(0).getType().equals(GrammarType.Token) &&
-                (this.getChildren().get(0).getToken().getLexeme().equals("break")
-                        || this.getChildren().get(0).getToken().getLexeme().equals("continue"));
+                (this.getChildren().get(0).getToken().getType() == Token.TokenType.BREAKTK
+                        || this.getChildren().get(0).getToken().getType() == Token.TokenType.CONTINUETK);
     }
 
     public boolean isForBody() {
@@ -368,7 +370,7 @@ public class Stmt extends Node {
 
     public boolean isPrintf() {
         return this.getChildren().get(0).getType().equals(GrammarType.Token) &&
-                this.getChildren().get(0).getToken().getLexeme().equals("printf");
+                this.getChildren().get(0).getToken().getType() == Token.TokenType.PRINTFTK;
     }
 
 
@@ -435,6 +437,6 @@ public class Stmt extends Node {
 
     public boolean isBreak() {
         return this.getChildren().get(0).getType().equals(GrammarType.Token) &&
-                this.getChildren().get(0).getToken().getLexeme().equals("break");
+                this.getChildren().get(0).getToken().getType() == Token.TokenType.BREAKTK;
     }
 }
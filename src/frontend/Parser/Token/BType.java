@@ -2,12 +2,10 @@ package frontend.Parser.Token;
 
 import frontend.Parser.Tree.GrammarType;
 import frontend.Parser.Tree.Node;
-import frontend.Token;
-
-import java.util.ArrayList;
+import frontend.TokenStream;
 
 public class BType extends Node {
-    public BType(GrammarType grammarType,int index, ArrayList<Token> tokens) {
+    public BType(GrammarType grammarType,int index, TokenStream tokens) {
         super(grammarType,index,tokens);
     }
 
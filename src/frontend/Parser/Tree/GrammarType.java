@@ -26,12 +26,7 @@ public enum GrammarType {
     LVal,
     PrimaryExp,
     UnaryExp,
-    MulExp,
-    AddExp,
-    RelExp,
-    EqExp,
-    LAndExp,
-    LOrExp,
+    BinaryExp,
     ConstExp,
     Cond,
     Number,
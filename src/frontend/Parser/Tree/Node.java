@@ -1,23 +1,20 @@
 package frontend.Parser.Tree;
 
 import frontend.Error;
-import frontend.GlobalError;
+import frontend.Diagnostics;
 import frontend.Token;
+import frontend.TokenStream;
 
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.ArrayList;
 
 public class  Node {
     private GrammarType type;
     private Node parent;
     private ArrayList<Node> children;
-    private ArrayList<Token> tokens;
+    private TokenStream tokens;
     private int tokenIndex;
     private Token token;
-    private final String filename="parser.txt";
-    private final String ErrorFilename="ParserError.txt";
-    public Node(GrammarType type,int tokenIndex, ArrayList<Token> tokens) {
+    public Node(GrammarType type,int tokenIndex, TokenStream tokens) {
         this.type = type;
         this.children = new ArrayList<>();
         this.parent = null;
@@ -43,16 +40,16 @@ public class  Node {
         child.setParent(this);
         this.children.add(child);
     }
-    public ArrayList<Token> getTokens() {
+    public TokenStream getTokens() {
         return tokens;
     }
-    public void setTokens(ArrayList<Token> tokens) {
+    public void setTokens(TokenStream tokens) {
         this.tokens = tokens;
     }
 
     // 获取指定索引的Token
     public Token getTokenAt(int index) {
-        if (tokens == null || index < 0 || index >= tokens.size()) {
+        if (tokens == null || index < 0) {
             return null;
         }
         return tokens.get(index);
@@ -64,49 +61,66 @@ public class  Node {
             return null;
         }
         int index = tokenIndex + offset;
-        if (index < 0 || index >= tokens.size()) {
+        if (index < 0) {
             return null;
         }
         return tokens.get(index);
     }
 
+    // 查看相对于当前tokenIndex偏移offset的Token类型，越界返回null
+    protected Token.TokenType peekType(int offset) {
+        if (tokens == null) {
+            return null;
+        }
+        int index = tokenIndex + offset;
+        if (index < 0 || !tokens.has(index)) {
+            return null;
+        }
+        return tokens.getType(index);
+    }
+
+    protected boolean peekIs(int offset, Token.TokenType type) {
+        return peekType(offset) == type;
+    }
+
+    // 单个 & 或 | 在词法阶段按 AND / OR 处理并报错，这里区分出来
+    protected boolean peekIsSingleLogicOp(int offset) {
+        Token.TokenType type = peekType(offset);
+        return (type == Token.TokenType.AND || type == Token.TokenType.OR)
+                && tokens.getLength(tokenIndex + offset) == 1;
+    }
+
     public int getIndex() {
         return tokenIndex;
     }
     public void setIndex(int index) {
         this.tokenIndex = index;
+        // 保留 peekToken(-1) 需要的前一个 Token
+        if (tokens != null) {
+            tokens.release(index - 1);
+        }
     }
     public void setToken(Token token) {
         this.token = token;
     }
     public void printToFile() {
-        //输出到filename
-        try (FileWriter writer = new FileWriter(filename, true)) {
-            //writer.write(token.getType()+" "+token.getLexeme() +"\n");
-        } catch (IOException e) {
-            e.printStackTrace();
+        //输出到语法树缓冲
+        if (Diagnostics.isParseTreeEnabled()) {
+            Diagnostics.parseTree(token.getType() + " " + token.getLexeme());
         }
     }
     public void printToError(Error error) {
-        if(this.peekToken(-1)==null||this.peekToken(-1).isPrinted()){
+        int index = tokenIndex - 1;
+        if(this.peekToken(-1)==null||tokens.isPrinted(index)){
             return;
         }
-        try {
-            FileWriter writer = new FileWriter(ErrorFilename, true);
-            writer.write(error.toString() + "\n");
-            writer.close();
-            this.peekToken(-1).setPrinted(true);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        GlobalError.addError(error);
+        tokens.setPrinted(index);
+        Diagnostics.reportParserError(error);
     }
     public void printTypeToFile(){
-        //输出节点类型到filename
-        try (FileWriter writer = new FileWriter(filename, true)) {
-            //writer.write("<"+this.getTypeName() +">"+"\n");
-        } catch (IOException e) {
-            e.printStackTrace();
+        //输出节点类型到语法树缓冲
+        if (Diagnostics.isParseTreeEnabled()) {
+            Diagnostics.parseTree("<" + this.getTypeName() + ">");
         }
     }
 
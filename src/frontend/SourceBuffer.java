@@ -0,0 +1,89 @@
+package frontend;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 源文件缓冲区：一次性把整个源文件读入内存，Lexer 逐字符从这里取，
+ * 避免每个字符一次 FileInputStream.read() 系统调用。
+ */
+public class SourceBuffer {
+    // 超过该大小的文件使用内存映射读取
+    private static final long MAP_THRESHOLD = 1 << 20;
+
+    private final byte[] data;
+    private final int length;
+    private int position = 0;
+
+    public SourceBuffer(byte[] data) {
+        this.data = data;
+        this.length = data.length;
+    }
+
+    public static SourceBuffer fromFile(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            long size = channel.size();
+            byte[] bytes = new byte[(int) size];
+            if (size >= MAP_THRESHOLD) {
+                channel.map(FileChannel.MapMode.READ_ONLY, 0, size).get(bytes);
+            } else {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                    // 读满为止
+                }
+            }
+            return new SourceBuffer(bytes);
+        }
+    }
+
+    public static SourceBuffer fromStream(InputStream in) throws IOException {
+        return new SourceBuffer(in.readAllBytes());
+    }
+
+    public static SourceBuffer fromString(String source) {
+        return new SourceBuffer(source.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    // 读取下一个字节，到达末尾返回 -1（与 InputStream.read() 语义一致）
+    public int read() {
+        if (position >= length) {
+            return -1;
+        }
+        return data[position++] & 0xff;
+    }
+
+    public char charAt(int offset) {
+        return (char) (data[offset] & 0xff);
+    }
+
+    // 判断 [start, end) 区间的源码是否与 s 相同
+    public boolean regionMatches(int start, int end, String s) {
+        if (end - start != s.length()) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if ((data[start + i] & 0xff) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 取 [start, end) 区间的源码文本，按单字节字符解码，与逐字节读取时的 (char) 转换一致
+    public String substring(int start, int end) {
+        return new String(data, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public int getLength() {
+        return length;
+    }
+}
@@ -14,7 +14,6 @@ public class Token {
     private final TokenType type;
     private final String lexeme;
     private final int line;
-    private boolean isPrinted = false;
 
     public Token(TokenType type, String lexeme, int line) {
         this.type = type;
@@ -34,12 +33,6 @@ public class Token {
         return line;
     }
 
-    public boolean isPrinted() {
-        return isPrinted;
-    }
-    public void setPrinted(boolean printed) {
-        isPrinted = printed;
-    }
     @Override
     public String toString() {
         return this.lexeme;
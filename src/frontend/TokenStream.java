@@ -0,0 +1,243 @@
+package frontend;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 紧凑的 Token 流：类型、行号、源码偏移分别存放在 int[] 中，
+ * lexeme 是源码缓冲区的切片，只在需要时才生成 String / Token 对象。
+ * 绑定 Lexer 时 Token 按需拉取；流式模式下只在环形缓冲区中保留前瞻窗口。
+ */
+public class TokenStream implements Iterable<Token> {
+    private static final Token.TokenType[] TYPES = Token.TokenType.values();
+    // 关键字和运算符的 lexeme 是固定的，直接复用常量字符串
+    private static final String[] FIXED_LEXEMES = new String[TYPES.length];
+    // 按下标直接映射的小缓存，parser 会反复 peek 同一位置的 Token
+    private static final int CACHE_SIZE = 64;
+
+    static {
+        for (Token.TokenType type : TYPES) {
+            FIXED_LEXEMES[type.ordinal()] = switch (type) {
+                case IDENFR, INTCON, STRCON -> null;
+                case CONSTTK -> "const";
+                case INTTK -> "int";
+                case STATICTK -> "static";
+                case BREAKTK -> "break";
+                case CONTINUETK -> "continue";
+                case IFTK -> "if";
+                case MAINTK -> "main";
+                case ELSETK -> "else";
+                case NOT -> "!";
+                case AND -> "&&";
+                case OR -> "||";
+                case FORTK -> "for";
+                case RETURNTK -> "return";
+                case VOIDTK -> "void";
+                case PLUS -> "+";
+                case MINU -> "-";
+                case PRINTFTK -> "printf";
+                case MULT -> "*";
+                case DIV -> "/";
+                case MOD -> "%";
+                case LSS -> "<";
+                case LEQ -> "<=";
+                case GRE -> ">";
+                case GEQ -> ">=";
+                case EQL -> "==";
+                case NEQ -> "!=";
+                case SEMICN -> ";";
+                case COMMA -> ",";
+                case LPARENT -> "(";
+                case RPARENT -> ")";
+                case LBRACK -> "[";
+                case RBRACK -> "]";
+                case LBRACE -> "{";
+                case RBRACE -> "}";
+                case ASSIGN -> "=";
+            };
+        }
+    }
+
+    private final SourceBuffer source;
+    // 按需拉取 Token 的词法分析器
+    private final Lexer lexer;
+    private boolean exhausted = false;
+    // 流式模式下只保留 [base, size) 区间的 Token，存放在环形缓冲区中
+    private boolean streaming = false;
+    private int base = 0;
+    private int released = 0;
+    private int capacity = 256;
+    private int[] types = new int[capacity];
+    private int[] lines = new int[capacity];
+    private int[] starts = new int[capacity];
+    private int[] ends = new int[capacity];
+    // 已经报过错的 Token（同一个 Token 只报一次错）
+    private boolean[] printed = new boolean[capacity];
+    private int size = 0;
+
+    private final Token[] cache = new Token[CACHE_SIZE];
+    private final int[] cacheIndex = new int[CACHE_SIZE];
+
+    public TokenStream(SourceBuffer source, Lexer lexer) {
+        this.source = source;
+        this.lexer = lexer;
+        Arrays.fill(cacheIndex, -1);
+    }
+
+    // 开启流式模式：已释放的 Token 不再保留，环形缓冲区只覆盖 parser 需要的前瞻窗口
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    // parser 已经越过 index 之前的 Token，流式模式下可以回收它们
+    public void release(int index) {
+        if (index > released) {
+            released = index;
+        }
+    }
+
+    public void add(Token.TokenType type, int start, int end, int line) {
+        if (size - base == capacity) {
+            if (streaming && released > base) {
+                base = released;
+            }
+            if (size - base == capacity) {
+                grow();
+            }
+        }
+        int slot = size & (capacity - 1);
+        types[slot] = type.ordinal();
+        lines[slot] = line;
+        starts[slot] = start;
+        ends[slot] = end;
+        printed[slot] = false;
+        size++;
+    }
+
+    private void grow() {
+        int newCapacity = capacity * 2;
+        int[] newTypes = new int[newCapacity];
+        int[] newLines = new int[newCapacity];
+        int[] newStarts = new int[newCapacity];
+        int[] newEnds = new int[newCapacity];
+        boolean[] newPrinted = new boolean[newCapacity];
+        for (int i = base; i < size; i++) {
+            int from = i & (capacity - 1);
+            int to = i & (newCapacity - 1);
+            newTypes[to] = types[from];
+            newLines[to] = lines[from];
+            newStarts[to] = starts[from];
+            newEnds[to] = ends[from];
+            newPrinted[to] = printed[from];
+        }
+        capacity = newCapacity;
+        types = newTypes;
+        lines = newLines;
+        starts = newStarts;
+        ends = newEnds;
+        printed = newPrinted;
+    }
+
+    // 确保 index 处的 Token 已经被词法分析，越过文件末尾返回 false
+    public boolean has(int index) {
+        while (index >= size) {
+            if (exhausted) {
+                return false;
+            }
+            if (!lexer.lexNext()) {
+                exhausted = true;
+                return false;
+            }
+        }
+        return index >= 0;
+    }
+
+    // 一次性读完全部 Token
+    public void fill() {
+        while (has(size)) {
+            // 继续拉取
+        }
+    }
+
+    // 当前已经就绪的 Token 数量
+    public int size() {
+        return size;
+    }
+
+    private int slot(int index) {
+        if (!has(index)) {
+            throw new IndexOutOfBoundsException("token index " + index + " out of range");
+        }
+        if (index < base) {
+            throw new IllegalStateException("token " + index + " has already been released");
+        }
+        return index & (capacity - 1);
+    }
+
+    public Token.TokenType getType(int index) {
+        return TYPES[types[slot(index)]];
+    }
+
+    public int getLine(int index) {
+        return lines[slot(index)];
+    }
+
+    public int getLength(int index) {
+        int slot = slot(index);
+        return ends[slot] - starts[slot];
+    }
+
+    public String getLexeme(int index) {
+        int slot = slot(index);
+        String fixed = FIXED_LEXEMES[types[slot]];
+        // 词法错误时的单个 & 或 | 长度与固定 lexeme 不同，需要从源码取
+        if (fixed != null && fixed.length() == ends[slot] - starts[slot]) {
+            return fixed;
+        }
+        return source.substring(starts[slot], ends[slot]);
+    }
+
+    // 按需生成 Token 对象，越过文件末尾返回 null
+    public Token get(int index) {
+        if (!has(index)) {
+            return null;
+        }
+        int cacheSlot = index & (CACHE_SIZE - 1);
+        if (cacheIndex[cacheSlot] == index) {
+            return cache[cacheSlot];
+        }
+        Token token = new Token(getType(index), getLexeme(index), getLine(index));
+        cache[cacheSlot] = token;
+        cacheIndex[cacheSlot] = index;
+        return token;
+    }
+
+    public boolean isPrinted(int index) {
+        return printed[slot(index)];
+    }
+
+    public void setPrinted(int index) {
+        printed[slot(index)] = true;
+    }
+
+    @Override
+    public Iterator<Token> iterator() {
+        return new Iterator<>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return has(index);
+            }
+
+            @Override
+            public Token next() {
+                if (!has(index)) {
+                    throw new NoSuchElementException();
+                }
+                return get(index++);
+            }
+        };
+    }
+}
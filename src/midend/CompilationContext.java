@@ -0,0 +1,134 @@
+package midend;
+
+import backend.MipsBuilder;
+import frontend.Diagnostics;
+import frontend.GlobalError;
+import midend.LLVM.IrBuilder;
+import midend.Optimization.AnalysisManager;
+import midend.Symbol.GlobalSymbolTable;
+import midend.Symbol.SymbolTable;
+
+/**
+ * 一次编译的全部可变状态：IR 构建、符号表、错误与输出缓冲、中端分析缓存、后端。
+ * IrBuilder / GlobalSymbolTable / GlobalError 等静态入口都转发到当前线程的 context，
+ * 不同线程（或同一线程先后）使用各自的 context 即可互不干扰地编译多个程序。
+ */
+public class CompilationContext {
+    // 未显式安装 context 的线程第一次使用时自动创建一个
+    private static final ThreadLocal<CompilationContext> CURRENT = ThreadLocal.withInitial(CompilationContext::new);
+
+    private final IrBuilder.State irBuilderState = new IrBuilder.State();
+    private final SymbolTable outSymbolTable = new SymbolTable(0, null);
+    private final GlobalSymbolTable.State symbolState = new GlobalSymbolTable.State(outSymbolTable);
+    private final GlobalError.State errorState = new GlobalError.State();
+    private final Diagnostics.State diagnosticsState = new Diagnostics.State();
+    private final AnalysisManager analysisManager = new AnalysisManager();
+    private final MipsBuilder mipsBuilder = new MipsBuilder();
+    private boolean backendOptimize = false;
+    private OptimizationLevel optimizationLevel = OptimizationLevel.O3;
+    // 编译时间预算的截止时刻 (System.nanoTime)，0 表示没有预算
+    private long budgetDeadline = 0;
+    // 预算确实让某个遍少做了工作时置位，这时的输出取决于机器当时的负载
+    private boolean budgetCut = false;
+    // 只在 --time-passes 时创建，其余时候为 null
+    private PassStatistics passStatistics = null;
+
+    public static CompilationContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 把该 context 设为当前线程的 context 执行 action，结束后恢复原来的 context，可以嵌套
+     */
+    public <E extends Exception> void run(Action<E> action) throws E {
+        CompilationContext previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            action.run();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Action<E extends Exception> {
+        void run() throws E;
+    }
+
+    public IrBuilder.State getIrBuilderState() {
+        return irBuilderState;
+    }
+
+    public SymbolTable getOutSymbolTable() {
+        return outSymbolTable;
+    }
+
+    public GlobalSymbolTable.State getSymbolState() {
+        return symbolState;
+    }
+
+    public GlobalError.State getErrorState() {
+        return errorState;
+    }
+
+    public Diagnostics.State getDiagnosticsState() {
+        return diagnosticsState;
+    }
+
+    public AnalysisManager getAnalysisManager() {
+        return analysisManager;
+    }
+
+    public MipsBuilder getMipsBuilder() {
+        return mipsBuilder;
+    }
+
+    public OptimizationLevel getOptimizationLevel() {
+        return optimizationLevel;
+    }
+
+    public void setOptimizationLevel(OptimizationLevel optimizationLevel) {
+        this.optimizationLevel = optimizationLevel;
+    }
+
+    /**
+     * 从现在起给编译 millis 毫秒的预算，millis <= 0 表示不限
+     */
+    public void startBudget(long millis) {
+        budgetDeadline = millis > 0 ? System.nanoTime() + millis * 1_000_000 : 0;
+        budgetCut = false;
+    }
+
+    public boolean isOverBudget() {
+        return budgetDeadline != 0 && System.nanoTime() - budgetDeadline > 0;
+    }
+
+    /**
+     * 由 PassManager、MipsOptimizer 在因超出预算而跳过遍或提前停止时调用，这样的编译结果不写入编译缓存
+     */
+    public void markBudgetCut() {
+        budgetCut = true;
+    }
+
+    public boolean isBudgetCut() {
+        return budgetCut;
+    }
+
+    public PassStatistics getPassStatistics() {
+        return passStatistics;
+    }
+
+    public void enablePassStatistics() {
+        if (passStatistics == null) {
+            passStatistics = new PassStatistics();
+        }
+    }
+
+    public boolean isBackendOptimize() {
+        return backendOptimize;
+    }
+
+    public void setBackendOptimize(boolean backendOptimize) {
+        this.backendOptimize = backendOptimize;
+    }
+}
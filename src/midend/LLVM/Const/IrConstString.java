@@ -28,9 +28,13 @@ public class IrConstString extends IrConstant {
         return length + 1;
     }
 
+    public String getString() {
+        return str;
+    }
+
     public String toString() {
         StringBuilder builder = new StringBuilder();
-        builder.append(this.irName);
+        builder.append(this.getIrName());
         builder.append(" = constant ");
         builder.append(((IrPointer) this.irType).targetType);
         // 拼接字符串
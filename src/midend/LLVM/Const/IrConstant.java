@@ -2,10 +2,20 @@ package midend.LLVM.Const;
 
 import midend.LLVM.Type.IrType;
 import midend.LLVM.ValueType;
+import midend.LLVM.use.IrUse;
 import midend.LLVM.value.IrValue;
 
 public class IrConstant extends IrValue {
     public IrConstant(ValueType valueType, IrType irType, String irName) {
         super(valueType, irType, irName);
     }
+
+    // 常量在模块内共享，使用者遍布各个函数，不记录使用链表
+    @Override
+    public void addUse(IrUse irUse) {
+    }
+
+    @Override
+    public void removeUse(IrUse irUse) {
+    }
 }
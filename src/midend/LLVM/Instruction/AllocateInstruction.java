@@ -18,7 +18,7 @@ public class AllocateInstruction extends Instruction {
     }
 
     public String toString() {
-        return this.irName + " = alloca " + this.allocatedType;
+        return this.getIrName() + " = alloca " + this.allocatedType;
     }
 
     public int getAllocatedSize() {
@@ -0,0 +1,63 @@
+package midend.LLVM.Instruction;
+
+/**
+ * AluInst 的运算类型。
+ * symbol 为源程序中的运算符（没有对应源运算符的为 null），irName 为 LLVM 指令名。
+ */
+public enum AluOpcode {
+    ADD("+", "add"),
+    SUB("-", "sub"),
+    MUL("*", "mul"),
+    SDIV("/", "sdiv"),
+    SREM("%", "srem"),
+    AND("&&", "and"),
+    OR("||", "or"),
+    XOR(null, "xor");
+
+    private final String symbol;
+    private final String irName;
+
+    AluOpcode(String symbol, String irName) {
+        this.symbol = symbol;
+        this.irName = irName;
+    }
+
+    public String getIrName() {
+        return irName;
+    }
+
+    public static AluOpcode fromSymbol(String symbol) {
+        for (AluOpcode opcode : values()) {
+            if (symbol.equals(opcode.symbol)) {
+                return opcode;
+            }
+        }
+        throw new RuntimeException("Unknown Binary Op: " + symbol);
+    }
+
+    // a op b == b op a
+    public boolean isCommutative() {
+        return switch (this) {
+            case ADD, MUL, AND, OR, XOR -> true;
+            default -> false;
+        };
+    }
+
+    public boolean isDivision() {
+        return this == SDIV || this == SREM;
+    }
+
+    // 常量折叠，除数为 0 时无法折叠，返回 null
+    public Integer fold(int left, int right) {
+        return switch (this) {
+            case ADD -> left + right;
+            case SUB -> left - right;
+            case MUL -> left * right;
+            case SDIV -> right == 0 ? null : left / right;
+            case SREM -> right == 0 ? null : left % right;
+            case AND -> left & right;
+            case OR -> left | right;
+            case XOR -> left ^ right;
+        };
+    }
+}
@@ -1,6 +1,5 @@
 package midend.LLVM.Instruction;
 
-import midend.LLVM.IrBuilder;
 import midend.LLVM.Type.IrType;
 import midend.LLVM.ValueType;
 import midend.LLVM.value.IrBasicBlock;
@@ -8,44 +7,49 @@ import midend.LLVM.value.IrValue;
 
 public class BranchInstr extends Instruction {
     public BranchInstr(IrValue condition, IrBasicBlock trueBlock, IrBasicBlock falseBlock) {
-        super(ValueType.BRANCH_INST, IrType.VOID, IrBuilder.GetLocalVarName(), InstructionType.BRANCH);
+        super(ValueType.BRANCH_INST, IrType.VOID, null, InstructionType.BRANCH);
         this.AddUseValue(condition);
         this.AddUseValue(trueBlock);
         this.AddUseValue(falseBlock);
     }
 
     public String toString() {
-        IrValue condition = this.getUseValues().get(0);
-        IrBasicBlock trueBlock = (IrBasicBlock) this.getUseValues().get(1);
-        IrBasicBlock falseBlock = (IrBasicBlock) this.getUseValues().get(2);
-        return "br i1 " + condition.irName + ", label %" + trueBlock.irName + ", label %" + falseBlock.irName;
+        IrValue condition = this.getOperand(0);
+        IrBasicBlock trueBlock = (IrBasicBlock) this.getOperand(1);
+        IrBasicBlock falseBlock = (IrBasicBlock) this.getOperand(2);
+        return "br i1 " + condition.getIrName() + ", label %" + trueBlock.getIrName() + ", label %" + falseBlock.getIrName();
     }
 
 
     public IrValue getCond() {
-        return this.getUseValues().get(0);
+        return this.getOperand(0);
     }
 
     public IrBasicBlock getTrueBlock() {
-        return (IrBasicBlock) this.getUseValues().get(1);
+        return (IrBasicBlock) this.getOperand(1);
     }
 
     public IrBasicBlock getFalseBlock() {
-        return (IrBasicBlock) this.getUseValues().get(2);
+        return (IrBasicBlock) this.getOperand(2);
+    }
+
+    @Override
+    public int getNumValueOperands() {
+        return this.getOperand(0) == null ? 0 : 1;
     }
 
     @Override
     public void replaceUse(IrValue oldVal, IrValue newVal) {
-        if (this.getUseValues().get(0) == oldVal) {
-            this.getUseValues().set(0, newVal);
+        if (this.getOperand(0) == oldVal) {
+            this.setOperand(0, newVal);
         }
     }
 
     public void setTrueBlock(IrBasicBlock clonedBlock) {
-        this.getUseValues().set(1, clonedBlock);
+        this.setOperand(1, clonedBlock);
     }
 
     public void setFalseBlock(IrBasicBlock clonedBlock) {
-        this.getUseValues().set(2, clonedBlock);
+        this.setOperand(2, clonedBlock);
     }
 }
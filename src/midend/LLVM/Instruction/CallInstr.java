@@ -1,6 +1,5 @@
 package midend.LLVM.Instruction;
 
-import midend.LLVM.IrBuilder;
 import midend.LLVM.Type.IrType;
 import midend.LLVM.ValueType;
 import midend.LLVM.value.IrFunction;
@@ -23,23 +22,23 @@ public class CallInstr extends Instruction {
         if (returnType.equals(IrType.VOID)) {
             return "void";
         } else {
-            return IrBuilder.GetLocalVarName();
+            return null;
         }
     }
 
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        IrFunction targetFunction = (IrFunction) this.getUseValues().get(0);
+        IrFunction targetFunction = (IrFunction) this.getOperand(0);
         ArrayList<String> paramStrList = new ArrayList<>();
-        for (int i = 1; i < this.getUseValues().size(); i++) {
-            IrValue param = this.getUseValues().get(i);
-            paramStrList.add(param.irType.toString() + " " + param.irName);
+        for (int i = 1; i < this.getNumOperands(); i++) {
+            IrValue param = this.getOperand(i);
+            paramStrList.add(param.irType.toString() + " " + param.getIrName());
         }
 
         if (!targetFunction.GetReturnType().equals(IrType.VOID)) {
-            sb.append(this.irName + " = ");
+            sb.append(this.getIrName() + " = ");
         }
-        sb.append("call " + targetFunction.GetReturnType().toString() + " " + targetFunction.irName + "(");
+        sb.append("call " + targetFunction.GetReturnType().toString() + " " + targetFunction.getIrName() + "(");
         for (int i = 0; i < paramStrList.size() - 1; i++) {
             sb.append(paramStrList.get(i));
             sb.append(", ");
@@ -53,23 +52,33 @@ public class CallInstr extends Instruction {
 
     public ArrayList<IrValue> getParameters() {
         ArrayList<IrValue> params = new ArrayList<>();
-        for (int i = 1; i < this.getUseValues().size(); i++) {
-            params.add(this.getUseValues().get(i));
+        for (int i = 1; i < this.getNumOperands(); i++) {
+            params.add(this.getOperand(i));
         }
         return params;
     }
 
+    // 第 0 个操作数是被调函数，参数从 1 开始
+    @Override
+    public int getNumValueOperands() {
+        return this.getNumOperands() - 1;
+    }
+
+    @Override
+    public IrValue getValueOperand(int index) {
+        return this.getOperand(index + 1);
+    }
+
     public IrFunction getTargetFunction() {
-        return (IrFunction) this.getUseValues().get(0);
+        return (IrFunction) this.getOperand(0);
     }
 
     @Override
     public void replaceUse(IrValue oldVal, IrValue newVal) {
         // 遍历参数列表进行替换
-        ArrayList<IrValue> parameters = this.getUseValues();
-        for (int i = 1; i < parameters.size(); i++) {
-            if (parameters.get(i) == oldVal) {
-                parameters.set(i, newVal);
+        for (int i = 1; i < this.getNumOperands(); i++) {
+            if (this.getOperand(i) == oldVal) {
+                this.setOperand(i, newVal);
             }
         }
     }
@@ -0,0 +1,51 @@
+package midend.LLVM.Instruction;
+
+/**
+ * CmpInstr 的比较谓词（有符号比较）。
+ * symbol 为源程序中的运算符，irName 为 icmp 的条件码。
+ */
+public enum CmpPredicate {
+    LT("<", "slt"),
+    LE("<=", "sle"),
+    GT(">", "sgt"),
+    GE(">=", "sge"),
+    EQ("==", "eq"),
+    NE("!=", "ne");
+
+    private final String symbol;
+    private final String irName;
+
+    CmpPredicate(String symbol, String irName) {
+        this.symbol = symbol;
+        this.irName = irName;
+    }
+
+    public String getIrName() {
+        return irName;
+    }
+
+    public static CmpPredicate fromSymbol(String symbol) {
+        for (CmpPredicate predicate : values()) {
+            if (predicate.symbol.equals(symbol)) {
+                return predicate;
+            }
+        }
+        throw new RuntimeException("Unknown Compare Op: " + symbol);
+    }
+
+    // 交换两个操作数后结果不变
+    public boolean isCommutative() {
+        return this == EQ || this == NE;
+    }
+
+    public boolean evaluate(int left, int right) {
+        return switch (this) {
+            case LT -> left < right;
+            case LE -> left <= right;
+            case GT -> left > right;
+            case GE -> left >= right;
+            case EQ -> left == right;
+            case NE -> left != right;
+        };
+    }
+}
@@ -1,6 +1,5 @@
 package midend.LLVM.Instruction;
 
-import midend.LLVM.IrBuilder;
 import midend.LLVM.Type.IrPointer;
 import midend.LLVM.Type.IrType;
 import midend.LLVM.ValueType;
@@ -9,7 +8,7 @@ import midend.LLVM.value.IrValue;
 public class GepInstr extends Instruction {
 
     public GepInstr(IrValue pointer, IrValue offset) {
-        super(ValueType.GEP_INST, new IrPointer(GetTargetType(pointer)), IrBuilder.GetLocalVarName(), InstructionType.GEP);
+        super(ValueType.GEP_INST, new IrPointer(GetTargetType(pointer)), null, InstructionType.GEP);
         this.AddUseValue(pointer);
         this.AddUseValue(offset);
     }
@@ -39,32 +38,32 @@ public class GepInstr extends Instruction {
     }
 
     public String toString() {
-        IrValue pointer = this.getUseValues().get(0);
-        IrValue offset = this.getUseValues().get(1);
+        IrValue pointer = this.getOperand(0);
+        IrValue offset = this.getOperand(1);
         IrPointer pointerType = (IrPointer) pointer.irType;
         IrType ptrType = pointerType.targetType;
         if (ptrType.isArrayType()) {
-            return this.irName + " = getelementptr inbounds " + ptrType + ", " + pointerType + " " + pointer.irName + ", i32 0, " + offset.irType + " " + offset.irName;
+            return this.getIrName() + " = getelementptr inbounds " + ptrType + ", " + pointerType + " " + pointer.getIrName() + ", i32 0, " + offset.irType + " " + offset.getIrName();
         } else {
-            return this.irName + " = getelementptr inbounds " + ptrType + ", " + pointerType + " " + pointer.irName + ", " + offset.irType + " " + offset.irName;
+            return this.getIrName() + " = getelementptr inbounds " + ptrType + ", " + pointerType + " " + pointer.getIrName() + ", " + offset.irType + " " + offset.getIrName();
         }
     }
 
     public IrValue getPtr() {
-        return this.getUseValues().get(0);
+        return this.getOperand(0);
     }
 
     public IrValue getIndice() {
-        return this.getUseValues().get(1);
+        return this.getOperand(1);
     }
 
     @Override
     public void replaceUse(IrValue oldVal, IrValue newVal) {
-        if (this.getUseValues().get(0) == oldVal) {
-            this.getUseValues().set(0, newVal);
+        if (this.getOperand(0) == oldVal) {
+            this.setOperand(0, newVal);
         }
-        if (this.getUseValues().get(1) == oldVal) {
-            this.getUseValues().set(1, newVal);
+        if (this.getOperand(1) == oldVal) {
+            this.setOperand(1, newVal);
         }
     }
 }
@@ -8,11 +8,16 @@ import midend.LLVM.value.IrFunction;
 import midend.LLVM.value.IrValue;
 import midend.SSA.PhiInstr;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.util.List;
 
 public class Instruction extends IrUser {
     private final InstructionType instrType;
     private IrBasicBlock inBasicBlock;
+    // 所在指令链表及前后指令，由 InstructionList 维护
+    InstructionList list;
+    Instruction prev;
+    Instruction next;
 
     public Instruction(ValueType valueType, IrType irType, String irName, InstructionType instrType) {
         super(valueType, irType, irName);
@@ -31,23 +36,25 @@ public class Instruction extends IrUser {
         return inBasicBlock;
     }
 
-    /**
-     * 将当前指令的所有使用者中的“我”，替换为“newVal”
-     */
-    public void replaceAllUsesWith(IrValue newVal) {
-        // 获取所属函数
-        IrFunction func = (IrFunction) this.getParent().getParent();
-
-        for (IrBasicBlock bb : func.getBasicBlocks()) {
-            for (Instruction user : bb.getInstructions()) {
-                user.replaceUse(this, newVal);
-            }
-        }
+    // 按所在函数的计数器编号；尚未插入任何块的指令暂不命名
+    @Override
+    protected String createName() {
+        IrFunction function = inBasicBlock == null ? null : inBasicBlock.getParent();
+        return function == null ? null : function.newLocalName(getNamePrefix());
+    }
+
+    protected String getNamePrefix() {
+        return "%v";
+    }
+
+    // 块内的前一条指令，没有则返回 null
+    public Instruction getPrev() {
+        return prev;
     }
 
-    // 如果没有重写，默认什么都不做
-    public void replaceUse(IrValue oldVal, IrValue newVal) {
-        System.err.println("Warning: replaceUse not implemented for " + this.getClass().getSimpleName());
+    // 块内的后一条指令，没有则返回 null
+    public Instruction getNext() {
+        return next;
     }
 
     // 判断指令是否必须固定在当前块（有副作用或控制流）
@@ -67,12 +74,10 @@ public class Instruction extends IrUser {
     // 判断指令是否满足交换律 (a + b == b + a)
     public boolean isCommutative() {
         if (this instanceof AluInst) {
-            String op = ((AluInst) this).getOp();
-            return op.equals("ADD") || op.equals("MUL") || op.equals("AND") || op.equals("OR") || op.equals("XOR");
+            return ((AluInst) this).getOp().isCommutative();
         }
         if (this instanceof CmpInstr) {
-            String op = ((CmpInstr) this).getOp();
-            return op.equals("EQ") || op.equals("NE");
+            return ((CmpInstr) this).getOp().isCommutative();
         }
         return false;
     }
@@ -81,7 +86,24 @@ public class Instruction extends IrUser {
         return this instanceof BranchInstr || this instanceof JumpInstr || this instanceof ReturnInstr;
     }
 
-    public ArrayList<IrValue> getUsers() {
+    // 输出一条指令的文本（不含缩进和换行）
+    public void emit(Appendable out) throws IOException {
+        out.append(toString());
+    }
+
+    /**
+     * 参与数据流的操作数个数：不含跳转目标、被调函数，也不含空的条件/返回值。
+     * 与 getValueOperand 配合按下标遍历，不分配列表
+     */
+    public int getNumValueOperands() {
+        return this.getNumOperands();
+    }
+
+    public IrValue getValueOperand(int index) {
+        return this.getOperand(index);
+    }
+
+    public List<IrValue> getUsers() {
         return this.getUseValues();
     }
 }
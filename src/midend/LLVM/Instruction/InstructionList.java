@@ -0,0 +1,344 @@
+package midend.LLVM.Instruction;
+
+import midend.LLVM.value.IrBasicBlock;
+
+import java.util.AbstractSequentialList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 基本块的指令链表：前后指针直接存放在 Instruction 中（侵入式双向链表），
+ * 在某条指令前后插入、删除指令以及整段拼接都不需要移动其它指令。
+ * 实现了 List 接口，原有的 for-each、迭代器删除、removeIf 等写法照常可用；
+ * 按下标访问需要顺序查找，新代码应使用 insertBefore / insertAfter / getPrev / getNext。
+ * 一条指令同一时刻只在一个链表中，插入已在其它块中的指令会先把它从原块摘下。
+ */
+public class InstructionList extends AbstractSequentialList<Instruction> {
+    private final IrBasicBlock owner;
+    private Instruction head;
+    private Instruction tail;
+    private int size;
+
+    public InstructionList(IrBasicBlock owner) {
+        this.owner = owner;
+    }
+
+    public Instruction first() {
+        return head;
+    }
+
+    public Instruction last() {
+        return tail;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Instruction && ((Instruction) o).list == this;
+    }
+
+    @Override
+    public boolean add(Instruction instr) {
+        linkBefore(instr, null);
+        return true;
+    }
+
+    public void addFirst(Instruction instr) {
+        linkBefore(instr, head);
+    }
+
+    // 在 anchor 之前插入 instr
+    public void insertBefore(Instruction anchor, Instruction instr) {
+        checkMember(anchor);
+        linkBefore(instr, anchor);
+    }
+
+    // 在 anchor 之后插入 instr
+    public void insertAfter(Instruction anchor, Instruction instr) {
+        checkMember(anchor);
+        if (anchor != instr) {
+            linkBefore(instr, anchor.next);
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!contains(o)) {
+            return false;
+        }
+        unlink((Instruction) o);
+        return true;
+    }
+
+    // 参数可能正是另一个块的指令链表，先拷贝再逐条移动
+    @Override
+    public boolean addAll(Collection<? extends Instruction> c) {
+        Object[] instrs = c.toArray();
+        for (Object instr : instrs) {
+            linkBefore((Instruction) instr, null);
+        }
+        return instrs.length != 0;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Instruction> c) {
+        Object[] instrs = c.toArray();
+        ListIterator<Instruction> it = listIterator(index);
+        for (Object instr : instrs) {
+            it.add((Instruction) instr);
+        }
+        return instrs.length != 0;
+    }
+
+    /**
+     * 把 from 中从 first 开始到末尾的指令依次移动到本链表末尾。
+     * 链表指针只改首尾两处，被移动的指令逐条更新所属块。
+     */
+    public void splice(InstructionList from, Instruction first) {
+        if (first == null) {
+            return;
+        }
+        from.checkMember(first);
+        if (from == this) {
+            throw new IllegalArgumentException("cannot splice a block into itself");
+        }
+        Instruction last = from.tail;
+        int count = 0;
+        for (Instruction instr = first; instr != null; instr = instr.next) {
+            instr.list = this;
+            instr.setParentBasicBlock(owner);
+            count++;
+        }
+
+        // 从 from 中断开
+        from.tail = first.prev;
+        if (first.prev == null) {
+            from.head = null;
+        } else {
+            first.prev.next = null;
+        }
+        from.size -= count;
+        from.modCount++;
+
+        // 接到本链表末尾
+        first.prev = tail;
+        if (tail == null) {
+            head = first;
+        } else {
+            tail.next = first;
+        }
+        tail = last;
+        size += count;
+        modCount++;
+    }
+
+    // 把 from 的全部指令移动到本链表末尾
+    public void splice(InstructionList from) {
+        splice(from, from.head);
+    }
+
+    @Override
+    public void clear() {
+        Instruction instr = head;
+        while (instr != null) {
+            Instruction next = instr.next;
+            instr.prev = null;
+            instr.next = null;
+            instr.list = null;
+            instr = next;
+        }
+        head = null;
+        tail = null;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public ListIterator<Instruction> listIterator(int index) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return new Itr(index);
+    }
+
+    private void checkMember(Instruction instr) {
+        if (instr == null || instr.list != this) {
+            throw new IllegalArgumentException("instruction is not in block " + owner.getIrName());
+        }
+    }
+
+    // 把 instr 插到 succ 之前，succ 为 null 表示插到末尾
+    private void linkBefore(Instruction instr, Instruction succ) {
+        if (instr == succ) {
+            return;
+        }
+        if (instr.list != null) {
+            instr.list.unlink(instr);
+        }
+        Instruction pred = succ == null ? tail : succ.prev;
+        instr.prev = pred;
+        instr.next = succ;
+        if (pred == null) {
+            head = instr;
+        } else {
+            pred.next = instr;
+        }
+        if (succ == null) {
+            tail = instr;
+        } else {
+            succ.prev = instr;
+        }
+        instr.list = this;
+        instr.setParentBasicBlock(owner);
+        size++;
+        modCount++;
+    }
+
+    // 摘下后保留 parent，原有代码在删除指令后仍可能通过 getParent() 找到原块
+    private void unlink(Instruction instr) {
+        Instruction pred = instr.prev;
+        Instruction succ = instr.next;
+        if (pred == null) {
+            head = succ;
+        } else {
+            pred.next = succ;
+        }
+        if (succ == null) {
+            tail = pred;
+        } else {
+            succ.prev = pred;
+        }
+        instr.prev = null;
+        instr.next = null;
+        instr.list = null;
+        size--;
+        modCount++;
+    }
+
+    private class Itr implements ListIterator<Instruction> {
+        private Instruction next;
+        private Instruction lastReturned;
+        private int nextIndex;
+        private int expectedModCount = modCount;
+
+        Itr(int index) {
+            if (index < (size >> 1)) {
+                next = head;
+                for (int i = 0; i < index; i++) {
+                    next = next.next;
+                }
+            } else {
+                next = null;
+                for (int i = size; i > index; i--) {
+                    next = next == null ? tail : next.prev;
+                }
+            }
+            nextIndex = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < size;
+        }
+
+        @Override
+        public Instruction next() {
+            checkForComodification();
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = next;
+            next = next.next;
+            nextIndex++;
+            return lastReturned;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public Instruction previous() {
+            checkForComodification();
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+            next = next == null ? tail : next.prev;
+            lastReturned = next;
+            nextIndex--;
+            return lastReturned;
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            checkForComodification();
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            if (next == lastReturned) {
+                next = lastReturned.next;
+            } else {
+                nextIndex--;
+            }
+            unlink(lastReturned);
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+
+        @Override
+        public void set(Instruction instr) {
+            checkForComodification();
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            checkNotInThisList(instr);
+            linkBefore(instr, lastReturned);
+            if (next == lastReturned) {
+                next = instr;
+            }
+            unlink(lastReturned);
+            lastReturned = instr;
+            expectedModCount = modCount;
+        }
+
+        @Override
+        public void add(Instruction instr) {
+            checkForComodification();
+            checkNotInThisList(instr);
+            linkBefore(instr, next);
+            nextIndex++;
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+
+        // 迭代过程中在同一链表内移动指令会打乱游标位置，不支持
+        private void checkNotInThisList(Instruction instr) {
+            if (instr.list == InstructionList.this) {
+                throw new IllegalArgumentException("instruction is already in block " + owner.getIrName());
+            }
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+}
@@ -26,18 +26,24 @@ public class JumpInstr extends Instruction {
     }
 
     public String toString() {
-        return "br label %" + targetBlock.irName;
+        return "br label %" + targetBlock.getIrName();
+    }
+
+    @Override
+    public int getNumValueOperands() {
+        return 0;
     }
 
     @Override
     public void replaceUse(IrValue oldVal, IrValue newVal) {
         if (this.targetBlock == oldVal) {
             this.targetBlock = (IrBasicBlock) newVal;
+            this.setOperand(0, newVal);
         }
     }
 
     public void setTargetBlock(IrBasicBlock clonedBlock) {
         this.targetBlock = clonedBlock;
-        this.getUseValues().set(0, clonedBlock);
+        this.setOperand(0, clonedBlock);
     }
 }
@@ -1,6 +1,5 @@
 package midend.LLVM.Instruction;
 
-import midend.LLVM.IrBuilder;
 import midend.LLVM.Type.IrPointer;
 import midend.LLVM.Type.IrType;
 import midend.LLVM.ValueType;
@@ -9,27 +8,27 @@ import midend.LLVM.value.IrValue;
 public class LoadInstr extends Instruction {
 
     public LoadInstr(IrValue pointer) {
-        super(ValueType.LOAD_INST, ((IrPointer) pointer.irType).targetType, IrBuilder.GetLocalVarName(), InstructionType.LOAD);
+        super(ValueType.LOAD_INST, ((IrPointer) pointer.irType).targetType, null, InstructionType.LOAD);
         this.AddUseValue(pointer);
     }
 
     public IrType getPointType() {
-        return this.getUseValues().get(0).irType;
+        return this.getOperand(0).irType;
     }
 
     public String toString() {
-        IrValue pointer = this.getUseValues().get(0);
-        return this.irName + " = load " + this.irType + ", " + pointer.irType + " " + pointer.irName;
+        IrValue pointer = this.getOperand(0);
+        return this.getIrName() + " = load " + this.irType + ", " + pointer.irType + " " + pointer.getIrName();
     }
 
     public IrValue getPtr() {
-        return this.getUseValues().get(0);
+        return this.getOperand(0);
     }
 
     @Override
     public void replaceUse(IrValue oldVal, IrValue newVal) {
-        if (this.getUseValues().get(0) == oldVal) {
-            this.getUseValues().set(0, newVal);
+        if (this.getOperand(0) == oldVal) {
+            this.setOperand(0, newVal);
         }
     }
 }
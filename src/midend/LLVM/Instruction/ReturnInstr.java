@@ -17,7 +17,7 @@ public class ReturnInstr extends Instruction {
         if (returnValue == null) {
             return "ret void";
         } else {
-            return "ret " + returnValue.irType.toString() + " " + returnValue.irName;
+            return "ret " + returnValue.irType.toString() + " " + returnValue.getIrName();
         }
     }
 
@@ -29,10 +29,16 @@ public class ReturnInstr extends Instruction {
         return returnValue;
     }
 
+    @Override
+    public int getNumValueOperands() {
+        return returnValue == null ? 0 : 1;
+    }
+
     @Override
     public void replaceUse(IrValue oldVal, IrValue newVal) {
         if (this.returnValue == oldVal) {
             this.returnValue = newVal;
+            this.setOperand(0, newVal);
         }
     }
 }
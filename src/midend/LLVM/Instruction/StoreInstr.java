@@ -13,17 +13,17 @@ public class StoreInstr extends Instruction {
     }
 
     public String toString() {
-        IrValue value = this.getUseValues().get(0);
-        IrValue address = this.getUseValues().get(1);
-        return "store " + value.irType.toString() + " " + value.irName + ", " + address.irType.toString() + " " + address.irName;
+        IrValue value = this.getOperand(0);
+        IrValue address = this.getOperand(1);
+        return "store " + value.irType.toString() + " " + value.getIrName() + ", " + address.irType.toString() + " " + address.getIrName();
     }
 
     public IrValue getVal() {
-        return this.getUseValues().get(0);
+        return this.getOperand(0);
     }
 
     public IrValue getPtr() {
-        return this.getUseValues().get(1);
+        return this.getOperand(1);
     }
 
 
@@ -31,11 +31,11 @@ public class StoreInstr extends Instruction {
     public void replaceUse(IrValue oldVal, IrValue newVal) {
         // Store 有两个操作数：val (要存的值) 和 ptr (地址)
         // 通常只替换 val，ptr 如果被替换说明 ptr 本身是 Load 出来的（多级指针），也要处理
-        if (this.getUseValues().get(0) == oldVal) {
-            this.getUseValues().set(0, newVal);
+        if (this.getOperand(0) == oldVal) {
+            this.setOperand(0, newVal);
         }
-        if (this.getUseValues().get(1) == oldVal) {
-            this.getUseValues().set(1, newVal);
+        if (this.getOperand(1) == oldVal) {
+            this.setOperand(1, newVal);
         }
     }
 }
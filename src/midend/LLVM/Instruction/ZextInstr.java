@@ -1,6 +1,5 @@
 package midend.LLVM.Instruction;
 
-import midend.LLVM.IrBuilder;
 import midend.LLVM.Type.IrType;
 import midend.LLVM.ValueType;
 import midend.LLVM.value.IrValue;
@@ -9,17 +8,13 @@ public class ZextInstr extends Instruction {
     private IrType targetType;
 
     public ZextInstr(IrValue originValue, IrType targetType) {
-        super(ValueType.ZEXT_INST, targetType, IrBuilder.GetLocalVarName(), InstructionType.ZEXT);
+        super(ValueType.ZEXT_INST, targetType, null, InstructionType.ZEXT);
         this.targetType = targetType;
         this.AddUseValue(originValue);
     }
 
     public String toString() {
-        return this.irName + " = zext " + this.getUseValues().get(0).irType.toString() + " " + this.getUseValues().get(0).irName + " to " + this.targetType.toString();
-    }
-
-    public IrValue getOperand(int i) {
-        return this.getUseValues().get(i);
+        return this.getIrName() + " = zext " + this.getOperand(0).irType.toString() + " " + this.getOperand(0).getIrName() + " to " + this.targetType.toString();
     }
 
     public IrType getTargetType() {
@@ -28,8 +23,8 @@ public class ZextInstr extends Instruction {
 
     @Override
     public void replaceUse(IrValue oldVal, IrValue newVal) {
-        if (this.getUseValues().get(0) == oldVal) {
-            this.getUseValues().set(0, newVal);
+        if (this.getOperand(0) == oldVal) {
+            this.setOperand(0, newVal);
         }
     }
 }
@@ -12,33 +12,40 @@ import midend.LLVM.value.IrBasicBlock;
 import midend.LLVM.value.IrFunction;
 import midend.LLVM.value.IrGlobalValue;
 import midend.LLVM.value.IrValue;
+import midend.CompilationContext;
 import midend.Symbol.Symbol;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Stack;
 
 public class IrBuilder {
-    private static IrModule irModule = new IrModule(ValueType.MOUDLE, IrType.MODULE, "IRModule");
-    private static IrFunction currentFunction = null;
-    private static IrBasicBlock currentBasicBlock = null;
-    private static Stack<IrLoop> loopStack = new Stack<>();
+    /**
+     * 一次编译中 IR 构建的全部状态，由 CompilationContext 持有
+     */
+    public static final class State {
+        private final IrModule irModule = new IrModule(ValueType.MOUDLE, IrType.MODULE, "IRModule");
+        private IrFunction currentFunction = null;
+        private IrBasicBlock currentBasicBlock = null;
+        private final Stack<IrLoop> loopStack = new Stack<>();
 
-    private static int basicBlockNum = 0;
-    private static int globalVarNum = 0;
-    private static int stringConstNum = 0;
-    private static final HashMap<IrFunction, Integer> localVarNum = new HashMap<>();
+        private int globalVarNum = 0;
+        private int stringConstNum = 0;
+    }
+
+    private static State state() {
+        return CompilationContext.current().getIrBuilderState();
+    }
 
     public static IrModule getIrModule() {
-        return irModule;
+        return state().irModule;
     }
 
     public static IrBasicBlock getCurrentBasicBlock() {
-        return currentBasicBlock;
+        return state().currentBasicBlock;
     }
 
     public static void SetCurrentBasicBlock(IrBasicBlock irBasicBlock) {
-        currentBasicBlock = irBasicBlock;
+        state().currentBasicBlock = irBasicBlock;
     }
 
     //传入函数名，ValueType.FUNCTION，IrType.INT32/VOID
@@ -54,32 +61,27 @@ public class IrBuilder {
     public static IrFunction GetNewIrFunction(String main, ValueType valueType, IrType irType) {
         main = GetFuncName(main);
         // 创建函数
+        State state = state();
         IrFunction irFunction = new IrFunction(valueType, irType, main);
-        irModule.addFunction(irFunction);
-        currentFunction = irFunction;
+        state.irModule.addFunction(irFunction);
+        state.currentFunction = irFunction;
 
         // 创建基本块
         IrBasicBlock irBasicBlock = GetNewBasicBlockIr();
-        currentBasicBlock = irBasicBlock;
-
-        // 初始化局部变量计数
-        localVarNum.put(irFunction, 0);
+        state.currentBasicBlock = irBasicBlock;
 
         return irFunction;
     }
 
     public static IrBasicBlock GetNewBasicBlockIr() {
-        IrBasicBlock basicBlock = new IrBasicBlock(ValueType.BASIC_BLOCK, IrType.BASICBLOCK, GetBasicBlockName(), currentFunction);
+        IrFunction currentFunction = state().currentFunction;
+        IrBasicBlock basicBlock = new IrBasicBlock(ValueType.BASIC_BLOCK, IrType.BASICBLOCK, null, currentFunction);
         // 添加到当前的处理中
         currentFunction.addBasicBlock(basicBlock);
 
         return basicBlock;
     }
 
-    private static String GetBasicBlockName() {
-        return "b_" + basicBlockNum++;
-    }
-
     private static String GetFuncName(String indent) {
         if (indent.equals("main")) {
             return "@main";
@@ -91,7 +93,7 @@ public class IrBuilder {
         IrConstant initial = GetIrConstantFromSymbol(constSymbol);
 
         IrGlobalValue irGlobalValue = new IrGlobalValue(ValueType.GLOBAL_VARIABLE, new IrPointer(initial.irType), GetGlobalVarName(), initial);
-        irModule.addGlobalValue(irGlobalValue);
+        state().irModule.addGlobalValue(irGlobalValue);
         return irGlobalValue;
     }
 
@@ -106,32 +108,32 @@ public class IrBuilder {
         if (!constSymbol.isArray()) {
             // 非数组
             if (initValues.size() == 0) {
-                return new IrConstInt(0);
+                return GetNewIrConstInt(0);
             } else {
-                return new IrConstInt(initValues.get(0));
+                return GetNewIrConstInt(initValues.get(0));
             }
         } else {
             ArrayList<IrConstant> constantList = new ArrayList<>();
             int size = constSymbol.getSize();
             for (Integer val : initValues) {
-                constantList.add(new IrConstInt(val));
+                constantList.add(GetNewIrConstInt(val));
             }
             // 未初始化的部分为0
             for (int i = initValues.size(); i < size; i++) {
-                constantList.add(new IrConstInt(0));
+                constantList.add(GetNewIrConstInt(0));
             }
             return new IrConstIntArray(constSymbol.GetSymbolName(), constantList);
         }
     }
 
     private static String GetGlobalVarName() {
-        return "@g_" + globalVarNum++;
+        return "@g_" + state().globalVarNum++;
     }
 
     public static AllocateInstruction GetNewAllocateInstruction(Symbol constSymbol) {
         IrType allocatedType = constSymbol.getIrType();// 获取分配类型
         //System.out.println(constSymbol.GetSymbolName()+":" + allocatedType);
-        AllocateInstruction allocateInstruction = new AllocateInstruction(GetLocalVarName(), allocatedType);
+        AllocateInstruction allocateInstruction = new AllocateInstruction(null, allocatedType);
 
         // 添加到当前基本块
         addInstr(allocateInstruction);
@@ -139,10 +141,9 @@ public class IrBuilder {
         return allocateInstruction;
     }
 
+    // 指令和基本块的名字在打印时才分配，这里只用于需要立即命名的函数参数
     public static String GetLocalVarName() {
-        int varNum = localVarNum.get(currentFunction);
-        localVarNum.put(currentFunction, varNum + 1);
-        return "%v" + varNum;
+        return state().currentFunction.newLocalName("%v");
     }
 
     public static StoreInstr GetNewStoreInstrBySymbol(Symbol constSymbol, AllocateInstruction allocateInstr) {
@@ -153,6 +154,7 @@ public class IrBuilder {
 
     // 添加指令到当前基本块
     public static void addInstr(Instruction instr) {
+        IrBasicBlock currentBasicBlock = state().currentBasicBlock;
         currentBasicBlock.addInstruction(instr);
         instr.setParentBasicBlock(currentBasicBlock);
     }
@@ -181,13 +183,13 @@ public class IrBuilder {
         return callInstr;
     }
 
-    public static AluInst GetNewAluInst(String op, IrValue l, IrValue r) {
+    public static AluInst GetNewAluInst(AluOpcode op, IrValue l, IrValue r) {
         AluInst aluInst = new AluInst(op, l, r);
         addInstr(aluInst);
         return aluInst;
     }
 
-    public static CmpInstr GetNewCmpInstr(String s, IrValue left, IrValue ret) {
+    public static CmpInstr GetNewCmpInstr(CmpPredicate s, IrValue left, IrValue ret) {
         CmpInstr cmpInstr = new CmpInstr(s, left, ret);
         addInstr(cmpInstr);
         return cmpInstr;
@@ -224,24 +226,29 @@ public class IrBuilder {
     }
 
     public static void LoopEnter(IrLoop irLoop) {
-        loopStack.push(irLoop);
+        state().loopStack.push(irLoop);
     }
 
     public static void LoopExit() {
-        loopStack.pop();
+        state().loopStack.pop();
     }
 
     public static IrLoop LoopPeek() {
-        return loopStack.peek();
+        return state().loopStack.peek();
     }
 
     public static IrConstString GetNewIrConstString(String string) {
         // 创建字符串常量
-        return irModule.GetNewIrConstString(string);
+        return state().irModule.GetNewIrConstString(string);
+    }
+
+    // 整数常量统一从模块的常量池取得，不要直接 new IrConstInt
+    public static IrConstInt GetNewIrConstInt(int value) {
+        return state().irModule.GetNewIrConstInt(value);
     }
 
     public static String GetStringConstName() {
-        return "@s_" + stringConstNum++;
+        return "@s_" + state().stringConstNum++;
     }
 
     public static PrintIntInstr GetNewPrintIntInstr(IrValue irValue) {
@@ -264,22 +271,16 @@ public class IrBuilder {
 
     public static IrGlobalValue GetNewIrStaticValue(IrConstant initValue) {
         IrGlobalValue irGlobalValue = new IrGlobalValue(ValueType.GLOBAL_VARIABLE, new IrPointer(initValue.irType), GetGlobalVarName(), initValue, true);
-        irModule.addGlobalValue(irGlobalValue);
+        state().irModule.addGlobalValue(irGlobalValue);
         return irGlobalValue;
     }
 
     public static AllocateInstruction GetNewAllocInstrByType(IrType irType) {
-        AllocateInstruction allocateInstruction = new AllocateInstruction(GetLocalVarName(), irType);
+        AllocateInstruction allocateInstruction = new AllocateInstruction(null, irType);
 
         // 添加到当前基本块
         addInstr(allocateInstruction);
 
         return allocateInstruction;
     }
-
-    public static String GetPhiName() {
-        return "%phi_" + (phiCount++);
-    }
-
-    private static int phiCount = 0;
 }
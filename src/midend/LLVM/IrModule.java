@@ -1,14 +1,16 @@
 package midend.LLVM;
 
+import midend.LLVM.Const.IrConstInt;
 import midend.LLVM.Const.IrConstString;
 import midend.LLVM.Type.IrType;
 import midend.LLVM.value.IrFunction;
 import midend.LLVM.value.IrGlobalValue;
 import midend.LLVM.value.IrValue;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 public class IrModule extends IrValue {
@@ -16,6 +18,8 @@ public class IrModule extends IrValue {
     private final ArrayList<IrFunction>functions;
     private final ArrayList<IrGlobalValue> globals;
     private final HashMap<String, IrConstString>stringIrConstStringHashMap;
+    // 整数常量池：数值相同的常量是同一个对象，可以直接用 == 比较
+    private final HashMap<Integer, IrConstInt> constIntPool;
     public IrModule(ValueType valueType, IrType irType, String irName) {
         super(valueType,irType, irName);
 
@@ -23,6 +27,7 @@ public class IrModule extends IrValue {
         this.functions = new ArrayList<>();
         this.globals = new ArrayList<>();
         this.stringIrConstStringHashMap = new HashMap<>();
+        this.constIntPool = new HashMap<>();
         this.declares.add("declare i32 @getint()");
         this.declares.add("declare void @putint(i32)");
         this.declares.add("declare void @putstr(i8*)");
@@ -38,6 +43,15 @@ public class IrModule extends IrValue {
         }
     }
 
+    // 加入已经命名的字符串常量（反序列化时使用）
+    public void addConstString(IrConstString irConstString) {
+        this.stringIrConstStringHashMap.put(irConstString.getString(), irConstString);
+    }
+
+    public IrConstInt GetNewIrConstInt(int value) {
+        return this.constIntPool.computeIfAbsent(value, IrConstInt::new);
+    }
+
     public ArrayList<String> getDeclares() {
         return declares;
     }
@@ -59,25 +73,37 @@ public class IrModule extends IrValue {
         this.globals.add(irGlobalValue);
     }
 
-    public String toString() {
-        StringBuilder sb = new StringBuilder();
+    /**
+     * 把整个模块的文本依次写到 out，函数按块、指令逐条输出，
+     * 写文件时配合带缓冲的 Writer 使用，内存占用与输出大小无关
+     */
+    public void emit(Appendable out) throws IOException {
         //输出声明
         for (String declare : declares) {
-            sb.append(declare).append("\n");
+            out.append(declare).append("\n");
         }
 
-        List<Map.Entry<String, IrConstString>> stringEntries = new ArrayList<>(this.stringIrConstStringHashMap.entrySet());
         //输出字符串常量
-        for (Map.Entry<String, IrConstString> entry : stringEntries) {
-            sb.append(entry.getValue()).append("\n");
+        for (Map.Entry<String, IrConstString> entry : this.stringIrConstStringHashMap.entrySet()) {
+            out.append(entry.getValue().toString()).append("\n");
         }
         //输出全局变量
         for (IrGlobalValue global : globals) {
-            sb.append(global).append("\n");
+            out.append(global.toString()).append("\n");
         }
         //输出函数
         for (IrFunction function : functions) {
-            sb.append(function).append("\n");
+            function.emit(out);
+            out.append("\n");
+        }
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            emit(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
         return sb.toString();
     }
@@ -0,0 +1,717 @@
+package midend.LLVM;
+
+import midend.LLVM.Const.IrConstInt;
+import midend.LLVM.Const.IrConstIntArray;
+import midend.LLVM.Const.IrConstString;
+import midend.LLVM.Const.IrConstant;
+import midend.LLVM.Instruction.*;
+import midend.LLVM.Type.IrPointer;
+import midend.LLVM.Type.IrType;
+import midend.LLVM.value.IrBasicBlock;
+import midend.LLVM.value.IrFunction;
+import midend.LLVM.value.IrGlobalValue;
+import midend.LLVM.value.IrParameter;
+import midend.LLVM.value.IrValue;
+import midend.SSA.CfgBuilder;
+import midend.SSA.PhiInstr;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * IrModule 的二进制格式：写出优化后的模块，之后可以不经过前端和中端直接读回来交给后端。
+ * 整数一律用变长编码；操作数按种类写成 (标记, 下标)，函数内的值按 renumber() 的编号引用。
+ * 名字（包括打印时才分配的名字和函数内的命名计数器）原样保存，读回的模块打印出的 IR 与原模块相同。
+ */
+public final class IrSerializer {
+    private static final int MAGIC = 0x53594952; // "SYIR"
+    private static final int VERSION = 1;
+
+    // 类型：内置类型按下标写，其余为具名类型 (名字 + 数组长度) 或指针
+    private static final IrType[] BUILTIN_TYPES = {
+            IrType.MODULE, IrType.FUNCTION, IrType.POINTER, IrType.BASICBLOCK, IrType.VOID,
+            IrType.INT1, IrType.INT8, IrType.INT32, IrType.ARRAY, IrType.STRING
+    };
+    private static final int TYPE_NAMED = BUILTIN_TYPES.length;
+    private static final int TYPE_POINTER = TYPE_NAMED + 1;
+
+    // 操作数种类
+    private static final int REF_NULL = 0;
+    private static final int REF_CONST_INT = 1;
+    private static final int REF_LOCAL = 2;
+    private static final int REF_FORWARD = 3; // 引用后面才定义的值，附带类型，读取时先用占位值代替
+    private static final int REF_GLOBAL = 4;
+    private static final int REF_FUNCTION = 5;
+    private static final int REF_BLOCK = 6;
+    private static final int REF_STRING = 7;
+
+    // 全局变量初值
+    private static final int INIT_INT = 0;
+    private static final int INIT_ARRAY = 1;
+
+    // 指令种类
+    private static final int OP_ALLOCA = 0;
+    private static final int OP_ALU = 1;
+    private static final int OP_CMP = 2;
+    private static final int OP_LOAD = 3;
+    private static final int OP_STORE = 4;
+    private static final int OP_GEP = 5;
+    private static final int OP_CALL = 6;
+    private static final int OP_ZEXT = 7;
+    private static final int OP_TRUNC = 8;
+    private static final int OP_RETURN = 9;
+    private static final int OP_BRANCH = 10;
+    private static final int OP_JUMP = 11;
+    private static final int OP_PRINT_INT = 12;
+    private static final int OP_PRINT_STR = 13;
+    private static final int OP_PHI = 14;
+
+    private IrSerializer() {
+    }
+
+    public static void write(IrModule module, OutputStream out) throws IOException {
+        BufferedOutputStream buffered = new BufferedOutputStream(out, 1 << 16);
+        new Writer(buffered).writeModule(module);
+        buffered.flush();
+    }
+
+    /**
+     * 读回一个模块，内容装入当前 context 的 IrModule（必须还是空的），
+     * 整数常量进入同一个常量池，之后可以直接交给 Backend 或继续优化
+     */
+    public static IrModule read(InputStream in) throws IOException {
+        return new Reader(new BufferedInputStream(in, 1 << 16)).readModule(IrBuilder.getIrModule());
+    }
+
+    /**
+     * 先写到同目录的临时文件，成功后再重命名为 file；写出失败时异常直接抛出，不会留下截断的文件
+     */
+    public static void writeToFile(IrModule module, String file) throws IOException {
+        Path target = Path.of(file).toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                write(module, out);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public static IrModule readFromFile(String file) throws IOException {
+        try (InputStream in = Files.newInputStream(Path.of(file))) {
+            return read(in);
+        }
+    }
+
+    private static final class Writer {
+        private final OutputStream out;
+        private IrModule module;
+        private final Map<IrValue, Integer> stringIndex = new IdentityHashMap<>();
+        private final Map<IrValue, Integer> globalIndex = new IdentityHashMap<>();
+        private final Map<IrValue, Integer> functionIndex = new IdentityHashMap<>();
+        private IrFunction function;
+        // 正在写的指令，出错时用于定位
+        private Instruction instruction;
+        // 当前指令的编号，编号不小于它的操作数是前向引用
+        private int position;
+
+        Writer(OutputStream out) {
+            this.out = out;
+        }
+
+        void writeModule(IrModule module) throws IOException {
+            this.module = module;
+            writeFixedInt(MAGIC);
+            writeVarInt(VERSION);
+
+            // 字符串常量按 HashMap 的遍历顺序写，读回时按同样顺序插入，遍历顺序不变
+            writeVarInt(module.getStringIrConstStringHashMap().size());
+            for (IrConstString string : module.getStringIrConstStringHashMap().values()) {
+                stringIndex.put(string, stringIndex.size());
+                writeString(string.getIrName());
+                writeString(string.getString());
+            }
+
+            writeVarInt(module.getGlobals().size());
+            for (IrGlobalValue global : module.getGlobals()) {
+                globalIndex.put(global, globalIndex.size());
+                writeString(global.getIrName());
+                out.write(global.isStatic() ? 1 : 0);
+                writeInitial(global.getInitial());
+            }
+
+            // 被调用但没有定义的函数（@getint 等）排在定义的函数后面
+            ArrayList<IrFunction> functions = new ArrayList<>(module.getFunctions());
+            for (IrFunction f : functions) {
+                functionIndex.put(f, functionIndex.size());
+            }
+            for (IrFunction f : module.getFunctions()) {
+                for (IrBasicBlock bb : f.getBasicBlocks()) {
+                    for (Instruction instr : bb.getInstructions()) {
+                        if (instr instanceof CallInstr call && !functionIndex.containsKey(call.getTargetFunction())) {
+                            functionIndex.put(call.getTargetFunction(), functionIndex.size());
+                            functions.add(call.getTargetFunction());
+                        }
+                    }
+                }
+            }
+            writeVarInt(module.getFunctions().size());
+            writeVarInt(functions.size() - module.getFunctions().size());
+            for (int i = 0; i < functions.size(); i++) {
+                IrFunction f = functions.get(i);
+                writeString(f.getIrName());
+                writeType(f.GetReturnType());
+                if (i < module.getFunctions().size()) {
+                    writeVarInt(f.getParameters().size());
+                    for (IrParameter param : f.getParameters()) {
+                        writeString(param.getIrName());
+                        writeType(param.irType);
+                    }
+                }
+            }
+
+            for (IrFunction f : module.getFunctions()) {
+                writeBody(f);
+            }
+        }
+
+        private void writeInitial(IrConstant initial) throws IOException {
+            if (initial instanceof IrConstInt constInt) {
+                out.write(INIT_INT);
+                writeSignedInt(constInt.getValue());
+            } else if (initial instanceof IrConstIntArray array) {
+                out.write(INIT_ARRAY);
+                writeString(array.getIrName());
+                writeVarInt(array.getArray().size());
+                for (IrConstant element : array.getArray()) {
+                    if (!(element instanceof IrConstInt constInt)) {
+                        throw new IllegalStateException("unsupported array element: " + element);
+                    }
+                    writeSignedInt(constInt.getValue());
+                }
+            } else {
+                throw new IllegalStateException("unsupported global initializer: " + initial);
+            }
+        }
+
+        private void writeBody(IrFunction f) throws IOException {
+            function = f;
+            f.assignNames();
+            f.renumber();
+            writeVarInt(f.getBlockNameCount());
+            writeVarInt(f.getLocalNameCount());
+            writeVarInt(f.getValueCount());
+            writeVarInt(f.getBlockCount());
+            for (IrBasicBlock bb : f.getBasicBlocks()) {
+                writeString(bb.getIrName());
+            }
+            position = f.getParameters().size();
+            for (IrBasicBlock bb : f.getBasicBlocks()) {
+                writeVarInt(bb.getInstructions().size());
+                for (Instruction instr : bb.getInstructions()) {
+                    instruction = instr;
+                    writeInstruction(instr);
+                    position++;
+                }
+            }
+        }
+
+        private void writeInstruction(Instruction instr) throws IOException {
+            if (instr instanceof AllocateInstruction alloca) {
+                out.write(OP_ALLOCA);
+                writeType(alloca.getAllocatedType());
+            } else if (instr instanceof AluInst alu) {
+                out.write(OP_ALU);
+                writeVarInt(alu.getOp().ordinal());
+                writeOperand(alu.getLeft());
+                writeOperand(alu.getRight());
+            } else if (instr instanceof CmpInstr cmp) {
+                out.write(OP_CMP);
+                writeVarInt(cmp.getOp().ordinal());
+                writeOperand(cmp.getLeft());
+                writeOperand(cmp.getRight());
+            } else if (instr instanceof LoadInstr load) {
+                out.write(OP_LOAD);
+                writeOperand(load.getPtr());
+            } else if (instr instanceof StoreInstr store) {
+                out.write(OP_STORE);
+                writeOperand(store.getVal());
+                writeOperand(store.getPtr());
+            } else if (instr instanceof GepInstr gep) {
+                out.write(OP_GEP);
+                writeOperand(gep.getPtr());
+                writeOperand(gep.getIndice());
+            } else if (instr instanceof CallInstr call) {
+                out.write(OP_CALL);
+                writeOperand(call.getTargetFunction());
+                writeVarInt(call.getNumValueOperands());
+                for (int i = 0; i < call.getNumValueOperands(); i++) {
+                    writeOperand(call.getValueOperand(i));
+                }
+            } else if (instr instanceof ZextInstr zext) {
+                out.write(OP_ZEXT);
+                writeOperand(zext.getOperand(0));
+                writeType(zext.getTargetType());
+            } else if (instr instanceof TruncInstr trunc) {
+                out.write(OP_TRUNC);
+                writeOperand(trunc.getOperand(0));
+                writeType(trunc.getTargetType());
+            } else if (instr instanceof ReturnInstr ret) {
+                out.write(OP_RETURN);
+                writeOperand(ret.getReturnValue());
+            } else if (instr instanceof BranchInstr br) {
+                out.write(OP_BRANCH);
+                writeOperand(br.getCond());
+                writeOperand(br.getTrueBlock());
+                writeOperand(br.getFalseBlock());
+            } else if (instr instanceof JumpInstr jump) {
+                out.write(OP_JUMP);
+                writeOperand(jump.getTargetBlock());
+            } else if (instr instanceof PrintIntInstr print) {
+                out.write(OP_PRINT_INT);
+                writeOperand(print.getPrintValue());
+            } else if (instr instanceof PrintStrInstr print) {
+                out.write(OP_PRINT_STR);
+                writeOperand(print.getPrintValue());
+            } else if (instr instanceof PhiInstr phi) {
+                out.write(OP_PHI);
+                writeType(phi.irType);
+                writeVarInt(phi.getNumOperands());
+                for (int i = 0; i < phi.getNumOperands(); i++) {
+                    writeOperand(phi.getOperand(i));
+                    writeOperand(phi.getIncomingBlocks().get(i));
+                }
+                // 来源 alloca 只在 Mem2Reg 中使用，已经删除或在后面的不保存
+                AllocateInstruction alloca = phi.getOriginalAlloca();
+                int id = alloca == null ? -1 : function.indexOf(alloca);
+                writeOperand(id >= 0 && id < position ? alloca : null);
+            } else {
+                throw new IllegalStateException("unsupported instruction: " + instr);
+            }
+            if (!instr.irType.isVoid()) {
+                writeString(instr.getIrName());
+            }
+        }
+
+        private void writeOperand(IrValue value) throws IOException {
+            if (value == null) {
+                out.write(REF_NULL);
+            } else if (value instanceof IrConstInt constInt) {
+                out.write(REF_CONST_INT);
+                writeSignedInt(constInt.getValue());
+            } else if (value instanceof IrBasicBlock bb) {
+                out.write(REF_BLOCK);
+                writeVarInt(checkIndex(function.indexOfBlock(bb), value));
+            } else if (value instanceof IrFunction) {
+                out.write(REF_FUNCTION);
+                writeVarInt(checkIndex(functionIndex.getOrDefault(value, -1), value));
+            } else if (value instanceof IrGlobalValue) {
+                out.write(REF_GLOBAL);
+                writeVarInt(checkIndex(globalIndex.getOrDefault(value, -1), value));
+            } else if (value instanceof IrConstString) {
+                out.write(REF_STRING);
+                writeVarInt(checkIndex(stringIndex.getOrDefault(value, -1), value));
+            } else {
+                int id = checkIndex(function.indexOf(value), value);
+                if (id < position) {
+                    out.write(REF_LOCAL);
+                    writeVarInt(id);
+                } else {
+                    out.write(REF_FORWARD);
+                    writeVarInt(id);
+                    writeType(value.irType);
+                }
+            }
+        }
+
+        private int checkIndex(int index, IrValue value) {
+            if (index < 0) {
+                throw new IllegalStateException("operand " + value.getIrName() + ownerOf(value)
+                        + " of '" + instruction + "' in " + function.getIrName() + " is not part of the module");
+            }
+            return index;
+        }
+
+        // 操作数所属的其他函数，找不到 (已被删除的指令等) 时返回空串
+        private String ownerOf(IrValue value) {
+            for (IrFunction f : module.getFunctions()) {
+                if (f == function) {
+                    continue;
+                }
+                if (f.getParameters().contains(value)
+                        || value instanceof Instruction instr && instr.getParent() != null
+                        && f.getBasicBlocks().contains(instr.getParent())) {
+                    return " (defined in " + f.getIrName() + ")";
+                }
+            }
+            return "";
+        }
+
+        private void writeType(IrType type) throws IOException {
+            for (int i = 0; i < BUILTIN_TYPES.length; i++) {
+                if (BUILTIN_TYPES[i] == type) {
+                    out.write(i);
+                    return;
+                }
+            }
+            if (type instanceof IrPointer pointer) {
+                out.write(TYPE_POINTER);
+                writeType(pointer.targetType);
+            } else {
+                out.write(TYPE_NAMED);
+                writeString(type.getTypeName());
+                writeSignedInt(type.arraySize);
+            }
+        }
+
+        private void writeFixedInt(int v) throws IOException {
+            out.write(v >>> 24);
+            out.write(v >>> 16);
+            out.write(v >>> 8);
+            out.write(v);
+        }
+
+        private void writeVarInt(int v) throws IOException {
+            while ((v & ~0x7F) != 0) {
+                out.write((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            out.write(v);
+        }
+
+        private void writeSignedInt(int v) throws IOException {
+            writeVarInt((v << 1) ^ (v >> 31));
+        }
+
+        // 长度加一写出，0 表示 null
+        private void writeString(String s) throws IOException {
+            if (s == null) {
+                writeVarInt(0);
+                return;
+            }
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length + 1);
+            out.write(bytes);
+        }
+    }
+
+    private static final class Reader {
+        private final InputStream in;
+        private IrModule module;
+        private IrConstString[] strings;
+        private IrGlobalValue[] globals;
+        private IrFunction[] functions;
+        // 当前函数：块、按编号排列的值，以及前向引用的占位值
+        private IrBasicBlock[] blocks;
+        private IrValue[] locals;
+        private IrValue[] placeholders;
+        private int position;
+
+        Reader(InputStream in) {
+            this.in = in;
+        }
+
+        IrModule readModule(IrModule target) throws IOException {
+            if (!target.getFunctions().isEmpty() || !target.getGlobals().isEmpty()
+                    || !target.getStringIrConstStringHashMap().isEmpty()) {
+                throw new IllegalStateException("IR must be read into an empty module");
+            }
+            module = target;
+            if (readFixedInt() != MAGIC) {
+                throw new IOException("not a serialized IR module");
+            }
+            int version = readVarInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported IR format version " + version);
+            }
+
+            strings = new IrConstString[readVarInt()];
+            for (int i = 0; i < strings.length; i++) {
+                String name = readString();
+                strings[i] = new IrConstString(readString(), name);
+                module.addConstString(strings[i]);
+            }
+
+            globals = new IrGlobalValue[readVarInt()];
+            for (int i = 0; i < globals.length; i++) {
+                String name = readString();
+                boolean isStatic = readByte() != 0;
+                IrConstant initial = readInitial();
+                globals[i] = new IrGlobalValue(ValueType.GLOBAL_VARIABLE, new IrPointer(initial.irType), name, initial, isStatic);
+                module.addGlobalValue(globals[i]);
+            }
+
+            int defined = readVarInt();
+            functions = new IrFunction[defined + readVarInt()];
+            for (int i = 0; i < functions.length; i++) {
+                String name = readString();
+                functions[i] = new IrFunction(ValueType.FUNCTION, readType(), name);
+                if (i < defined) {
+                    module.addFunction(functions[i]);
+                    int paramCount = readVarInt();
+                    for (int k = 0; k < paramCount; k++) {
+                        String paramName = readString();
+                        functions[i].addParameter(new IrParameter(ValueType.PARAMETER, readType(), paramName));
+                    }
+                }
+            }
+
+            for (int i = 0; i < defined; i++) {
+                readBody(functions[i]);
+            }
+            return module;
+        }
+
+        private IrConstant readInitial() throws IOException {
+            int kind = readByte();
+            if (kind == INIT_INT) {
+                return module.GetNewIrConstInt(readSignedInt());
+            } else if (kind == INIT_ARRAY) {
+                String name = readString();
+                int size = readVarInt();
+                ArrayList<IrConstant> elements = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    elements.add(module.GetNewIrConstInt(readSignedInt()));
+                }
+                return new IrConstIntArray(name, elements);
+            }
+            throw new IOException("bad global initializer kind " + kind);
+        }
+
+        private void readBody(IrFunction function) throws IOException {
+            int blockNameCount = readVarInt();
+            int localNameCount = readVarInt();
+            locals = new IrValue[readVarInt()];
+            placeholders = new IrValue[locals.length];
+            blocks = new IrBasicBlock[readVarInt()];
+            for (int i = 0; i < blocks.length; i++) {
+                blocks[i] = new IrBasicBlock(ValueType.BASIC_BLOCK, IrType.BASICBLOCK, readString(), function);
+                function.addBasicBlock(blocks[i]);
+            }
+            position = 0;
+            for (IrParameter param : function.getParameters()) {
+                define(param);
+            }
+            for (IrBasicBlock bb : blocks) {
+                int count = readVarInt();
+                for (int i = 0; i < count; i++) {
+                    Instruction instr = readInstruction(bb);
+                    bb.addInstruction(instr);
+                    instr.setParentBasicBlock(bb);
+                    define(instr);
+                }
+            }
+            if (position != locals.length) {
+                throw new IOException("value count mismatch in " + function.getIrName());
+            }
+            function.setNameCounters(blockNameCount, localNameCount);
+            CfgBuilder.build(function);
+        }
+
+        // 按顺序登记下一个值，之前对它的前向引用全部替换成它
+        private void define(IrValue value) throws IOException {
+            if (position >= locals.length) {
+                throw new IOException("too many values in function");
+            }
+            locals[position] = value;
+            if (placeholders[position] != null) {
+                placeholders[position].replaceAllUsesWith(value);
+                placeholders[position] = null;
+            }
+            position++;
+        }
+
+        private Instruction readInstruction(IrBasicBlock bb) throws IOException {
+            int op = readByte();
+            Instruction instr;
+            switch (op) {
+                case OP_ALLOCA -> instr = new AllocateInstruction(null, readType());
+                case OP_ALU -> {
+                    AluOpcode opcode = readEnum(AluOpcode.values());
+                    IrValue left = readOperand();
+                    instr = new AluInst(opcode, left, readOperand());
+                }
+                case OP_CMP -> {
+                    CmpPredicate predicate = readEnum(CmpPredicate.values());
+                    IrValue left = readOperand();
+                    instr = new CmpInstr(predicate, left, readOperand());
+                }
+                case OP_LOAD -> instr = new LoadInstr(readOperand());
+                case OP_STORE -> {
+                    IrValue value = readOperand();
+                    instr = new StoreInstr(value, readOperand());
+                }
+                case OP_GEP -> {
+                    IrValue pointer = readOperand();
+                    instr = new GepInstr(pointer, readOperand());
+                }
+                case OP_CALL -> {
+                    IrFunction target = readOperand(IrFunction.class);
+                    int count = readVarInt();
+                    ArrayList<IrValue> params = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        params.add(readOperand());
+                    }
+                    instr = new CallInstr(target, params);
+                }
+                case OP_ZEXT -> {
+                    IrValue value = readOperand();
+                    instr = new ZextInstr(value, readType());
+                }
+                case OP_TRUNC -> {
+                    IrValue value = readOperand();
+                    instr = new TruncInstr(value, readType());
+                }
+                case OP_RETURN -> instr = new ReturnInstr(readOperand());
+                case OP_BRANCH -> {
+                    IrValue cond = readOperand();
+                    IrBasicBlock trueBlock = readOperand(IrBasicBlock.class);
+                    instr = new BranchInstr(cond, trueBlock, readOperand(IrBasicBlock.class));
+                }
+                case OP_JUMP -> instr = new JumpInstr(readOperand(IrBasicBlock.class));
+                case OP_PRINT_INT -> instr = new PrintIntInstr(readOperand());
+                case OP_PRINT_STR -> instr = new PrintStrInstr(readOperand(IrConstString.class));
+                case OP_PHI -> {
+                    PhiInstr phi = new PhiInstr(readType(), bb);
+                    int count = readVarInt();
+                    for (int i = 0; i < count; i++) {
+                        IrValue value = readOperand();
+                        phi.addIncoming(value, readOperand(IrBasicBlock.class));
+                    }
+                    phi.setOriginalAlloca(readOperand(AllocateInstruction.class));
+                    instr = phi;
+                }
+                default -> throw new IOException("bad instruction kind " + op);
+            }
+            if (!instr.irType.isVoid()) {
+                instr.setIrName(readString());
+            }
+            return instr;
+        }
+
+        private <T extends IrValue> T readOperand(Class<T> expected) throws IOException {
+            IrValue value = readOperand();
+            if (value != null && !expected.isInstance(value)) {
+                throw new IOException("expected " + expected.getSimpleName() + " operand");
+            }
+            return expected.cast(value);
+        }
+
+        private IrValue readOperand() throws IOException {
+            int kind = readByte();
+            switch (kind) {
+                case REF_NULL:
+                    return null;
+                case REF_CONST_INT:
+                    return module.GetNewIrConstInt(readSignedInt());
+                case REF_LOCAL: {
+                    int id = readVarInt();
+                    if (id < 0 || id >= position) {
+                        throw new IOException("local value " + id + " used before definition");
+                    }
+                    return locals[id];
+                }
+                case REF_FORWARD: {
+                    int id = readVarInt();
+                    IrType type = readType();
+                    if (id < position || id >= locals.length) {
+                        throw new IOException("bad forward reference " + id);
+                    }
+                    if (placeholders[id] == null) {
+                        placeholders[id] = new IrValue(ValueType.ARGUMENT, type, null);
+                    }
+                    return placeholders[id];
+                }
+                case REF_GLOBAL:
+                    return element(globals, readVarInt());
+                case REF_FUNCTION:
+                    return element(functions, readVarInt());
+                case REF_BLOCK:
+                    return element(blocks, readVarInt());
+                case REF_STRING:
+                    return element(strings, readVarInt());
+                default:
+                    throw new IOException("bad operand kind " + kind);
+            }
+        }
+
+        private static <T> T element(T[] array, int index) throws IOException {
+            if (index < 0 || index >= array.length) {
+                throw new IOException("index " + index + " out of range");
+            }
+            return array[index];
+        }
+
+        private <E extends Enum<E>> E readEnum(E[] values) throws IOException {
+            return element(values, readVarInt());
+        }
+
+        private IrType readType() throws IOException {
+            int tag = readByte();
+            if (tag < BUILTIN_TYPES.length) {
+                return BUILTIN_TYPES[tag];
+            } else if (tag == TYPE_POINTER) {
+                return new IrPointer(readType());
+            } else if (tag == TYPE_NAMED) {
+                IrType type = new IrType(readString());
+                type.arraySize = readSignedInt();
+                return type;
+            }
+            throw new IOException("bad type tag " + tag);
+        }
+
+        private int readByte() throws IOException {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("truncated IR file");
+            }
+            return b;
+        }
+
+        private int readFixedInt() throws IOException {
+            return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+        }
+
+        private int readVarInt() throws IOException {
+            int result = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = readByte();
+                result |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IOException("malformed varint");
+        }
+
+        private int readSignedInt() throws IOException {
+            int v = readVarInt();
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        private String readString() throws IOException {
+            int length = readVarInt();
+            if (length == 0) {
+                return null;
+            }
+            byte[] bytes = in.readNBytes(length - 1);
+            if (bytes.length != length - 1) {
+                throw new EOFException("truncated IR file");
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -47,6 +47,10 @@ public class IrType {
         return value;
     }
 
+    public String getTypeName() {
+        return typeName;
+    }
+
     public boolean isArrayType() {
         return this.typeName.equals("array");
     }
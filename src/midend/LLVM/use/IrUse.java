@@ -2,9 +2,16 @@ package midend.LLVM.use;
 
 import midend.LLVM.value.IrValue;
 
+/**
+ * 一次使用：既是 user 操作数数组中的一项，也是 value 使用链表中的一个结点。
+ * 替换操作数时复用同一个结点，链表只由 IrValue.addUse / removeUse 维护。
+ */
 public class IrUse {
     private final IrUser user;
-    private final IrValue value;
+    private IrValue value;
+    private IrUse prevUse;
+    private IrUse nextUse;
+
     public IrUse(IrUser user, IrValue value) {
         this.user = user;
         this.value = value;
@@ -15,4 +22,24 @@ public class IrUse {
     public IrValue GetValue(){
         return value;
     }
+
+    void setValue(IrValue value) {
+        this.value = value;
+    }
+
+    public IrUse getPrevUse() {
+        return prevUse;
+    }
+
+    public IrUse getNextUse() {
+        return nextUse;
+    }
+
+    public void setPrevUse(IrUse prevUse) {
+        this.prevUse = prevUse;
+    }
+
+    public void setNextUse(IrUse nextUse) {
+        this.nextUse = nextUse;
+    }
 }
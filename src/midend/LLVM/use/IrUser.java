@@ -4,23 +4,100 @@ import midend.LLVM.Type.IrType;
 import midend.LLVM.value.IrValue;
 import midend.LLVM.ValueType;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
 
 public class IrUser extends IrValue {
-    private final ArrayList<IrValue> useValues;
+    private static final IrUse[] NO_OPERANDS = new IrUse[0];
+
+    // 操作数直接存放 IrUse 结点，只通过下面的方法修改，保证与各操作数的使用链表一致
+    private IrUse[] operands = NO_OPERANDS;
+    private int numOperands;
+
     public IrUser(ValueType valueType, IrType irType, String irName) {
         super(valueType, irType, irName);
-        this.useValues = new ArrayList<>();
     }
 
-    public ArrayList<IrValue> getUseValues() {
-        return useValues;
+    public int getNumOperands() {
+        return numOperands;
+    }
+
+    public IrValue getOperand(int index) {
+        return operands[Objects.checkIndex(index, numOperands)].GetValue();
+    }
+
+    // 操作数的只读视图，不复制
+    public List<IrValue> getUseValues() {
+        return new OperandList();
     }
 
     protected void AddUseValue(IrValue valueValue) {
-        useValues.add(valueValue);
-        if(valueValue!=null){
-            valueValue.addUse(new IrUse(this,valueValue));
+        if (numOperands == operands.length) {
+            operands = Arrays.copyOf(operands, Math.max(2, numOperands * 2));
+        }
+        IrUse use = new IrUse(this, valueValue);
+        operands[numOperands++] = use;
+        if (valueValue != null) {
+            valueValue.addUse(use);
+        }
+    }
+
+    // 替换第 index 个操作数，结点从旧操作数的链表移到新操作数的链表
+    protected void setOperand(int index, IrValue newValue) {
+        IrUse use = operands[Objects.checkIndex(index, numOperands)];
+        IrValue oldValue = use.GetValue();
+        if (oldValue == newValue) {
+            return;
+        }
+        if (oldValue != null) {
+            oldValue.removeUse(use);
+        }
+        use.setValue(newValue);
+        if (newValue != null) {
+            newValue.addUse(use);
+        }
+    }
+
+    protected void removeOperand(int index) {
+        IrUse use = operands[Objects.checkIndex(index, numOperands)];
+        if (use.GetValue() != null) {
+            use.GetValue().removeUse(use);
+        }
+        System.arraycopy(operands, index + 1, operands, index, numOperands - index - 1);
+        operands[--numOperands] = null;
+    }
+
+    // 被删除时调用：从各操作数的使用链表中注销自己，操作数本身保持不变
+    public void dropOperandUses() {
+        for (int i = 0; i < numOperands; i++) {
+            IrUse use = operands[i];
+            if (use.GetValue() != null) {
+                use.GetValue().removeUse(use);
+            }
+        }
+    }
+
+    // 把操作数中的 oldVal 全部替换为 newVal，子类有额外字段时需要重写
+    public void replaceUse(IrValue oldVal, IrValue newVal) {
+        for (int i = 0; i < numOperands; i++) {
+            if (operands[i].GetValue() == oldVal) {
+                setOperand(i, newVal);
+            }
+        }
+    }
+
+    private class OperandList extends AbstractList<IrValue> implements RandomAccess {
+        @Override
+        public IrValue get(int index) {
+            return getOperand(index);
+        }
+
+        @Override
+        public int size() {
+            return numOperands;
         }
     }
 }
@@ -4,12 +4,14 @@ import midend.LLVM.Instruction.*;
 import midend.LLVM.Type.IrType;
 import midend.LLVM.ValueType;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
 public class IrBasicBlock extends IrValue {
-    private final ArrayList<Instruction> instructions;
+    private final InstructionList instructions;
     private final IrFunction function;
 
     // 控制流图中的前驱和后继块
@@ -18,8 +20,7 @@ public class IrBasicBlock extends IrValue {
 
     // 获取指令列表的最后一条（终结指令）
     public Instruction getTerminator() {
-        if (instructions.isEmpty()) return null;
-        return instructions.get(instructions.size() - 1);
+        return instructions.last();
     }
 
     public List<IrBasicBlock> getPredecessors() {
@@ -50,48 +51,56 @@ public class IrBasicBlock extends IrValue {
 
     public IrBasicBlock(ValueType valueType, IrType irType, String irName, IrFunction function) {
         super(valueType, irType, irName);
-        this.instructions = new ArrayList<>();
+        this.instructions = new InstructionList(this);
         this.function = function;
     }
 
+    @Override
+    protected String createName() {
+        return function == null ? null : function.newBlockName();
+    }
+
     public void addInstruction(Instruction instruction) {
         instructions.add(instruction);
-        instruction.setParentBasicBlock(this);
     }
 
     public boolean isLastInstrReturn() {
-        if (instructions.isEmpty()) {
-            return false;
+        Instruction lastInstr = instructions.last();
+        return lastInstr != null && lastInstr.getInstrType() == InstructionType.RETURN;
+    }
+
+    public void emit(Appendable out) throws IOException {
+        out.append(this.getIrName()).append(":\n");
+        for (Instruction instruction : instructions) {
+            out.append("  ");
+            instruction.emit(out);
+            out.append("\n");
         }
-        Instruction lastInstr = instructions.get(instructions.size() - 1);
-        return lastInstr.getInstrType() == InstructionType.RETURN;
     }
 
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        sb.append(this.irName).append(":\n");
-        for (Instruction instruction : instructions) {
-            sb.append("  ").append(instruction.toString()).append("\n");
+        try {
+            emit(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
         return sb.toString();
     }
 
     public Instruction getLastInstruction() {
-        if (instructions.isEmpty()) {
-            return null;
-        }
-        return instructions.get(instructions.size() - 1);
+        return instructions.last();
     }
 
-    public ArrayList<Instruction> getInstructions() {
+    public InstructionList getInstructions() {
         return instructions;
     }
 
     public boolean hasTerminator() {
-        if (instructions.isEmpty()) {
+        Instruction lastInstr = instructions.last();
+        if (lastInstr == null) {
             return false;
         }
-        Instruction lastInstr = instructions.get(instructions.size() - 1);
 
         // 使用 instanceof 检查指令类型
         // 只要最后一条是跳转、条件分支或返回，说明块已经结束
@@ -104,8 +113,7 @@ public class IrBasicBlock extends IrValue {
 
     // 在列表头部插入指令 (Phi 节点必须在 Block 最前面)
     public void addInstructionFirst(Instruction instr) {
-        this.instructions.add(0, instr);
-        instr.setParentBasicBlock(this);
+        this.instructions.addFirst(instr);
     }
 
     /**
@@ -124,12 +132,10 @@ public class IrBasicBlock extends IrValue {
 
                 // 查找并移除对应的 block 和 value
                 ArrayList<IrBasicBlock> blocks = phi.getIncomingBlocks();
-                ArrayList<midend.LLVM.value.IrValue> values = phi.getIncomingValues();
 
                 for (int i = 0; i < blocks.size(); i++) {
                     if (blocks.get(i) == pred) {
-                        blocks.remove(i);
-                        values.remove(i);
+                        phi.removeIncoming(i);
                         i--; // 索引回退
                     }
                 }
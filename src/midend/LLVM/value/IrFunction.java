@@ -1,14 +1,25 @@
 package midend.LLVM.value;
 
+import midend.LLVM.Instruction.Instruction;
 import midend.LLVM.Type.IrType;
 import midend.LLVM.ValueType;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 
 public class IrFunction extends IrValue {
     private ArrayList<IrParameter> parameters;
     private ArrayList<IrBasicBlock> basicBlocks;
 
+    // 最近一次 renumber() 的结果：下标即编号
+    private IrBasicBlock[] numberedBlocks = new IrBasicBlock[0];
+    private IrValue[] numberedValues = new IrValue[0];
+
+    // 未命名的基本块和值在需要名字时按这两个计数器依次编号
+    private int blockNameCount = 0;
+    private int localNameCount = 0;
+
     public IrFunction(ValueType valueType, IrType irType, String irName) {
         super(valueType, irType, irName);
         parameters = new ArrayList<>();
@@ -31,36 +42,134 @@ public class IrFunction extends IrValue {
         return this.irType;
     }
 
+    public String newBlockName() {
+        return "b_" + blockNameCount++;
+    }
+
+    public String newLocalName(String prefix) {
+        return prefix + localNameCount++;
+    }
+
+    public int getBlockNameCount() {
+        return blockNameCount;
+    }
+
+    public int getLocalNameCount() {
+        return localNameCount;
+    }
+
+    // 反序列化后恢复计数器，之后新建的块和值不会与恢复的名字重复
+    public void setNameCounters(int blockNameCount, int localNameCount) {
+        this.blockNameCount = blockNameCount;
+        this.localNameCount = localNameCount;
+    }
+
     public void addParameter(IrParameter irParameter) {
         parameters.add(irParameter);
     }
 
-    public String toString() {
-        StringBuilder sb = new StringBuilder();
+    // 逐块输出函数文本，不在内存中拼出整个函数
+    public void emit(Appendable out) throws IOException {
+        assignNames();
         //函数声明
-        sb.append("define dso_local " + this.irType.toString() + " " + this.irName);
+        out.append("define dso_local ").append(this.irType.toString()).append(" ").append(this.getIrName());
         //参数列表
-        sb.append("(");
+        out.append("(");
         for (int i = 0; i < parameters.size() - 1; i++) {
-            sb.append(parameters.get(i).toString());
-            sb.append(", ");
+            out.append(parameters.get(i).toString());
+            out.append(", ");
         }
         if (parameters.size() > 0) {
-            sb.append(parameters.get(parameters.size() - 1).toString());
+            out.append(parameters.get(parameters.size() - 1).toString());
         }
-        sb.append(") {\n");
+        out.append(") {\n");
         //基本块
         for (int i = 0; i < basicBlocks.size() - 1; i++) {
-            sb.append(basicBlocks.get(i).toString());
-            sb.append("\n");
+            basicBlocks.get(i).emit(out);
+            out.append("\n");
         }
         if (basicBlocks.size() > 0) {
-            sb.append(basicBlocks.get(basicBlocks.size() - 1).toString());
+            basicBlocks.get(basicBlocks.size() - 1).emit(out);
+        }
+        out.append("}\n");
+    }
+
+    // 打印前按程序顺序给尚未命名的块和有返回值的指令编号，输出的编号因此是连续递增的
+    public void assignNames() {
+        for (IrBasicBlock bb : basicBlocks) {
+            bb.getIrName();
+        }
+        for (IrBasicBlock bb : basicBlocks) {
+            for (Instruction instr : bb.getInstructions()) {
+                if (!instr.irType.isVoid()) {
+                    instr.getIrName();
+                }
+            }
+        }
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            emit(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        sb.append("}\n");
         return sb.toString();
     }
 
+    /**
+     * 重新为基本块和值分配稠密编号：基本块按链表顺序编号为 0..n-1，
+     * 参数和指令（按出现顺序）编号为 0..m-1。
+     * 分析在构建时调用一次，之后可以用编号索引数组和 BitSet 代替 HashMap。
+     */
+    public void renumber() {
+        numberedBlocks = basicBlocks.toArray(new IrBasicBlock[0]);
+        for (int i = 0; i < numberedBlocks.length; i++) {
+            numberedBlocks[i].setId(i);
+        }
+        int count = parameters.size();
+        for (IrBasicBlock bb : basicBlocks) {
+            count += bb.getInstructions().size();
+        }
+        numberedValues = new IrValue[count];
+        int id = 0;
+        for (IrParameter param : parameters) {
+            numberedValues[id++] = param;
+        }
+        for (IrBasicBlock bb : basicBlocks) {
+            for (Instruction instr : bb.getInstructions()) {
+                numberedValues[id++] = instr;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            numberedValues[i].setId(i);
+        }
+    }
+
+    public int getBlockCount() {
+        return numberedBlocks.length;
+    }
+
+    public int getValueCount() {
+        return numberedValues.length;
+    }
+
+    public IrValue getValueById(int id) {
+        return numberedValues[id];
+    }
+
+    // value 在最近一次编号中的编号；常量、全局变量以及编号之后新建或已删除的值返回 -1
+    public int indexOf(IrValue value) {
+        int id = value.getId();
+        return id >= 0 && id < numberedValues.length && numberedValues[id] == value ? id : -1;
+    }
+
+    public int indexOfBlock(IrBasicBlock bb) {
+        int id = bb.getId();
+        return id >= 0 && id < numberedBlocks.length && numberedBlocks[id] == bb ? id : -1;
+    }
+
     public IrBasicBlock getEntryBlock() {
         if (basicBlocks.size() > 0) {
             return basicBlocks.get(0);
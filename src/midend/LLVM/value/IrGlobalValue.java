@@ -20,11 +20,15 @@ public class IrGlobalValue extends IrValue{
         return initial;
     }
 
+    public boolean isStatic() {
+        return isStatic;
+    }
+
     public String toString() {
         if(isStatic){
-            return irName + " = internal global " + this.initial;
+            return getIrName() + " = internal global " + this.initial;
         }else{
-            return this.irName + " = dso_local global " + this.initial;
+            return this.getIrName() + " = dso_local global " + this.initial;
         }
     }
 }
@@ -10,6 +10,6 @@ public class IrParameter extends IrValue {
     }
 
     public String toString() {
-        return this.irType + " " + this.irName;
+        return this.irType + " " + this.getIrName();
     }
 }
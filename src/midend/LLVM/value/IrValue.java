@@ -10,19 +10,108 @@ import java.util.ArrayList;
 public class IrValue {
     public final ValueType valueType;
     public final IrType irType;
-    public final String irName;
+    // 名字可以在构造时给定；为 null 时在第一次需要名字（打印 IR、生成标签）时由 createName() 分配
+    private String irName;
 
-    public final ArrayList<IrUse> useList;
+    // 使用链表，结点就是使用者操作数数组里的 IrUse，按加入顺序排列
+    private IrUse firstUse;
+    private IrUse lastUse;
+
+    // 函数内的稠密编号，由 IrFunction.renumber() 分配；-1 表示未编号
+    private int id = -1;
 
     public IrValue(ValueType valueType, IrType irType, String irName) {
         this.valueType = valueType;
         this.irType = irType;
         this.irName = irName;
-        this.useList = new ArrayList<>();
+    }
+
+    public String getIrName() {
+        if (irName == null) {
+            irName = createName();
+        }
+        return irName;
+    }
+
+    // 直接指定名字，反序列化时用来恢复原来的名字
+    public void setIrName(String irName) {
+        this.irName = irName;
+    }
+
+    // 未命名的值第一次取名字时调用，返回 null 表示暂时无法命名
+    protected String createName() {
+        return null;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    void setId(int id) {
+        this.id = id;
     }
 
     public void addUse(IrUse irUse) {
-        useList.add(irUse);
+        irUse.setPrevUse(lastUse);
+        irUse.setNextUse(null);
+        if (lastUse == null) {
+            firstUse = irUse;
+        } else {
+            lastUse.setNextUse(irUse);
+        }
+        lastUse = irUse;
+    }
+
+    // 从链表中摘下 irUse；不在链表中（已经注销过）时什么也不做
+    public void removeUse(IrUse irUse) {
+        IrUse prev = irUse.getPrevUse();
+        IrUse next = irUse.getNextUse();
+        if (prev == null ? firstUse != irUse : prev.getNextUse() != irUse) {
+            return;
+        }
+        if (prev == null) {
+            firstUse = next;
+        } else {
+            prev.setNextUse(next);
+        }
+        if (next == null) {
+            lastUse = prev;
+        } else {
+            next.setPrevUse(prev);
+        }
+        irUse.setPrevUse(null);
+        irUse.setNextUse(null);
+    }
+
+    public IrUse getFirstUse() {
+        return firstUse;
+    }
+
+    public boolean hasUses() {
+        return firstUse != null;
+    }
+
+    // 使用链表的一份拷贝，遍历时需要修改图结构的地方使用
+    public ArrayList<IrUse> getUseList() {
+        ArrayList<IrUse> uses = new ArrayList<>();
+        for (IrUse use = firstUse; use != null; use = use.getNextUse()) {
+            uses.add(use);
+        }
+        return uses;
+    }
+
+    /**
+     * 将所有使用者中的“我”替换为 newVal，只访问使用链表中记录的使用者
+     */
+    public void replaceAllUsesWith(IrValue newVal) {
+        if (newVal == this) {
+            return;
+        }
+        // replaceUse 会修改使用链表，先复制一份
+        ArrayList<IrUse> uses = getUseList();
+        for (int i = uses.size() - 1; i >= 0; i--) {
+            uses.get(i).GetUser().replaceUse(this, newVal);
+        }
     }
 
 }
@@ -0,0 +1,225 @@
+package midend.Optimization;
+
+import midend.CompilationContext;
+import midend.LLVM.Instruction.BranchInstr;
+import midend.LLVM.Instruction.Instruction;
+import midend.LLVM.Instruction.JumpInstr;
+import midend.LLVM.IrModule;
+import midend.LLVM.value.IrBasicBlock;
+import midend.LLVM.value.IrFunction;
+import midend.SSA.CfgBuilder;
+import midend.SSA.DominatorTree;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 按函数缓存的分析结果：CFG (块的前驱后继)、支配树 (含支配边界) 和循环深度。
+ * <p>
+ * 这些分析都只由 CFG 决定，所以构建 CFG 时记下一份指纹 (块序列和每个块终结指令的跳转目标)。
+ * 遍通过 run() 运行，声明保持 CFG 的遍运行期间直接使用缓存；其余的遍运行期间，以及运行之后
+ * 被它改变了的函数，使用前先核对指纹，只有 CFG 真正改变的函数才重新构建。
+ */
+public class AnalysisManager {
+    public enum Analysis {
+        CFG, DOMINATORS, LOOPS
+    }
+
+    // 遍的 preserves() 直接返回这个共享的集合，不能被修改
+    public static final Set<Analysis> ALL = Collections.unmodifiableSet(EnumSet.allOf(Analysis.class));
+
+    private static final class FunctionAnalyses {
+        // CFG 指纹：块序列，以及第 i 个块的跳转目标 targets[targetStart[i] .. targetStart[i + 1])
+        private IrBasicBlock[] blocks;
+        private IrBasicBlock[] targets;
+        private int[] targetStart;
+        private DominatorTree domTree;
+        private LoopAnalysis loops;
+        // 运行过不保持 CFG 的遍，下次使用前要核对指纹
+        private boolean stale;
+    }
+
+    private final Map<IrFunction, FunctionAnalyses> cache = new HashMap<>();
+    // 当前正在运行的遍声明保持的分析，不在 run() 中时为 null
+    private Set<Analysis> running = null;
+
+    private final int[] requests = new int[Analysis.values().length];
+    private final int[] builds = new int[Analysis.values().length];
+
+    public static AnalysisManager current() {
+        return CompilationContext.current().getAnalysisManager();
+    }
+
+    /**
+     * 运行一个遍，之后按它声明保持的分析使改变了的函数的缓存失效，返回改变了的函数
+     */
+    public Collection<IrFunction> run(OptimizationPass pass, IrModule module) {
+        Set<Analysis> preserved = pass.preserves();
+        Set<Analysis> outer = running;
+        running = preserved;
+        Collection<IrFunction> changed;
+        try {
+            changed = pass.runOnModule(module);
+        } finally {
+            running = outer;
+        }
+        // 删掉已经不在模块中的函数 (内联、死函数消除)
+        cache.keySet().retainAll(new HashSet<>(module.getFunctions()));
+        for (IrFunction func : changed) {
+            invalidate(func, preserved);
+        }
+        return changed;
+    }
+
+    /**
+     * 对一个函数运行逐函数的遍，返回是否改变了它
+     */
+    public boolean run(FunctionPass pass, IrFunction func) {
+        Set<Analysis> preserved = pass.preserves();
+        Set<Analysis> outer = running;
+        running = preserved;
+        boolean changed;
+        try {
+            changed = pass.runOnFunction(func);
+        } finally {
+            running = outer;
+        }
+        if (changed) {
+            invalidate(func, preserved);
+        }
+        return changed;
+    }
+
+    public void invalidate(IrFunction func, Set<Analysis> preserved) {
+        FunctionAnalyses entry = cache.get(func);
+        if (entry == null) {
+            return;
+        }
+        if (!preserved.contains(Analysis.CFG)) {
+            // 其余分析都只由 CFG 决定，核对指纹没有变化就还能继续用
+            entry.stale = true;
+            return;
+        }
+        if (!preserved.contains(Analysis.DOMINATORS)) {
+            entry.domTree = null;
+        }
+        if (!preserved.contains(Analysis.DOMINATORS) || !preserved.contains(Analysis.LOOPS)) {
+            entry.loops = null;
+        }
+    }
+
+    /**
+     * 保证函数块上的前驱后继是最新的
+     */
+    public void ensureCfg(IrFunction func) {
+        requests[Analysis.CFG.ordinal()]++;
+        lookup(func);
+    }
+
+    public DominatorTree getDominatorTree(IrFunction func) {
+        requests[Analysis.DOMINATORS.ordinal()]++;
+        FunctionAnalyses entry = lookup(func);
+        if (entry.domTree == null) {
+            builds[Analysis.DOMINATORS.ordinal()]++;
+            entry.domTree = new DominatorTree(func, false);
+        }
+        return entry.domTree;
+    }
+
+    public LoopAnalysis getLoops(IrFunction func) {
+        DominatorTree domTree = getDominatorTree(func);
+        requests[Analysis.LOOPS.ordinal()]++;
+        FunctionAnalyses entry = cache.get(func);
+        if (entry.loops == null) {
+            builds[Analysis.LOOPS.ordinal()]++;
+            entry.loops = new LoopAnalysis();
+            entry.loops.run(func, domTree);
+        }
+        return entry.loops;
+    }
+
+    public int getRequestCount(Analysis analysis) {
+        return requests[analysis.ordinal()];
+    }
+
+    public int getBuildCount(Analysis analysis) {
+        return builds[analysis.ordinal()];
+    }
+
+    // 取得 CFG 仍然有效的缓存项，CFG 改变过则重新构建 CFG 并清空其余分析
+    private FunctionAnalyses lookup(IrFunction func) {
+        FunctionAnalyses entry = cache.get(func);
+        boolean check = running == null || !running.contains(Analysis.CFG);
+        if (entry != null && (entry.stale || check)) {
+            if (!sameCfg(entry, func)) {
+                entry = null;
+            } else {
+                entry.stale = false;
+            }
+        }
+        if (entry == null) {
+            builds[Analysis.CFG.ordinal()]++;
+            CfgBuilder.build(func);
+            entry = new FunctionAnalyses();
+            recordCfg(entry, func);
+            cache.put(func, entry);
+        }
+        return entry;
+    }
+
+    private static void recordCfg(FunctionAnalyses entry, IrFunction func) {
+        List<IrBasicBlock> blocks = func.getBasicBlocks();
+        List<IrBasicBlock> targets = new ArrayList<>();
+        entry.blocks = blocks.toArray(new IrBasicBlock[0]);
+        entry.targetStart = new int[blocks.size() + 1];
+        for (int i = 0; i < blocks.size(); i++) {
+            entry.targetStart[i] = targets.size();
+            Instruction terminator = blocks.get(i).getTerminator();
+            if (terminator instanceof JumpInstr) {
+                targets.add(((JumpInstr) terminator).getTargetBlock());
+            } else if (terminator instanceof BranchInstr) {
+                targets.add(((BranchInstr) terminator).getTrueBlock());
+                targets.add(((BranchInstr) terminator).getFalseBlock());
+            }
+        }
+        entry.targetStart[blocks.size()] = targets.size();
+        entry.targets = targets.toArray(new IrBasicBlock[0]);
+    }
+
+    private static boolean sameCfg(FunctionAnalyses entry, IrFunction func) {
+        List<IrBasicBlock> blocks = func.getBasicBlocks();
+        if (blocks.size() != entry.blocks.length) {
+            return false;
+        }
+        for (int i = 0; i < blocks.size(); i++) {
+            IrBasicBlock bb = blocks.get(i);
+            if (bb != entry.blocks[i]) {
+                return false;
+            }
+            int from = entry.targetStart[i];
+            int count = entry.targetStart[i + 1] - from;
+            Instruction terminator = bb.getTerminator();
+            if (terminator instanceof JumpInstr) {
+                if (count != 1 || entry.targets[from] != ((JumpInstr) terminator).getTargetBlock()) {
+                    return false;
+                }
+            } else if (terminator instanceof BranchInstr) {
+                BranchInstr br = (BranchInstr) terminator;
+                if (count != 2 || entry.targets[from] != br.getTrueBlock()
+                        || entry.targets[from + 1] != br.getFalseBlock()) {
+                    return false;
+                }
+            } else if (count != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -2,28 +2,21 @@ package midend.Optimization;
 
 import midend.LLVM.Instruction.Instruction;
 import midend.LLVM.Instruction.JumpInstr;
-import midend.LLVM.IrModule;
 import midend.LLVM.value.IrBasicBlock;
 import midend.LLVM.value.IrFunction;
-import midend.SSA.CfgBuilder;
 import midend.SSA.PhiInstr;
 
 import java.util.ArrayList;
 
-public class BlockMerge {
-    public void run(IrModule module) {
-        for (IrFunction func : module.getFunctions()) {
-            if (func.getBasicBlocks().isEmpty()) continue;
-            runOnFunction(func);
-        }
-    }
-
-    private void runOnFunction(IrFunction func) {
+public class BlockMerge implements FunctionPass {
+    @Override
+    public boolean runOnFunction(IrFunction func) {
+        boolean everChanged = false;
         boolean changed = true;
         while (changed) {
             changed = false;
             // 必须先构建 CFG 以获取正确的前驱后继信息
-            CfgBuilder.build(func);
+            AnalysisManager.current().ensureCfg(func);
 
             // 使用迭代器遍历，方便操作
             ArrayList<IrBasicBlock> blocks = func.getBasicBlocks();
@@ -46,13 +39,8 @@ public class BlockMerge {
                         // A. 移除 bb 的终结指令 (Jump)
                         bb.getInstructions().remove(terminator);
 
-                        // B. 将 succ 的所有指令移动到 bb 末尾
-                        bb.getInstructions().addAll(succ.getInstructions());
-
-                        // C. 更新指令的父指针
-                        for (Instruction instr : succ.getInstructions()) {
-                            instr.setParentBasicBlock(bb);
-                        }
+                        // B. 将 succ 的所有指令移动到 bb 末尾（同时更新父指针）
+                        bb.getInstructions().splice(succ.getInstructions());
 
                         // D. 维护 CFG: succ 的后继现在变成了 bb 的后继
 
@@ -64,11 +52,13 @@ public class BlockMerge {
                         replaceBlockReferences(func, succ, bb);
 
                         changed = true;
+                        everChanged = true;
                         i--; // 回退一步，继续检查合并后的 bb 是否能合并下一个
                     }
                 }
             }
         }
+        return everChanged;
     }
 
     private boolean hasPhi(IrBasicBlock bb) {
@@ -2,6 +2,7 @@ package midend.Optimization;
 
 import midend.LLVM.Const.IrConstInt;
 import midend.LLVM.Instruction.*;
+import midend.LLVM.IrBuilder;
 import midend.LLVM.IrModule;
 import midend.LLVM.value.IrBasicBlock;
 import midend.LLVM.value.IrFunction;
@@ -18,7 +19,7 @@ import java.util.*;
  * 
  * 这对于 fib(4)、fib(fib(5)+2) 这类调用特别有效。
  */
-public class ConstFunctionEval {
+public class ConstFunctionEval implements OptimizationPass {
     
     // 解释器执行的最大步数，防止无限循环
     private static final int MAX_STEPS = 10000;
@@ -28,7 +29,21 @@ public class ConstFunctionEval {
     private int stepCount;
     private int recursionDepth;
     
+    @Override
+    public Set<AnalysisManager.Analysis> preserves() {
+        // 只把调用替换为常量，CFG 不变
+        return AnalysisManager.ALL;
+    }
+
+    @Override
     public void run(IrModule module) {
+        runOnModule(module);
+    }
+
+    // 求值结果取决于被调用的函数，只能整个模块一起迭代；返回替换过调用的函数
+    @Override
+    public Collection<IrFunction> runOnModule(IrModule module) {
+        Set<IrFunction> changedFunctions = new LinkedHashSet<>();
         boolean changed = true;
         int passes = 0;
         int maxPasses = 10;
@@ -39,9 +54,11 @@ public class ConstFunctionEval {
                 if (func.getBasicBlocks().isEmpty()) continue;
                 if (runOnFunctionImpl(func)) {
                     changed = true;
+                    changedFunctions.add(func);
                 }
             }
         }
+        return changedFunctions;
     }
     
     private boolean runOnFunctionImpl(IrFunction func) {
@@ -82,7 +99,7 @@ public class ConstFunctionEval {
                     
                     if (result != null) {
                         // 成功求值，用常量替换调用
-                        IrConstInt constResult = new IrConstInt(result);
+                        IrConstInt constResult = IrBuilder.GetNewIrConstInt(result);
                         call.replaceAllUsesWith(constResult);
                         toRemove.add(call);
                         changed = true;
@@ -104,11 +121,11 @@ public class ConstFunctionEval {
     }
     
     private boolean isPureFunctionImpl(IrFunction func, java.util.Set<String> visited) {
-        if (visited.contains(func.irName)) {
+        if (visited.contains(func.getIrName())) {
             // 已经在检查中，认为是纯的（避免无限递归）
             return true;
         }
-        visited.add(func.irName);
+        visited.add(func.getIrName());
         
         for (IrBasicBlock bb : func.getBasicBlocks()) {
             for (Instruction instr : bb.getInstructions()) {
@@ -120,7 +137,7 @@ public class ConstFunctionEval {
                 if (instr instanceof CallInstr) {
                     CallInstr call = (CallInstr) instr;
                     IrFunction callee = call.getTargetFunction();
-                    String name = callee.irName;
+                    String name = callee.getIrName();
                     // 禁止 IO 函数
                     if (name.contains("getint") || name.contains("printf") || 
                         name.contains("putint") || name.contains("putch") || name.contains("putstr")) {
@@ -128,7 +145,7 @@ public class ConstFunctionEval {
                     }
                     // 递归调用自身是允许的（通过名字比较）
                     // 调用其他用户定义函数时，递归检查
-                    if (!callee.getBasicBlocks().isEmpty() && !callee.irName.equals(func.irName)) {
+                    if (!callee.getBasicBlocks().isEmpty() && !callee.getIrName().equals(func.getIrName())) {
                         if (!isPureFunctionImpl(callee, visited)) {
                             return false;
                         }
@@ -172,21 +189,8 @@ public class ConstFunctionEval {
                         Integer right = getValue(alu.getRight(), locals);
                         if (left == null || right == null) return null;
                         
-                        int result;
-                        switch (alu.getOp()) {
-                            case "ADD": result = left + right; break;
-                            case "SUB": result = left - right; break;
-                            case "MUL": result = left * right; break;
-                            case "SDIV": 
-                                if (right == 0) return null;
-                                result = left / right; 
-                                break;
-                            case "SREM": 
-                                if (right == 0) return null;
-                                result = left % right; 
-                                break;
-                            default: return null;
-                        }
+                        Integer result = alu.getOp().fold(left, right);
+                        if (result == null) return null;
                         locals.put(alu, result);
                         
                     } else if (instr instanceof CmpInstr) {
@@ -195,17 +199,7 @@ public class ConstFunctionEval {
                         Integer right = getValue(cmp.getRight(), locals);
                         if (left == null || right == null) return null;
                         
-                        boolean result;
-                        String op = cmp.getOp();
-                        switch (op) {
-                            case "EQ": result = left.equals(right); break;
-                            case "NE": result = !left.equals(right); break;
-                            case "LT": result = left < right; break;
-                            case "LE": result = left <= right; break;
-                            case "GT": result = left > right; break;
-                            case "GE": result = left >= right; break;
-                            default: return null;
-                        }
+                        boolean result = cmp.getOp().evaluate(left, right);
                         locals.put(cmp, result ? 1 : 0);
                         
                     } else if (instr instanceof ZextInstr) {
@@ -272,8 +266,8 @@ public class ConstFunctionEval {
                 
                 // 如果没有跳转指令，应该不会到这里
                 // 但为安全起见，如果指令列表结束且没有跳转，返回 null
-                if (currentBlock.getInstructions().isEmpty()) return null;
-                Instruction last = currentBlock.getInstructions().get(currentBlock.getInstructions().size() - 1);
+                Instruction last = currentBlock.getLastInstruction();
+                if (last == null) return null;
                 if (!(last instanceof BranchInstr) && !(last instanceof JumpInstr) && !(last instanceof ReturnInstr)) {
                     return null;
                 }
@@ -1,7 +1,6 @@
 package midend.Optimization;
 
 import midend.LLVM.Instruction.*;
-import midend.LLVM.IrModule;
 import midend.LLVM.value.IrBasicBlock;
 import midend.LLVM.value.IrFunction;
 import midend.LLVM.value.IrValue;
@@ -15,25 +14,28 @@ import java.util.*;
  * 2. 消除冗余 Phi - 如果 Phi 的一个输入是它自己
  * 3. 传播 Phi 值 - 简化 Phi 链
  */
-public class CopyCoalescing {
+public class CopyCoalescing implements FunctionPass {
     
-    public void run(IrModule module) {
-        boolean changed = true;
+    @Override
+    public Set<AnalysisManager.Analysis> preserves() {
+        // 只删除冗余 phi，CFG 不变
+        return AnalysisManager.ALL;
+    }
+
+    // 各函数互不影响，逐函数迭代与整个模块一起迭代结果相同
+    @Override
+    public boolean runOnFunction(IrFunction func) {
+        boolean everChanged = false;
         int passes = 0;
         int maxPasses = 10;
-        
-        while (changed && passes++ < maxPasses) {
-            changed = false;
-            for (IrFunction func : module.getFunctions()) {
-                if (func.getBasicBlocks().isEmpty()) continue;
-                if (runOnFunction(func)) {
-                    changed = true;
-                }
-            }
+
+        while (passes++ < maxPasses && coalesce(func)) {
+            everChanged = true;
         }
+        return everChanged;
     }
-    
-    private boolean runOnFunction(IrFunction func) {
+
+    private boolean coalesce(IrFunction func) {
         boolean changed = false;
         
         // 遍历所有基本块
@@ -54,6 +56,9 @@ public class CopyCoalescing {
                 }
             }
             
+            for (Instruction instr : toRemove) {
+                instr.dropOperandUses();
+            }
             bb.getInstructions().removeAll(toRemove);
         }
         
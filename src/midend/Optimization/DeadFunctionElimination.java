@@ -6,15 +6,31 @@ import midend.LLVM.IrModule;
 import midend.LLVM.value.IrBasicBlock;
 import midend.LLVM.value.IrFunction;
 
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
  * 死函数消除优化
  * 删除没有被调用的用户定义函数（保留 main）
  */
-public class DeadFunctionElimination {
+public class DeadFunctionElimination implements OptimizationPass {
     
+    @Override
+    public Set<AnalysisManager.Analysis> preserves() {
+        // 只删除函数，其余函数不变，CFG 不变
+        return AnalysisManager.ALL;
+    }
+
+    // 只删除整个函数，留下的函数都没有改变
+    @Override
+    public Collection<IrFunction> runOnModule(IrModule module) {
+        run(module);
+        return List.of();
+    }
+
+    @Override
     public void run(IrModule module) {
         boolean changed = true;
         
@@ -32,7 +48,7 @@ public class DeadFunctionElimination {
                     for (Instruction instr : bb.getInstructions()) {
                         if (instr instanceof CallInstr) {
                             CallInstr call = (CallInstr) instr;
-                            calledFunctions.add(call.getTargetFunction().irName);
+                            calledFunctions.add(call.getTargetFunction().getIrName());
                         }
                     }
                 }
@@ -45,7 +61,7 @@ public class DeadFunctionElimination {
                 // 跳过库函数声明（没有基本块）
                 if (func.getBasicBlocks().isEmpty()) continue;
                 
-                if (!calledFunctions.contains(func.irName)) {
+                if (!calledFunctions.contains(func.getIrName())) {
                     iterator.remove();
                     changed = true;
                 }
@@ -6,6 +6,7 @@ import midend.LLVM.IrModule;
 import midend.LLVM.value.IrBasicBlock;
 import midend.LLVM.value.IrFunction;
 import midend.LLVM.value.IrValue;
+import midend.OptimizationLevel;
 import midend.SSA.PhiInstr;
 
 import java.util.ArrayList;
@@ -13,14 +14,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import static midend.LLVM.IrBuilder.GetLocalVarName;
 
-public class FunctionInlining {
-    // 内联阈值：指令数少于该值的函数才会被内联（激进优化）
-    private static final int INLINE_THRESHOLD = 2000;
-
-    private static int inlineCount = 0;
+public class FunctionInlining implements OptimizationPass {
+    // 内联阈值：指令数少于该值的函数才会被内联，由优化级别决定 (-O3 为 2000，激进优化)
+    private final int inlineThreshold = OptimizationLevel.current().getInlineThreshold();
 
+    @Override
     public void run(IrModule module) {
         boolean changed = true;
         // 限制迭代次数防止无限递归
@@ -45,10 +44,7 @@ public class FunctionInlining {
         // 注意：每次内联后，i 需要重新调整或者 break
         for (int i = 0; i < blocks.size(); i++) {
             IrBasicBlock bb = blocks.get(i);
-            ArrayList<Instruction> instrs = bb.getInstructions();
-
-            for (int j = 0; j < instrs.size(); j++) {
-                Instruction instr = instrs.get(j);
+            for (Instruction instr : bb.getInstructions()) {
                 if (instr instanceof CallInstr) {
                     CallInstr call = (CallInstr) instr;
                     IrFunction callee = call.getTargetFunction();
@@ -57,7 +53,7 @@ public class FunctionInlining {
                         performInline(caller, bb, call, callee);
                         changed = true;
                         // 内联发生了，CFG 结构已变，跳出内层循环，让外层重新扫描
-                        // 如果不跳出，索引 j 可能会越界或处理错误的指令
+                        // 如果不跳出，迭代器会因指令链表被修改而失效
                         return true;
                     }
                 }
@@ -89,29 +85,17 @@ public class FunctionInlining {
         for (IrBasicBlock bb : callee.getBasicBlocks()) {
             instructionCount += bb.getInstructions().size();
         }
-        return instructionCount < INLINE_THRESHOLD; // 调大一点以允许稍微复杂的叶子函数
+        return instructionCount < inlineThreshold; // 调大一点以允许稍微复杂的叶子函数
     }
 
     private void performInline(IrFunction caller, IrBasicBlock callBlock, CallInstr callInstr, IrFunction callee) {
-        // 获取本次内联的唯一 ID
-        int currentId = inlineCount++;
-        String cleanCallerName = caller.irName.replace("@", "").replace(".", "_");
-        String suffix = "_inl_" + currentId;
-
+        // 新建块不指定名字，打印时再在调用者内统一编号
         // 1. 拆分当前块 (Split Block)
         IrBasicBlock splitBlock = new IrBasicBlock(midend.LLVM.ValueType.BASIC_BLOCK, midend.LLVM.Type.IrType.BASICBLOCK,
-                cleanCallerName + "_split" + suffix, caller);
+                null, caller);
 
         // 将 call 之后的指令移动到 splitBlock
-        int callIndex = callBlock.getInstructions().indexOf(callInstr);
-        List<Instruction> moveList = new ArrayList<>();
-        for (int k = callIndex + 1; k < callBlock.getInstructions().size(); k++) {
-            moveList.add(callBlock.getInstructions().get(k));
-        }
-        for (Instruction mv : moveList) {
-            callBlock.getInstructions().remove(mv);
-            splitBlock.addInstruction(mv);
-        }
+        splitBlock.getInstructions().splice(callBlock.getInstructions(), callInstr.getNext());
 
         // 2. 映射准备
         Map<IrValue, IrValue> valueMap = new HashMap<>(); // 旧值 -> 新值
@@ -132,9 +116,7 @@ public class FunctionInlining {
 
 
         for (IrBasicBlock oldBB : callee.getBasicBlocks()) {
-            String cleanOldName = oldBB.irName.replace("@", "").replace(".", "_");
-            IrBasicBlock newBB = new IrBasicBlock(oldBB.valueType, oldBB.irType,
-                    cleanOldName + suffix, caller);
+            IrBasicBlock newBB = new IrBasicBlock(oldBB.valueType, oldBB.irType, null, caller);
             blockMap.put(oldBB, newBB);
             newBlocks.add(newBB);
             valueMap.put(oldBB, newBB); // Label 映射很重要，用于 Branch/Jump
@@ -147,6 +129,7 @@ public class FunctionInlining {
         List<ReturnInstr> returns = new ArrayList<>();
         // 暂存所有新旧 Phi 的对应关系，稍后填充
         Map<PhiInstr, PhiInstr> phiMap = new HashMap<>();
+        List<Instruction> clones = new ArrayList<>();
 
         for (IrBasicBlock oldBB : callee.getBasicBlocks()) {
             IrBasicBlock newBB = blockMap.get(oldBB);
@@ -158,6 +141,7 @@ public class FunctionInlining {
                 } else {
                     newBB.addInstruction(newInst);
                     valueMap.put(oldInst, newInst);
+                    clones.add(newInst);
 
                     if (oldInst instanceof PhiInstr) {
                         phiMap.put((PhiInstr) oldInst, (PhiInstr) newInst);
@@ -191,6 +175,19 @@ public class FunctionInlining {
             }
         }
 
+        // 2.5 补上前向引用
+        // 块按列表顺序复制，而之前内联拆出的后半块放在列表末尾，排在前面的块可能用到它定义的值，
+        // 复制时这些值还没有映射，仍指向 callee 的指令，这里统一换成副本
+        for (Instruction newInst : clones) {
+            for (int k = 0; k < newInst.getNumOperands(); k++) {
+                IrValue op = newInst.getOperand(k);
+                if (op instanceof Instruction && ((Instruction) op).getParent() != null
+                        && ((Instruction) op).getParent().getParent() == callee) {
+                    newInst.replaceUse(op, valueMap.get(op));
+                }
+            }
+        }
+
         // 3. 连接控制流
 
         // 3.1 CallBlock -> Callee Entry
@@ -257,12 +254,12 @@ public class FunctionInlining {
 
         if (old instanceof AluInst) {
             AluInst a = (AluInst) old;
-            newInst = new AluInst(a.getOpDire(),
+            newInst = new AluInst(a.getOp(),
                     getMappedValue(a.getLeft(), map),
                     getMappedValue(a.getRight(), map));
         } else if (old instanceof CmpInstr) {
             CmpInstr c = (CmpInstr) old;
-            newInst = new CmpInstr(c.getOpDire(),
+            newInst = new CmpInstr(c.getOp(),
                     getMappedValue(c.getLeft(), map),
                     getMappedValue(c.getRight(), map));
         } else if (old instanceof LoadInstr) {
@@ -308,7 +305,7 @@ public class FunctionInlining {
             newInst = new PrintStrInstr((IrConstString) getMappedValue(p.getPrintValue(), map));
         } else if (old instanceof AllocateInstruction) {
             AllocateInstruction a = (AllocateInstruction) old;
-            newInst = new AllocateInstruction(GetLocalVarName(), a.getAllocatedType());
+            newInst = new AllocateInstruction(null, a.getAllocatedType());
         } else if (old instanceof PhiInstr) {
             // Phi 特殊处理：只创建对象，不填充 Incoming
             PhiInstr p = (PhiInstr) old;
@@ -0,0 +1,27 @@
+package midend.Optimization;
+
+import midend.LLVM.IrModule;
+import midend.LLVM.value.IrFunction;
+
+/**
+ * 逐函数运行的优化遍。runOnFunction 只改动传入的函数并如实报告是否改动，
+ * PassManager 据此跳过上次运行之后没有变化的函数，并在 fix(...) 组中按函数迭代到不动点。
+ */
+public interface FunctionPass extends OptimizationPass {
+    // 对一个非空函数运行，返回是否改变了它
+    boolean runOnFunction(IrFunction func);
+
+    // 函数在上次运行之后没有改变时，再运行也不会改变它 (结果只取决于函数本身，且一次运行就到了不动点)
+    default boolean canSkipUnchanged() {
+        return true;
+    }
+
+    @Override
+    default void run(IrModule module) {
+        for (IrFunction func : module.getFunctions()) {
+            if (!func.getBasicBlocks().isEmpty()) {
+                runOnFunction(func);
+            }
+        }
+    }
+}
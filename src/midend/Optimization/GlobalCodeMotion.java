@@ -1,7 +1,6 @@
 package midend.Optimization;
 
 import midend.LLVM.Instruction.*;
-import midend.LLVM.IrModule;
 import midend.LLVM.value.IrBasicBlock;
 import midend.LLVM.value.IrFunction;
 import midend.LLVM.value.IrValue;
@@ -10,131 +9,127 @@ import midend.SSA.PhiInstr;
 
 import java.util.*;
 
-public class GlobalCodeMotion {
+public class GlobalCodeMotion implements FunctionPass {
     private DominatorTree domTree;
     private LoopAnalysis loopAnalysis;
 
+    // 以下数组和列表按值编号 / 块编号索引 (见 IrFunction.renumber)
+    private IrFunction function;
+
     // Use-Def 链: Value -> List<User>
-    private Map<IrValue, List<Instruction>> useMap = new HashMap<>();
+    private List<List<Instruction>> useMap;
 
     // Early Schedule 结果
-    private Map<Instruction, IrBasicBlock> scheduleEarly = new HashMap<>();
+    private IrBasicBlock[] scheduleEarly;
 
     // 访问标记
-    private Set<Instruction> visited = new HashSet<>();
+    private boolean[] visited;
 
     // 最终移动的目标: Block -> List<Instr>
-    private Map<IrBasicBlock, List<Instruction>> newLocations = new HashMap<>();
+    private List<List<Instruction>> newLocations;
 
-    public void run(IrModule module) {
-        for (IrFunction func : module.getFunctions()) {
-            if (func.getBasicBlocks().isEmpty()) continue;
-            runOnFunction(func);
-        }
+    @Override
+    public Set<AnalysisManager.Analysis> preserves() {
+        // 只在块之间移动指令，CFG 不变
+        return AnalysisManager.ALL;
     }
 
-    private void runOnFunction(IrFunction func) {
+    @Override
+    public boolean runOnFunction(IrFunction func) {
         // 1. 初始化分析
-        domTree = new DominatorTree(func);
-        loopAnalysis = new LoopAnalysis();
-        loopAnalysis.run(func, domTree);
+        AnalysisManager analyses = AnalysisManager.current();
+        domTree = analyses.getDominatorTree(func);
+        loopAnalysis = analyses.getLoops(func);
 
+        // 支配树可能来自缓存，这里重新编号指令 (块序列没有变，块编号与支配树一致)
+        func.renumber();
+        function = func;
         buildUseDefChains(func);
 
-        visited.clear();
-        scheduleEarly.clear();
-        newLocations.clear();
+        visited = new boolean[func.getValueCount()];
+        scheduleEarly = new IrBasicBlock[func.getValueCount()];
+        newLocations = newListArray(func.getBlockCount());
 
         // 2. Schedule Early (下沉到数据依赖允许的最早位置)
         // 遍历所有指令进行递归
         for (IrBasicBlock bb : func.getBasicBlocks()) {
             for (Instruction instr : bb.getInstructions()) {
-                if (!visited.contains(instr)) {
+                if (!visited[instr.getId()]) {
                     scheduleEarly(instr, func.getEntryBlock());
                 }
             }
         }
 
         // 3. Schedule Late (上浮到 Use 允许的最晚位置，并选择最佳循环层级)
-        visited.clear();
+        Arrays.fill(visited, false);
         for (IrBasicBlock bb : func.getBasicBlocks()) {
             for (Instruction instr : bb.getInstructions()) {
-                if (!visited.contains(instr)) {
+                if (!visited[instr.getId()]) {
                     scheduleLate(instr);
                 }
             }
         }
 
-        // 4. 移动代码并局部排序
+        // 4. 移动代码并局部排序，位置都没变时不算改变了函数
+        List<Instruction> before = layout(func);
         moveInstructions(func);
+        return !before.equals(layout(func));
+    }
+
+    // 按块顺序排列的全部指令，块之间用 null 分隔
+    private static List<Instruction> layout(IrFunction func) {
+        List<Instruction> result = new ArrayList<>();
+        for (IrBasicBlock bb : func.getBasicBlocks()) {
+            for (Instruction instr : bb.getInstructions()) {
+                result.add(instr);
+            }
+            result.add(null);
+        }
+        return result;
     }
 
     private void buildUseDefChains(IrFunction func) {
-        useMap.clear();
+        // 只有指令会被调度，常量和全局变量的使用者不需要记录
+        useMap = newListArray(func.getValueCount());
         for (IrBasicBlock bb : func.getBasicBlocks()) {
             for (Instruction instr : bb.getInstructions()) {
-                for (IrValue op : getOperands(instr)) {
-                    useMap.computeIfAbsent(op, k -> new ArrayList<>()).add(instr);
+                for (int k = 0, n = instr.getNumValueOperands(); k < n; k++) {
+                    IrValue op = instr.getValueOperand(k);
+                    int id = func.indexOf(op);
+                    if (id < 0) continue;
+                    List<Instruction> users = useMap.get(id);
+                    if (users == null) {
+                        users = new ArrayList<>();
+                        useMap.set(id, users);
+                    }
+                    users.add(instr);
                 }
             }
         }
     }
 
-    // 获取操作数
-    private List<IrValue> getOperands(Instruction instr) {
-        List<IrValue> ops = new ArrayList<>();
-        if (instr instanceof AluInst) {
-            ops.add(((AluInst) instr).getLeft());
-            ops.add(((AluInst) instr).getRight());
-        } else if (instr instanceof CmpInstr) {
-            ops.add(((CmpInstr) instr).getLeft());
-            ops.add(((CmpInstr) instr).getRight());
-        } else if (instr instanceof LoadInstr) {
-            ops.add(((LoadInstr) instr).getPtr());
-        } else if (instr instanceof StoreInstr) {
-            ops.add(((StoreInstr) instr).getVal());
-            ops.add(((StoreInstr) instr).getPtr());
-        } else if (instr instanceof BranchInstr) {
-            BranchInstr br = (BranchInstr) instr;
-            if (br.getCond() != null) ops.add(br.getCond());
-        } else if (instr instanceof ReturnInstr) {
-            ReturnInstr ret = (ReturnInstr) instr;
-            if (!ret.isReturnVoid()) ops.add(ret.getReturnValue());
-        } else if (instr instanceof CallInstr) {
-            ops.addAll(((CallInstr) instr).getParameters());
-        } else if (instr instanceof GepInstr) {
-            ops.add(((GepInstr) instr).getPtr());
-            ops.add(((GepInstr) instr).getIndice());
-        } else if (instr instanceof ZextInstr) {
-            ops.add(((ZextInstr) instr).getOperand(0));
-        } else if (instr instanceof TruncInstr) {
-            ops.add(((TruncInstr) instr).getOperand(0));
-        } else if (instr instanceof PhiInstr) {
-            ops.addAll(((PhiInstr) instr).getIncomingValues());
-        } else if (instr instanceof PrintIntInstr) {
-            ops.add(((PrintIntInstr) instr).getPrintValue());
-        } else if (instr instanceof PrintStrInstr) {
-            ops.add(((PrintStrInstr) instr).getPrintValue());
-        }
-        return ops;
+    private static List<List<Instruction>> newListArray(int size) {
+        return new ArrayList<>(Collections.nCopies(size, null));
     }
 
     // Step 2: Schedule Early
     private IrBasicBlock scheduleEarly(Instruction instr, IrBasicBlock entry) {
-        if (visited.contains(instr)) return scheduleEarly.get(instr);
-        visited.add(instr);
+        int id = instr.getId();
+        if (visited[id]) return scheduleEarly[id];
+        visited[id] = true;
 
         // Pinned 指令固定在原块
         if (instr.isPinned()) {
             IrBasicBlock pinnedBlock = (IrBasicBlock) instr.getParent();
-            scheduleEarly.put(instr, pinnedBlock);
+            scheduleEarly[id] = pinnedBlock;
             return pinnedBlock;
         }
 
         IrBasicBlock earlyBlock = entry;
 
-        for (IrValue op : getOperands(instr)) {
-            if (op instanceof Instruction) {
+        for (int k = 0, n = instr.getNumValueOperands(); k < n; k++) {
+            IrValue op = instr.getValueOperand(k);
+            if (op instanceof Instruction && function.indexOf(op) >= 0) {
                 Instruction opInstr = (Instruction) op;
                 IrBasicBlock opBlock = scheduleEarly(opInstr, entry);
 
@@ -149,19 +144,20 @@ public class GlobalCodeMotion {
             }
         }
 
-        scheduleEarly.put(instr, earlyBlock);
+        scheduleEarly[id] = earlyBlock;
         return earlyBlock;
     }
 
     // --- Schedule Late ---
     private void scheduleLate(Instruction instr) {
-        if (visited.contains(instr)) return;
-        visited.add(instr);
+        int id = instr.getId();
+        if (visited[id]) return;
+        visited[id] = true;
 
         if (instr.isPinned()) return;
 
         IrBasicBlock lca = null;
-        List<Instruction> users = useMap.getOrDefault(instr, Collections.emptyList());
+        List<Instruction> users = useMap.get(id) != null ? useMap.get(id) : Collections.emptyList();
 
         for (Instruction user : users) {
             scheduleLate(user);
@@ -184,7 +180,7 @@ public class GlobalCodeMotion {
         // 选择最佳位置：在 Early 和 Late (lca) 之间寻找循环深度最小的块
         IrBasicBlock bestBlock = lca;
         IrBasicBlock curr = lca;
-        IrBasicBlock early = scheduleEarly.get(instr);
+        IrBasicBlock early = scheduleEarly[id];
 
         while (curr != early && curr != null) {
             if (loopAnalysis.getDepth(curr) < loopAnalysis.getDepth(bestBlock)) {
@@ -198,14 +194,20 @@ public class GlobalCodeMotion {
         }
 
         // 记录到新位置
-        newLocations.computeIfAbsent(bestBlock, k -> new ArrayList<>()).add(instr);
+        int blockId = function.indexOfBlock(bestBlock);
+        List<Instruction> moved = newLocations.get(blockId);
+        if (moved == null) {
+            moved = new ArrayList<>();
+            newLocations.set(blockId, moved);
+        }
+        moved.add(instr);
 
         // 更新指令的 Parent 引用 (为了后续 scheduleLate 递归调用获取正确 parent)
         instr.setParentBasicBlock(bestBlock);
     }
 
     private IrBasicBlock getPhiUserBlock(PhiInstr phi, IrValue val) {
-        ArrayList<IrValue> vals = phi.getIncomingValues();
+        List<IrValue> vals = phi.getIncomingValues();
         ArrayList<IrBasicBlock> blks = phi.getIncomingBlocks();
         // 必须遍历所有匹配的输入，计算共同的 LCA
         // 因为一个值可能从多个前驱传入同一个 Phi
@@ -260,7 +262,10 @@ public class GlobalCodeMotion {
             }
 
             // 3. 混合 Pinned 和 GCM 指令
-            List<Instruction> gcmInstrs = newLocations.getOrDefault(bb, new ArrayList<>());
+            List<Instruction> gcmInstrs = newLocations.get(bb.getId());
+            if (gcmInstrs == null) {
+                gcmInstrs = new ArrayList<>();
+            }
             List<Instruction> allNode = new ArrayList<>();
             allNode.addAll(pinned);
             allNode.addAll(gcmInstrs);
@@ -275,7 +280,8 @@ public class GlobalCodeMotion {
 
             // 数据依赖: Op -> User
             for (Instruction instr : allNode) {
-                for (IrValue op : getOperands(instr)) {
+                for (int k = 0, n = instr.getNumValueOperands(); k < n; k++) {
+                    IrValue op = instr.getValueOperand(k);
                     if (op instanceof Instruction && inDegree.containsKey(op)) {
                         Instruction def = (Instruction) op;
                         graph.get(def).add(instr);
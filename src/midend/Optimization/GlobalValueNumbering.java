@@ -1,7 +1,6 @@
 package midend.Optimization;
 
 import midend.LLVM.Instruction.*;
-import midend.LLVM.IrModule;
 import midend.LLVM.value.IrBasicBlock;
 import midend.LLVM.value.IrFunction;
 import midend.LLVM.value.IrValue;
@@ -12,53 +11,58 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
-public class GlobalValueNumbering {
+public class GlobalValueNumbering implements FunctionPass {
     // 记录 HashKey -> 指令 的映射
-    private final Map<String, Instruction> valueTable = new HashMap<>();
+    private final Map<ExprKey, Instruction> valueTable = new HashMap<>();
+    // Load 单独存放，遇到 Store/Call 或新基本块时整体清空
+    private final Map<ExprKey, Instruction> loadTable = new HashMap<>();
 
     // 简单的死代码消除标记
     private final Set<Instruction> deadInstructions = new HashSet<>();
     private DominatorTree domTree;
 
-    public void run(IrModule module) {
-        boolean changed = true;
+    @Override
+    public Set<AnalysisManager.Analysis> preserves() {
+        // 只替换和删除指令，CFG 不变
+        return AnalysisManager.ALL;
+    }
+
+    // 各函数互不影响，逐函数迭代与整个模块一起迭代结果相同
+    @Override
+    public boolean runOnFunction(IrFunction func) {
+        boolean everChanged = false;
         int passes = 0;
         int maxPasses = 5;
 
-        while (changed && passes++ < maxPasses) {
-            changed = false;
-            for (IrFunction func : module.getFunctions()) {
-                if (func.getBasicBlocks().isEmpty())
-                    continue;
-
-                midend.SSA.CfgBuilder.build(func);
-                domTree = new DominatorTree(func);
-
-                if (runOnFunction(func)) {
-                    changed = true;
-                }
+        while (passes++ < maxPasses) {
+            domTree = AnalysisManager.current().getDominatorTree(func);
+            if (!numberValues(func)) {
+                break;
             }
+            everChanged = true;
         }
+        return everChanged;
     }
 
-    private boolean runOnFunction(IrFunction func) {
+    private boolean numberValues(IrFunction func) {
         valueTable.clear();
+        loadTable.clear();
         deadInstructions.clear();
 
         for (IrBasicBlock bb : func.getBasicBlocks()) {
             // 每个基本块开始时，清除所有 Load 的 hash（保守处理跨块情况）
-            valueTable.entrySet().removeIf(e -> e.getKey().startsWith("LOAD_"));
+            loadTable.clear();
 
             for (Instruction instr : bb.getInstructions()) {
                 // 遇到 Store 指令时，使所有 Load hash 失效（保守策略）
                 if (instr instanceof StoreInstr) {
-                    valueTable.entrySet().removeIf(e -> e.getKey().startsWith("LOAD_"));
+                    loadTable.clear();
                     continue;
                 }
 
                 // 遇到 Call 指令时，使所有 Load hash 失效（函数可能修改内存）
                 if (instr instanceof CallInstr) {
-                    valueTable.entrySet().removeIf(e -> e.getKey().startsWith("LOAD_"));
+                    loadTable.clear();
                     continue;
                 }
 
@@ -67,13 +71,13 @@ public class GlobalValueNumbering {
                 }
 
                 // 尝试 GVN
-                String hash = getHashKey(instr);
+                ExprKey hash = getHashKey(instr);
                 if (hash == null)
                     continue;
 
-                if (valueTable.containsKey(hash)) {
-                    Instruction leader = valueTable.get(hash);
-
+                Map<ExprKey, Instruction> table = hash.isLoad() ? loadTable : valueTable;
+                Instruction leader = table.get(hash);
+                if (leader != null) {
                     if (checkDominance(leader, instr)) {
                         if (leader != instr) {
                             instr.replaceAllUsesWith(leader);
@@ -81,12 +85,15 @@ public class GlobalValueNumbering {
                         }
                     }
                 } else {
-                    valueTable.put(hash, instr);
+                    table.put(hash, instr);
                 }
             }
         }
 
         // 清理被替换的指令
+        for (Instruction instr : deadInstructions) {
+            instr.dropOperandUses();
+        }
         for (IrBasicBlock bb : func.getBasicBlocks()) {
             bb.getInstructions().removeIf(deadInstructions::contains);
         }
@@ -94,70 +101,70 @@ public class GlobalValueNumbering {
         return !deadInstructions.isEmpty();
     }
 
-    // 生成指令的唯一标识符
-    private String getHashKey(Instruction instr) {
-        StringBuilder sb = new StringBuilder();
+    // 表达式的唯一标识：运算类型 + 两个操作数，按对象比较（整数常量由常量池保证数值相同即同一对象）
+    private record ExprKey(Object op, Object left, Object right) {
+        boolean isLoad() {
+            return op == ExprKind.LOAD;
+        }
+    }
+
+    // 除 Alu/Cmp 外参与编号的表达式种类
+    private enum ExprKind {
+        GEP, ZEXT, LOAD
+    }
 
+    // 生成指令的唯一标识符
+    private ExprKey getHashKey(Instruction instr) {
         if (instr instanceof AluInst) {
             AluInst alu = (AluInst) instr;
-            String op = alu.getOp();
             IrValue l = alu.getLeft();
             IrValue r = alu.getRight();
 
-            if (alu.isCommutative() && l.irName.compareTo(r.irName) > 0) {
+            if (alu.isCommutative() && outOfOrder(l, r)) {
                 // 交换律：保证顺序一致
                 IrValue temp = l;
                 l = r;
                 r = temp;
             }
-            sb.append(op).append("_").append(getValueKey(l)).append("_").append(getValueKey(r));
+            return new ExprKey(alu.getOp(), l, r);
 
         } else if (instr instanceof CmpInstr) {
             CmpInstr cmp = (CmpInstr) instr;
-            String op = cmp.getOp();
             IrValue l = cmp.getLeft();
             IrValue r = cmp.getRight();
             // Cmp 的交换律处理比较复杂 (EQ/NE 可以直接交换，SLT 交换要变 SGT)，这里仅处理 EQ/NE
-            if (cmp.isCommutative() && l.irName.compareTo(r.irName) > 0) {
+            if (cmp.isCommutative() && outOfOrder(l, r)) {
                 IrValue temp = l;
                 l = r;
                 r = temp;
             }
-            sb.append("CMP_").append(op).append("_").append(getValueKey(l)).append("_").append(getValueKey(r));
+            return new ExprKey(cmp.getOp(), l, r);
 
         } else if (instr instanceof GepInstr) {
             GepInstr gep = (GepInstr) instr;
-            sb.append("GEP_").append(getValueKey(gep.getPtr())).append("_").append(getValueKey(gep.getIndice()));
+            return new ExprKey(ExprKind.GEP, gep.getPtr(), gep.getIndice());
 
         } else if (instr instanceof ZextInstr) {
             ZextInstr zext = (ZextInstr) instr;
-            sb.append("ZEXT_").append(getValueKey(zext.getOperand(0)));
+            return new ExprKey(ExprKind.ZEXT, zext.getOperand(0), null);
 
         } else if (instr instanceof LoadInstr) {
             // Load CSE - 安全因为我们在 runOnFunction 中追踪 Store 并清除 hash
             LoadInstr load = (LoadInstr) instr;
-            IrBasicBlock bb = (IrBasicBlock) load.getParent();
-            sb.append("LOAD_").append(bb.irName).append("_").append(getValueKey(load.getPtr()));
-
-        } else {
-            return null; // 其他指令暂不支持 GVN
+            return new ExprKey(ExprKind.LOAD, load.getParent(), load.getPtr());
         }
-
-        return sb.toString();
+        return null; // 其他指令暂不支持 GVN
     }
 
-    // 获取值的唯一标识，处理常量
-    private String getValueKey(IrValue val) {
-        if (val instanceof midend.LLVM.Const.IrConstInt) {
-            return "C" + ((midend.LLVM.Const.IrConstInt) val).getValue();
-        }
-        return val.irName;
+    // 交换律操作数的规范顺序只需在一次运行内稳定，按对象哈希排序，不必比较名字
+    private boolean outOfOrder(IrValue l, IrValue r) {
+        return System.identityHashCode(l) > System.identityHashCode(r);
     }
 
     // 简单的支配检查辅助方法
     private boolean checkDominance(Instruction leader, Instruction instr) {
-        IrBasicBlock leaderBlock = (IrBasicBlock) leader.getParent();
-        IrBasicBlock instrBlock = (IrBasicBlock) instr.getParent();
+        IrBasicBlock leaderBlock = leader.getParent();
+        IrBasicBlock instrBlock = instr.getParent();
 
         // 情况1: 在同一个 Block
         if (leaderBlock == instrBlock) {
@@ -166,14 +173,6 @@ public class GlobalValueNumbering {
         }
 
         // 情况2: 在不同的 Block，检查块的支配关系
-        // 沿着 instrBlock 的 IDom 向上找，看能不能碰到 leaderBlock
-        IrBasicBlock runner = instrBlock;
-        while (runner != null) {
-            if (runner == leaderBlock) return true;
-            if (runner == domTree.getIDom(runner)) break; // 防止死循环（如果有自环）
-            runner = domTree.getIDom(runner);
-        }
-
-        return false;
+        return domTree.dominates(leaderBlock, instrBlock);
     }
 }
\ No newline at end of file
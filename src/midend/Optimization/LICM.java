@@ -2,43 +2,45 @@ package midend.Optimization;
 
 import midend.LLVM.Const.IrConstInt;
 import midend.LLVM.Instruction.*;
-import midend.LLVM.IrModule;
 import midend.LLVM.Type.IrType;
 import midend.LLVM.ValueType;
 import midend.LLVM.value.IrBasicBlock;
 import midend.LLVM.value.IrFunction;
 import midend.LLVM.value.IrValue;
-import midend.SSA.DeadCodeElimination;
 import midend.SSA.DominatorTree;
 import midend.SSA.PhiInstr;
 
 import java.util.*;
 
-public class LICM {
+public class LICM implements FunctionPass {
 
     private DominatorTree domTree;
+    // 本次运行是否插入过 PreHeader：只插入块也算改变了函数，但不需要再迭代
+    private boolean createdPreHeader;
 
-    public void run(IrModule module) {
+    @Override
+    public boolean runOnFunction(IrFunction function) {
+        createdPreHeader = false;
+        boolean everChanged = false;
         boolean changed = true;
         while (changed) {
             changed = false;
-            for (IrFunction function : module.getFunctions()) {
-                if (function.getBasicBlocks().isEmpty()) continue;
 
-                // 1. 构建支配树
-                domTree = new DominatorTree(function);
+            // 1. 构建支配树
+            domTree = AnalysisManager.current().getDominatorTree(function);
 
-                // 2. 识别自然循环
-                List<Loop> loops = findLoops(function);
+            // 2. 识别自然循环
+            List<Loop> loops = findLoops(function);
 
-                // 3. 对每个循环进行 LICM
-                for (Loop loop : loops) {
-                    if (optimizeLoop(function, loop)) {
-                        changed = true;
-                    }
+            // 3. 对每个循环进行 LICM
+            for (Loop loop : loops) {
+                if (optimizeLoop(function, loop)) {
+                    changed = true;
+                    everChanged = true;
                 }
             }
         }
+        return everChanged || createdPreHeader;
     }
 
     // --- 循环识别 ---
@@ -81,14 +83,7 @@ public class LICM {
 
     // 判断 A 是否支配 B
     private boolean isDominator(IrBasicBlock A, IrBasicBlock B) {
-        if (A == B) return true;
-        if (domTree.getDomDepth(A) >= domTree.getDomDepth(B)) return false;
-
-        IrBasicBlock runner = B;
-        while (runner != null && runner != A) {
-            runner = domTree.getIDom(runner);
-        }
-        return runner == A;
+        return domTree.dominates(A, B);
     }
 
     private void populateLoopBody(Loop loop, IrBasicBlock latch) {
@@ -132,20 +127,14 @@ public class LICM {
                 if (!loop.body.contains(inst.getParent())) continue;
 
                 if (isInvariant(inst, loop) && canHoist(inst, loop)) {
-                    // 移动指令
-                    inst.getParent().getInstructions().remove(inst);
-
-                    // 插入到 PreHeader 末尾
+                    // 移动到 PreHeader 末尾（终结指令之前），插入时自动从原块摘下
                     Instruction term = preHeader.getTerminator();
                     if (term != null) {
-                        int idx = preHeader.getInstructions().indexOf(term);
-                        preHeader.getInstructions().add(idx, inst);
+                        preHeader.getInstructions().insertBefore(term, inst);
                     } else {
                         preHeader.addInstruction(inst);
                     }
 
-                    inst.setParentBasicBlock(preHeader);
-
                     localChange = true;
                     changed = true;
                 }
@@ -195,7 +184,8 @@ public class LICM {
         }
 
         // 2. 检查所有操作数
-        for (IrValue operand : getOperands(inst)) {
+        for (int k = 0, n = inst.getNumValueOperands(); k < n; k++) {
+            IrValue operand = inst.getValueOperand(k);
             // 常量或全局变量 -> Invariant
             if (operand instanceof midend.LLVM.Const.IrConstant ||
                     operand instanceof midend.LLVM.value.IrGlobalValue ||
@@ -220,7 +210,7 @@ public class LICM {
         // 1. 除法保护: 除非除数是非零常量，否则不能提
         if (inst instanceof AluInst) {
             AluInst alu = (AluInst) inst;
-            if (alu.getOp().equals("SDIV") || alu.getOp().equals("SREM")) {
+            if (alu.getOp().isDivision()) {
                 IrValue rhs = alu.getRight();
                 if (rhs instanceof IrConstInt && ((IrConstInt) rhs).getValue() != 0) {
                     return true;
@@ -258,7 +248,8 @@ public class LICM {
         // 针对单入口
         IrBasicBlock pred = outsidePreds.get(0);
 
-        IrBasicBlock preHeader = new IrBasicBlock(ValueType.BASIC_BLOCK, IrType.BASICBLOCK, "preheader", func);
+        IrBasicBlock preHeader = new IrBasicBlock(ValueType.BASIC_BLOCK, IrType.BASICBLOCK, null, func);
+        createdPreHeader = true;
 
         // 插入到 Function Block List 合适位置
         int headerIdx = func.getBasicBlocks().indexOf(loop.header);
@@ -301,11 +292,6 @@ public class LICM {
         return preHeader;
     }
 
-    private List<IrValue> getOperands(Instruction inst) {
-        DeadCodeElimination dce = new DeadCodeElimination();
-        return dce.getOperands(inst);
-    }
-
     private static class Loop {
         IrBasicBlock header;
         Set<IrBasicBlock> body = new HashSet<>();
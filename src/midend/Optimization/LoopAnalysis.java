@@ -7,13 +7,13 @@ import midend.SSA.DominatorTree;
 import java.util.*;
 
 public class LoopAnalysis {
-    private Map<IrBasicBlock, Integer> loopDepth = new HashMap<>();
+    // 按块编号索引，编号由 DominatorTree 构建时分配
+    private IrFunction function;
+    private int[] loopDepth = new int[0];
 
     public void run(IrFunction func, DominatorTree domTree) {
-        loopDepth.clear();
-        for (IrBasicBlock bb : func.getBasicBlocks()) {
-            loopDepth.put(bb, 0);
-        }
+        function = func;
+        loopDepth = new int[func.getBlockCount()];
 
         // 识别回边 (Back Edge): A -> B, 且 B dom A => B 是循环头
         for (IrBasicBlock bb : func.getBasicBlocks()) {
@@ -29,28 +29,29 @@ public class LoopAnalysis {
     private void markLoop(IrBasicBlock latch, IrBasicBlock header) {
         if (latch == header) {
             // 自环
-            loopDepth.put(header, loopDepth.get(header) + 1);
+            loopDepth[header.getId()]++;
             return;
         }
 
-        Set<IrBasicBlock> visited = new HashSet<>();
-        Queue<IrBasicBlock> q = new LinkedList<>();
+        boolean[] visited = new boolean[loopDepth.length];
+        Queue<IrBasicBlock> q = new ArrayDeque<>();
 
         q.offer(latch);
-        visited.add(latch);
-        visited.add(header); // 只要 header 不入队，就不会穿过它向上溢出
+        visited[latch.getId()] = true;
+        visited[header.getId()] = true; // 只要 header 不入队，就不会穿过它向上溢出
 
         // 循环头深度 +1
-        loopDepth.put(header, loopDepth.get(header) + 1);
+        loopDepth[header.getId()]++;
 
         while (!q.isEmpty()) {
             IrBasicBlock curr = q.poll();
             // 路径上的节点深度 +1
-            loopDepth.put(curr, loopDepth.get(curr) + 1);
+            loopDepth[curr.getId()]++;
 
             for (IrBasicBlock pred : curr.getPredecessors()) {
-                if (!visited.contains(pred)) {
-                    visited.add(pred);
+                int id = function.indexOfBlock(pred);
+                if (id >= 0 && !visited[id]) {
+                    visited[id] = true;
                     q.offer(pred);
                 }
             }
@@ -58,16 +59,11 @@ public class LoopAnalysis {
     }
 
     private boolean isDominator(IrBasicBlock a, IrBasicBlock b, DominatorTree domTree) {
-        if (a == b) return true;
-        IrBasicBlock runner = b;
-        while (runner != null) {
-            if (runner == a) return true;
-            runner = domTree.getIDom(runner);
-        }
-        return false;
+        return domTree.dominates(a, b);
     }
 
     public int getDepth(IrBasicBlock bb) {
-        return loopDepth.getOrDefault(bb, 0);
+        int id = bb == null ? -1 : function.indexOfBlock(bb);
+        return id < 0 ? 0 : loopDepth[id];
     }
 }
\ No newline at end of file
@@ -2,7 +2,7 @@ package midend.Optimization;
 
 import midend.LLVM.Const.IrConstInt;
 import midend.LLVM.Instruction.*;
-import midend.LLVM.IrModule;
+import midend.LLVM.IrBuilder;
 import midend.LLVM.value.IrBasicBlock;
 import midend.LLVM.value.IrFunction;
 import midend.LLVM.value.IrValue;
@@ -25,15 +25,23 @@ import java.util.*;
  *     ptr += 4;
  * }
  */
-public class LoopStrengthReduction {
+public class LoopStrengthReduction implements FunctionPass {
     
-    public void run(IrModule module) {
-        for (IrFunction func : module.getFunctions()) {
-            runOnFunction(func);
-        }
+    @Override
+    public Set<AnalysisManager.Analysis> preserves() {
+        // 只在已有的块中插入指令，CFG 不变
+        return AnalysisManager.ALL;
     }
-    
-    private void runOnFunction(IrFunction func) {
+
+    // 原来的乘法留给 DCE 删除，再次运行会对同一个乘法重复削减，不能跳过
+    @Override
+    public boolean canSkipUnchanged() {
+        return false;
+    }
+
+    @Override
+    public boolean runOnFunction(IrFunction func) {
+        boolean changed = false;
         // 找到所有循环头（有 phi 节点且有回边的块）
         for (IrBasicBlock bb : func.getBasicBlocks()) {
             List<PhiInstr> phis = new ArrayList<>();
@@ -48,10 +56,13 @@ public class LoopStrengthReduction {
                 InductionVar iv = analyzeInductionVar(phi);
                 if (iv != null) {
                     // 找到所有使用 iv 的乘法 (i * const)
-                    optimizeMultiplications(bb, iv);
+                    if (optimizeMultiplications(bb, iv)) {
+                        changed = true;
+                    }
                 }
             }
         }
+        return changed;
     }
     
     // 分析是否是基本归纳变量: i = phi(init, i + step)
@@ -72,7 +83,7 @@ public class LoopStrengthReduction {
         if (!(update instanceof AluInst)) return null;
         
         AluInst alu = (AluInst) update;
-        if (!alu.getOp().equals("ADD")) return null;
+        if (alu.getOp() != AluOpcode.ADD) return null;
         
         IrValue left = alu.getLeft();
         IrValue right = alu.getRight();
@@ -89,7 +100,8 @@ public class LoopStrengthReduction {
         return null;
     }
     
-    private void optimizeMultiplications(IrBasicBlock loopHeader, InductionVar iv) {
+    private boolean optimizeMultiplications(IrBasicBlock loopHeader, InductionVar iv) {
+        boolean changed = false;
         // 找到循环体中所有 iv * const 的使用
         List<AluInst> toOptimize = new ArrayList<>();
         List<GepInstr> gepsToOptimize = new ArrayList<>();
@@ -98,7 +110,7 @@ public class LoopStrengthReduction {
             for (Instruction instr : bb.getInstructions()) {
                 if (instr instanceof AluInst) {
                     AluInst alu = (AluInst) instr;
-                    if (alu.getOp().equals("MUL")) {
+                    if (alu.getOp() == AluOpcode.MUL) {
                         // 检查是否是 iv * const 或 const * iv
                         if ((alu.getLeft() == iv.phi && alu.getRight() instanceof IrConstInt) ||
                             (alu.getRight() == iv.phi && alu.getLeft() instanceof IrConstInt)) {
@@ -131,7 +143,7 @@ public class LoopStrengthReduction {
             sumPhi.setParentBasicBlock(loopHeader);
 
             // 2. 创建累加指令: sum_next = sum + newStep
-            AluInst sumUpdate = new AluInst("ADD", sumPhi, new IrConstInt(newStep));
+            AluInst sumUpdate = new AluInst(AluOpcode.ADD, sumPhi, IrBuilder.GetNewIrConstInt(newStep));
             sumUpdate.setParentBasicBlock(iv.updateInstr.getParent());
 
             // 3. 设置 phi 的输入值
@@ -142,7 +154,7 @@ public class LoopStrengthReduction {
 
                 if (incVal instanceof IrConstInt) {
                     // 这是初始值的边 - 使用 newInit
-                    sumPhi.addIncoming(new IrConstInt(newInit), incBlock);
+                    sumPhi.addIncoming(IrBuilder.GetNewIrConstInt(newInit), incBlock);
                 } else {
                     // 这是回边 - 使用 sumUpdate
                     sumPhi.addIncoming(sumUpdate, incBlock);
@@ -150,21 +162,20 @@ public class LoopStrengthReduction {
             }
 
             // 4. 在 header 开头插入 phi (在原有 phi 之后)
-            int insertIdx = 0;
-            for (int i = 0; i < loopHeader.getInstructions().size(); i++) {
-                if (!(loopHeader.getInstructions().get(i) instanceof PhiInstr)) {
-                    insertIdx = i;
-                    break;
-                }
-                insertIdx = i + 1;
+            Instruction firstNonPhi = loopHeader.getInstructions().first();
+            while (firstNonPhi instanceof PhiInstr) {
+                firstNonPhi = firstNonPhi.getNext();
+            }
+            if (firstNonPhi != null) {
+                loopHeader.getInstructions().insertBefore(firstNonPhi, sumPhi);
+            } else {
+                loopHeader.addInstruction(sumPhi);
             }
-            loopHeader.getInstructions().add(insertIdx, sumPhi);
 
             // 5. 在 iv update 之后插入 sumUpdate
             IrBasicBlock updateBlock = iv.updateInstr.getParent();
-            int updateIdx = updateBlock.getInstructions().indexOf(iv.updateInstr);
-            if (updateIdx >= 0) {
-                updateBlock.getInstructions().add(updateIdx + 1, sumUpdate);
+            if (updateBlock.getInstructions().contains(iv.updateInstr)) {
+                updateBlock.getInstructions().insertAfter(iv.updateInstr, sumUpdate);
             }
 
             // 6. 替换原 mul 的所有使用为 sumPhi
@@ -172,7 +183,9 @@ public class LoopStrengthReduction {
 
             // 7. 标记 mul 为死代码 (DCE 会清理)
             // 不直接删除以避免迭代时修改列表
+            changed = true;
         }
+        return changed;
     }
     
     private Set<IrBasicBlock> getLoopBlocks(IrBasicBlock header, InductionVar iv) {
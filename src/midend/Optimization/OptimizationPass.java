@@ -0,0 +1,27 @@
+package midend.Optimization;
+
+import midend.LLVM.IrModule;
+import midend.LLVM.value.IrFunction;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 中端优化遍。通过 AnalysisManager.run 运行时，
+ * 没有声明保持的分析会在下次使用前核对，只有 CFG 真正改变的函数才重新计算。
+ */
+public interface OptimizationPass {
+    void run(IrModule module);
+
+    // 运行并返回改变了的函数，默认认为所有函数都可能改变
+    default Collection<IrFunction> runOnModule(IrModule module) {
+        run(module);
+        return module.getFunctions();
+    }
+
+    // 运行后仍然有效的分析，默认什么都不保持
+    default Set<AnalysisManager.Analysis> preserves() {
+        return EnumSet.noneOf(AnalysisManager.Analysis.class);
+    }
+}
@@ -1,133 +1,290 @@
 package midend.Optimization;
 
-import midend.LLVM.Const.IrConstInt;
+import midend.LLVM.Const.IrConstString;
 import midend.LLVM.Instruction.*;
-import midend.LLVM.IrBuilder;
-import midend.LLVM.IrModule;
 import midend.LLVM.Type.IrType;
+import midend.LLVM.ValueType;
+import midend.LLVM.use.IrUse;
 import midend.LLVM.value.IrBasicBlock;
 import midend.LLVM.value.IrFunction;
 import midend.LLVM.value.IrValue;
+import midend.OptimizationLevel;
 import midend.SSA.PhiInstr;
 
 import java.util.*;
 
 /**
  * 部分循环展开优化
- * 
- * 不需要知道循环次数，直接将循环体复制 N 次
- * 适用于动态边界循环
- * 
- * 原始:
- * while (i < n) {
- *     body;
- *     i++;
- * }
- * 
- * 展开2x后:
- * while (i + 1 < n) {
- *     body; i++;
- *     body; i++;  // 复制的循环体
- * }
- * while (i < n) {  // 处理剩余
- *     body; i++;
- * }
+ * <p>
+ * 不需要知道循环次数，把 头部 + 循环体 复制 N-1 份串在原循环体之后，每份都重新检查循环条件：
+ * <pre>
+ * 原始:                      展开 2x 后:
+ * H:  i = phi [i0, P], [i1, B]   H:  i = phi [i0, P], [i1', B2]
+ *     br i < n, B, E                 br i < n, B, E
+ * B:  body(i); i1 = i + 1        B:  body(i); i1 = i + 1
+ *     br H                           br H2
+ *                                H2: br i1 < n, B2, E
+ *                                B2: body(i1); i1' = i1 + 1
+ *                                    br H
+ * </pre>
+ * 每份中头部 phi 的值就是上一份回边上的值，跨迭代的值不再经过 phi 的复制，
+ * 之后的 BlockMerge 把 Bk 和 H(k+1) 合并，省去中间的跳转。
+ * 头部定义的值在循环外被使用时，在出口块插入 phi 汇合各份的值；出口块有 phi 时各份头部经过单独的块跳到出口块。
+ * <p>
+ * 只处理 头部 + 单个循环体块 的循环 (内层 for/while 在前面的遍之后的形状)。
  */
-public class PartialLoopUnroll {
-    
-    private static final int UNROLL_FACTOR = 4; // 展开因子 (增加)
-    private static final int MAX_BODY_INSTRUCTIONS = 30; // 最大循环体指令数 (增加)
-    
-    public void run(IrModule module) {
-        for (IrFunction func : module.getFunctions()) {
-            runOnFunction(func);
+public class PartialLoopUnroll implements FunctionPass {
+
+    // 展开因子由优化级别决定 (-O3 为 4，-O2 为 2)，不大于 1 时不展开
+    private final int unrollFactor = OptimizationLevel.current().getUnrollFactor();
+    private static final int MAX_LOOP_INSTRUCTIONS = 30; // 头部和循环体合计的最大指令数
+
+    @Override
+    public boolean runOnFunction(IrFunction func) {
+        if (unrollFactor <= 1) {
+            return false;
+        }
+        boolean changed = false;
+        for (IrBasicBlock header : new ArrayList<>(func.getBasicBlocks())) {
+            AnalysisManager.current().ensureCfg(func);
+            LoopInfo loop = analyzeLoop(header);
+            if (loop != null) {
+                unroll(func, loop);
+                changed = true;
+            }
         }
+        return changed;
+    }
+
+    private static class LoopInfo {
+        IrBasicBlock header;
+        IrBasicBlock body;
+        IrBasicBlock exit;
+        boolean bodyOnTrue;
+        List<PhiInstr> phis = new ArrayList<>();
+        // 在循环外 (出口块的 phi 之外) 被使用的头部值
+        List<Instruction> escaping = new ArrayList<>();
     }
-    
-    private void runOnFunction(IrFunction func) {
-        // 找到简单循环并尝试部分展开
-        List<IrBasicBlock> blocks = new ArrayList<>(func.getBasicBlocks());
-        for (IrBasicBlock bb : blocks) {
-            if (isLoopHeader(bb)) {
-                LoopInfo loop = analyzeLoop(bb);
-                if (loop != null && canPartialUnroll(loop)) {
-                    doPartialUnroll(loop);
+
+    private LoopInfo analyzeLoop(IrBasicBlock header) {
+        if (!(header.getTerminator() instanceof BranchInstr br) || br.getCond() == null) return null;
+
+        LoopInfo info = new LoopInfo();
+        info.header = header;
+        if (jumpsTo(br.getTrueBlock(), header)) {
+            info.body = br.getTrueBlock();
+            info.exit = br.getFalseBlock();
+            info.bodyOnTrue = true;
+        } else if (jumpsTo(br.getFalseBlock(), header)) {
+            info.body = br.getFalseBlock();
+            info.exit = br.getTrueBlock();
+        } else {
+            return null;
+        }
+        IrBasicBlock body = info.body;
+        if (body == header || info.exit == header || info.exit == body) return null;
+        if (body.getPredecessors().size() != 1) return null;
+        if (header.getInstructions().size() + body.getInstructions().size() > MAX_LOOP_INSTRUCTIONS) return null;
+
+        for (Instruction inst : header.getInstructions()) {
+            if (inst instanceof PhiInstr phi) {
+                if (phi.getIncomingBlocks().indexOf(body) != phi.getIncomingBlocks().lastIndexOf(body)
+                        || !phi.getIncomingBlocks().contains(body)) return null;
+                info.phis.add(phi);
+            } else if (inst != br && !canCopy(inst)) {
+                return null;
+            }
+        }
+        if (info.phis.isEmpty()) return null;
+        for (Instruction inst : body.getInstructions()) {
+            if (inst instanceof PhiInstr || (inst != body.getTerminator() && !canCopy(inst))) return null;
+        }
+
+        // 循环体的值只能在循环内使用；头部的值在出口块的 phi 中使用时只能来自头部这条边，
+        // 其他地方使用时需要在出口块插入 phi，要求出口块只有头部一个前驱
+        for (Instruction inst : body.getInstructions()) {
+            for (IrUse use : inst.getUseList()) {
+                IrBasicBlock parent = ((Instruction) use.GetUser()).getParent();
+                if (parent != header && parent != body) return null;
+            }
+        }
+        for (Instruction inst : header.getInstructions()) {
+            boolean escapes = false;
+            for (IrUse use : inst.getUseList()) {
+                Instruction user = (Instruction) use.GetUser();
+                IrBasicBlock parent = user.getParent();
+                if (parent == header || parent == body) continue;
+                if (user instanceof PhiInstr phi && parent == info.exit) {
+                    for (int k = 0; k < phi.getNumOperands(); k++) {
+                        if (phi.getOperand(k) == inst && phi.getIncomingBlocks().get(k) != header) return null;
+                    }
+                    continue;
                 }
+                escapes = true;
+            }
+            if (escapes) {
+                if (info.exit.getPredecessors().size() != 1) return null;
+                info.escaping.add(inst);
             }
         }
+        return info;
     }
-    
-    /**
-     * 执行部分循环展开
-     * 将循环体复制一次，使每次迭代执行原来2次的工作
-     */
-    private void doPartialUnroll(LoopInfo loop) {
+
+    private static boolean jumpsTo(IrBasicBlock block, IrBasicBlock target) {
+        return block.getTerminator() instanceof JumpInstr jump && jump.getTargetBlock() == target;
+    }
+
+    private void unroll(IrFunction func, LoopInfo loop) {
+        IrBasicBlock header = loop.header;
         IrBasicBlock body = loop.body;
-        
-        // 获取第一个归纳变量
-        if (loop.inductionVars.isEmpty()) return;
-        InductionVar iv = loop.inductionVars.get(0);
-        
-        // 收集需要复制的指令（不包括跳转和phi）
-        List<Instruction> bodyInsts = new ArrayList<>();
-        for (Instruction inst : body.getInstructions()) {
-            if (inst instanceof JumpInstr || inst instanceof BranchInstr) continue;
-            if (inst instanceof PhiInstr) continue;
-            bodyInsts.add(inst);
+        IrBasicBlock exit = loop.exit;
+        BranchInstr br = (BranchInstr) header.getTerminator();
+
+        // 回边上的原值，全部复制完之后再改成最后一份中的值
+        Map<PhiInstr, IrValue> latchValues = new HashMap<>();
+        for (PhiInstr phi : loop.phis) {
+            latchValues.put(phi, phi.getIncomingValues().get(phi.getIncomingBlocks().indexOf(body)));
         }
-        
-        if (bodyInsts.isEmpty()) return;
-        
-        // 创建值映射：旧值 -> 第二次迭代的新值
-        HashMap<IrValue, IrValue> valueMap = new HashMap<>();
-        
-        // 找到归纳变量的更新指令（i = i + step）
-        AluInst ivUpdate = iv.updateInstr;
-        
-        // 在归纳变量更新后，用更新后的值作为第二次迭代的起始值
-        valueMap.put(iv.phi, ivUpdate);
-        
-        // 计算要插入的位置：在跳转指令之前
-        Instruction terminator = body.getTerminator();
-        int insertIdx = body.getInstructions().indexOf(terminator);
-        
-        // 复制所有非控制流指令
-        for (Instruction inst : bodyInsts) {
-            Instruction newInst = copyInstruction(inst, valueMap);
-            if (newInst != null) {
-                // 设置父基本块 
-                newInst.setParentBasicBlock(body);
-                // 在terminator之前插入
-                body.getInstructions().add(insertIdx, newInst);
-                insertIdx++;
-                // 更新映射
-                valueMap.put(inst, newInst);
+        // 需要替换成出口 phi 的外部使用者，在复制之前收集
+        Map<Instruction, List<Instruction>> externalUsers = new HashMap<>();
+        for (Instruction inst : loop.escaping) {
+            List<Instruction> users = new ArrayList<>();
+            for (IrUse use : inst.getUseList()) {
+                Instruction user = (Instruction) use.GetUser();
+                IrBasicBlock parent = user.getParent();
+                if (parent != header && parent != body && !(user instanceof PhiInstr && parent == exit)) {
+                    users.add(user);
+                }
             }
+            externalUsers.put(inst, users);
         }
-        
-        // 更新归纳变量的第二次增量
-        // 需要在 phi 的回边值中使用第二次迭代的更新值
-        if (valueMap.containsKey(ivUpdate)) {
-            // Phi 节点需要使用第二次迭代后的 iv 值
-            Instruction secondUpdate = (Instruction) valueMap.get(ivUpdate);
-            
-            // 找到 phi 中来自 body 的值，替换为第二次更新后的值
-            for (int i = 0; i < iv.phi.getIncomingBlocks().size(); i++) {
-                if (iv.phi.getIncomingBlocks().get(i) == body) {
-                    iv.phi.getIncomingValues().set(i, secondUpdate);
-                    break;
+
+        List<IrBasicBlock> newBlocks = new ArrayList<>();
+        List<IrBasicBlock> landingBlocks = new ArrayList<>();
+        List<IrBasicBlock> exitingBlocks = new ArrayList<>();
+        // 出口块有 phi 时，每个头部经过单独的落脚块跳到出口块：后端在条件跳转之前就写入目标块 phi 的值，
+        // 关键边上的 phi 复制会覆盖另一条路径还要用的寄存器
+        boolean split = !loop.escaping.isEmpty() || exit.getInstructions().first() instanceof PhiInstr;
+        IrBasicBlock headerExiting = header;
+        if (split) {
+            headerExiting = newLanding(func, exit, landingBlocks);
+            if (loop.bodyOnTrue) {
+                br.setFalseBlock(headerExiting);
+            } else {
+                br.setTrueBlock(headerExiting);
+            }
+            for (Instruction inst : exit.getInstructions()) {
+                if (!(inst instanceof PhiInstr phi)) break;
+                Collections.replaceAll(phi.getIncomingBlocks(), header, headerExiting);
+            }
+        }
+
+        List<Map<IrValue, IrValue>> maps = new ArrayList<>();
+        Map<IrValue, IrValue> prev = new HashMap<>();
+        IrBasicBlock prevBody = body;
+
+        for (int copy = 1; copy < unrollFactor; copy++) {
+            Map<IrValue, IrValue> map = new HashMap<>();
+            for (PhiInstr phi : loop.phis) {
+                IrValue latch = latchValues.get(phi);
+                map.put(phi, prev.getOrDefault(latch, latch));
+            }
+
+            IrBasicBlock newHeader = new IrBasicBlock(ValueType.BASIC_BLOCK, IrType.BASICBLOCK, null, func);
+            IrBasicBlock newBody = new IrBasicBlock(ValueType.BASIC_BLOCK, IrType.BASICBLOCK, null, func);
+            for (Instruction inst : header.getInstructions()) {
+                if (inst instanceof PhiInstr || inst == br) continue;
+                Instruction newInst = copyInstruction(inst, map);
+                newHeader.addInstruction(newInst);
+                map.put(inst, newInst);
+            }
+            IrValue cond = map.getOrDefault(br.getCond(), br.getCond());
+            IrBasicBlock copyExit = split ? newLanding(func, exit, landingBlocks) : exit;
+            newHeader.addInstruction(loop.bodyOnTrue
+                    ? new BranchInstr(cond, newBody, copyExit)
+                    : new BranchInstr(cond, copyExit, newBody));
+            for (Instruction inst : body.getInstructions()) {
+                if (inst == body.getTerminator()) continue;
+                Instruction newInst = copyInstruction(inst, map);
+                newBody.addInstruction(newInst);
+                map.put(inst, newInst);
+            }
+
+            ((JumpInstr) prevBody.getTerminator()).setTargetBlock(newHeader);
+            new JumpInstr(header, newBody);
+
+            newBlocks.add(newHeader);
+            newBlocks.add(newBody);
+            exitingBlocks.add(copyExit == exit ? newHeader : copyExit);
+            maps.add(map);
+            prev = map;
+            prevBody = newBody;
+        }
+
+        // 回边改为来自最后一份循环体
+        for (PhiInstr phi : loop.phis) {
+            int idx = phi.getIncomingBlocks().indexOf(body);
+            IrValue latch = latchValues.get(phi);
+            phi.getIncomingBlocks().set(idx, prevBody);
+            phi.setIncomingValue(idx, prev.getOrDefault(latch, latch));
+        }
+
+        // 出口块原有的 phi 为每份新的头部补上 incoming
+        for (Instruction inst : exit.getInstructions()) {
+            if (!(inst instanceof PhiInstr phi)) continue;
+            int count = phi.getNumOperands();
+            for (int k = 0; k < count; k++) {
+                if (phi.getIncomingBlocks().get(k) != headerExiting) continue;
+                IrValue value = phi.getOperand(k);
+                for (int c = 0; c < exitingBlocks.size(); c++) {
+                    phi.addIncoming(maps.get(c).getOrDefault(value, value), exitingBlocks.get(c));
                 }
             }
         }
+
+        // 在循环外使用的头部值，在出口块用 phi 汇合各份的值
+        for (Instruction inst : loop.escaping) {
+            PhiInstr phi = new PhiInstr(inst.irType, exit);
+            phi.addIncoming(inst, headerExiting);
+            for (int c = 0; c < exitingBlocks.size(); c++) {
+                phi.addIncoming(maps.get(c).get(inst), exitingBlocks.get(c));
+            }
+            exit.addInstructionFirst(phi);
+            for (Instruction user : externalUsers.get(inst)) {
+                user.replaceUse(inst, phi);
+            }
+        }
+
+        newBlocks.addAll(landingBlocks);
+        func.getBasicBlocks().addAll(func.getBasicBlocks().indexOf(body) + 1, newBlocks);
+    }
+
+    private static IrBasicBlock newLanding(IrFunction func, IrBasicBlock exit, List<IrBasicBlock> landingBlocks) {
+        IrBasicBlock landing = new IrBasicBlock(ValueType.BASIC_BLOCK, IrType.BASICBLOCK, null, func);
+        new JumpInstr(exit, landing);
+        landingBlocks.add(landing);
+        return landing;
+    }
+
+    private static boolean canCopy(Instruction inst) {
+        return inst instanceof AluInst || inst instanceof CmpInstr || inst instanceof LoadInstr
+                || inst instanceof StoreInstr || inst instanceof GepInstr || inst instanceof CallInstr
+                || inst instanceof ZextInstr || inst instanceof TruncInstr
+                || inst instanceof PrintIntInstr || inst instanceof PrintStrInstr;
     }
-    
+
     /**
-     * 复制指令
+     * 复制指令，canCopy 为 true 的指令都能复制
      */
-    private Instruction copyInstruction(Instruction inst, HashMap<IrValue, IrValue> map) {
+    private Instruction copyInstruction(Instruction inst, Map<IrValue, IrValue> map) {
         if (inst instanceof AluInst) {
             AluInst i = (AluInst) inst;
-            return new AluInst(i.getOpDire(),
+            return new AluInst(i.getOp(),
+                    map.getOrDefault(i.getLeft(), i.getLeft()),
+                    map.getOrDefault(i.getRight(), i.getRight()));
+        } else if (inst instanceof CmpInstr) {
+            CmpInstr i = (CmpInstr) inst;
+            return new CmpInstr(i.getOp(),
                     map.getOrDefault(i.getLeft(), i.getLeft()),
                     map.getOrDefault(i.getRight(), i.getRight()));
         } else if (inst instanceof LoadInstr) {
@@ -142,13 +299,10 @@ public class PartialLoopUnroll {
             return new GepInstr(map.getOrDefault(i.getPtr(), i.getPtr()),
                     map.getOrDefault(i.getIndice(), i.getIndice()));
         } else if (inst instanceof CallInstr) {
-            // 不复制函数调用 - 太复杂
-            return null;
-        } else if (inst instanceof CmpInstr) {
-            CmpInstr i = (CmpInstr) inst;
-            return new CmpInstr(i.getOp(),
-                    map.getOrDefault(i.getLeft(), i.getLeft()),
-                    map.getOrDefault(i.getRight(), i.getRight()));
+            CallInstr i = (CallInstr) inst;
+            ArrayList<IrValue> newArgs = new ArrayList<>();
+            for (IrValue arg : i.getParameters()) newArgs.add(map.getOrDefault(arg, arg));
+            return new CallInstr(i.getTargetFunction(), newArgs);
         } else if (inst instanceof ZextInstr) {
             ZextInstr i = (ZextInstr) inst;
             return new ZextInstr(map.getOrDefault(i.getOperand(0), i.getOperand(0)),
@@ -156,161 +310,13 @@ public class PartialLoopUnroll {
         } else if (inst instanceof TruncInstr) {
             TruncInstr i = (TruncInstr) inst;
             return new TruncInstr(map.getOrDefault(i.getOperand(0), i.getOperand(0)),
-                    i.irType);
+                    i.getTargetType());
         } else if (inst instanceof PrintIntInstr) {
             PrintIntInstr i = (PrintIntInstr) inst;
             return new PrintIntInstr(map.getOrDefault(i.getPrintValue(), i.getPrintValue()));
-        }
-        return null;
-    }
-    
-    private boolean isLoopHeader(IrBasicBlock bb) {
-        // 如果有 phi 节点且有回边，则可能是循环头
-        for (Instruction instr : bb.getInstructions()) {
-            if (instr instanceof PhiInstr) {
-                return true;
-            }
-        }
-        return false;
-    }
-    
-    private LoopInfo analyzeLoop(IrBasicBlock header) {
-        Instruction term = header.getTerminator();
-        if (!(term instanceof BranchInstr)) return null;
-        
-        BranchInstr br = (BranchInstr) term;
-        if (br.getCond() == null) return null;
-        
-        IrBasicBlock body = br.getTrueBlock();
-        IrBasicBlock exit = br.getFalseBlock();
-        
-        // 检查循环体是否跳回头部
-        Instruction bodyTerm = body.getTerminator();
-        boolean hasBackEdge = false;
-        if (bodyTerm instanceof JumpInstr) {
-            hasBackEdge = ((JumpInstr) bodyTerm).getTargetBlock() == header;
-        } else if (bodyTerm instanceof BranchInstr) {
-            BranchInstr bodyBr = (BranchInstr) bodyTerm;
-            hasBackEdge = bodyBr.getTrueBlock() == header || bodyBr.getFalseBlock() == header;
-        }
-        
-        if (!hasBackEdge) return null;
-        
-        LoopInfo info = new LoopInfo();
-        info.header = header;
-        info.body = body;
-        info.exit = exit;
-        info.bodyInstrCount = countInstructions(body);
-        
-        // 查找归纳变量
-        for (Instruction instr : header.getInstructions()) {
-            if (instr instanceof PhiInstr) {
-                PhiInstr phi = (PhiInstr) instr;
-                InductionVar iv = analyzeInductionVar(phi, body);
-                if (iv != null) {
-                    info.inductionVars.add(iv);
-                }
-            }
-        }
-        
-        return info;
-    }
-    
-    private int countInstructions(IrBasicBlock bb) {
-        return bb.getInstructions().size();
-    }
-    
-    private InductionVar analyzeInductionVar(PhiInstr phi, IrBasicBlock body) {
-        if (phi.getIncomingBlocks().size() != 2) return null;
-        
-        int bodyIdx = -1;
-        for (int i = 0; i < phi.getIncomingBlocks().size(); i++) {
-            if (phi.getIncomingBlocks().get(i) == body) {
-                bodyIdx = i;
-                break;
-            }
-        }
-        if (bodyIdx == -1) return null;
-        
-        IrValue updateVal = phi.getIncomingValues().get(bodyIdx);
-        if (!(updateVal instanceof AluInst)) return null;
-        
-        AluInst alu = (AluInst) updateVal;
-        if (!alu.getOp().equals("ADD")) return null;
-        
-        // 检查是 phi + const
-        if (alu.getLeft() == phi && alu.getRight() instanceof IrConstInt) {
-            int step = ((IrConstInt) alu.getRight()).getValue();
-            return new InductionVar(phi, step, alu);
-        }
-        if (alu.getRight() == phi && alu.getLeft() instanceof IrConstInt) {
-            int step = ((IrConstInt) alu.getLeft()).getValue();
-            return new InductionVar(phi, step, alu);
-        }
-        
-        return null;
-    }
-    
-    private boolean canPartialUnroll(LoopInfo loop) {
-        // 条件：循环体足够小，且有归纳变量
-        if (loop.bodyInstrCount > MAX_BODY_INSTRUCTIONS) return false;
-        if (loop.inductionVars.isEmpty()) return false;
-        
-        // 获取归纳变量 phi
-        PhiInstr ivPhi = loop.inductionVars.get(0).phi;
-        
-        // 检查循环体中是否有不能安全复制的指令
-        for (Instruction inst : loop.body.getInstructions()) {
-            // printf 不能复制 - 会导致输出重复
-            if (inst instanceof PrintIntInstr) return false;
-            if (inst instanceof PrintStrInstr) return false;
-            // 函数调用不能复制 - 可能有副作用
-            if (inst instanceof CallInstr) return false;
-            // Store 到依赖于归纳变量的地址不能复制
-            if (inst instanceof StoreInstr) {
-                StoreInstr store = (StoreInstr) inst;
-                // 如果 Store 的地址依赖于归纳变量，跳过
-                if (dependsOnValue(store.getPtr(), ivPhi)) return false;
-            }
-        }
-        
-        return true;
-    }
-    
-    /**
-     * 检查 value 是否直接或间接依赖于 target
-     */
-    private boolean dependsOnValue(IrValue value, IrValue target) {
-        if (value == target) return true;
-        if (value instanceof GepInstr) {
-            GepInstr gep = (GepInstr) value;
-            return dependsOnValue(gep.getIndice(), target);
-        }
-        if (value instanceof AluInst) {
-            AluInst alu = (AluInst) value;
-            return dependsOnValue(alu.getLeft(), target) || 
-                   dependsOnValue(alu.getRight(), target);
-        }
-        return false;
-    }
-    
-    private static class LoopInfo {
-        IrBasicBlock header;
-        IrBasicBlock body;
-        IrBasicBlock exit;
-        int bodyInstrCount;
-        List<InductionVar> inductionVars = new ArrayList<>();
-    }
-    
-    private static class InductionVar {
-        PhiInstr phi;
-        int step;
-        AluInst updateInstr;
-        
-        InductionVar(PhiInstr phi, int step, AluInst update) {
-            this.phi = phi;
-            this.step = step;
-            this.updateInstr = update;
+        } else {
+            PrintStrInstr i = (PrintStrInstr) inst;
+            return new PrintStrInstr((IrConstString) i.getPrintValue());
         }
     }
 }
@@ -0,0 +1,311 @@
+package midend.Optimization;
+
+import midend.LLVM.IrModule;
+import midend.LLVM.value.IrBasicBlock;
+import midend.LLVM.value.IrFunction;
+import midend.CompilationContext;
+import midend.PassStatistics;
+import midend.SSA.DeadCodeElimination;
+import midend.SSA.Mem2Reg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * 按流水线描述运行中端优化遍。描述是逗号分隔的遍名，fix(a,b,...) 表示一组逐函数的遍，
+ * 对每个函数反复运行整组直到这一轮没有遍改变它 (最多 MAX_FIXED_POINT_ROUNDS 轮)。
+ * <p>
+ * 每个函数有一个版本号，遍报告改变了它时加一。逐函数的遍记下上次运行后函数的版本，
+ * 版本没变时再运行不会有任何效果，直接跳过。同名的遍共用一个实例。
+ */
+public class PassManager {
+    public static final String DEFAULT_PIPELINE = String.join(",",
+            // 早期常量函数求值、内联与合并
+            "const-eval", "inline", "block-merge",
+            // 第一轮 Mem2Reg 与清理，常量函数求值必须在 Mem2Reg 之后
+            "mem2reg", "dce", "const-eval",
+            // 常量传播和 GVN，再次求值处理 fib(fib(5)+2) 这样的情况
+            "gvn", "const-prop", "const-eval", "const-prop",
+            // 循环展开，在 SROA 之前清理不可达块
+            "loop-unroll", "remove-unreachable", "dce",
+            "sroa", "mem2reg", "copy-coalesce",
+            "gvn", "licm", "gcm",
+            // 额外一轮优化以发现更多机会，逐函数迭代到不动点
+            "fix(const-prop,gvn,copy-coalesce,dce)",
+            // 循环强度削减和部分循环展开 (展开因子由优化级别决定)
+            "lsr", "partial-unroll", "const-prop",
+            // 最终清理，删除不再被调用的函数
+            "dce", "remove-unreachable", "block-merge", "dead-func");
+
+    // -O1 使用的便宜流水线；超出编译时间预算后，默认流水线中也只继续运行这里出现的遍
+    public static final String FAST_PIPELINE = String.join(",",
+            "block-merge", "mem2reg", "dce", "const-prop", "remove-unreachable",
+            "copy-coalesce", "dce", "block-merge", "dead-func");
+
+    private static final Set<String> BUDGET_PASSES = new HashSet<>(Arrays.asList(FAST_PIPELINE.split(",")));
+
+    private static final int MAX_FIXED_POINT_ROUNDS = 8;
+
+    private static final Map<String, Supplier<OptimizationPass>> REGISTRY = new LinkedHashMap<>();
+
+    static {
+        REGISTRY.put("const-eval", ConstFunctionEval::new);
+        REGISTRY.put("inline", FunctionInlining::new);
+        REGISTRY.put("block-merge", BlockMerge::new);
+        REGISTRY.put("mem2reg", Mem2Reg::new);
+        REGISTRY.put("dce", DeadCodeElimination::new);
+        REGISTRY.put("gvn", GlobalValueNumbering::new);
+        REGISTRY.put("const-prop", SimpleConstProp::new);
+        REGISTRY.put("loop-unroll", SimpleLoopUnroll::new);
+        REGISTRY.put("remove-unreachable", RemoveUnreachableBlocks::new);
+        REGISTRY.put("sroa", SROA::new);
+        REGISTRY.put("copy-coalesce", CopyCoalescing::new);
+        REGISTRY.put("licm", LICM::new);
+        REGISTRY.put("gcm", GlobalCodeMotion::new);
+        REGISTRY.put("lsr", LoopStrengthReduction::new);
+        REGISTRY.put("partial-unroll", PartialLoopUnroll::new);
+        REGISTRY.put("dead-func", DeadFunctionElimination::new);
+    }
+
+    // 流水线的一步：单个遍，或者迭代到不动点的一组逐函数遍
+    private static final class Step {
+        private final List<String> passes;
+        private final boolean fixedPoint;
+
+        private Step(List<String> passes, boolean fixedPoint) {
+            this.passes = passes;
+            this.fixedPoint = fixedPoint;
+        }
+    }
+
+    private final List<Step> pipeline;
+    private final AnalysisManager analyses;
+    private final CompilationContext context;
+    // --time-passes 时按遍统计开销，否则为 null
+    private final PassStatistics stats;
+    private final Map<String, OptimizationPass> instances = new HashMap<>();
+
+    private final Map<IrFunction, Integer> versions = new HashMap<>();
+    // 遍名 -> (函数 -> 该遍上次运行后函数的版本)
+    private final Map<String, Map<IrFunction, Integer>> lastRun = new HashMap<>();
+
+    private int functionRuns = 0;
+    private int skippedRuns = 0;
+    // 超出编译时间预算而跳过的步骤数
+    private int budgetSkippedSteps = 0;
+
+    public PassManager(String pipeline, AnalysisManager analyses) {
+        this.pipeline = parse(pipeline);
+        this.analyses = analyses;
+        this.context = CompilationContext.current();
+        this.stats = context.getPassStatistics();
+    }
+
+    /**
+     * 检查流水线描述，遍名不存在或写法错误时抛出 IllegalArgumentException
+     */
+    public static void validate(String pipeline) {
+        parse(pipeline);
+    }
+
+    private static List<Step> parse(String pipeline) {
+        List<Step> steps = new ArrayList<>();
+        String spec = pipeline.replaceAll("\\s+", "");
+        int i = 0;
+        while (i < spec.length()) {
+            if (spec.startsWith("fix(", i)) {
+                int close = spec.indexOf(')', i);
+                if (close < 0) {
+                    throw new IllegalArgumentException("unclosed fix( in pipeline: " + pipeline);
+                }
+                List<String> group = new ArrayList<>();
+                for (String name : spec.substring(i + 4, close).split(",")) {
+                    if (!(create(name) instanceof FunctionPass)) {
+                        throw new IllegalArgumentException("fix() only accepts per-function passes: " + name);
+                    }
+                    group.add(name);
+                }
+                steps.add(new Step(group, true));
+                i = close + 1;
+            } else {
+                int comma = spec.indexOf(',', i);
+                int end = comma < 0 ? spec.length() : comma;
+                String name = spec.substring(i, end);
+                create(name);
+                steps.add(new Step(List.of(name), false));
+                i = end;
+            }
+            if (i < spec.length()) {
+                if (spec.charAt(i) != ',') {
+                    throw new IllegalArgumentException("expected ',' at " + i + " in pipeline: " + pipeline);
+                }
+                i++;
+            }
+        }
+        return steps;
+    }
+
+    private static OptimizationPass create(String name) {
+        Supplier<OptimizationPass> supplier = REGISTRY.get(name);
+        if (supplier == null) {
+            throw new IllegalArgumentException("unknown pass '" + name + "', available: "
+                    + String.join(",", REGISTRY.keySet()));
+        }
+        return supplier.get();
+    }
+
+    public void run(IrModule module) {
+        for (Step step : pipeline) {
+            if (context.isOverBudget() && !step.fixedPoint && !BUDGET_PASSES.contains(step.passes.get(0))) {
+                budgetSkippedSteps++;
+                context.markBudgetCut();
+                continue;
+            }
+            if (step.fixedPoint) {
+                runFixedPoint(step.passes, module);
+            } else {
+                runPass(step.passes.get(0), module);
+            }
+        }
+    }
+
+    private void runPass(String name, IrModule module) {
+        OptimizationPass pass = instance(name);
+        PassStatistics.Span span = stats == null ? null
+                : stats.begin("midend", name, countInstructions(module), countBlocks(module));
+        int calls = 1;
+        int runsBefore = functionRuns;
+        int skippedBefore = skippedRuns;
+        int changedCount = 0;
+        if (pass instanceof FunctionPass) {
+            for (IrFunction func : new ArrayList<>(module.getFunctions())) {
+                // 各函数互不影响，超出预算时剩下的函数可以直接不做
+                if (context.isOverBudget() && !BUDGET_PASSES.contains(name)) {
+                    context.markBudgetCut();
+                    break;
+                }
+                if (!func.getBasicBlocks().isEmpty() && runOnFunction(name, (FunctionPass) pass, func)) {
+                    changedCount++;
+                }
+            }
+            calls = functionRuns - runsBefore;
+        } else {
+            Collection<IrFunction> changed = analyses.run(pass, module);
+            for (IrFunction func : changed) {
+                bump(func);
+            }
+            changedCount = changed.size();
+        }
+        if (span != null) {
+            stats.end(span, countInstructions(module), countBlocks(module),
+                    calls, skippedRuns - skippedBefore, changedCount);
+        }
+    }
+
+    private void runFixedPoint(List<String> names, IrModule module) {
+        for (IrFunction func : new ArrayList<>(module.getFunctions())) {
+            if (func.getBasicBlocks().isEmpty()) {
+                continue;
+            }
+            for (int round = 0; round < MAX_FIXED_POINT_ROUNDS; round++) {
+                boolean changed = false;
+                for (String name : names) {
+                    if (context.isOverBudget() && !BUDGET_PASSES.contains(name)) {
+                        context.markBudgetCut();
+                        continue;
+                    }
+                    if (runInGroup(name, func)) {
+                        changed = true;
+                    }
+                }
+                if (!changed) {
+                    break;
+                }
+            }
+        }
+    }
+
+    // 不动点组中的一次运行，统计时按函数测量，记在 "fix:遍名" 一行
+    private boolean runInGroup(String name, IrFunction func) {
+        FunctionPass pass = (FunctionPass) instance(name);
+        if (stats == null) {
+            return runOnFunction(name, pass, func);
+        }
+        PassStatistics.Span span = stats.begin("midend", "fix:" + name,
+                countInstructions(func), func.getBasicBlocks().size());
+        int runsBefore = functionRuns;
+        boolean changed = runOnFunction(name, pass, func);
+        int ran = functionRuns - runsBefore;
+        stats.end(span, countInstructions(func), func.getBasicBlocks().size(), ran, 1 - ran, changed ? 1 : 0);
+        return changed;
+    }
+
+    private boolean runOnFunction(String name, FunctionPass pass, IrFunction func) {
+        Map<IrFunction, Integer> seen = lastRun.computeIfAbsent(name, k -> new HashMap<>());
+        int version = versions.getOrDefault(func, 0);
+        Integer last = seen.get(func);
+        if (pass.canSkipUnchanged() && last != null && last == version) {
+            skippedRuns++;
+            return false;
+        }
+        functionRuns++;
+        boolean changed = analyses.run(pass, func);
+        if (changed) {
+            version = bump(func);
+        }
+        seen.put(func, version);
+        return changed;
+    }
+
+    private int bump(IrFunction func) {
+        return versions.merge(func, 1, Integer::sum);
+    }
+
+    private static int countInstructions(IrModule module) {
+        int count = 0;
+        for (IrFunction func : module.getFunctions()) {
+            count += countInstructions(func);
+        }
+        return count;
+    }
+
+    private static int countInstructions(IrFunction func) {
+        int count = 0;
+        for (IrBasicBlock bb : func.getBasicBlocks()) {
+            count += bb.getInstructions().size();
+        }
+        return count;
+    }
+
+    private static int countBlocks(IrModule module) {
+        int count = 0;
+        for (IrFunction func : module.getFunctions()) {
+            count += func.getBasicBlocks().size();
+        }
+        return count;
+    }
+
+    private OptimizationPass instance(String name) {
+        return instances.computeIfAbsent(name, PassManager::create);
+    }
+
+    public int getFunctionRuns() {
+        return functionRuns;
+    }
+
+    public int getSkippedRuns() {
+        return skippedRuns;
+    }
+
+    public int getBudgetSkippedSteps() {
+        return budgetSkippedSteps;
+    }
+}
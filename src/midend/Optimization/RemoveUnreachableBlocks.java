@@ -3,22 +3,14 @@ package midend.Optimization;
 import midend.LLVM.Instruction.BranchInstr;
 import midend.LLVM.Instruction.Instruction;
 import midend.LLVM.Instruction.JumpInstr;
-import midend.LLVM.IrModule;
 import midend.LLVM.value.IrBasicBlock;
 import midend.LLVM.value.IrFunction;
 
 import java.util.*;
 
-public class RemoveUnreachableBlocks {
-    public void run(IrModule module) {
-        for (IrFunction func : module.getFunctions()) {
-            if (!func.getBasicBlocks().isEmpty()) {
-                runOnFunction(func);
-            }
-        }
-    }
-
-    private void runOnFunction(IrFunction func) {
+public class RemoveUnreachableBlocks implements FunctionPass {
+    @Override
+    public boolean runOnFunction(IrFunction func) {
         // 1. BFS 标记所有从 Entry 可达的块
         Set<IrBasicBlock> reachable = new HashSet<>();
         Queue<IrBasicBlock> q = new LinkedList<>();
@@ -40,6 +32,7 @@ public class RemoveUnreachableBlocks {
         }
 
         // 2. 移除不可达块
+        boolean changed = false;
         ArrayList<IrBasicBlock> blocks = func.getBasicBlocks();
         for (int i = blocks.size() - 1; i >= 0; i--) {
             IrBasicBlock bb = blocks.get(i);
@@ -48,10 +41,15 @@ public class RemoveUnreachableBlocks {
                 for (IrBasicBlock succ : getSuccessors(bb)) {
                     succ.removePredecessor(bb);
                 }
-                // 物理删除
+                // 物理删除，块内指令不再是任何值的使用者
+                for (Instruction instr : bb.getInstructions()) {
+                    instr.dropOperandUses();
+                }
                 blocks.remove(i);
+                changed = true;
             }
         }
+        return changed;
     }
 
     private ArrayList<IrBasicBlock> getSuccessors(IrBasicBlock bb) {
@@ -2,7 +2,6 @@ package midend.Optimization;
 
 import midend.LLVM.Const.IrConstInt;
 import midend.LLVM.Instruction.*;
-import midend.LLVM.IrModule;
 import midend.LLVM.Type.IrType;
 import midend.LLVM.use.IrUse;
 import midend.LLVM.use.IrUser;
@@ -11,20 +10,26 @@ import midend.LLVM.value.IrFunction;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
-public class SROA {
+public class SROA implements FunctionPass {
 
-    public void run(IrModule module) {
-        for (IrFunction func : module.getFunctions()) {
-            if (func.getBasicBlocks().isEmpty()) continue;
-            boolean changed = true;
-            while (changed) {
-                changed = runOnFunction(func);
-            }
+    @Override
+    public Set<AnalysisManager.Analysis> preserves() {
+        // 只拆分 alloca 和改写访存，CFG 不变
+        return AnalysisManager.ALL;
+    }
+
+    @Override
+    public boolean runOnFunction(IrFunction func) {
+        boolean everChanged = false;
+        while (splitArrays(func)) {
+            everChanged = true;
         }
+        return everChanged;
     }
 
-    private boolean runOnFunction(IrFunction func) {
+    private boolean splitArrays(IrFunction func) {
         boolean changed = false;
         // 收集所有 Alloca 指令
         List<AllocateInstruction> candidates = new ArrayList<>();
@@ -53,7 +58,7 @@ public class SROA {
     // 检查是否可以进行 SROA
     private boolean canSROA(AllocateInstruction alloca) {
         // 必须只被 GEP 指令使用，且 GEP 的下标必须是常数
-        for (IrUse use : alloca.useList) {
+        for (IrUse use = alloca.getFirstUse(); use != null; use = use.getNextUse()) {
             IrUser user = use.GetUser();
             if (user instanceof GepInstr) {
                 GepInstr gep = (GepInstr) user;
@@ -65,7 +70,7 @@ public class SROA {
                 // 进一步检查 GEP 的使用者
                 // GEP 的结果只能被 Load 或 Store 使用（作为地址）
                 // 如果被传参或作为 Store 的值，则说明数组地址逃逸，不能 SROA
-                for (IrUse gepUse : gep.useList) {
+                for (IrUse gepUse = gep.getFirstUse(); gepUse != null; gepUse = gepUse.getNextUse()) {
                     IrUser gepUser = gepUse.GetUser();
                     if (gepUser instanceof LoadInstr) {
                         // Load 是安全的
@@ -98,14 +103,14 @@ public class SROA {
         // 将新创建的标量 Alloca 插入到 Entry Block 的最前面
         // 让 Mem2Reg 能更容易识别并提升它们
         for (int i = 0; i < size; i++) {
-            AllocateInstruction scalar = new AllocateInstruction(alloca.irName + "_sroa_" + i, elementType);
+            AllocateInstruction scalar = new AllocateInstruction(null, elementType);
             entryBlock.addInstructionFirst(scalar);
             scalarAllocas[i] = scalar;
         }
 
         // 2. 替换所有使用
-        // 复制一份 useList，因为在遍历中会修改图结构
-        List<IrUse> uses = new ArrayList<>(alloca.useList);
+        // 复制一份使用链表，因为在遍历中会修改图结构
+        List<IrUse> uses = alloca.getUseList();
         for (IrUse use : uses) {
             GepInstr gep = (GepInstr) use.GetUser();
             int index = ((IrConstInt) gep.getIndice()).getValue();
@@ -116,7 +121,7 @@ public class SROA {
             AllocateInstruction targetScalar = scalarAllocas[index];
 
             // 替换 GEP 的使用者
-            List<IrUse> gepUses = new ArrayList<>(gep.useList);
+            List<IrUse> gepUses = gep.getUseList();
             for (IrUse gepUse : gepUses) {
                 Instruction user = (Instruction) gepUse.GetUser();
 
@@ -126,16 +131,19 @@ public class SROA {
                     insertBefore(user, newLoad);
                     user.replaceAllUsesWith(newLoad);
                     user.getParent().getInstructions().remove(user); // 移除旧 Load
+                    user.dropOperandUses();
                 } else if (user instanceof StoreInstr) {
                     // Store val, GEP -> Store val, Scalar
                     StoreInstr oldStore = (StoreInstr) user;
                     StoreInstr newStore = new StoreInstr(oldStore.getVal(), targetScalar);
                     insertBefore(user, newStore);
                     user.getParent().getInstructions().remove(user); // 移除旧 Store
+                    user.dropOperandUses();
                 }
             }
             // 移除 GEP 指令
             gep.getParent().getInstructions().remove(gep);
+            gep.dropOperandUses();
         }
 
         // 3. 移除原数组 Alloca
@@ -144,9 +152,6 @@ public class SROA {
 
     // 辅助方法：在指令 before 之前插入 newInst
     private void insertBefore(Instruction before, Instruction newInst) {
-        IrBasicBlock bb = before.getParent();
-        int index = bb.getInstructions().indexOf(before);
-        bb.getInstructions().add(index, newInst);
-        newInst.setParentBasicBlock(bb);
+        before.getParent().getInstructions().insertBefore(before, newInst);
     }
 }
\ No newline at end of file
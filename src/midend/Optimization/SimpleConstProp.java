@@ -2,8 +2,9 @@ package midend.Optimization;
 
 import midend.LLVM.Const.IrConstInt;
 import midend.LLVM.Instruction.AluInst;
+import midend.LLVM.Instruction.AluOpcode;
 import midend.LLVM.Instruction.Instruction;
-import midend.LLVM.IrModule;
+import midend.LLVM.IrBuilder;
 import midend.LLVM.value.IrBasicBlock;
 import midend.LLVM.value.IrFunction;
 import midend.LLVM.value.IrValue;
@@ -12,14 +13,16 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Set;
 
-public class SimpleConstProp {
-    public void run(IrModule module) {
-        for (IrFunction func : module.getFunctions()) {
-            runOnFunction(func);
-        }
+public class SimpleConstProp implements FunctionPass {
+    @Override
+    public Set<AnalysisManager.Analysis> preserves() {
+        // 只折叠指令，不改跳转目标，CFG 不变
+        return AnalysisManager.ALL;
     }
 
-    private void runOnFunction(IrFunction func) {
+    @Override
+    public boolean runOnFunction(IrFunction func) {
+        boolean everChanged = false;
         boolean changed = true;
         while (changed) {
             changed = false;
@@ -36,33 +39,10 @@ public class SimpleConstProp {
                         if (l instanceof IrConstInt && r instanceof IrConstInt) {
                             int lv = ((IrConstInt) l).getValue();
                             int rv = ((IrConstInt) r).getValue();
-                            int res = 0;
-                            boolean computed = true;
-
-                            switch (alu.getOp()) {
-                                case "ADD":
-                                    res = lv + rv;
-                                    break;
-                                case "SUB":
-                                    res = lv - rv;
-                                    break;
-                                case "MUL":
-                                    res = lv * rv;
-                                    break;
-                                case "SDIV":
-                                    if (rv != 0) res = lv / rv;
-                                    else computed = false;
-                                    break;
-                                case "SREM":
-                                    if (rv != 0) res = lv % rv;
-                                    else computed = false;
-                                    break;
-                                default:
-                                    computed = false;
-                            }
+                            Integer res = alu.getOp().fold(lv, rv);
 
-                            if (computed) {
-                                IrConstInt constRes = new IrConstInt(res);
+                            if (res != null) {
+                                IrConstInt constRes = IrBuilder.GetNewIrConstInt(res);
                                 alu.replaceAllUsesWith(constRes);
                                 dead.add(alu);
                                 changed = true;
@@ -75,37 +55,37 @@ public class SimpleConstProp {
                             IrValue replacement = null;
 
                             switch (alu.getOp()) {
-                                case "ADD":
+                                case ADD:
                                     if (rv == 0) {
                                         replacement = l;
                                         simplified = true;
                                     } // x + 0 -> x
                                     break;
-                                case "SUB":
+                                case SUB:
                                     if (rv == 0) {
                                         replacement = l;
                                         simplified = true;
                                     } // x - 0 -> x
                                     break;
-                                case "MUL":
+                                case MUL:
                                     if (rv == 1) {
                                         replacement = l;
                                         simplified = true;
                                     } // x * 1 -> x
                                     else if (rv == 0) {
-                                        replacement = new IrConstInt(0);
+                                        replacement = IrBuilder.GetNewIrConstInt(0);
                                         simplified = true;
                                     } // x * 0 -> 0
                                     break;
-                                case "SDIV":
+                                case SDIV:
                                     if (rv == 1) {
                                         replacement = l;
                                         simplified = true;
                                     } // x / 1 -> x
                                     break;
-                                case "SREM":
+                                case SREM:
                                     if (rv == 1 || rv == -1) {
-                                        replacement = new IrConstInt(0);
+                                        replacement = IrBuilder.GetNewIrConstInt(0);
                                         simplified = true;
                                     } // x % 1 = 0, x % -1 = 0
                                     
@@ -125,19 +105,19 @@ public class SimpleConstProp {
                             IrValue replacement = null;
 
                             switch (alu.getOp()) {
-                                case "ADD":
+                                case ADD:
                                     if (lv == 0) {
                                         replacement = r;
                                         simplified = true;
                                     } // 0 + x -> x
                                     break;
-                                case "MUL":
+                                case MUL:
                                     if (lv == 1) {
                                         replacement = r;
                                         simplified = true;
                                     } // 1 * x -> x
                                     else if (lv == 0) {
-                                        replacement = new IrConstInt(0);
+                                        replacement = IrBuilder.GetNewIrConstInt(0);
                                         simplified = true;
                                     } // 0 * x -> 0
                                     break;
@@ -150,20 +130,20 @@ public class SimpleConstProp {
                             }
                         }
                         // 代数简化：x - x -> 0
-                        else if (alu.getOp().equals("SUB") && l == r) {
-                            alu.replaceAllUsesWith(new IrConstInt(0));
+                        else if (alu.getOp() == AluOpcode.SUB && l == r) {
+                            alu.replaceAllUsesWith(IrBuilder.GetNewIrConstInt(0));
                             dead.add(alu);
                             changed = true;
                         }
                         // 代数简化：x / x -> 1 (假设 x != 0)
-                        else if (alu.getOp().equals("SDIV") && l == r) {
-                            alu.replaceAllUsesWith(new IrConstInt(1));
+                        else if (alu.getOp() == AluOpcode.SDIV && l == r) {
+                            alu.replaceAllUsesWith(IrBuilder.GetNewIrConstInt(1));
                             dead.add(alu);
                             changed = true;
                         }
                         // 代数简化：x % x -> 0 (假设 x != 0)
-                        else if (alu.getOp().equals("SREM") && l == r) {
-                            alu.replaceAllUsesWith(new IrConstInt(0));
+                        else if (alu.getOp() == AluOpcode.SREM && l == r) {
+                            alu.replaceAllUsesWith(IrBuilder.GetNewIrConstInt(0));
                             dead.add(alu);
                             changed = true;
                         }
@@ -172,9 +152,14 @@ public class SimpleConstProp {
             }
 
             // 删除死指令
+            for (Instruction instr : dead) {
+                instr.dropOperandUses();
+            }
             for (IrBasicBlock bb : func.getBasicBlocks()) {
                 bb.getInstructions().removeAll(dead);
             }
+            everChanged |= changed;
         }
+        return everChanged;
     }
 }
\ No newline at end of file
@@ -17,8 +17,15 @@ import java.util.Set;
  * 2. 消除无效的 trunc：trunc i32 %x to i32 -> %x
  * 3. 传递死代码给 DCE 处理
  */
-public class SimpleCopyProp {
+public class SimpleCopyProp implements OptimizationPass {
     
+    @Override
+    public Set<AnalysisManager.Analysis> preserves() {
+        // 只替换指令的使用，CFG 不变
+        return AnalysisManager.ALL;
+    }
+
+    @Override
     public void run(IrModule module) {
         for (IrFunction func : module.getFunctions()) {
             runOnFunction(func);
@@ -3,43 +3,45 @@ package midend.Optimization;
 import midend.LLVM.Const.IrConstInt;
 import midend.LLVM.Const.IrConstString;
 import midend.LLVM.Instruction.*;
-import midend.LLVM.IrModule;
+import midend.LLVM.IrBuilder;
 import midend.LLVM.Type.IrType;
 import midend.LLVM.ValueType;
 import midend.LLVM.value.IrBasicBlock;
 import midend.LLVM.value.IrFunction;
 import midend.LLVM.value.IrValue;
+import midend.OptimizationLevel;
 import midend.SSA.PhiInstr;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
-public class SimpleLoopUnroll {
+public class SimpleLoopUnroll implements FunctionPass {
 
-    // 阈值设置 - 更激进的优化以减少跳转
-    private static final int MAX_TRIP_COUNT = 2048; // 增加到 2048
-    private static final int MAX_INSTRUCTIONS_THRESHOLD = 16000; // 增加到 16000
+    // 阈值设置，由优化级别决定 (-O3 为 2048 次、16000 条指令，更激进的优化以减少跳转)
+    private final int maxTripCount = OptimizationLevel.current().getUnrollMaxTripCount();
+    private final int maxInstructionsThreshold = OptimizationLevel.current().getUnrollMaxInstructions();
 
-    public void run(IrModule module) {
+    @Override
+    public boolean runOnFunction(IrFunction func) {
+        boolean everChanged = false;
         boolean changed = true;
         while (changed) {
             changed = false;
-            for (IrFunction func : module.getFunctions()) {
-                // 快照遍历，防止并发修改异常
-                List<IrBasicBlock> blocks = new ArrayList<>(func.getBasicBlocks());
-                for (IrBasicBlock bb : blocks) {
-                    if (func.getBasicBlocks().contains(bb)) {
-                        // 尝试分析并展开
-                        if (processBlock(func, bb)) {
-                            changed = true;
-                            break; // CFG 改变，重新扫描函数
-                        }
+            // 快照遍历，防止并发修改异常
+            List<IrBasicBlock> blocks = new ArrayList<>(func.getBasicBlocks());
+            for (IrBasicBlock bb : blocks) {
+                if (func.getBasicBlocks().contains(bb)) {
+                    // 尝试分析并展开
+                    if (processBlock(func, bb)) {
+                        changed = true;
+                        everChanged = true;
+                        break; // CFG 改变，重新扫描函数
                     }
                 }
-                if (changed) break;
             }
         }
+        return everChanged;
     }
 
     private boolean processBlock(IrFunction func, IrBasicBlock header) {
@@ -88,7 +90,7 @@ public class SimpleLoopUnroll {
             if (((JumpInstr) bodyTerm).getTargetBlock() == header) bodyJumpsBack = true;
         }
         if (!bodyJumpsBack) {
-            // System.err.println("[Unroll] " + header.irName + ": body doesn't jump back");
+            // System.err.println("[Unroll] " + header.getIrName() + ": body doesn't jump back");
             return null;
         }
 
@@ -129,7 +131,7 @@ public class SimpleLoopUnroll {
         IrValue stepV = phi.getIncomingValues().get(bodyIdx);
         if (!(stepV instanceof AluInst)) return null;
         AluInst stepInst = (AluInst) stepV;
-        if (!stepInst.getOp().equals("ADD")) return null;
+        if (stepInst.getOp() != AluOpcode.ADD) return null;
 
         if (stepInst.getLeft() == phi && stepInst.getRight() instanceof IrConstInt) {
             step = ((IrConstInt) stepInst.getRight()).getValue();
@@ -140,21 +142,21 @@ public class SimpleLoopUnroll {
         }
 
         if (step <= 0) return null;
-        String pred = cmp.getOp();
+        CmpPredicate pred = cmp.getOp();
         long count = 0;
 
-        if (pred.equals("SLT") || pred.equals("LT")) {
+        if (pred == CmpPredicate.LT) {
             if (start >= bound) return null;
             count = (bound - start + step - 1) / step;
-        } else if (pred.equals("SLE") || pred.equals("LE")) {
+        } else if (pred == CmpPredicate.LE) {
             if (start > bound) return null;
             count = (bound - start) / step + 1;
         } else {
             return null;
         }
 
-        if (count > MAX_TRIP_COUNT || count <= 0) return null;
-        if (body.getInstructions().size() * count > MAX_INSTRUCTIONS_THRESHOLD) return null;
+        if (count > maxTripCount || count <= 0) return null;
+        if (body.getInstructions().size() * count > maxInstructionsThreshold) return null;
 
         LoopInfo info = new LoopInfo();
         info.header = header;
@@ -188,7 +190,7 @@ public class SimpleLoopUnroll {
 
         // 1. 处理循环变量在循环外被使用的情况
         int finalValInt = info.startVal + (int) info.tripCount * info.stepVal;
-        IrConstInt finalConst = new IrConstInt(finalValInt);
+        IrConstInt finalConst = IrBuilder.GetNewIrConstInt(finalValInt);
 
         // 遍历函数寻找循环外部的使用者并替换
         for (IrBasicBlock bb : func.getBasicBlocks()) {
@@ -209,13 +211,12 @@ public class SimpleLoopUnroll {
 
         for (int iter = 0; iter < info.tripCount; iter++) {
             // 创建新块
-            IrBasicBlock clonedBlock = new IrBasicBlock(ValueType.BASIC_BLOCK, IrType.BASICBLOCK,
-                    "unroll_" + iter, func);
+            IrBasicBlock clonedBlock = new IrBasicBlock(ValueType.BASIC_BLOCK, IrType.BASICBLOCK, null, func);
             newBlocks.add(clonedBlock);
 
             // 建立值映射 (i -> const)
             HashMap<IrValue, IrValue> valueMap = new HashMap<>();
-            IrConstInt constI = new IrConstInt(currentI);
+            IrConstInt constI = IrBuilder.GetNewIrConstInt(currentI);
             valueMap.put(info.indVar, constI);
 
             // 处理所有 phi 节点的初始值
@@ -352,7 +353,7 @@ public class SimpleLoopUnroll {
                     map.getOrDefault(i.getRight(), i.getRight()));
         } else if (inst instanceof AllocateInstruction) {
             AllocateInstruction i = (AllocateInstruction) inst;
-            newInst = new AllocateInstruction(i.irName, i.getAllocatedType());
+            newInst = new AllocateInstruction(null, i.getAllocatedType());
         }
 
         return newInst;
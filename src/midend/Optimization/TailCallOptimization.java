@@ -21,8 +21,9 @@ import java.util.*;
  * 
  * 这样可以避免栈增长，将递归转为循环
  */
-public class TailCallOptimization {
+public class TailCallOptimization implements OptimizationPass {
     
+    @Override
     public void run(IrModule module) {
         for (IrFunction func : module.getFunctions()) {
             if (func.getBasicBlocks().isEmpty()) continue;
@@ -53,12 +54,10 @@ public class TailCallOptimization {
      * 2. 紧跟 ret 指令，返回值就是 call 的结果
      */
     private TailCallSite findTailCall(IrBasicBlock bb, IrFunction currentFunc) {
-        ArrayList<Instruction> instrs = bb.getInstructions();
-        if (instrs.size() < 2) return null;
-        
         // 检查最后两条指令
-        Instruction last = instrs.get(instrs.size() - 1);
-        Instruction secondLast = instrs.get(instrs.size() - 2);
+        Instruction last = bb.getLastInstruction();
+        if (last == null) return null;
+        Instruction secondLast = last.getPrev();
         
         // 必须是: call + ret
         if (!(last instanceof ReturnInstr)) return null;
@@ -168,7 +167,7 @@ public class TailCallOptimization {
         paramPhi.addIncoming(tailArg, tailBlock);
         
         // 在入口块开头插入 phi
-        entry.getInstructions().add(0, paramPhi);
+        entry.addInstructionFirst(paramPhi);
         
         // 将原参数的所有使用替换为 phi
         // IrParameter 没有 replaceAllUsesWith，需要手动遍历函数中的使用
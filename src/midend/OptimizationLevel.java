@@ -0,0 +1,99 @@
+package midend;
+
+import midend.Optimization.PassManager;
+
+/**
+ * 优化级别：决定中端流水线、内联和循环展开的阈值、部分循环展开的因子，以及后端窥孔优化的轮数。
+ * <p>
+ * -O0 不优化；-O1 只跑便宜的遍 (Mem2Reg 与简单清理)，后端窥孔只做少量轮次，用于开发时快速编译；
+ * -O2 使用完整流水线但阈值较保守；-O3 是默认级别，即评测使用的完整优化。
+ * 超出编译时间预算后，流水线中只继续运行 -O1 流水线里有的遍，后端窥孔优化也在当前轮结束后停止。
+ */
+public final class OptimizationLevel {
+    public static final OptimizationLevel O0 = new OptimizationLevel(0, "", 0, 0, 0, 1, 0, 0);
+    public static final OptimizationLevel O1 = new OptimizationLevel(1, PassManager.FAST_PIPELINE, 0, 0, 0, 1, 2, 2);
+    public static final OptimizationLevel O2 = new OptimizationLevel(2, PassManager.DEFAULT_PIPELINE,
+            200, 256, 2000, 2, 10, 4);
+    public static final OptimizationLevel O3 = new OptimizationLevel(3, PassManager.DEFAULT_PIPELINE,
+            2000, 2048, 16000, 4, 100, 8);
+
+    private final int level;
+    private final String pipeline;
+    // 指令数少于该值的叶子函数才会被内联
+    private final int inlineThreshold;
+    // 完全展开的循环次数上限，以及展开后的指令数上限
+    private final int unrollMaxTripCount;
+    private final int unrollMaxInstructions;
+    // 部分循环展开把循环体复制成几份，1 表示不展开
+    private final int unrollFactor;
+    // 后端窥孔优化最多的轮数，以及每轮中 move 清理和内存优化各自重复的次数
+    private final int mipsMaxRounds;
+    private final int mipsRepeats;
+
+    private OptimizationLevel(int level, String pipeline, int inlineThreshold, int unrollMaxTripCount,
+                              int unrollMaxInstructions, int unrollFactor, int mipsMaxRounds, int mipsRepeats) {
+        this.level = level;
+        this.pipeline = pipeline;
+        this.inlineThreshold = inlineThreshold;
+        this.unrollMaxTripCount = unrollMaxTripCount;
+        this.unrollMaxInstructions = unrollMaxInstructions;
+        this.unrollFactor = unrollFactor;
+        this.mipsMaxRounds = mipsMaxRounds;
+        this.mipsRepeats = mipsRepeats;
+    }
+
+    public static OptimizationLevel of(int level) {
+        return switch (level) {
+            case 0 -> O0;
+            case 1 -> O1;
+            case 2 -> O2;
+            case 3 -> O3;
+            default -> throw new IllegalArgumentException("unknown optimization level: -O" + level);
+        };
+    }
+
+    public static OptimizationLevel current() {
+        return CompilationContext.current().getOptimizationLevel();
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public boolean isOptimize() {
+        return level > 0;
+    }
+
+    public String getPipeline() {
+        return pipeline;
+    }
+
+    public int getInlineThreshold() {
+        return inlineThreshold;
+    }
+
+    public int getUnrollMaxTripCount() {
+        return unrollMaxTripCount;
+    }
+
+    public int getUnrollMaxInstructions() {
+        return unrollMaxInstructions;
+    }
+
+    public int getUnrollFactor() {
+        return unrollFactor;
+    }
+
+    public int getMipsMaxRounds() {
+        return mipsMaxRounds;
+    }
+
+    public int getMipsRepeats() {
+        return mipsRepeats;
+    }
+
+    @Override
+    public String toString() {
+        return "-O" + level;
+    }
+}
@@ -0,0 +1,220 @@
+package midend;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import midend.Optimization.AnalysisManager;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 按遍统计编译开销，类似 -time-passes 加 -stats：每个遍 (中端优化遍、后端窥孔优化的各个阶段、编译各阶段)
+ * 的调用次数、跳过和改变的次数、耗时、本线程分配的字节数，以及运行前后的指令数和基本块数。
+ * 同名的遍多次运行时累加到同一行，行按第一次运行的顺序输出。
+ * <p>
+ * 只有 --time-passes 打开时 CompilationContext 才持有统计对象，否则各处 begin() 前的判空直接跳过。
+ * 每次测量同时作为 JFR 事件 buaaCompile.Pass 提交，--time-passes 配合 -XX:StartFlightRecording 运行即可与 GC 对照。
+ */
+public class PassStatistics {
+    // 指令数或块数不适用时 (例如前端阶段) 记为 -1
+    public static final int NO_SIZE = -1;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    @Name("buaaCompile.Pass")
+    @Label("Compiler Pass")
+    @Category("buaaCompile")
+    public static class PassEvent extends jdk.jfr.Event {
+        @Label("Group")
+        String group;
+        @Label("Pass")
+        String pass;
+        @Label("Instructions Before")
+        int instructionsBefore;
+        @Label("Instructions After")
+        int instructionsAfter;
+        @Label("Changed")
+        int changed;
+    }
+
+    private static final class Row {
+        private final String group;
+        private final String name;
+        private int calls;
+        private int skipped;
+        private int changed;
+        private long nanos;
+        private long allocatedBytes;
+        private long instructionsBefore;
+        private long instructionsAfter;
+        private long blocksBefore;
+        private long blocksAfter;
+        private boolean sized = true;
+
+        private Row(String group, String name) {
+            this.group = group;
+            this.name = name;
+        }
+    }
+
+    /**
+     * 一次进行中的测量，由 begin() 返回，交给 end() 结束
+     */
+    public static final class Span {
+        private final Row row;
+        private final long startNanos;
+        private final long startBytes;
+        private final int instructions;
+        private final int blocks;
+        private final PassEvent event;
+
+        private Span(Row row, int instructions, int blocks) {
+            this.row = row;
+            this.instructions = instructions;
+            this.blocks = blocks;
+            this.event = new PassEvent();
+            event.begin();
+            this.startBytes = allocatedBytes();
+            this.startNanos = System.nanoTime();
+        }
+    }
+
+    private final Map<String, Row> rows = new LinkedHashMap<>();
+
+    public static PassStatistics current() {
+        return CompilationContext.current().getPassStatistics();
+    }
+
+    public Span begin(String group, String name, int instructions, int blocks) {
+        Row row = rows.computeIfAbsent(group + "/" + name, k -> new Row(group, name));
+        return new Span(row, instructions, blocks);
+    }
+
+    public void end(Span span, int instructions, int blocks, boolean changed) {
+        end(span, instructions, blocks, 1, 0, changed ? 1 : 0);
+    }
+
+    /**
+     * 结束一次测量。一次测量可能包含多次调用 (例如逐函数的遍在所有函数上各运行一次)，
+     * calls / skipped / changed 分别是实际运行、因函数没有变化而跳过、改变了 IR 的次数
+     */
+    public void end(Span span, int instructions, int blocks, int calls, int skipped, int changed) {
+        long nanos = System.nanoTime() - span.startNanos;
+        long bytes = allocatedBytes() - span.startBytes;
+        Row row = span.row;
+        row.calls += calls;
+        row.skipped += skipped;
+        row.changed += changed;
+        row.nanos += nanos;
+        row.allocatedBytes += bytes;
+        if (span.instructions == NO_SIZE || instructions == NO_SIZE) {
+            row.sized = false;
+        } else {
+            row.instructionsBefore += span.instructions;
+            row.instructionsAfter += instructions;
+            row.blocksBefore += span.blocks;
+            row.blocksAfter += blocks;
+        }
+        PassEvent event = span.event;
+        event.end();
+        if (event.shouldCommit()) {
+            event.group = row.group;
+            event.pass = row.name;
+            event.instructionsBefore = span.instructions;
+            event.instructionsAfter = instructions;
+            event.changed = changed;
+            event.commit();
+        }
+    }
+
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) THREADS).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    /**
+     * 表格形式，每组之后是该组的合计，最后附上分析管理器的请求与构建次数
+     */
+    public String toTable(AnalysisManager analyses) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-8s %-28s %6s %6s %6s %10s %6s %10s %19s %15s%n",
+                "group", "pass", "calls", "skip", "chg", "time(ms)", "%", "alloc(MB)",
+                "insts before->after", "blocks"));
+        Map<String, Long> groupNanos = new LinkedHashMap<>();
+        for (Row row : rows.values()) {
+            groupNanos.merge(row.group, row.nanos, Long::sum);
+        }
+        for (Map.Entry<String, Long> group : groupNanos.entrySet()) {
+            long groupBytes = 0;
+            for (Row row : rows.values()) {
+                if (!row.group.equals(group.getKey())) {
+                    continue;
+                }
+                groupBytes += row.allocatedBytes;
+                sb.append(String.format(Locale.ROOT, "%-8s %-28s %6d %6d %6d %10.2f %6.1f %10.2f %19s %15s%n",
+                        row.group, row.name, row.calls, row.skipped, row.changed, row.nanos / 1e6,
+                        group.getValue() == 0 ? 0.0 : 100.0 * row.nanos / group.getValue(),
+                        row.allocatedBytes / 1048576.0,
+                        row.sized ? row.instructionsBefore + "->" + row.instructionsAfter : "-",
+                        row.sized ? row.blocksBefore + "->" + row.blocksAfter : "-"));
+            }
+            sb.append(String.format(Locale.ROOT, "%-8s %-28s %6s %6s %6s %10.2f %6.1f %10.2f%n",
+                    group.getKey(), "total", "", "", "", group.getValue() / 1e6, 100.0, groupBytes / 1048576.0));
+        }
+        if (analyses != null) {
+            for (AnalysisManager.Analysis analysis : AnalysisManager.Analysis.values()) {
+                sb.append(String.format(Locale.ROOT, "analysis %-26s requests %d, builds %d%n",
+                        analysis.name().toLowerCase(Locale.ROOT),
+                        analyses.getRequestCount(analysis), analyses.getBuildCount(analysis)));
+            }
+        }
+        return sb.toString();
+    }
+
+    public String toJson(AnalysisManager analyses) {
+        StringBuilder sb = new StringBuilder("{\n  \"passes\": [");
+        boolean first = true;
+        for (Row row : rows.values()) {
+            sb.append(first ? "\n" : ",\n");
+            first = false;
+            sb.append(String.format(Locale.ROOT,
+                    "    {\"group\": \"%s\", \"pass\": \"%s\", \"calls\": %d, \"skipped\": %d, \"changed\": %d, "
+                            + "\"timeNanos\": %d, \"allocatedBytes\": %d",
+                    row.group, row.name, row.calls, row.skipped, row.changed, row.nanos, row.allocatedBytes));
+            if (row.sized) {
+                sb.append(String.format(Locale.ROOT,
+                        ", \"instructionsBefore\": %d, \"instructionsAfter\": %d, \"blocksBefore\": %d, \"blocksAfter\": %d",
+                        row.instructionsBefore, row.instructionsAfter, row.blocksBefore, row.blocksAfter));
+            }
+            sb.append('}');
+        }
+        sb.append("\n  ]");
+        if (analyses != null) {
+            sb.append(",\n  \"analyses\": {");
+            first = true;
+            for (AnalysisManager.Analysis analysis : AnalysisManager.Analysis.values()) {
+                sb.append(first ? "\n" : ",\n");
+                first = false;
+                sb.append(String.format(Locale.ROOT, "    \"%s\": {\"requests\": %d, \"builds\": %d}",
+                        analysis.name().toLowerCase(Locale.ROOT),
+                        analyses.getRequestCount(analysis), analyses.getBuildCount(analysis)));
+            }
+            sb.append("\n  }");
+        }
+        return sb.append("\n}\n").toString();
+    }
+
+    public void writeJson(Path file, AnalysisManager analyses) throws IOException {
+        Files.writeString(file, toJson(analyses), StandardCharsets.UTF_8);
+    }
+}
@@ -1,24 +1,24 @@
 package midend.SSA; // 或者 midend.Optimization
 
 import midend.LLVM.Instruction.*;
-import midend.LLVM.IrModule;
 import midend.LLVM.value.IrBasicBlock;
 import midend.LLVM.value.IrFunction;
 import midend.LLVM.value.IrValue;
+import midend.Optimization.AnalysisManager;
+import midend.Optimization.FunctionPass;
 
 import java.util.*;
 
-public class DeadCodeElimination {
+public class DeadCodeElimination implements FunctionPass {
 
-    public void run(IrModule module) {
-        for (IrFunction func : module.getFunctions()) {
-            if (!func.getBasicBlocks().isEmpty()) {
-                runOnFunction(func);
-            }
-        }
+    @Override
+    public Set<AnalysisManager.Analysis> preserves() {
+        // 只删除非终结指令，CFG 不变
+        return AnalysisManager.ALL;
     }
 
-    private void runOnFunction(IrFunction func) {
+    @Override
+    public boolean runOnFunction(IrFunction func) {
         Set<Instruction> liveInstructions = new HashSet<>();
         Queue<Instruction> workList = new LinkedList<>();
 
@@ -37,9 +37,8 @@ public class DeadCodeElimination {
             Instruction current = workList.poll();
 
             // 获取该指令使用的所有操作数 (IrValue)
-            List<IrValue> operands = getOperands(current);
-
-            for (IrValue op : operands) {
+            for (int k = 0, n = current.getNumValueOperands(); k < n; k++) {
+                IrValue op = current.getValueOperand(k);
                 // 我们只关心操作数是由指令产生的情况 (忽略常量和全局变量)
                 if (op instanceof Instruction) {
                     Instruction opInstr = (Instruction) op;
@@ -53,19 +52,21 @@ public class DeadCodeElimination {
         }
 
         // Step 3: 清除 - 删除死指令
+        boolean changed = false;
         for (IrBasicBlock bb : func.getBasicBlocks()) {
             // 使用迭代器安全删除
             Iterator<Instruction> it = bb.getInstructions().iterator();
             while (it.hasNext()) {
                 Instruction instr = it.next();
                 if (!liveInstructions.contains(instr)) {
-                    // 从指令列表中移除
+                    // 从指令列表中移除，并从操作数的使用链表中注销
                     it.remove();
-                    // 这里不需要像 Mem2Reg 那样维护 Use-Def 链的断开，
-                    // 因为我们是基于“有用性”反向标记的，没用的直接扔掉即可。
+                    instr.dropOperandUses();
+                    changed = true;
                 }
             }
         }
+        return changed;
     }
 
     /**
@@ -84,52 +85,4 @@ public class DeadCodeElimination {
         // 其他像 Add, Sub, Icmp, Load, Phi, GEP, Zext 等，如果没有人通过上述指令使用它们，就是死代码
         return false;
     }
-
-    /**
-     * 辅助方法：获取一条指令用到的所有操作数
-     *
-     */
-    public static List<IrValue> getOperands(Instruction instr) {
-        List<IrValue> ops = new ArrayList<>();
-
-        if (instr instanceof AluInst) {
-            ops.add(((AluInst) instr).getLeft());
-            ops.add(((AluInst) instr).getRight());
-        } else if (instr instanceof CmpInstr) {
-            ops.add(((CmpInstr) instr).getLeft());
-            ops.add(((CmpInstr) instr).getRight());
-        } else if (instr instanceof LoadInstr) {
-            ops.add(((LoadInstr) instr).getPtr());
-        } else if (instr instanceof StoreInstr) {
-            ops.add(((StoreInstr) instr).getVal());
-            ops.add(((StoreInstr) instr).getPtr());
-        } else if (instr instanceof BranchInstr) {
-            BranchInstr br = (BranchInstr) instr;
-            if (br.getCond() != null) {
-                ops.add(br.getCond());
-            }
-        } else if (instr instanceof ReturnInstr) {
-            ReturnInstr ret = (ReturnInstr) instr;
-            if (!ret.isReturnVoid()) {
-                ops.add(ret.getReturnValue());
-            }
-        } else if (instr instanceof CallInstr) {
-            ops.addAll(((CallInstr) instr).getParameters());
-        } else if (instr instanceof GepInstr) {
-            ops.add(((GepInstr) instr).getPtr());
-            ops.add(((GepInstr) instr).getIndice()); // 假设是一维数组索引
-        } else if (instr instanceof ZextInstr) {
-            ops.add(((ZextInstr) instr).getOperand(0)); // 假设有 getOperand 方法或 public 字段
-        } else if (instr instanceof TruncInstr) {
-            ops.add(((TruncInstr) instr).getOperand(0));
-        } else if (instr instanceof PhiInstr) {
-            ops.addAll(((PhiInstr) instr).getIncomingValues());
-        } else if (instr instanceof PrintIntInstr) {
-            ops.add(((PrintIntInstr) instr).getPrintValue());
-        }
-
-        // 注意：JumpInstr, AllocateInstr, PrintStrInstr(操作数是Const) 不需要添加操作数
-
-        return ops;
-    }
 }
\ No newline at end of file
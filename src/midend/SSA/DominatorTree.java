@@ -5,27 +5,66 @@ import midend.LLVM.value.IrFunction;
 
 import java.util.*;
 
+/**
+ * 支配树。构建时对函数重新编号，内部按基本块编号用数组保存，
+ * 查询时先核对编号，构建之后新加入的块与原来按 HashMap 查找未命中时的结果一致。
+ * <p>
+ * 直接支配者用 Semi-NCA 算法计算，之后在支配树上做一次 DFS 记录进入、离开时间，dominates() 为 O(1)。
+ * 各处遍历都用显式栈，很深的 CFG 也不会栈溢出。
+ */
 public class DominatorTree {
     private final IrFunction function;
 
-    // 记录每个块的直接支配者
-    private final Map<IrBasicBlock, IrBasicBlock> idoms = new HashMap<>();
+    // 构建时的基本块快照，下标即块编号
+    private final IrBasicBlock[] blocks;
 
-    // 支配树的子节点列表 (用于遍历支配树)
-    private final Map<IrBasicBlock, List<IrBasicBlock>> domTreeChildren = new HashMap<>();
+    // 记录每个块的直接支配者编号，-1 表示没有 (Entry 或不可达)
+    private final int[] idoms;
 
-    // 支配边界
-    private final Map<IrBasicBlock, Set<IrBasicBlock>> dominanceFrontier = new HashMap<>();
+    // 支配树深度
+    private final int[] domDepth;
+
+    // 逆后序遍历序列 (块编号)
+    private int[] rpoList;
+
+    // CFG 深度优先遍历的先序序列 (块编号)、每个块的先序位置 (-1 表示不可达) 和 DFS 树上父节点的先序位置
+    private int[] preOrder;
+    private final int[] preIndex;
+    private int[] dfsParent;
 
-    // 逆后序遍历列表
-    private final List<IrBasicBlock> rpoList = new ArrayList<>();
+    // 支配树上 DFS 的进入、离开时间，a 支配 b 当且仅当 a 的区间包含 b 的区间；-1 表示不可达
+    private final int[] domEnter;
+    private final int[] domExit;
 
-    // 记录每个块在 RPO 中的索引，用于快速比较 (Intersect 算法需要)
-    private final Map<IrBasicBlock, Integer> rpoIndex = new HashMap<>();
+    // 支配树的子节点列表 (用于遍历支配树)
+    private final List<List<IrBasicBlock>> domTreeChildren;
+
+    // 支配边界
+    private final List<List<IrBasicBlock>> dominanceFrontier;
 
     public DominatorTree(IrFunction function) {
+        this(function, true);
+    }
+
+    /**
+     * rebuildCfg 为 false 时直接使用块上现有的前驱后继 (调用者保证 CFG 是最新的)
+     */
+    public DominatorTree(IrFunction function, boolean rebuildCfg) {
         this.function = function;
-        CfgBuilder.build(function);
+        if (rebuildCfg) {
+            CfgBuilder.build(function);
+        }
+        function.renumber();
+        this.blocks = function.getBasicBlocks().toArray(new IrBasicBlock[0]);
+        int n = blocks.length;
+        this.idoms = new int[n];
+        this.domDepth = new int[n];
+        this.preIndex = new int[n];
+        this.domEnter = new int[n];
+        this.domExit = new int[n];
+        // 按块编号索引，没有子节点/支配边界的块为 null
+        this.domTreeChildren = new ArrayList<>(Collections.nCopies(n, null));
+        this.dominanceFrontier = new ArrayList<>(Collections.nCopies(n, null));
         build();
     }
 
@@ -34,137 +73,201 @@ public class DominatorTree {
      */
     private void build() {
         // 1. 初始化数据结构
-        for (IrBasicBlock bb : function.getBasicBlocks()) {
-            domTreeChildren.put(bb, new ArrayList<>());
-            dominanceFrontier.put(bb, new HashSet<>());
-        }
+        Arrays.fill(idoms, -1);
+        Arrays.fill(preIndex, -1);
+        Arrays.fill(domEnter, -1);
+        Arrays.fill(domExit, -1);
 
-        // 2. 计算逆后序 (RPO)
-        // 迭代算法在 RPO 顺序下收敛最快
-        calculateRPO(function.getEntryBlock());
+        // 2. 一次 DFS 同时得到先序 (Semi-NCA 需要) 和逆后序 (RPO)
+        calculateDfsOrder(function.getEntryBlock());
 
         // 3. 计算直接支配者 (IDoms)
         calculateIDoms();
 
-        // 4. 构建支配树的层次结构 (Children)
+        // 4. 构建支配树的层次结构 (Children) 和深度，并给支配树编号
         buildDomTreeHierarchy();
+        numberDomTree();
 
         // 5. 计算支配边界 (Dominance Frontier)
         calculateDominanceFrontier();
+    }
 
-        // 6. 计算支配树深度
-        calculateDomDepth();
+    // 按构建时的快照核对编号，之后函数被重新编号也不会查错块
+    private int indexOf(IrBasicBlock bb) {
+        if (bb == null) {
+            return -1;
+        }
+        int id = bb.getId();
+        return id >= 0 && id < blocks.length && blocks[id] == bb ? id : -1;
     }
 
     /**
-     * 计算逆后序 (Reverse Post Order)
-     * 使用 DFS 后序遍历，然后反转
+     * 计算先序和逆后序 (Reverse Post Order)
+     * 用显式栈做 DFS，块第一次被访问时记入先序，出栈时记入后序，最后反转后序；后继的访问顺序与递归写法相同
      */
-    private void calculateRPO(IrBasicBlock entry) {
-        Set<IrBasicBlock> visited = new HashSet<>();
-        Stack<IrBasicBlock> postOrderStack = new Stack<>();
-
-        dfsPostOrder(entry, visited, postOrderStack);
-
-        int index = 0;
-        while (!postOrderStack.isEmpty()) {
-            IrBasicBlock bb = postOrderStack.pop();
-            rpoList.add(bb);
-            rpoIndex.put(bb, index++);
+    private void calculateDfsOrder(IrBasicBlock entry) {
+        int n = blocks.length;
+        int entryId = indexOf(entry);
+        if (entryId < 0) {
+            rpoList = new int[0];
+            preOrder = new int[0];
+            dfsParent = new int[0];
+            return;
         }
-    }
-
-    private void dfsPostOrder(IrBasicBlock curr, Set<IrBasicBlock> visited, Stack<IrBasicBlock> stack) {
-        visited.add(curr);
-        for (IrBasicBlock succ : curr.getSuccessors()) {
-            if (!visited.contains(succ)) {
-                dfsPostOrder(succ, visited, stack);
+        int[] pre = new int[n];
+        int[] parent = new int[n];
+        int preCount = 0;
+        int[] postOrder = new int[n];
+        int postCount = 0;
+
+        int[] stack = new int[n];
+        int[] nextSucc = new int[n];
+        int top = 0;
+        stack[top++] = entryId;
+        preIndex[entryId] = preCount;
+        parent[preCount] = -1;
+        pre[preCount++] = entryId;
+        while (top > 0) {
+            int curr = stack[top - 1];
+            List<IrBasicBlock> succs = blocks[curr].getSuccessors();
+            if (nextSucc[curr] < succs.size()) {
+                int succ = indexOf(succs.get(nextSucc[curr]++));
+                if (succ >= 0 && preIndex[succ] < 0) {
+                    preIndex[succ] = preCount;
+                    parent[preCount] = preIndex[curr];
+                    pre[preCount++] = succ;
+                    stack[top++] = succ;
+                }
+            } else {
+                top--;
+                postOrder[postCount++] = curr;
             }
         }
-        stack.push(curr);
+
+        preOrder = Arrays.copyOf(pre, preCount);
+        dfsParent = Arrays.copyOf(parent, preCount);
+        rpoList = new int[postCount];
+        for (int i = 0; i < postCount; i++) {
+            rpoList[i] = postOrder[postCount - 1 - i];
+        }
     }
 
     /**
-     * 使用迭代法计算 IDom
-     * 算法来源: Cooper, Harvey, and Kennedy
+     * 使用 Semi-NCA 算法计算 IDom
+     * 算法来源: Georgiadis, Tarjan, "Finding Dominators in Practice"
+     * 先按先序倒序求每个块的半支配者 (带路径压缩的 eval 给出路径上半支配者最小的块)，
+     * 再按先序正序从 DFS 树的父节点沿已求出的 idom 上移，直到不超过半支配者，即为 idom。
+     * 下面的数组都以先序位置为下标
      */
     void calculateIDoms() {
-        IrBasicBlock entry = function.getEntryBlock();
-
-        // 初始化：Entry 的 idom 是它自己 (或者 null，方便起见设为自己，但在循环中要特判)
-        idoms.put(entry, entry);
-
-        boolean changed = true;
-        while (changed) {
-            changed = false;
-
-            // 按 RPO 顺序遍历所有块 (跳过 Entry)
-            for (IrBasicBlock bb : rpoList) {
-                if (bb == entry) continue;
-
-                // 1. 找第一个已经处理过的 (有 IDom) 的前驱作为候选 IDom
-                List<IrBasicBlock> preds = bb.getPredecessors();
-                if (preds.isEmpty()) continue; // 死代码块，忽略
-
-                IrBasicBlock newIdom = null;
-                for (IrBasicBlock pred : preds) {
-                    if (idoms.containsKey(pred)) {
-                        newIdom = pred;
-                        break;
-                    }
-                }
-
-                if (newIdom == null) continue; // 应该不会发生，除非不可达
+        int n = preOrder.length;
+        if (n == 0) {
+            return;
+        }
+        int[] semi = new int[n];
+        int[] label = new int[n];
+        int[] ancestor = new int[n];
+        int[] idom = new int[n];
+        int[] path = new int[n];
+        for (int i = 0; i < n; i++) {
+            semi[i] = i;
+            label[i] = i;
+            ancestor[i] = -1;
+        }
 
-                // 2. 遍历其他前驱，计算最近公共祖先
-                for (IrBasicBlock pred : preds) {
-                    if (pred != newIdom && idoms.containsKey(pred)) {
-                        newIdom = intersect(newIdom, pred);
-                    }
+        for (int w = n - 1; w > 0; w--) {
+            for (IrBasicBlock pred : blocks[preOrder[w]].getPredecessors()) {
+                int p = indexOf(pred);
+                if (p < 0 || preIndex[p] < 0) continue; // 不可达的前驱不影响支配关系
+                int u = eval(preIndex[p], ancestor, label, semi, path);
+                if (semi[u] < semi[w]) {
+                    semi[w] = semi[u];
                 }
+            }
+            // 处理完的块挂到 DFS 树父节点下，供之后的 eval 压缩
+            ancestor[w] = dfsParent[w];
+        }
 
-                // 3. 如果 IDom 发生变化，更新并标记 changed
-                if (!newIdom.equals(idoms.get(bb))) {
-                    idoms.put(bb, newIdom);
-                    changed = true;
-                }
+        idom[0] = 0;
+        for (int w = 1; w < n; w++) {
+            int d = dfsParent[w];
+            while (d > semi[w]) {
+                d = idom[d];
             }
+            idom[w] = d;
         }
 
-        // 修正：Entry 的 IDom 设为 null，因为它没有严格支配者
-        idoms.put(entry, null);
+        // 换回块编号，Entry 没有严格支配者
+        for (int w = 1; w < n; w++) {
+            idoms[preOrder[w]] = preOrder[idom[w]];
+        }
     }
 
     /**
-     * 寻找两个节点在支配树上的最近公共祖先
-     * 利用 RPO 索引：索引越大，在支配树中越靠下（深）
+     * 返回 v 到所在树根 (不含树根) 的路径上半支配者最小的节点，同时压缩这条路径
+     * 路径先收集到 path 中再自上而下压缩，代替递归写法
      */
-    private IrBasicBlock intersect(IrBasicBlock b1, IrBasicBlock b2) {
-        IrBasicBlock finger1 = b1;
-        IrBasicBlock finger2 = b2;
-
-        while (finger1 != finger2) {
-            // 将 RPO 索引较大的指针向上移动
-            while (rpoIndex.get(finger1) > rpoIndex.get(finger2)) {
-                finger1 = idoms.get(finger1);
-            }
-            while (rpoIndex.get(finger2) > rpoIndex.get(finger1)) {
-                finger2 = idoms.get(finger2);
+    private static int eval(int v, int[] ancestor, int[] label, int[] semi, int[] path) {
+        if (ancestor[v] < 0) {
+            return v;
+        }
+        int len = 0;
+        for (int x = v; ancestor[ancestor[x]] >= 0; x = ancestor[x]) {
+            path[len++] = x;
+        }
+        for (int i = len - 1; i >= 0; i--) {
+            int x = path[i];
+            int a = ancestor[x];
+            if (semi[label[a]] < semi[label[x]]) {
+                label[x] = label[a];
             }
+            ancestor[x] = ancestor[a];
         }
-        return finger1;
+        return label[v];
     }
 
     /**
-     * 根据 IDom 关系填充 Children 列表
+     * 根据 IDom 关系填充 Children 列表，并按 RPO 顺序计算深度 (idom 总是先于自己出现)
+     * 不可达块深度为 0
      */
     private void buildDomTreeHierarchy() {
-        for (IrBasicBlock bb : rpoList) {
-            if (bb == function.getEntryBlock()) continue;
+        for (int bb : rpoList) {
+            int idom = idoms[bb];
+            if (idom < 0) continue;
+
+            List<IrBasicBlock> children = domTreeChildren.get(idom);
+            if (children == null) {
+                children = new ArrayList<>();
+                domTreeChildren.set(idom, children);
+            }
+            children.add(blocks[bb]);
+            domDepth[bb] = domDepth[idom] + 1;
+        }
+    }
 
-            IrBasicBlock idom = idoms.get(bb);
-            if (idom != null) {
-                domTreeChildren.get(idom).add(bb);
+    /**
+     * 在支配树上用显式栈做 DFS，记录每个块的进入和离开时间
+     */
+    private void numberDomTree() {
+        if (rpoList.length == 0) {
+            return;
+        }
+        int[] stack = new int[blocks.length];
+        int[] nextChild = new int[blocks.length];
+        int top = 0;
+        int clock = 0;
+        stack[top++] = rpoList[0];
+        domEnter[rpoList[0]] = clock++;
+        while (top > 0) {
+            int curr = stack[top - 1];
+            List<IrBasicBlock> children = domTreeChildren.get(curr);
+            if (children != null && nextChild[curr] < children.size()) {
+                int child = indexOf(children.get(nextChild[curr]++));
+                domEnter[child] = clock++;
+                stack[top++] = child;
+            } else {
+                top--;
+                domExit[curr] = clock++;
             }
         }
     }
@@ -178,71 +281,84 @@ public class DominatorTree {
      * while runner != idom(B):
      * add B to runner.DF
      * runner = idom(runner)
+     * 同一个 B 只会连续地加入某个 runner 的 DF，检查末尾元素即可去重
      */
     void calculateDominanceFrontier() {
-        for (IrBasicBlock bb : rpoList) {
-            List<IrBasicBlock> preds = bb.getPredecessors();
+        for (int bb : rpoList) {
+            List<IrBasicBlock> preds = blocks[bb].getPredecessors();
             if (preds.size() >= 2) {
+                IrBasicBlock block = blocks[bb];
                 for (IrBasicBlock p : preds) {
-                    IrBasicBlock runner = p;
+                    int runner = indexOf(p);
                     // 向上回溯直到碰到 idom(bb)
                     // 注意：这里需要判空，防止死循环 (对于不可达代码)
-                    while (runner != idoms.get(bb) && runner != null) {
-                        dominanceFrontier.get(runner).add(bb);
-                        runner = idoms.get(runner);
+                    while (runner != idoms[bb] && runner >= 0) {
+                        List<IrBasicBlock> df = dominanceFrontier.get(runner);
+                        if (df == null) {
+                            df = new ArrayList<>();
+                            dominanceFrontier.set(runner, df);
+                        }
+                        if (df.isEmpty() || df.get(df.size() - 1) != block) {
+                            df.add(block);
+                        }
+                        runner = idoms[runner];
                     }
                 }
             }
         }
     }
 
+    /**
+     * a 是否支配 b (每个块都支配自己)，O(1)
+     * 不可达的块、构建之后新加入的块只被自己支配，也不支配其他块，与沿 idom 链查找的结果一致
+     */
+    public boolean dominates(IrBasicBlock a, IrBasicBlock b) {
+        if (a == b) {
+            return true;
+        }
+        int x = indexOf(a);
+        int y = indexOf(b);
+        if (x < 0 || y < 0 || domEnter[x] < 0 || domEnter[y] < 0) {
+            return false;
+        }
+        return domEnter[x] <= domEnter[y] && domExit[y] <= domExit[x];
+    }
+
     /**
      * 获取某节点的支配边界
      */
-    public Set<IrBasicBlock> getDominanceFrontier(IrBasicBlock bb) {
-        return dominanceFrontier.getOrDefault(bb, Collections.emptySet());
+    public List<IrBasicBlock> getDominanceFrontier(IrBasicBlock bb) {
+        int id = indexOf(bb);
+        List<IrBasicBlock> df = id < 0 ? null : dominanceFrontier.get(id);
+        return df == null ? Collections.emptyList() : df;
     }
 
     /**
      * 获取某节点在支配树上的直接子节点
      */
     public List<IrBasicBlock> getChildren(IrBasicBlock bb) {
-        return domTreeChildren.getOrDefault(bb, Collections.emptyList());
+        int id = indexOf(bb);
+        List<IrBasicBlock> children = id < 0 ? null : domTreeChildren.get(id);
+        return children == null ? Collections.emptyList() : children;
     }
 
     /**
      * 获取直接支配者
      */
     public IrBasicBlock getIDom(IrBasicBlock bb) {
-        return idoms.get(bb);
-    }
-
-    private Map<IrBasicBlock, Integer> domDepth = new HashMap<>();
-
-    // 在 build() 最后计算深度
-    private void calculateDomDepth() {
-        domDepth.clear();
-        // 对所有基本块计算深度
-        for (IrBasicBlock bb : function.getBasicBlocks()) {
-            int depth = 0;
-            IrBasicBlock runner = bb;
-            // 向上回溯直到根节点或 null
-            while (runner != null && idoms.get(runner) != null && runner != idoms.get(runner)) {
-                depth++;
-                runner = idoms.get(runner);
-            }
-            domDepth.put(bb, depth);
+        int id = indexOf(bb);
+        if (id < 0 || idoms[id] < 0) {
+            return null;
         }
-        // 修正 Entry 深度为 0
-        domDepth.put(function.getEntryBlock(), 0);
+        return blocks[idoms[id]];
     }
 
-
     public int getDomDepth(IrBasicBlock bb) {
-        if (!domDepth.containsKey(bb)) {
+        int id = indexOf(bb);
+        if (id < 0) {
             return Integer.MAX_VALUE;
         }
-        return domDepth.get(bb);
+        return domDepth[id];
     }
 
-}
\ No newline at end of file
+}
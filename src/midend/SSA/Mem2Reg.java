@@ -5,37 +5,37 @@ import midend.LLVM.Instruction.AllocateInstruction;
 import midend.LLVM.Instruction.Instruction;
 import midend.LLVM.Instruction.LoadInstr;
 import midend.LLVM.Instruction.StoreInstr;
-import midend.LLVM.IrModule;
+import midend.LLVM.IrBuilder;
 import midend.LLVM.Type.IrPointer;
 import midend.LLVM.Type.IrType;
 import midend.LLVM.value.IrBasicBlock;
 import midend.LLVM.value.IrFunction;
 import midend.LLVM.value.IrValue;
+import midend.Optimization.AnalysisManager;
+import midend.Optimization.FunctionPass;
 
 import java.util.*;
 
-public class Mem2Reg {
-    private IrModule module;
+public class Mem2Reg implements FunctionPass {
     // 记录每个 Alloca 当前的版本栈
     private Map<AllocateInstruction, Stack<IrValue>> varStacks = new HashMap<>();
     // 记录待删除的指令，统一最后删除，防止遍历时修改集合报错
     private Set<Instruction> deadInstructions = new HashSet<>();
 
-    public void run(IrModule module) {
-        this.module = module;
-        for (IrFunction func : module.getFunctions()) {
-            if (func.getBasicBlocks().isEmpty()) continue;
-            runOnFunction(func);
-        }
+    @Override
+    public Set<AnalysisManager.Analysis> preserves() {
+        // 只插入 phi、删除 alloca/load/store，CFG 不变
+        return AnalysisManager.ALL;
     }
 
-    private void runOnFunction(IrFunction func) {
+    @Override
+    public boolean runOnFunction(IrFunction func) {
         // 清理状态
         varStacks.clear();
         deadInstructions.clear();
 
         // 1. 构建支配树
-        DominatorTree domTree = new DominatorTree(func);
+        DominatorTree domTree = AnalysisManager.current().getDominatorTree(func);
 
         // 2. 收集可提升的 alloca (排除数组)
         List<AllocateInstruction> allocas = collectPromotableAllocas(func);
@@ -47,13 +47,14 @@ public class Mem2Reg {
         for (AllocateInstruction alloca : allocas) {
             varStacks.put(alloca, new Stack<>());
             // 初始状态压入 0 (处理未初始化变量的情况)
-            varStacks.get(alloca).push(new IrConstInt(0));
+            varStacks.get(alloca).push(IrBuilder.GetNewIrConstInt(0));
         }
 
         rename(func.getEntryBlock(), domTree);
 
         // 5. 清理垃圾 (删除被标记的 load/store/alloca)
         removePromotedInstructions(func);
+        return !allocas.isEmpty();
     }
 
     /**
@@ -188,6 +189,9 @@ public class Mem2Reg {
     }
 
     private void removePromotedInstructions(IrFunction func) {
+        for (Instruction instr : deadInstructions) {
+            instr.dropOperandUses();
+        }
         for (IrBasicBlock bb : func.getBasicBlocks()) {
             bb.getInstructions().removeIf(instr -> deadInstructions.contains(instr));
         }
@@ -3,24 +3,28 @@ package midend.SSA;
 import midend.LLVM.Instruction.AllocateInstruction;
 import midend.LLVM.Instruction.Instruction;
 import midend.LLVM.Instruction.InstructionType;
-import midend.LLVM.IrBuilder;
 import midend.LLVM.Type.IrType;
 import midend.LLVM.ValueType;
 import midend.LLVM.value.IrBasicBlock;
 import midend.LLVM.value.IrValue;
 
 import java.util.ArrayList;
+import java.util.List;
 
 public class PhiInstr extends Instruction {
     // 记录来源于哪个 Alloca (仅用于 Mem2Reg 阶段，后续可清空)
     private AllocateInstruction originalAlloca;
 
-    // incoming values 和 incoming blocks 成对出现
-    private ArrayList<IrValue> values = new ArrayList<>();
+    // incoming values（即操作数列表）和 incoming blocks 成对出现
     private ArrayList<IrBasicBlock> blocks = new ArrayList<>();
 
     public PhiInstr(IrType type, IrBasicBlock parent) {
-        super(ValueType.PHI_INST, type, IrBuilder.GetPhiName(), InstructionType.PHI);
+        super(ValueType.PHI_INST, type, null, InstructionType.PHI);
+    }
+
+    @Override
+    protected String getNamePrefix() {
+        return "%phi_";
     }
 
     public void setOriginalAlloca(AllocateInstruction alloca) {
@@ -38,13 +42,23 @@ public class PhiInstr extends Instruction {
      * @param block 来源的基本块
      */
     public void addIncoming(IrValue value, IrBasicBlock block) {
-        this.values.add(value);
+        this.AddUseValue(value);
         this.blocks.add(block);
-        // 维护 Use 关系
     }
 
-    public ArrayList<IrValue> getIncomingValues() {
-        return values;
+    public void setIncomingValue(int index, IrValue value) {
+        this.setOperand(index, value);
+    }
+
+    // 删除第 index 个分支来源
+    public void removeIncoming(int index) {
+        this.removeOperand(index);
+        this.blocks.remove(index);
+    }
+
+    // 只读视图，修改请使用 setIncomingValue / removeIncoming
+    public List<IrValue> getIncomingValues() {
+        return this.getUseValues();
     }
 
     public ArrayList<IrBasicBlock> getIncomingBlocks() {
@@ -54,20 +68,11 @@ public class PhiInstr extends Instruction {
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        sb.append(irName).append(" = phi ").append(irType).append(" ");
-        for (int i = 0; i < values.size(); i++) {
-            sb.append("[ ").append(values.get(i).irName).append(", %").append(blocks.get(i).irName.substring(1)).append(" ]");
-            if (i < values.size() - 1) sb.append(", ");
+        sb.append(getIrName()).append(" = phi ").append(irType).append(" ");
+        for (int i = 0; i < getNumOperands(); i++) {
+            sb.append("[ ").append(getOperand(i).getIrName()).append(", %").append(blocks.get(i).getIrName().substring(1)).append(" ]");
+            if (i < getNumOperands() - 1) sb.append(", ");
         }
         return sb.toString();
     }
-
-    @Override
-    public void replaceUse(IrValue oldVal, IrValue newVal) {
-        for (int i = 0; i < values.size(); i++) {
-            if (values.get(i) == oldVal) {
-                values.set(i, newVal);
-            }
-        }
-    }
 }
\ No newline at end of file
@@ -3,13 +3,28 @@ package midend.Symbol;
 import frontend.Parser.Decl.ConstDef;
 import frontend.Parser.Decl.VarDef;
 import frontend.Parser.FuncDef.FuncDef;
+import midend.CompilationContext;
 
 import java.util.ArrayList;
 
 public class GlobalSymbolTable {
-    private static final SymbolTable globalSymbolTable = new SymbolTable(1, OutSymbolTable.getOutSymbolTable());
-    private static SymbolTable localSymbolTable = globalSymbolTable;
-    private static int scopeDepth = 1;
+    /**
+     * 一次编译的符号表状态，由 CompilationContext 持有
+     */
+    public static final class State {
+        private final SymbolTable globalSymbolTable;
+        private SymbolTable localSymbolTable;
+        private int scopeDepth = 1;
+
+        public State(SymbolTable outSymbolTable) {
+            this.globalSymbolTable = new SymbolTable(1, outSymbolTable);
+            this.localSymbolTable = globalSymbolTable;
+        }
+    }
+
+    private static State state() {
+        return CompilationContext.current().getSymbolState();
+    }
 
     /**
      * 作用域序号加一（只表示创建顺序并非深度）
@@ -17,34 +32,35 @@ public class GlobalSymbolTable {
      * @return 当前作用域序号
      */
     public static int addScopeDepth() {
-        scopeDepth += 1;
-        return scopeDepth;
+        return ++state().scopeDepth;
     }
 
     public static SymbolTable getGlobalSymbolTable() {
-        return globalSymbolTable;
+        return state().globalSymbolTable;
     }
 
     public static SymbolTable getLocalSymbolTable() {
-        return localSymbolTable;
+        return state().localSymbolTable;
     }
 
     public static void setLocalSymbolTable(SymbolTable symbolTable) {
-        localSymbolTable = symbolTable;
+        state().localSymbolTable = symbolTable;
     }
 
     /**
      * 进入子符号表
      */
     public static void enterSonSymbolTable() {
-        localSymbolTable = localSymbolTable.GetNextSonTable();
+        State state = state();
+        state.localSymbolTable = state.localSymbolTable.GetNextSonTable();
     }
 
     /**
      * 回到父级作用域
      */
     public static void GoToFatherSymbolTable() {
-        localSymbolTable = localSymbolTable.getFatherTable();
+        State state = state();
+        state.localSymbolTable = state.localSymbolTable.getFatherTable();
     }
 
     public static boolean symbolIsArray(SymbolType symbolType) {
@@ -62,7 +78,7 @@ public class GlobalSymbolTable {
             symbol.setSize(constDef.GetArraySize());
         }
         symbol.setInitValues(constDef.GetInitValues());
-        localSymbolTable.AddSymbol(symbol);
+        state().localSymbolTable.AddSymbol(symbol);
     }
 
     public static void addVarDef(VarDef varDef, boolean isStatic) {
@@ -81,7 +97,7 @@ public class GlobalSymbolTable {
             symbol.setSize(varDef.GetArraySize());
         }
         symbol.setInitValues(varDef.GetInitValues());
-        localSymbolTable.AddSymbol(symbol);
+        state().localSymbolTable.AddSymbol(symbol);
     }
 
     public static void addFuncDef(FuncDef funcDef, ArrayList<Symbol> funcParamList) {
@@ -90,12 +106,12 @@ public class GlobalSymbolTable {
         int line = funcDef.GetLineNumber();
         Symbol symbol = new Symbol(Ident, symbolType, line);
         symbol.setFuncParamList(funcParamList);
-        localSymbolTable.AddSymbol(symbol);
+        state().localSymbolTable.AddSymbol(symbol);
     }
 
     public static Symbol searchSymbolByIdent(String ident, int useLine) {
         if (ident != null) {
-            SymbolTable currentSymbolTable = localSymbolTable;
+            SymbolTable currentSymbolTable = state().localSymbolTable;
             while (currentSymbolTable != null) {
                 Symbol currentSymbol = currentSymbolTable.getSymbolByIdent(ident);
                 if (currentSymbol == null) {
@@ -113,6 +129,6 @@ public class GlobalSymbolTable {
     }
 
     public static boolean isGlobalSymbol(Symbol constSymbol) {
-        return globalSymbolTable.containsSymbol(constSymbol);
+        return state().globalSymbolTable.containsSymbol(constSymbol);
     }
 }
@@ -1,12 +1,12 @@
 package midend.Symbol;
 
-public class OutSymbolTable {
-    private static final SymbolTable symbolTable=new SymbolTable(0,null);
+import midend.CompilationContext;
 
+public class OutSymbolTable {
     public static SymbolTable getOutSymbolTable() {
-        return symbolTable;
+        return CompilationContext.current().getOutSymbolTable();
     }
     public static void addSymbol(Symbol symbol){
-        symbolTable.AddSymbol(symbol);
+        getOutSymbolTable().AddSymbol(symbol);
     }
 }
@@ -42,10 +42,10 @@ public class VisitorConstDef {
                 // 数组
                 for (int i = 0; i < size; i++) {
                     //生成Gep指令计算偏移量
-                    GepInstr gepInstr = IrBuilder.GetNewGepInstr(allocateInstruction, new IrConstInt(i));
+                    GepInstr gepInstr = IrBuilder.GetNewGepInstr(allocateInstruction, IrBuilder.GetNewIrConstInt(i));
 
                     //获取初始值
-                    IrValue initValue = new IrConstInt(initValues.get(i));
+                    IrValue initValue = IrBuilder.GetNewIrConstInt(initValues.get(i));
 
                     StoreInstr storeInstr = IrBuilder.GetNewStoreInstrByValueAndAddress(initValue, gepInstr);
                 }
@@ -64,12 +64,12 @@ public class VisitorVarDef {
                         Exp exp = exps.get(i);
                         IrValue irExp = VisitorExp.LLVMVisitExp(exp);
                         irExp = IrType.convertValueToType(irExp, IrType.INT32);
-                        GepInstr gepInstr = IrBuilder.GetNewGepInstr(allocateInstruction, new IrConstInt(i));
+                        GepInstr gepInstr = IrBuilder.GetNewGepInstr(allocateInstruction, IrBuilder.GetNewIrConstInt(i));
                         StoreInstr storeInstr = IrBuilder.GetNewStoreInstrByValueAndAddress(irExp, gepInstr);
                     }
                     for (int i = exps.size(); i < varSymbol.getSize(); i++) {
-                        GepInstr gepInstr = IrBuilder.GetNewGepInstr(allocateInstruction, new IrConstInt(i));
-                        StoreInstr storeInstr = IrBuilder.GetNewStoreInstrByValueAndAddress(new IrConstInt(0), gepInstr);
+                        GepInstr gepInstr = IrBuilder.GetNewGepInstr(allocateInstruction, IrBuilder.GetNewIrConstInt(i));
+                        StoreInstr storeInstr = IrBuilder.GetNewStoreInstrByValueAndAddress(IrBuilder.GetNewIrConstInt(0), gepInstr);
                     }
                 }
                 varSymbol.setIrValue(allocateInstruction);
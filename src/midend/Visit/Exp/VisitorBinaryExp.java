@@ -0,0 +1,98 @@
+package midend.Visit.Exp;
+
+import frontend.Parser.Exp.BinaryExp;
+import frontend.Parser.Exp.UnaryExp;
+import frontend.Parser.Tree.Node;
+import frontend.Token;
+import midend.LLVM.Const.IrConstInt;
+import midend.LLVM.Instruction.AluOpcode;
+import midend.LLVM.Instruction.CmpPredicate;
+import midend.LLVM.IrBuilder;
+import midend.LLVM.Type.IrType;
+import midend.LLVM.value.IrBasicBlock;
+import midend.LLVM.value.IrValue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+public class VisitorBinaryExp {
+    public static void VisitBinaryExp(Node exp) {
+        // 按从左到右的顺序访问各个操作数
+        if (exp instanceof BinaryExp binaryExp) {
+            VisitBinaryExp(binaryExp.GetLeft());
+            VisitBinaryExp(binaryExp.GetRight());
+        } else {
+            VisitorUnaryExp.VisitUnaryExp((UnaryExp) exp);
+        }
+    }
+
+    public static IrValue LLVMVisitBinaryExp(Node exp) {
+        if (!(exp instanceof BinaryExp binaryExp)) {
+            return VisitorUnaryExp.LLVMVisitUnaryExp((UnaryExp) exp);
+        }
+        if (binaryExp.IsLogical()) {
+            throw new RuntimeException("Logical expression must be visited as a condition");
+        }
+        IrValue leftValue = LLVMVisitBinaryExp(binaryExp.GetLeft());
+        IrValue rightValue = LLVMVisitBinaryExp(binaryExp.GetRight());
+
+        leftValue = IrType.convertValueToType(leftValue, IrType.INT32);
+        rightValue = IrType.convertValueToType(rightValue, IrType.INT32);
+
+        String op = binaryExp.GetOpToken().getLexeme();
+        return switch (binaryExp.GetOp()) {
+            case PLUS, MINU, MULT, DIV, MOD -> IrBuilder.GetNewAluInst(AluOpcode.fromSymbol(op), leftValue, rightValue);
+            default -> IrBuilder.GetNewCmpInstr(CmpPredicate.fromSymbol(op), leftValue, rightValue);
+        };
+    }
+
+    /**
+     * 条件表达式：生成短路求值的跳转
+     * @param ifBlock      条件为真要跳转的基本块
+     * @param afterIfBlock 条件为假要跳转的基本块
+     */
+    public static void LLVMVisitCondExp(Node exp, IrBasicBlock ifBlock, IrBasicBlock afterIfBlock) {
+        // LOrExp → LAndExp { '||' LAndExp }
+        ArrayList<Node> lAndExps = flatten(exp, Token.TokenType.OR);
+        for (int i = 0; i < lAndExps.size() - 1; i++) {
+            IrBasicBlock nextOrBlock = IrBuilder.GetNewBasicBlockIr();
+            LLVMVisitLAndExp(lAndExps.get(i), ifBlock, nextOrBlock);
+            IrBuilder.SetCurrentBasicBlock(nextOrBlock);
+        }
+        LLVMVisitLAndExp(lAndExps.get(lAndExps.size() - 1), ifBlock, afterIfBlock);
+    }
+
+    private static void LLVMVisitLAndExp(Node exp, IrBasicBlock ifBlock, IrBasicBlock nextOrBlock) {
+        // LAndExp → EqExp { '&&' EqExp }
+        ArrayList<Node> eqExps = flatten(exp, Token.TokenType.AND);
+        for (int i = 0; i < eqExps.size() - 1; i++) {
+            IrBasicBlock nextEqBlock = IrBuilder.GetNewBasicBlockIr();// 下一个EqExp的基本块
+            IrValue eqValue = LLVMVisitEqExp(eqExps.get(i));
+
+            // 短路与：eqValue为真跳转到下一个EqExp的基本块，否则跳转到整个LAndExp的下一个基本块
+            IrBuilder.GetNewBranchInstr(eqValue, nextEqBlock, nextOrBlock);
+            IrBuilder.SetCurrentBasicBlock(nextEqBlock);
+        }
+        IrValue eqValue = LLVMVisitEqExp(eqExps.get(eqExps.size() - 1));
+        IrBuilder.GetNewBranchInstr(eqValue, ifBlock, nextOrBlock);
+    }
+
+    private static IrValue LLVMVisitEqExp(Node exp) {
+        IrValue value = LLVMVisitBinaryExp(exp);
+        value = IrType.convertValueToType(value, IrType.INT32);
+        return IrBuilder.GetNewCmpInstr(CmpPredicate.NE, value, IrBuilder.GetNewIrConstInt(0));
+    }
+
+    // 左结合的同一逻辑运算链展开为操作数列表
+    private static ArrayList<Node> flatten(Node exp, Token.TokenType op) {
+        ArrayList<Node> operands = new ArrayList<>();
+        Node current = exp;
+        while (current instanceof BinaryExp binaryExp && binaryExp.GetOp() == op) {
+            operands.add(binaryExp.GetRight());
+            current = binaryExp.GetLeft();
+        }
+        operands.add(current);
+        Collections.reverse(operands);
+        return operands;
+    }
+}
@@ -6,13 +6,13 @@ import midend.LLVM.value.IrValue;
 public class VisitorExp {
     public static void VisitExp(Exp exp) {
         if(exp!=null) {
-            VisitorAddExp.VisitAddExp(exp.GetChildAsAddExp());
+            VisitorBinaryExp.VisitBinaryExp(exp.GetChildAsExpNode());
         }
     }
 
     public static IrValue LLVMVisitExp(Exp exp) {
         if(exp!=null) {
-            return VisitorAddExp.LLVMVisitAddExp(exp.GetChildAsAddExp());
+            return VisitorBinaryExp.LLVMVisitBinaryExp(exp.GetChildAsExpNode());
         }
         return null;
     }
@@ -2,6 +2,7 @@ package midend.Visit.Exp;
 
 import frontend.Parser.Exp.PrimaryExp;
 import midend.LLVM.Const.IrConstInt;
+import midend.LLVM.IrBuilder;
 import midend.LLVM.value.IrValue;
 import midend.Visit.Stmt.VisitorLVal;
 
@@ -36,7 +37,7 @@ public class VisitorPrimaryExp {
                 return VisitorLVal.LLVMVisitLVal(primaryExp.GetChildAsLVal(), false);
             } else {
                 // Number
-                return new IrConstInt(primaryExp.GetChildAsNumber());
+                return IrBuilder.GetNewIrConstInt(primaryExp.GetChildAsNumber());
             }
         }
         return null;
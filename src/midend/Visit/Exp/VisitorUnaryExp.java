@@ -3,7 +3,9 @@ package midend.Visit.Exp;
 import frontend.Error;
 import frontend.Parser.Exp.UnaryExp;
 import midend.LLVM.Const.IrConstInt;
+import midend.LLVM.Instruction.AluOpcode;
 import midend.LLVM.Instruction.CmpInstr;
+import midend.LLVM.Instruction.CmpPredicate;
 import midend.LLVM.IrBuilder;
 import midend.LLVM.Type.IrType;
 import midend.LLVM.value.IrValue;
@@ -82,11 +84,11 @@ public class VisitorUnaryExp {
         if (op.equals("+")) {
             return ret;
         } else if (op.equals("-")) {
-            IrConstInt zero = new IrConstInt(0);
-            return IrBuilder.GetNewAluInst(op, zero, ret);
+            IrConstInt zero = IrBuilder.GetNewIrConstInt(0);
+            return IrBuilder.GetNewAluInst(AluOpcode.SUB, zero, ret);
         } else if (op.equals("!")) {
             ret = IrType.convertValueToType(ret, IrType.INT32);
-            CmpInstr cmpInstr = IrBuilder.GetNewCmpInstr("==", new IrConstInt(0), ret);
+            CmpInstr cmpInstr = IrBuilder.GetNewCmpInstr(CmpPredicate.EQ, IrBuilder.GetNewIrConstInt(0), ret);
             return IrBuilder.GetNewZextInstr(cmpInstr, IrType.INT32);
         } else {
             throw new RuntimeException("Unknown op: " + op);
@@ -98,7 +98,7 @@ public class VisitorFuncDef {
         boolean lastIsReturn = IrBuilder.getCurrentBasicBlock().isLastInstrReturn();
         if (isHasReturn && !lastIsReturn) {
             //需要返回值但无返回语句，补充return 0
-            ReturnInstr returnInstr = IrBuilder.GetNewReturnInstr(new IrConstInt(0));
+            ReturnInstr returnInstr = IrBuilder.GetNewReturnInstr(IrBuilder.GetNewIrConstInt(0));
         } else if (!isHasReturn && !lastIsReturn) {
             //无返回值函数，补充return
             ReturnInstr returnInstr = IrBuilder.GetNewReturnInstr(null);
@@ -89,7 +89,7 @@ public class VisitorLVal {
 
                 //数组下标为空时，表示指针
                 if (exp == null) {
-                    return IrBuilder.GetNewGepInstr(irValue, new IrConstInt(0));
+                    return IrBuilder.GetNewGepInstr(irValue, IrBuilder.GetNewIrConstInt(0));
                 }
 
                 //计算偏移